@@ -1,7 +1,20 @@
 package app;
 
+import cluster.GameRouter;
+import cluster.GameWorker;
 import core.CommandLineInterface;
 import core.GameManager;
+import metrics.ManagementRegistry;
+import metrics.PrometheusEndpoint;
+import protocol.EngineProtocol;
+import server.BinaryGameServer;
+import server.GameServer;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
 
 import java.util.Map;
 import java.util.logging.Level;
@@ -9,9 +22,69 @@ import java.util.logging.Logger;
 
 public class Main {
     private static final Logger LOGGER = Logger.getLogger(Main.class.getName());
+    private static final int DEFAULT_SERVER_PORT = 8080;
+    private static final int DEFAULT_BINARY_PORT = 8081;
+    private static final int DEFAULT_WORKERS = 2;
     private static boolean playAgain = true;
 
     public static void main(String[] args) {
+        PrometheusEndpoint metricsEndpoint = startMetricsEndpoint();
+        try {
+            dispatch(args);
+        } finally {
+            if (metricsEndpoint != null) {
+                metricsEndpoint.close();
+            }
+        }
+    }
+
+    /**
+     * Starts the Prometheus endpoint when -Dmemorygame.metrics.port is set, whatever the mode.
+     * @return The running endpoint, or null if no port is set or it cannot be bound.
+     */
+    private static PrometheusEndpoint startMetricsEndpoint() {
+        Integer metricsPort = Integer.getInteger("memorygame.metrics.port");
+        if (metricsPort == null) {
+            return null;
+        }
+        try {
+            return PrometheusEndpoint.start(metricsPort);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "The metrics endpoint could not start", e);
+            return null;
+        }
+    }
+
+    /**
+     * Runs the mode chosen by the first argument, or the interactive game.
+     * @param args The command-line arguments.
+     */
+    private static void dispatch(String[] args) {
+        if (args.length > 0 && args[0].equals("--train")) {
+            StartupTraining.run();  // Training run for the class-data-sharing archive
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--engine")) {
+            runEngine();
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--serve")) {
+            serve(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SERVER_PORT);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--serve-binary")) {
+            serveBinary(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_BINARY_PORT);
+            return;
+        }
+        if (args.length > 1 && args[0].equals("--worker")) {
+            runWorker(Path.of(args[1]));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--route")) {
+            route(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_WORKERS,
+                    args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_SERVER_PORT);
+            return;
+        }
         LOGGER.info("Welcome to the Memory Card Game!");
         try {
             CommandLineInterface cli = new CommandLineInterface();
@@ -42,6 +115,85 @@ public class Main {
         }
     }
 
+    /**
+     * Runs the engine protocol on standard input and output for an external controller. Anything
+     * else the game prints is sent to standard error, so it cannot corrupt the protocol stream.
+     */
+    private static void runEngine() {
+        System.setOut(System.err);
+        try {
+            new EngineProtocol(new FileInputStream(FileDescriptor.in), new FileOutputStream(FileDescriptor.out)).run();
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "The engine protocol stream failed", e);
+        }
+    }
+
+    /**
+     * Runs the HTTP game server until the process is stopped. Request handler threads are set
+     * with -Dmemorygame.server.threads (default four per processor).
+     * @param port The port to listen on.
+     */
+    private static void serve(int port) {
+        int threads = Integer.getInteger("memorygame.server.threads", 4 * Runtime.getRuntime().availableProcessors());
+        try {
+            GameServer.start(port, threads);
+            Thread.currentThread().join();  // The server's threads are daemons
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "The game server could not start", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs the binary game server until the process is stopped. Event loop threads are set
+     * with -Dmemorygame.server.loops (default one per processor).
+     * @param port The port to listen on.
+     */
+    private static void serveBinary(int port) {
+        int loops = Integer.getInteger("memorygame.server.loops", Runtime.getRuntime().availableProcessors());
+        try {
+            BinaryGameServer.start(port, loops);
+            Thread.currentThread().join();  // The server's threads are daemons
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "The binary game server could not start", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs a game worker for a router that started this process, until the router goes away.
+     * @param socket The worker's Unix domain socket.
+     */
+    private static void runWorker(Path socket) {
+        try {
+            GameWorker.run(socket);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "The game worker failed", e);
+        }
+    }
+
+    /**
+     * Runs the HTTP game server with its games spread over worker processes until the process
+     * is stopped. With -Dmemorygame.jmx=true the router's MBean can add and drain workers.
+     * @param workers The number of worker processes to start.
+     * @param port The port to listen on.
+     */
+    private static void route(int workers, int port) {
+        int threads = Integer.getInteger("memorygame.server.threads", 4 * Runtime.getRuntime().availableProcessors());
+        try {
+            GameRouter router = GameRouter.start(workers);
+            ManagementRegistry.registerRouter(router);
+            GameServer.start(port, threads, router);
+            Thread.currentThread().join();  // The server's threads are daemons; the workers exit with this process
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "The game router could not start", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
      * Prompts the user for game setup settings such as number of players, board size, and difficulty level.
      * For Dibagin purposes, hardcoded settings are used.
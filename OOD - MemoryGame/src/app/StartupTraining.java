@@ -0,0 +1,70 @@
+package app;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.LogManager;
+
+import core.CommandLineInterface;
+import core.GameManager;
+import patterns.builders.GameBuilder;
+import ui.ConsoleInput;
+
+/**
+ * StartupTraining is the training run for the class-data-sharing archive.
+ * It walks through the code a normal session loads — the setup prompts, the title screen,
+ * a round through the GameManager and headless games of every difficulty and board size —
+ * with scripted input and all output discarded, so the JVM can record the loaded classes.
+ *
+ * Started with "app.Main --train" under -XX:ArchiveClassesAtExit.
+ */
+public final class StartupTraining {
+    private static final String[] BOARD_SIZES = {"Small", "Medium", "Large"};
+    private static final int ENTER_KEYS = 64;
+
+    private StartupTraining() {
+    }
+
+    /**
+     * Runs the training workload.
+     */
+    public static void run() {
+        LogManager.getLogManager().reset();
+        PrintStream console = System.out;
+        ConsoleInput.setInput(scriptedInput());
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            CommandLineInterface cli = new CommandLineInterface();
+            cli.promptForGameSetup();
+
+            GameManager gameManager = GameManager.getInstance();
+            for (int numPlayers = 0; numPlayers <= 2; numPlayers++) {
+                gameManager.setupGame(numPlayers, "Small", 1);
+                gameManager.resetGame();
+            }
+
+            for (int difficulty = 1; difficulty <= 3; difficulty++) {
+                for (String size : BOARD_SIZES) {
+                    new GameBuilder().setBoardSize(size).setDifficulty(difficulty)
+                            .setSeed(difficulty).setHeadless(true).build().startGame();
+                }
+            }
+        } finally {
+            System.setOut(console);
+            ConsoleInput.close();
+        }
+    }
+
+    /**
+     * Builds the answers to the setup prompts followed by enough Enter keys for the prompts after them.
+     * @return The scripted console input.
+     */
+    private static ByteArrayInputStream scriptedInput() {
+        StringBuilder script = new StringBuilder("0\nSmall\n1\n");
+        for (int i = 0; i < ENTER_KEYS; i++) {
+            script.append('\n');
+        }
+        return new ByteArrayInputStream(script.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,277 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.LogManager;
+
+import core.Game;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import model.Board;
+import model.Card;
+import model.ComputerPlayer;
+import patterns.builders.GameBuilder;
+import patterns.command.FlipCommand;
+import patterns.observer.UIObserver;
+import patterns.strategy.difficulty.DifficultyStrategy;
+
+/**
+ * AllocationBudgetSuite measures the bytes allocated per bot turn, flip, render and AI decision
+ * for every difficulty and board size, and fails when an operation exceeds its budget.
+ * It also reports the top allocating call paths below Game.processGameTurn from a JFR
+ * allocation-sample recording.
+ *
+ * Run with: java bench.AllocationBudgetSuite
+ * The process exits with status 1 when a budget is exceeded.
+ */
+public class AllocationBudgetSuite {
+    private static final String[] BOARD_SIZES = {"Small", "Medium", "Large"};
+    private static final int[] DIFFICULTIES = {1, 2, 3};
+    private static final int GAMES_PER_CONFIG = 20;
+    private static final int SAMPLES_PER_OP = 2_000;
+    private static final int TOP_PATHS = 10;
+
+    /**
+     * Operations with a declared allocation budget.
+     */
+    enum Operation { BOT_TURN, FLIP, RENDER, AI_DECISION }
+
+    /**
+     * An allocation budget of a fixed part plus a part that grows with the number of cards.
+     */
+    static final class Budget {
+        final long baseBytes;
+        final long bytesPerCard;
+
+        Budget(long baseBytes, long bytesPerCard) {
+            this.baseBytes = baseBytes;
+            this.bytesPerCard = bytesPerCard;
+        }
+
+        long limit(int cardCount) {
+            return baseBytes + bytesPerCard * cardCount;
+        }
+    }
+
+    private static final Map<Operation, Budget> BUDGETS = new EnumMap<>(Operation.class);
+
+    // Each budget is about a quarter above the highest difficulty measured on a Small (26 cards),
+    // Medium (52) and Large (104) board, on JDK 17 with the Serial GC.
+    static {
+        BUDGETS.put(Operation.BOT_TURN, new Budget(1_100, 66));  // Measured 2231 / 3545 / 6293 bytes
+        BUDGETS.put(Operation.FLIP, new Budget(50, 0));  // Measured 40 bytes on every board
+        BUDGETS.put(Operation.RENDER, new Budget(720, 62));  // Measured 1872 / 3168 / 5760 bytes
+        BUDGETS.put(Operation.AI_DECISION, new Budget(0, 53));  // Measured 920 / 2056 / 4360 bytes
+    }
+
+    public static void main(String[] args) throws IOException {
+        LogManager.getLogManager().reset();  // Keep the report readable
+        if (!AllocationMeter.isSupported()) {
+            System.out.println("Per-thread allocation measurement is not supported by this JVM.");
+            System.exit(2);
+        }
+
+        warmUp();
+        List<String> failures = new ArrayList<>();
+        System.out.printf("%-10s %-7s %-12s %12s %12s%n", "difficulty", "board", "operation", "bytes/op", "budget");
+        for (int difficulty : DIFFICULTIES) {
+            for (String size : BOARD_SIZES) {
+                Map<Operation, Long> measured = measure(difficulty, size);
+                int cardCount = newGame(difficulty, size, 0).getBoard().getCardCount();
+                for (Map.Entry<Operation, Long> entry : measured.entrySet()) {
+                    long limit = BUDGETS.get(entry.getKey()).limit(cardCount);
+                    boolean over = entry.getValue() > limit;
+                    System.out.printf("%-10d %-7s %-12s %12d %12d%s%n", difficulty, size, entry.getKey(),
+                            entry.getValue(), limit, over ? "  OVER BUDGET" : "");
+                    if (over) {
+                        failures.add(entry.getKey() + " difficulty=" + difficulty + " board=" + size);
+                    }
+                }
+            }
+        }
+
+        System.out.println();
+        reportTopPaths();
+
+        if (!failures.isEmpty()) {
+            System.out.println();
+            System.out.println("Allocation budgets exceeded:");
+            failures.forEach(f -> System.out.println("  " + f));
+            System.exit(1);
+        }
+        System.out.println();
+        System.out.println("All allocation budgets met.");
+    }
+
+    /**
+     * Runs every configuration once so measurements are taken from compiled code.
+     */
+    private static void warmUp() {
+        for (int round = 0; round < 3; round++) {
+            for (int difficulty : DIFFICULTIES) {
+                for (String size : BOARD_SIZES) {
+                    measure(difficulty, size);
+                }
+            }
+        }
+    }
+
+    /**
+     * Measures the bytes per operation for one configuration.
+     * @param difficulty The computer difficulty.
+     * @param size The board size.
+     * @return Bytes allocated per operation.
+     */
+    private static Map<Operation, Long> measure(int difficulty, String size) {
+        Map<Operation, Long> result = new EnumMap<>(Operation.class);
+        result.put(Operation.BOT_TURN, bytesPerBotTurn(difficulty, size));
+        Game game = newGame(difficulty, size, 7);
+        result.put(Operation.FLIP, bytesPerFlip(game.getBoard()));
+        result.put(Operation.RENDER, bytesPerRender(game));
+        result.put(Operation.AI_DECISION, bytesPerAiDecision(game));
+        return result;
+    }
+
+    private static long bytesPerBotTurn(int difficulty, String size) {
+        long bytes = 0;
+        long turns = 0;
+        for (int i = 0; i < GAMES_PER_CONFIG; i++) {
+            Game game = newGame(difficulty, size, i);
+            long before = AllocationMeter.allocatedBytes();
+            while (!game.isGameOver()) {
+                game.processGameTurn();
+                turns++;
+            }
+            bytes += AllocationMeter.allocatedBytes() - before;
+        }
+        return bytes / Math.max(1, turns);
+    }
+
+    private static long bytesPerFlip(Board board) {
+        Card card = board.getCardAt(0);
+        long before = AllocationMeter.allocatedBytes();
+        for (int i = 0; i < SAMPLES_PER_OP; i++) {
+            new FlipCommand(card).execute();
+        }
+        return (AllocationMeter.allocatedBytes() - before) / SAMPLES_PER_OP;
+    }
+
+    private static long bytesPerRender(Game game) {
+        UIObserver observer = new UIObserver(game.getGameUI(), game);
+        int samples = SAMPLES_PER_OP / 10;
+        long before = AllocationMeter.allocatedBytes();
+        for (int i = 0; i < samples; i++) {
+            observer.update();
+        }
+        return (AllocationMeter.allocatedBytes() - before) / samples;
+    }
+
+    private static long bytesPerAiDecision(Game game) {
+        // Play into the middle of the game so the strategies have memory to work with
+        int cardCount = game.getBoard().getCardCount();
+        while (!game.isGameOver() && game.getBoard().countUnmatched() > cardCount / 2) {
+            game.processGameTurn();
+        }
+        DifficultyStrategy strategy = ((ComputerPlayer) game.getPlayers().get(0)).getStrategy();
+        Board board = game.getBoard();
+        long before = AllocationMeter.allocatedBytes();
+        for (int i = 0; i < SAMPLES_PER_OP; i++) {
+            strategy.selectCards(board);
+        }
+        return (AllocationMeter.allocatedBytes() - before) / SAMPLES_PER_OP;
+    }
+
+    private static Game newGame(int difficulty, String size, long seed) {
+        return new GameBuilder().setNumPlayers(0).setBoardSize(size).setDifficulty(difficulty)
+                .setSeed(seed).setHeadless(true).build();
+    }
+
+    /**
+     * Records allocation samples while bot games run and prints the call paths below
+     * Game.processGameTurn that allocate the most. A game of each configuration is played
+     * under the recording first and its samples are left out, as JFR sets up the game's event
+     * classes once a recording is running, which would otherwise dominate the report.
+     */
+    private static void reportTopPaths() throws IOException {
+        Path file = Files.createTempFile("allocation-budget", ".jfr");
+        Instant measuredFrom;
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.ObjectAllocationSample").with("throttle", "1000000/s").withStackTrace();
+            recording.start();
+            for (int difficulty : DIFFICULTIES) {
+                for (String size : BOARD_SIZES) {
+                    Game game = newGame(difficulty, size, 0);  // Warm-up
+                    while (!game.isGameOver()) {
+                        game.processGameTurn();
+                    }
+                }
+            }
+            measuredFrom = Instant.now();
+            for (int difficulty : DIFFICULTIES) {
+                for (String size : BOARD_SIZES) {
+                    bytesPerBotTurn(difficulty, size);
+                }
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, Long> weightByPath = new HashMap<>();
+        long total = 0;
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if (!event.getEventType().getName().equals("jdk.ObjectAllocationSample")
+                    || event.getStartTime().isBefore(measuredFrom)) {
+                continue;
+            }
+            String path = pathBelowProcessGameTurn(event);
+            if (path != null) {
+                long weight = event.getLong("weight");
+                weightByPath.merge(path, weight, Long::sum);
+                total += weight;
+            }
+        }
+        Files.deleteIfExists(file);
+
+        System.out.println("Top allocating call paths in Game.processGameTurn (sampled):");
+        long grandTotal = Math.max(1, total);
+        weightByPath.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
+                .limit(TOP_PATHS)
+                .forEach(e -> System.out.printf("  %5.1f%%  %s%n", 100.0 * e.getValue() / grandTotal, e.getKey()));
+    }
+
+    /**
+     * Builds a compact call path from the allocation site up to Game.processGameTurn,
+     * keeping the allocated type and the game's own frames.
+     * @param event The allocation sample.
+     * @return The path, or null if the sample was not allocated under processGameTurn.
+     */
+    private static String pathBelowProcessGameTurn(RecordedEvent event) {
+        RecordedStackTrace stack = event.getStackTrace();
+        if (stack == null) {
+            return null;
+        }
+        StringBuilder path = new StringBuilder(event.getClass("objectClass").getName());
+        for (RecordedFrame frame : stack.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            String method = frame.getMethod().getName();
+            if (type.equals("core.Game") && method.equals("processGameTurn")) {
+                return path.toString();
+            }
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                path.append(" <- ").append(type).append('.').append(method);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,37 @@
+package bench;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * AllocationMeter reads the bytes allocated by the current thread through
+ * com.sun.management.ThreadMXBean.
+ */
+public final class AllocationMeter {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    static {
+        if (THREADS.isThreadAllocatedMemorySupported() && !THREADS.isThreadAllocatedMemoryEnabled()) {
+            THREADS.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    private AllocationMeter() {
+    }
+
+    /**
+     * Gets the total number of bytes allocated by the current thread so far.
+     * @return Allocated bytes.
+     */
+    public static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Checks whether the JVM can measure per-thread allocation.
+     * @return true if measurement is supported.
+     */
+    public static boolean isSupported() {
+        return THREADS.isThreadAllocatedMemorySupported();
+    }
+}
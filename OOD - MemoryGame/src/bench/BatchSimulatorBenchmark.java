@@ -0,0 +1,105 @@
+package bench;
+
+import java.util.Arrays;
+import java.util.logging.LogManager;
+
+import core.BatchSimulator;
+import core.Game;
+import patterns.builders.GameBuilder;
+import patterns.strategy.match.ColorMatchStrategy;
+import patterns.strategy.match.FullMatchStrategy;
+import patterns.strategy.match.MatchStrategy;
+import patterns.strategy.match.SymbolMatchStrategy;
+
+/**
+ * BatchSimulatorBenchmark plays the same seeded computer-against-computer games with the scalar
+ * engine (headless Game objects) and with the BatchSimulator, checks that every game ends with
+ * the same scores and turn count, and compares their throughput in games per second.
+ *
+ * Run with: java bench.BatchSimulatorBenchmark [games] [boardSize]
+ * The process exits with status 1 when any game differs.
+ */
+public class BatchSimulatorBenchmark {
+    private static final int DEFAULT_GAMES = 4_096;
+    private static final int[] DIFFICULTIES = {1, 2, 3};
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        String size = args.length > 1 ? args[1] : "Medium";
+        LogManager.getLogManager().reset();
+        long[] seeds = new long[games];
+        for (int i = 0; i < games; i++) {
+            seeds[i] = i * 7919L + 1;
+        }
+
+        int mismatches = 0;
+        MatchStrategy[] strategies = {new FullMatchStrategy(), new ColorMatchStrategy(), new SymbolMatchStrategy()};
+        for (MatchStrategy strategy : strategies) {  // Same results under every match strategy
+            for (int difficulty : DIFFICULTIES) {
+                mismatches += compare(size, difficulty, strategy, seeds, Math.min(games, 256));
+            }
+        }
+        System.out.printf("Checked %d seeds per difficulty and match strategy: %s%n%n", Math.min(games, 256),
+                mismatches == 0 ? "all games identical" : mismatches + " games differ");
+
+        System.out.printf("%-10s %-7s %8s %14s %14s %9s%n", "difficulty", "board", "games",
+                "scalar games/s", "batch games/s", "speedup");
+        for (int difficulty : DIFFICULTIES) {
+            double scalar = 0;
+            double batch = 0;
+            for (int round = 0; round < ROUNDS; round++) {  // The last round is measured warm
+                scalar = scalarRate(size, difficulty, seeds);
+                batch = batchRate(size, difficulty, seeds);
+            }
+            System.out.printf("%-10d %-7s %8d %14.0f %14.0f %8.1fx%n", difficulty, size, games, scalar, batch, batch / scalar);
+        }
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Plays the first seeds with both engines and counts the games that end differently.
+     * @return The number of differing games.
+     */
+    private static int compare(String size, int difficulty, MatchStrategy strategy, long[] seeds, int count) {
+        long[] checked = Arrays.copyOf(seeds, count);
+        BatchSimulator batch = new BatchSimulator(size, difficulty, strategy, checked);
+        batch.run();
+        int mismatches = 0;
+        for (int g = 0; g < count; g++) {
+            Game game = scalarGame(size, difficulty, checked[g]).setMatchStrategy(strategy).build();
+            game.startGame();
+            int first = game.getPlayers().get(0).getScore();
+            int second = game.getPlayers().get(1).getScore();
+            long turns = game.getMetrics().getTurns();
+            if (first != batch.getScore(g, 0) || second != batch.getScore(g, 1) || turns != batch.getTurns(g)) {
+                if (mismatches++ < 5) {
+                    System.out.printf("Seed %d, difficulty %d, %s: scalar %d/%d in %d turns, batch %d/%d in %d turns%n",
+                            checked[g], difficulty, strategy.getClass().getSimpleName(), first, second, turns,
+                            batch.getScore(g, 0), batch.getScore(g, 1), batch.getTurns(g));
+                }
+            }
+        }
+        return mismatches;
+    }
+
+    private static double scalarRate(String size, int difficulty, long[] seeds) {
+        long start = System.nanoTime();
+        for (long seed : seeds) {
+            scalarGame(size, difficulty, seed).build().startGame();
+        }
+        return seeds.length * 1e9 / (System.nanoTime() - start);
+    }
+
+    private static double batchRate(String size, int difficulty, long[] seeds) {
+        long start = System.nanoTime();
+        new BatchSimulator(size, difficulty, new FullMatchStrategy(), seeds).run();
+        return seeds.length * 1e9 / (System.nanoTime() - start);
+    }
+
+    private static GameBuilder scalarGame(String size, int difficulty, long seed) {
+        return new GameBuilder().setBoardSize(size).setDifficulty(difficulty).setSeed(seed).setHeadless(true);
+    }
+}
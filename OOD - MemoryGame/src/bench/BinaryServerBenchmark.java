@@ -0,0 +1,242 @@
+package bench;
+
+import static server.BinaryProtocol.CREATE;
+import static server.BinaryProtocol.END;
+import static server.BinaryProtocol.ERROR;
+import static server.BinaryProtocol.FLIP;
+import static server.BinaryProtocol.GAME;
+import static server.BinaryProtocol.OVER;
+import static server.BinaryProtocol.STATE;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.logging.LogManager;
+
+import server.BinaryGameServer;
+
+/**
+ * BinaryServerBenchmark starts a BinaryGameServer on an ephemeral port and holds many client
+ * connections to it over localhost from one selector thread. The active connections each play
+ * several games at once, keeping one flip of each game in flight: a connection flips a random
+ * face-down card as soon as the game's STATE arrives, and ends and recreates games as they
+ * finish. The other connections stay open and idle, as players between moves would.
+ *
+ * It reports the connections held, the frames per second in both directions and the
+ * round-trip latency of a flip, computer turns included. With every game in flight the
+ * latency is the time to serve all of them once, so a few active connections show the
+ * latency of a single move and all of them the throughput.
+ *
+ * Run with: java bench.BinaryServerBenchmark [connections] [active] [gamesPerConnection] [seconds] [loops]
+ */
+public class BinaryServerBenchmark {
+    private static final int WARMUP_SECONDS = 3;
+    private static final int SAMPLES = 1 << 21;
+
+    private final SplittableRandom random = new SplittableRandom(43);
+    private final long[] latencies = new long[SAMPLES];
+    private int samples;
+    private long flips;
+    private long errors;
+    private long finished;
+
+    /**
+     * One client connection and its games.
+     */
+    private static final class Client {
+        final SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocate(64 * 1024);
+        final ByteBuffer out = ByteBuffer.allocate(64 * 1024);
+        final Map<Integer, ClientGame> games = new HashMap<>();
+
+        Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * What a client knows of one game.
+     */
+    private static final class ClientGame {
+        int cols;
+        byte[] faces;
+        long sentAt;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int active = args.length > 1 ? Integer.parseInt(args[1]) : connections;
+        int gamesPerConnection = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int loops = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        LogManager.getLogManager().reset();
+
+        try (BinaryGameServer server = BinaryGameServer.start(0, loops); Selector selector = Selector.open()) {
+            BinaryServerBenchmark benchmark = new BinaryServerBenchmark();
+            InetSocketAddress address = new InetSocketAddress("localhost", server.getPort());
+            long start = System.nanoTime();
+            for (int c = 0; c < connections; c++) {
+                SocketChannel channel = SocketChannel.open(address);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                channel.configureBlocking(false);
+                Client client = new Client(channel);
+                for (int g = 0; c < active && g < gamesPerConnection; g++) {
+                    create(client, benchmark.random.nextLong() | 1);
+                }
+                channel.register(selector, SelectionKey.OP_READ, client);
+                write(client);
+            }
+            System.out.printf("Connected %d clients in %.2f s%n", connections, (System.nanoTime() - start) / 1e9);
+
+            long warmupEnd = System.nanoTime() + WARMUP_SECONDS * 1_000_000_000L;
+            benchmark.run(selector, warmupEnd);
+            benchmark.samples = 0;
+            benchmark.flips = 0;
+            long received = server.getMessagesReceived();
+            long sent = server.getMessagesSent();
+            long measureStart = System.nanoTime();
+            benchmark.run(selector, measureStart + seconds * 1_000_000_000L);
+            double elapsed = (System.nanoTime() - measureStart) / 1e9;
+
+            System.out.printf("%d connections held, %d active with %d games each, %d event loops, for %d s%n",
+                    server.getConnectionCount(), Math.min(active, connections), gamesPerConnection, loops, seconds);
+            System.out.printf("  %.0f frames/s received, %.0f frames/s sent, %.0f flips/s, %d games finished, %d errors%n",
+                    (server.getMessagesReceived() - received) / elapsed, (server.getMessagesSent() - sent) / elapsed,
+                    benchmark.flips / elapsed, benchmark.finished, benchmark.errors);
+            long[] sorted = Arrays.copyOf(benchmark.latencies, Math.min(benchmark.samples, SAMPLES));
+            Arrays.sort(sorted);
+            System.out.printf("  flip round trip: p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms%n",
+                    quantile(sorted, 0.5) / 1e6, quantile(sorted, 0.9) / 1e6, quantile(sorted, 0.99) / 1e6,
+                    quantile(sorted, 0.999) / 1e6, quantile(sorted, 1.0) / 1e6);
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+        }
+    }
+
+    /**
+     * Serves the client connections until the deadline.
+     */
+    private void run(Selector selector, long deadline) throws IOException {
+        while (System.nanoTime() < deadline) {
+            selector.select(100);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                Client client = (Client) key.attachment();
+                if (key.isReadable()) {
+                    if (client.channel.read(client.in) < 0) {
+                        throw new IOException("The server closed a connection");
+                    }
+                    client.in.flip();
+                    while (client.in.remaining() >= 2 && client.in.remaining() >= 2 + (client.in.getShort(client.in.position()) & 0xFFFF)) {
+                        int end = client.in.position() + 2 + (client.in.getShort() & 0xFFFF);
+                        handle(client, client.in);
+                        client.in.position(end);
+                    }
+                    client.in.compact();
+                }
+                write(client);
+                key.interestOps(client.out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+            }
+        }
+    }
+
+    private void handle(Client client, ByteBuffer in) {
+        int type = in.get() & 0xFF;
+        int ref = in.getInt();
+        switch (type) {
+            case GAME -> {
+                ClientGame game = new ClientGame();
+                in.get();  // Rows
+                game.cols = in.get() & 0xFF;
+                client.games.put(ref, game);
+            }
+            case STATE -> {
+                ClientGame game = client.games.get(ref);
+                int turn = in.get() & 0xFF;
+                int players = in.get() & 0xFF;
+                in.position(in.position() + 4 * players);
+                int changes = in.getShort() & 0xFFFF;
+                if (game.faces == null) {
+                    game.faces = new byte[2 * changes];  // The first STATE lists every card
+                } else {
+                    long latency = System.nanoTime() - game.sentAt;
+                    if (samples < SAMPLES) {
+                        latencies[samples] = latency;
+                    }
+                    samples++;
+                }
+                for (int c = 0; c < changes; c++) {
+                    int index = in.getShort() & 0xFFFF;
+                    game.faces[2 * index] = in.get();
+                    game.faces[2 * index + 1] = in.get();
+                }
+                if (turn == OVER) {
+                    finished++;
+                    client.games.remove(ref);
+                    client.out.putShort((short) 5).put((byte) END).putInt(ref);
+                    create(client, random.nextLong() | 1);
+                } else {
+                    flip(client, ref, game);
+                }
+            }
+            case ERROR -> {
+                errors++;
+                ClientGame game = client.games.get(ref);
+                if (game != null) {
+                    flip(client, ref, game);
+                }
+            }
+            default -> {
+                // ENDED needs no answer
+            }
+        }
+    }
+
+    private void flip(Client client, int ref, ClientGame game) {
+        int faceDown = 0;
+        for (int i = 0; i < game.faces.length; i += 2) {
+            faceDown += game.faces[i] == '.' ? 1 : 0;
+        }
+        int pick = random.nextInt(faceDown);
+        int card = 0;
+        for (int i = 0; i < game.faces.length; i += 2) {
+            if (game.faces[i] == '.' && pick-- == 0) {
+                card = i / 2;
+                break;
+            }
+        }
+        client.out.putShort((short) 7).put((byte) FLIP).putInt(ref)
+                .put((byte) (card / game.cols)).put((byte) (card % game.cols));
+        game.sentAt = System.nanoTime();
+        flips++;
+    }
+
+    private static void create(Client client, long seed) {
+        client.out.putShort((short) 11).put((byte) CREATE).put((byte) 0).put((byte) 3).putLong(seed);
+    }
+
+    private static void write(Client client) throws IOException {
+        client.out.flip();
+        client.channel.write(client.out);
+        client.out.compact();
+    }
+
+    private static long quantile(long[] sorted, double q) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.max(0, Math.min(sorted.length - 1, (int) Math.ceil(q * sorted.length) - 1))];
+    }
+}
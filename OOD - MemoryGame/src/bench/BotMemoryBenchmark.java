@@ -0,0 +1,112 @@
+package bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.Arrays;
+import java.util.logging.LogManager;
+
+import core.Game;
+import patterns.builders.GameBuilder;
+
+/**
+ * BotMemoryBenchmark measures the Medium computer players that remember cards on their own
+ * (GameBuilder.setBotMemory). It plays seeded two-bot Large games for each memory capacity
+ * and reports the turns needed to clear the board, from Easy, which remembers nothing, to the
+ * board's memory of every card. Then it seats thousands of bots with a small memory on one
+ * large endless board and reports the retained heap per bot and the time per turn, which
+ * should not depend on how many bots there are. The heap per bot is the difference between the
+ * retained heap of that game and of the same game with two bots, each the median of ROUNDS
+ * measurements, over the bots added.
+ *
+ * Run with: java bench.BotMemoryBenchmark [games] [players] [boardPairs] [memory]
+ * The process exits with status 1 when the heap per bot is not positive, which means the
+ * measurement failed.
+ */
+public class BotMemoryBenchmark {
+    private static final int[] CAPACITIES = {1, 2, 4, 8, 16, 32, 104};
+    private static final long TURNS = 20_000;
+    private static final int ROUNDS = 5;
+    private static final int MIN_GCS = 3;
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 4_096;
+        int boardPairs = args.length > 2 ? Integer.parseInt(args[2]) : 1_300;
+        int memory = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+        LogManager.getLogManager().reset();
+
+        System.out.printf("%-12s %14s%n", "memory", "turns/game");
+        System.out.printf("%-12s %14.1f%n", "Easy", turnsPerGame(1, 0, games));
+        for (int capacity : CAPACITIES) {
+            System.out.printf("%-12s %14.1f%n", capacity + " cards", turnsPerGame(2, capacity, games));
+        }
+        System.out.printf("%-12s %14.1f%n", "board", turnsPerGame(2, 0, games));
+        System.out.println();
+
+        long perBot = (retained(players, boardPairs, memory) - retained(2, boardPairs, memory)) / (players - 2);
+        double few = microsPerTurn(build(2, boardPairs, memory));
+        double many = microsPerTurn(build(players, boardPairs, memory));
+        System.out.printf("%d Medium bots remembering %d cards of %d: %d bytes retained per bot%n",
+                players, memory, 2 * boardPairs, perBot);
+        System.out.printf("Time per turn: %.1f us with 2 bots, %.1f us with %d%n", few, many, players);
+        if (perBot <= 0) {
+            System.out.println("FAILED: the heap per bot is not positive; the heap readings are not reliable.");
+            System.exit(1);
+        }
+    }
+
+    private static double turnsPerGame(int difficulty, int memory, int games) {
+        long turns = 0;
+        for (int seed = 1; seed <= games; seed++) {
+            Game game = new GameBuilder().setBoardSize("Large").setDifficulty(difficulty).setBotMemory(memory)
+                    .setSeed(seed).setHeadless(true).build();
+            game.startGame();
+            turns += game.getMetrics().getTurns();
+        }
+        return (double) turns / games;
+    }
+
+    private static Game build(int players, int boardPairs, int memory) {
+        return new GameBuilder().setComputerPlayers(players).setBoardPairs(boardPairs).setDifficulty(2)
+                .setBotMemory(memory).setSeed(players).setHeadless(true).setEndless(TURNS, 0).build();
+    }
+
+    /**
+     * Measures the retained heap of a freshly built game.
+     * @return The median of ROUNDS measurements in bytes.
+     */
+    private static long retained(int players, int boardPairs, int memory) {
+        long[] readings = new long[ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = usedHeapAfterGc();
+            Game game = build(players, boardPairs, memory);
+            readings[round] = usedHeapAfterGc() - before;
+            Reference.reachabilityFence(game);
+        }
+        Arrays.sort(readings);
+        return readings[ROUNDS / 2];
+    }
+
+    private static double microsPerTurn(Game game) {
+        long start = System.nanoTime();
+        game.startGame();
+        return (System.nanoTime() - start) / 1e3 / game.getMetrics().getTurns();
+    }
+
+    /**
+     * Gets the used heap after requesting garbage collection at least MIN_GCS times and until it
+     * settles.
+     */
+    private static long usedHeapAfterGc() {
+        long previous = Long.MAX_VALUE;
+        long used = MEMORY.getHeapMemoryUsage().getUsed();
+        for (int i = 0; i < 10 && (i < MIN_GCS || used < previous); i++) {
+            previous = used;
+            System.gc();
+            used = MEMORY.getHeapMemoryUsage().getUsed();
+        }
+        return used;
+    }
+}
@@ -0,0 +1,164 @@
+package bench;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.LogManager;
+
+import cluster.GameRouter;
+
+/**
+ * ClusterHarness starts a GameRouter with several worker processes on this host and plays
+ * games through it from client threads until every game is over. Meanwhile it drains the
+ * first worker, adds a new one and moves a few games by hand, checking that each moved game
+ * resumes in the state it left.
+ *
+ * It reports the games on each worker before and after, the flips per second, the games moved
+ * and their mean move time. The process exits with status 1 if a request failed, a moved game
+ * changed or a game did not finish.
+ *
+ * Run with: java bench.ClusterHarness [workers] [games] [clients]
+ */
+public class ClusterHarness {
+    private static final int MANUAL_MOVES = 20;
+
+    private static final LongAdder flips = new LongAdder();
+    private static final List<String> failures = new CopyOnWriteArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        int workers = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        LogManager.getLogManager().reset();
+
+        long start = System.nanoTime();
+        try (GameRouter router = GameRouter.start(workers)) {
+            System.out.printf("Started %d workers in %.2f s%n", workers, (System.nanoTime() - start) / 1e9);
+            String[] ids = new String[games];
+            for (int g = 0; g < games; g++) {
+                ids[g] = router.create(Map.of("size", "Medium", "difficulty", "2", "seed", String.valueOf(g + 1)));
+            }
+            report("After creating " + games + " games", router);
+
+            AtomicInteger finished = new AtomicInteger();
+            Thread[] threads = new Thread[clients];
+            long playStart = System.nanoTime();
+            for (int c = 0; c < clients; c++) {
+                int share = c;
+                threads[c] = new Thread(() -> play(router, ids, share, clients, finished), "cluster-client-" + c);
+                threads[c].start();
+            }
+
+            Thread.sleep(500);
+            int drained = router.getWorkerIndices()[0];
+            int moved = router.drainWorker(drained);
+            report("Drained worker " + drained + ", moving " + moved + " games", router);
+            int added = router.addWorker();
+            report("Added worker " + added, router);
+            SplittableRandom random = new SplittableRandom(45);
+            int[] indices = router.getWorkerIndices();
+            for (int m = 0; m < MANUAL_MOVES; m++) {
+                String id = ids[random.nextInt(games)];
+                String before = router.state(id);
+                router.moveGame(id, indices[random.nextInt(indices.length)]);
+                String after = router.state(id);
+                if (!before.equals(after) && !concurrentlyPlayed(before, after)) {
+                    failures.add("Moving " + id + " changed it from " + before + " to " + after);
+                }
+            }
+
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            double elapsed = (System.nanoTime() - playStart) / 1e9;
+            report("After play", router);
+            long moves = router.getGamesMoved();
+            System.out.printf("%d flips in %.2f s (%.0f/s), %d of %d games finished%n",
+                    flips.sum(), elapsed, flips.sum() / elapsed, finished.get(), games);
+            System.out.printf("%d games moved, %.2f ms each on average%n",
+                    moves, moves == 0 ? 0 : router.getMoveLatency().getSumSeconds() * 1e3 / moves);
+            if (finished.get() != games) {
+                failures.add((games - finished.get()) + " games did not finish");
+            }
+        }
+        if (!failures.isEmpty()) {
+            failures.stream().limit(10).forEach(failure -> System.out.println("FAILED: " + failure));
+            System.exit(1);
+        }
+        System.out.println("Every game was played to the end across the moves.");
+    }
+
+    /**
+     * Flips random face-down cards of every shares-th game until they are all over.
+     */
+    private static void play(GameRouter router, String[] ids, int share, int shares, AtomicInteger finished) {
+        SplittableRandom random = new SplittableRandom(share);
+        boolean playing = true;
+        while (playing) {
+            playing = false;
+            for (int g = share; g < ids.length; g += shares) {
+                if (ids[g] == null) {
+                    continue;
+                }
+                try {
+                    String state = router.state(ids[g]);
+                    if (state.contains("\"over\":true")) {
+                        router.close(ids[g]);
+                        ids[g] = null;
+                        finished.incrementAndGet();
+                        continue;
+                    }
+                    playing = true;
+                    int cols = Integer.parseInt(field(state, "\"cols\":", ','));
+                    String board = field(state, "\"board\":\"", '"');
+                    int card = pickFaceDown(board, random);
+                    router.flip(ids[g], card / cols, card % cols);
+                    flips.increment();
+                } catch (RuntimeException e) {
+                    failures.add(ids[g] + ": " + e);
+                    ids[g] = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether a game was played by a client between the two states, rather than changed
+     * by its move: a move leaves the board the same or advances it.
+     */
+    private static boolean concurrentlyPlayed(String before, String after) {
+        String boardBefore = field(before, "\"board\":\"", '"');
+        String boardAfter = field(after, "\"board\":\"", '"');
+        int matchedBefore = boardBefore.split("--", -1).length;
+        int matchedAfter = boardAfter.split("--", -1).length;
+        return boardBefore.length() == boardAfter.length() && matchedAfter >= matchedBefore;
+    }
+
+    private static int pickFaceDown(String board, SplittableRandom random) {
+        int faceDown = 0;
+        for (int i = 0; i < board.length(); i += 2) {
+            faceDown += board.charAt(i) == '.' ? 1 : 0;
+        }
+        int pick = random.nextInt(faceDown);
+        for (int i = 0; i < board.length(); i += 2) {
+            if (board.charAt(i) == '.' && pick-- == 0) {
+                return i / 2;
+            }
+        }
+        throw new IllegalStateException("No face-down card");
+    }
+
+    private static void report(String label, GameRouter router) {
+        System.out.printf("%s: workers %s hold %s games%n", label,
+                Arrays.toString(router.getWorkerIndices()), Arrays.toString(router.getGamesPerWorker()));
+    }
+
+    private static String field(String json, String prefix, char end) {
+        int start = json.indexOf(prefix) + prefix.length();
+        return json.substring(start, json.indexOf(end, start));
+    }
+}
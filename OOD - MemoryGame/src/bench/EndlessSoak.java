@@ -0,0 +1,160 @@
+package bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Arrays;
+import java.util.logging.LogManager;
+
+import core.FlipOutcome;
+import core.Game;
+import model.Board;
+import model.Card;
+import model.Player;
+import patterns.builders.GameBuilder;
+
+/**
+ * EndlessSoak plays one headless endless game between two computer players for a fixed time
+ * and reports, at every interval, the turns per second, the cards streamed through the board
+ * and the heap used after a full GC. Board, AI memory and undo history are bounded in an
+ * endless game, so the heap should stay flat and the turn rate steady however long it runs.
+ * Before the soak it checks that an endless game refuses to undo: a human player matches a
+ * pair, undo is rejected with the refilled slots and the score untouched, and a second match
+ * scores as usual.
+ *
+ * Run with: java bench.EndlessSoak [minutes] [boardSize] [difficulty] [intervalSeconds]
+ * The process exits with status 1 when the undo check fails, the heap grew by more than 8 MB
+ * after the first interval or the last interval was more than 20% slower than the first.
+ */
+public class EndlessSoak {
+    private static final long HEAP_GROWTH_LIMIT = 8L * 1024 * 1024;
+    private static final double THROUGHPUT_DRIFT_LIMIT = 0.8;
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) throws InterruptedException {
+        double minutes = args.length > 0 ? Double.parseDouble(args[0]) : 1;
+        String size = args.length > 1 ? args[1] : "Large";
+        int difficulty = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        long intervalMillis = (args.length > 3 ? Long.parseLong(args[3]) : 10) * 1_000;
+        LogManager.getLogManager().reset();
+
+        String undoFailure = checkUndoRejected(size);
+        if (undoFailure != null) {
+            System.out.println("Undo check failed: " + undoFailure);
+            System.exit(1);
+        }
+        System.out.println("Undo check: an endless game rejects undo and keeps its refilled slots.");
+
+        Game game = new GameBuilder().setBoardSize(size).setDifficulty(difficulty).setSeed(1)
+                .setHeadless(true).setEndless(0, (long) (minutes * 60_000)).build();
+        Thread loop = new Thread(game::startGame, "endless-soak");
+        loop.start();
+
+        System.out.printf("%8s %12s %12s %10s %12s %8s%n", "seconds", "turns", "cards", "turns/s", "heap KB", "board");
+        long start = System.nanoTime();
+        long lastTurns = 0;
+        long lastNanos = start;
+        double firstRate = 0;
+        double lastRate = 0;
+        long firstHeap = -1;
+        long lastHeap = 0;
+        while (loop.isAlive()) {
+            loop.join(intervalMillis);
+            long now = System.nanoTime();
+            long turns = game.getMetrics().getTurns();
+            double rate = (turns - lastTurns) * 1e9 / Math.max(1, now - lastNanos);
+            long heap = usedHeapAfterGc();
+            if (!loop.isAlive() && now - lastNanos < intervalMillis * 1_000_000 / 2) {
+                break;  // A short tail interval says nothing about drift
+            }
+            if (firstHeap < 0) {
+                firstRate = rate;
+                firstHeap = heap;
+            }
+            lastRate = rate;
+            lastHeap = heap;
+            System.out.printf("%8d %12d %12d %10.0f %12d %8d%n", (now - start) / 1_000_000_000, turns,
+                    2 * game.getMetrics().getMatches(), rate, heap / 1024, game.getBoard().getCardCount());
+            lastTurns = turns;
+            lastNanos = now;
+        }
+
+        long growth = lastHeap - firstHeap;
+        double drift = firstRate > 0 ? lastRate / firstRate : 1;
+        System.out.printf("%nHeap growth since the first interval: %d KB; last/first turn rate: %.2f%n",
+                growth / 1024, drift);
+        if (growth > HEAP_GROWTH_LIMIT || drift < THROUGHPUT_DRIFT_LIMIT) {
+            System.out.println("Soak failed: the heap or the turn rate drifted.");
+            System.exit(1);
+        }
+        System.out.println("Heap and turn rate stayed flat.");
+    }
+
+    /**
+     * Plays match, undo, match as a human player in an endless game.
+     * @param size The board size.
+     * @return What went wrong, or null.
+     */
+    private static String checkUndoRejected(String size) {
+        Game game = new GameBuilder().setNumPlayers(1).setBoardSize(size).setSeed(1).setHeadless(true)
+                .setEndless(100, 0).build();
+        Board board = game.getBoard();
+        Player human = game.getPlayers().get(0);
+        if (!matchAnyPair(game)) {
+            return "the first pair did not match";
+        }
+        int score = human.getScore();
+        Card[] slots = snapshot(board);
+        try {
+            game.undoLastAction();
+            return "undo was accepted";
+        } catch (IllegalStateException expected) {
+            // Endless games cannot take a match back
+        }
+        if (human.getScore() != score || !Arrays.equals(slots, snapshot(board))) {
+            return "the rejected undo changed the score or the board";
+        }
+        for (int index = 0; index < board.getCardCount(); index++) {
+            if (board.getCardAt(index).isMatched()) {
+                return "a matched card is still on the board at " + index;
+            }
+        }
+        if (!matchAnyPair(game) || human.getScore() != 2 * score) {
+            return "the second pair did not match or did not score";
+        }
+        return null;
+    }
+
+    /**
+     * Flips two face-down cards that match, as the human player whose turn it is.
+     * @return true if the game reported a match.
+     */
+    private static boolean matchAnyPair(Game game) {
+        Board board = game.getBoard();
+        int cols = board.getColsSize();
+        for (int first = 0; first < board.getCardCount(); first++) {
+            for (int second = first + 1; second < board.getCardCount(); second++) {
+                if (board.getMatchKey(first) == board.getMatchKey(second) && !board.getCardAt(first).isMatched()
+                        && !board.getCardAt(second).isMatched()) {
+                    game.flip(first / cols, first % cols);
+                    return game.flip(second / cols, second % cols) == FlipOutcome.MATCH;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Card[] snapshot(Board board) {
+        Card[] cards = new Card[board.getCardCount()];
+        for (int index = 0; index < cards.length; index++) {
+            cards[index] = board.getCardAt(index);
+        }
+        return cards;
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+}
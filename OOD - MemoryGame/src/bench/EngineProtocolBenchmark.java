@@ -0,0 +1,200 @@
+package bench;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * EngineProtocolBenchmark launches the game as a child JVM in engine mode ("app.Main --engine")
+ * and plays it over the pipe as an external bot would: a controller with perfect memory
+ * against the engine's computer player. Every flip is one command and one reply, so the
+ * benchmark measures the round trip of the protocol rather than the bots.
+ *
+ * It reports flips (moves) per second, games per second and the round-trip time of a flip.
+ *
+ * Run with: java bench.EngineProtocolBenchmark [games] [size] [difficulty]
+ */
+public class EngineProtocolBenchmark {
+    private static final int WARMUP_GAMES = 200;
+
+    private final BufferedReader in;
+    private final BufferedWriter out;
+    private String[] faces;  // Known face per card index, null if never seen
+    private boolean[] matched;
+    private int cols;
+    private long flips;
+    private long[] roundTrips = new long[1 << 16];
+    private int roundTripCount;
+
+    private EngineProtocolBenchmark(Process engine) {
+        this.in = new BufferedReader(new InputStreamReader(engine.getInputStream(), StandardCharsets.US_ASCII));
+        this.out = new BufferedWriter(new OutputStreamWriter(engine.getOutputStream(), StandardCharsets.US_ASCII));
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        String size = args.length > 1 ? args[1] : "Small";
+        int difficulty = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        Process engine = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), "app.Main", "--engine")
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        EngineProtocolBenchmark controller = new EngineProtocolBenchmark(engine);
+        controller.handshake();
+
+        int[] wins = new int[3];  // Controller, engine, draw
+        for (int g = 0; g < WARMUP_GAMES; g++) {
+            controller.play(g, size, difficulty);
+        }
+        controller.flips = 0;
+        controller.roundTripCount = 0;
+        long start = System.nanoTime();
+        for (int g = 0; g < games; g++) {
+            wins[controller.play(WARMUP_GAMES + g, size, difficulty)]++;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        controller.send("quit");
+        engine.waitFor();
+
+        System.out.printf("%d %s games against difficulty %d over a pipe in %.2f s%n", games, size, difficulty, seconds);
+        System.out.printf("  %.0f moves/s (flips), %.0f games/s%n", controller.flips / seconds, games / seconds);
+        long[] sorted = Arrays.copyOf(controller.roundTrips, Math.min(controller.roundTripCount, controller.roundTrips.length));
+        Arrays.sort(sorted);
+        System.out.printf("  flip round trip: p50 %.1f us, p99 %.1f us, max %.1f us%n",
+                quantile(sorted, 0.5) / 1e3, quantile(sorted, 0.99) / 1e3, quantile(sorted, 1.0) / 1e3);
+        System.out.printf("  controller won %d, engine won %d, %d draws%n", wins[0], wins[1], wins[2]);
+    }
+
+    private void handshake() throws IOException {
+        send("mgp");
+        send("isready");
+        while (!in.readLine().equals("readyok")) {
+            // Skips the id lines
+        }
+    }
+
+    /**
+     * Plays one game as player 0.
+     * @return 0 if the controller won, 1 if the engine won, 2 for a draw.
+     */
+    private int play(long seed, String size, int difficulty) throws IOException {
+        send("newgame size " + size + " players 1 difficulty " + difficulty + " seed " + seed);
+        String[] game = expect("game");
+        int rows = Integer.parseInt(game[1]);
+        cols = Integer.parseInt(game[2]);
+        faces = new String[rows * cols];
+        matched = new boolean[rows * cols];
+        String[] last = readEvents();
+        while (last[0].equals("turn")) {
+            last = playTurn();
+        }
+        int winner = Integer.parseInt(last[1]);
+        return winner < 0 ? 2 : winner;
+    }
+
+    /**
+     * Flips a remembered pair if there is one, otherwise an unseen card and its partner if it
+     * was seen, or else another unseen card.
+     * @return The line that ended the turn's events, "turn" or "gameover".
+     */
+    private String[] playTurn() throws IOException {
+        Map<String, Integer> seen = new HashMap<>();
+        int unseen = -1;
+        for (int i = 0; i < faces.length; i++) {
+            if (matched[i]) {
+                continue;
+            }
+            if (faces[i] == null) {
+                unseen = unseen < 0 ? i : unseen;
+                continue;
+            }
+            Integer partner = seen.putIfAbsent(faces[i], i);
+            if (partner != null) {
+                flip(partner);
+                flip(i);
+                return readEvents();
+            }
+        }
+        flip(unseen);
+        Integer partner = seen.get(faces[unseen]);
+        int second = partner != null ? partner : -1;
+        if (second < 0) {
+            for (int i = unseen + 1; i < faces.length && second < 0; i++) {
+                second = !matched[i] && faces[i] == null ? i : -1;
+            }
+        }
+        flip(second);
+        return readEvents();
+    }
+
+    private void flip(int index) throws IOException {
+        long start = System.nanoTime();
+        send("flip " + index / cols + " " + index % cols);
+        String[] reply = in.readLine().split(" ");
+        if (roundTripCount < roundTrips.length) {
+            roundTrips[roundTripCount++] = System.nanoTime() - start;
+        }
+        flips++;
+        if (!reply[0].equals("card")) {
+            throw new IllegalStateException("Flip " + index + " answered " + String.join(" ", reply));
+        }
+        remember(reply);
+    }
+
+    /**
+     * Reads events up to the next turn of the controller or the end of the game.
+     * @return The final line's tokens.
+     */
+    private String[] readEvents() throws IOException {
+        while (true) {
+            String[] event = in.readLine().split(" ");
+            switch (event[0]) {
+                case "card" -> remember(event);
+                case "match" -> {
+                    matched[Integer.parseInt(event[2]) * cols + Integer.parseInt(event[3])] = true;
+                    matched[Integer.parseInt(event[4]) * cols + Integer.parseInt(event[5])] = true;
+                }
+                case "turn", "gameover" -> {
+                    return event;
+                }
+                case "error" -> throw new IllegalStateException(String.join(" ", event));
+                default -> {
+                    // Scores and misses need no bookkeeping
+                }
+            }
+        }
+    }
+
+    private void remember(String[] card) {
+        faces[Integer.parseInt(card[1]) * cols + Integer.parseInt(card[2])] = card[3];
+    }
+
+    private String[] expect(String command) throws IOException {
+        String[] line = in.readLine().split(" ");
+        if (!line[0].equals(command)) {
+            throw new IllegalStateException("Expected " + command + " but read " + String.join(" ", line));
+        }
+        return line;
+    }
+
+    private void send(String command) throws IOException {
+        out.write(command);
+        out.write('\n');
+        out.flush();
+    }
+
+    private static long quantile(long[] sorted, double q) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.max(0, Math.min(sorted.length - 1, (int) Math.ceil(q * sorted.length) - 1))];
+    }
+}
@@ -0,0 +1,236 @@
+package bench;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.logging.LogManager;
+
+import core.Game;
+import core.GameManager;
+import model.Board;
+import model.Card;
+import model.Player;
+import patterns.builders.GameBuilder;
+import patterns.factory.CardFactory;
+import patterns.factory.PlayerFactory;
+import ui.ConsoleInput;
+
+/**
+ * FootprintSuite measures the retained heap per idle game, per player and per card for each
+ * board size, then runs consecutive setup/reset cycles through GameManager and uses weak
+ * references to prove that the old Game, Board and Card graphs are collected. Each figure is
+ * the median of ROUNDS measurements, as a single reading can be thrown off by garbage left by
+ * an earlier one or by a collection that frees less than the one before it.
+ *
+ * Run with: java bench.FootprintSuite [cycles]
+ * The process exits with status 1 when a figure is not positive, which means the measurement
+ * failed, or when a finished round is still reachable.
+ */
+public class FootprintSuite {
+    private static final String[] BOARD_SIZES = {"Small", "Medium", "Large"};
+    private static final int INSTANCES = 2_000;
+    private static final int PLAYER_INSTANCES = 20_000;  // A player is small, so more are needed to stand out
+    private static final int ROUNDS = 5;
+    private static final int MIN_GCS = 3;
+    private static final int DEFAULT_CYCLES = 10_000;
+    private static final int TRACK_EVERY = 100;  // Track one round in every hundred with weak references
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) {
+        int cycles = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CYCLES;
+        LogManager.getLogManager().reset();  // GameManager logs every setup and reset
+
+        PrintStream report = System.out;
+        report.println("Retained heap (bytes):");
+        report.printf("%-7s %12s %12s %12s%n", "board", "idle game", "player", "card");
+        boolean failed = false;
+        for (String size : BOARD_SIZES) {
+            long game = median(() -> perIdleGame(size));
+            long player = median(() -> perPlayer(size));
+            long card = median(() -> perCard(size));
+            report.printf("%-7s %12d %12d %12d%n", size, game, player, card);
+            failed |= game <= 0 || player <= 0 || card <= 0;
+        }
+        if (failed) {
+            report.println("FAILED: a retained size is not positive; the heap readings are not reliable.");
+        }
+        report.println();
+
+        boolean leaked = runSetupResetCycles(cycles, report);
+        if (failed || leaked) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Takes the median of ROUNDS measurements.
+     * @param measurement Measures bytes per instance once.
+     * @return The median in bytes.
+     */
+    private static long median(LongSupplier measurement) {
+        long[] readings = new long[ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            readings[round] = measurement.getAsLong();
+        }
+        Arrays.sort(readings);
+        return readings[ROUNDS / 2];
+    }
+
+    /**
+     * Measures the retained heap of an idle, freshly set up headless game.
+     * @param size The board size.
+     * @return Bytes per game.
+     */
+    private static long perIdleGame(String size) {
+        List<Game> games = new ArrayList<>(INSTANCES);
+        long before = usedHeapAfterGc();
+        for (int i = 0; i < INSTANCES; i++) {
+            games.add(new GameBuilder().setBoardSize(size).setDifficulty(3).setSeed(i).setHeadless(true).build());
+        }
+        long after = usedHeapAfterGc();
+        Reference.reachabilityFence(games);
+        return (after - before) / INSTANCES;
+    }
+
+    /**
+     * Measures the retained heap of a computer player, excluding the shared board.
+     * @param size The board size.
+     * @return Bytes per player.
+     */
+    private static long perPlayer(String size) {
+        Board board = new GameBuilder().setBoardSize(size).setHeadless(true).build().getBoard();
+        List<Player> players = new ArrayList<>(PLAYER_INSTANCES);
+        long before = usedHeapAfterGc();
+        for (int i = 0; i < PLAYER_INSTANCES; i++) {
+            players.add(PlayerFactory.createPlayer("computer", "Computer " + i, board, 3));
+        }
+        long after = usedHeapAfterGc();
+        Reference.reachabilityFence(players);
+        Reference.reachabilityFence(board);
+        return (after - before) / PLAYER_INSTANCES;
+    }
+
+    /**
+     * Measures the retained heap of a card as produced by the CardFactory for a board size.
+     * @param size The board size.
+     * @return Bytes per card.
+     */
+    private static long perCard(String size) {
+        int pairs = new GameBuilder().setBoardSize(size).setHeadless(true).build().getBoard().getCardCount() / 2;
+        List<List<Card>> decks = new ArrayList<>();
+        int decksNeeded = Math.max(1, INSTANCES * 4 / (pairs * 2));
+        long before = usedHeapAfterGc();
+        for (int i = 0; i < decksNeeded; i++) {
+            decks.add(new CardFactory().createPairsOfCards(pairs));
+        }
+        long after = usedHeapAfterGc();
+        Reference.reachabilityFence(decks);
+        return (after - before) / ((long) decksNeeded * pairs * 2);
+    }
+
+    /**
+     * Runs setup/reset cycles through the GameManager with console input and output redirected,
+     * tracking sampled rounds with weak references.
+     * @param cycles Number of setup/reset cycles.
+     * @param report Stream for the report.
+     * @return true if a finished round is still reachable.
+     */
+    private static boolean runSetupResetCycles(int cycles, PrintStream report) {
+        PrintStream console = System.out;
+        ConsoleInput.setInput(new EndlessEnterKeys());  // setupGame waits for Enter on the title screen
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        GameManager manager = GameManager.getInstance();
+        List<WeakReference<Object>> tracked = new ArrayList<>();
+        long heapAtTenPercent = 0;
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < cycles; i++) {
+                manager.setupGame(0, BOARD_SIZES[i % BOARD_SIZES.length], 1 + i % 3);
+                if (i % TRACK_EVERY == 0) {
+                    Game game = manager.getCurrentGame();
+                    tracked.add(new WeakReference<>(game));
+                    tracked.add(new WeakReference<>(game.getBoard()));
+                    tracked.add(new WeakReference<>(game.getBoard().getCardAt(0)));
+                    tracked.add(new WeakReference<>(game.getPlayers().get(0)));
+                }
+                manager.resetGame();
+                if (i == cycles / 10) {
+                    heapAtTenPercent = usedHeapAfterGc();
+                }
+            }
+        } finally {
+            System.setOut(console);
+            ConsoleInput.close();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        long heapAtEnd = usedHeapAfterGc();
+
+        int alive = 0;
+        for (WeakReference<Object> ref : tracked) {
+            if (ref.get() != null) {
+                alive++;
+            }
+        }
+        long cyclesMeasured = Math.max(1, cycles - cycles / 10);
+        report.printf("Setup/reset cycles: %d in %d ms (%d active sessions afterwards)%n",
+                cycles, elapsedMillis, manager.getActiveGames().size());
+        report.printf("Heap growth after warm-up: %d bytes total, %d bytes per cycle%n",
+                heapAtEnd - heapAtTenPercent, (heapAtEnd - heapAtTenPercent) / cyclesMeasured);
+        report.printf("Tracked objects (Game, Board, Card, Player): %d, still reachable: %d%n", tracked.size(), alive);
+        if (alive > 0) {
+            report.println("LEAK: finished rounds are still reachable after reset.");
+            return true;
+        }
+        report.println("All finished rounds were collected.");
+        return false;
+    }
+
+    /**
+     * Gets the used heap after requesting garbage collection at least MIN_GCS times and until it
+     * settles.
+     * @return Used heap in bytes.
+     */
+    private static long usedHeapAfterGc() {
+        long previous = Long.MAX_VALUE;
+        long used = MEMORY.getHeapMemoryUsage().getUsed();
+        for (int i = 0; i < 10 && (i < MIN_GCS || used < previous); i++) {
+            previous = used;
+            System.gc();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            used = MEMORY.getHeapMemoryUsage().getUsed();
+        }
+        return used;
+    }
+
+    /**
+     * An input stream that answers every "Press Enter to continue..." prompt.
+     */
+    private static final class EndlessEnterKeys extends InputStream {
+        @Override
+        public int read() {
+            return '\n';
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            for (int i = 0; i < len; i++) {
+                b[off + i] = '\n';
+            }
+            return len;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package bench;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.LogManager;
+
+import server.GameServer;
+
+/**
+ * GameServerLoadGenerator starts a GameServer on an ephemeral port and plays many games
+ * through it over localhost HTTP at once. Client threads each own a share of the games and
+ * flip a random face-down card of each in turn, replacing games as they end; a number of
+ * Server-Sent Events subscribers watch games meanwhile.
+ *
+ * It reports game creations per second, flips per second and the end-to-end latency of
+ * a flip request, computer turns included, as seen by the client.
+ *
+ * Run with: java bench.GameServerLoadGenerator [games] [clients] [seconds] [subscribers] [serverThreads]
+ */
+public class GameServerLoadGenerator {
+    private static final int WARMUP_SECONDS = 3;
+    private static final int MAX_SAMPLES_PER_CLIENT = 1 << 17;
+
+    private static final LongAdder events = new LongAdder();
+    private static volatile boolean measuring;
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int subscribers = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+        int serverThreads = args.length > 4 ? Integer.parseInt(args[4]) : 4 * Runtime.getRuntime().availableProcessors();
+        LogManager.getLogManager().reset();
+
+        try (GameServer server = GameServer.start(0, serverThreads)) {
+            String base = "http://localhost:" + server.getPort() + "/games";
+            HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            String[] ids = new String[games];
+            String[] states = new String[games];  // Last state seen of each game
+            long start = System.nanoTime();
+            for (int g = 0; g < games; g++) {
+                states[g] = create(http, base, g);
+                ids[g] = field(states[g], "\"id\":\"", '"');
+            }
+            double createSeconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Created %d games in %.2f s (%.0f/s)%n", games, createSeconds, games / createSeconds);
+
+            for (int s = 0; s < subscribers && s < games; s++) {
+                http.sendAsync(HttpRequest.newBuilder(URI.create(base + "/" + ids[s] + "/events")).build(),
+                        HttpResponse.BodyHandlers.ofLines())
+                        .thenAccept(response -> response.body().forEach(line -> {
+                            if (measuring && line.startsWith("event:")) {
+                                events.increment();
+                            }
+                        }));
+            }
+
+            Client[] workers = new Client[clients];
+            for (int c = 0; c < clients; c++) {
+                workers[c] = new Client(http, base, ids, states, c, clients);
+                workers[c].start();
+            }
+            Thread.sleep(WARMUP_SECONDS * 1000L);
+            for (Client worker : workers) {
+                worker.samples = 0;
+            }
+            measuring = true;
+            long measureStart = System.nanoTime();
+            Thread.sleep(seconds * 1000L);
+            measuring = false;
+            double elapsed = (System.nanoTime() - measureStart) / 1e9;
+            for (Client worker : workers) {
+                worker.running = false;
+            }
+            for (Client worker : workers) {
+                worker.join();
+            }
+
+            long flips = 0;
+            long finished = 0;
+            long failures = 0;
+            long[] all = new long[0];
+            for (Client worker : workers) {
+                flips += worker.samples;
+                finished += worker.finished;
+                failures += worker.failures;
+                int from = all.length;
+                all = Arrays.copyOf(all, from + Math.min(worker.samples, MAX_SAMPLES_PER_CLIENT));
+                System.arraycopy(worker.latencies, 0, all, from, all.length - from);
+            }
+            Arrays.sort(all);
+            System.out.printf("%d games, %d clients, %d server threads, %d subscribers for %d s%n",
+                    games, clients, serverThreads, server.getSubscriberCount(), seconds);
+            System.out.printf("  %.0f flips/s, %d games finished, %d failed requests, %.0f events/s to subscribers%n",
+                    flips / elapsed, finished, failures, events.sum() / elapsed);
+            System.out.printf("  flip latency: p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms%n",
+                    quantile(all, 0.5) / 1e6, quantile(all, 0.9) / 1e6, quantile(all, 0.99) / 1e6,
+                    quantile(all, 0.999) / 1e6, quantile(all, 1.0) / 1e6);
+        }
+    }
+
+    /**
+     * One client thread playing its share of the games in turn.
+     */
+    private static final class Client extends Thread {
+        private final HttpClient http;
+        private final String base;
+        private final String[] ids;
+        private final String[] states;
+        private final int first;
+        private final int step;
+        private final SplittableRandom random;
+        private final long[] latencies = new long[MAX_SAMPLES_PER_CLIENT];
+        private volatile boolean running = true;
+        private int samples;
+        private long finished;
+        private long failures;
+
+        Client(HttpClient http, String base, String[] ids, String[] states, int first, int step) {
+            super("load-client-" + first);
+            this.http = http;
+            this.base = base;
+            this.ids = ids;
+            this.states = states;
+            this.first = first;
+            this.step = step;
+            this.random = new SplittableRandom(42 + first);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                for (int g = first; g < ids.length && running; g += step) {
+                    try {
+                        play(g);
+                    } catch (IOException | RuntimeException e) {
+                        failures++;
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        private void play(int g) throws IOException, InterruptedException {
+            String state = states[g];
+            int card = randomFaceDown(state);
+            int columns = Integer.parseInt(field(state, "\"cols\":", ','));
+            long start = System.nanoTime();
+            String after = send(HttpRequest.newBuilder(URI.create(base + "/" + ids[g] + "/flip?row="
+                    + card / columns + "&col=" + card % columns)).POST(HttpRequest.BodyPublishers.noBody()).build());
+            if (samples < latencies.length) {
+                latencies[samples] = System.nanoTime() - start;
+            }
+            samples++;
+            states[g] = after;
+            if (after.contains("\"over\":true")) {
+                finished++;
+                send(HttpRequest.newBuilder(URI.create(base + "/" + ids[g])).DELETE().build());
+                states[g] = create(http, base, random.nextLong());
+                ids[g] = field(states[g], "\"id\":\"", '"');
+            }
+        }
+
+        private String send(HttpRequest request) throws IOException, InterruptedException {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 300) {
+                throw new IOException(response.statusCode() + " " + response.body());
+            }
+            return response.body();
+        }
+
+        private int randomFaceDown(String state) {
+            int board = state.indexOf("\"board\":\"") + 9;
+            int end = state.indexOf('"', board);
+            int faceDown = 0;
+            for (int i = board; i < end; i += 2) {
+                faceDown += state.charAt(i) == '.' ? 1 : 0;
+            }
+            int pick = random.nextInt(faceDown);
+            for (int i = board; i < end; i += 2) {
+                if (state.charAt(i) == '.' && pick-- == 0) {
+                    return (i - board) / 2;
+                }
+            }
+            throw new IllegalStateException("No face-down card in " + state);
+        }
+    }
+
+    /**
+     * Creates a game.
+     * @return The game's state.
+     */
+    private static String create(HttpClient http, String base, long seed) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(base + "?size=Small&difficulty=3&seed=" + seed))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 201) {
+            throw new IOException("Creating a game failed: " + response.statusCode() + " " + response.body());
+        }
+        return response.body();
+    }
+
+    private static String field(String json, String name, char terminator) {
+        int start = json.indexOf(name) + name.length();
+        return json.substring(start, json.indexOf(terminator, start));
+    }
+
+    private static long quantile(long[] sorted, double q) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.max(0, Math.min(sorted.length - 1, (int) Math.ceil(q * sorted.length) - 1))];
+    }
+}
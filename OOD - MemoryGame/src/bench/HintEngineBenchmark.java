@@ -0,0 +1,130 @@
+package bench;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.logging.LogManager;
+
+import core.Hint;
+import core.HintEngine;
+import model.Board;
+import model.Card;
+import patterns.builders.GameBuilder;
+
+/**
+ * HintEngineBenchmark measures the hint search a human player gets while thinking. On a Large
+ * board with more and more cards seen, none of them a pair, it reports the time the game thread
+ * spends starting a search, the time to read a hint, the time the background search takes to
+ * look its furthest ahead and how long a cancelled search keeps the engine's thread. Then it
+ * measures how late a thread waiting in 1 ms sleeps, as the game waits for input, wakes up with
+ * and without searches running beside it.
+ *
+ * Run with: java bench.HintEngineBenchmark [rounds] [wakeups]
+ */
+public class HintEngineBenchmark {
+    private static final double[] SEEN = {0, 0.25, 0.5, 0.75};
+
+    public static void main(String[] args) throws InterruptedException {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int wakeups = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        LogManager.getLogManager().reset();
+        HintEngine engine = HintEngine.getInstance();
+
+        measure(engine, board(0.5), rounds);  // Warm-up
+        System.out.printf("%6s %10s %10s %10s %10s  %s%n", "seen", "start us", "read us", "refine ms",
+                "cancel ms", "hint");
+        for (double seen : SEEN) {
+            measure(engine, board(seen), rounds);
+        }
+
+        double[] idle = lateness(wakeups, null, null);
+        double[] busy = lateness(wakeups, engine, board(0.5));
+        System.out.printf("%nWake-up lateness of the waiting thread: mean %.1f us, p99 %.1f us idle; "
+                + "mean %.1f us, p99 %.1f us while searching%n", idle[0], idle[1], busy[0], busy[1]);
+    }
+
+    /**
+     * Builds a Large board with a share of its pairs seen, one card of each, all face down.
+     */
+    private static Board board(double seen) {
+        Board board = new GameBuilder().setBoardSize("Large").setSeed(1).setHeadless(true).build().getBoard();
+        int pairs = (int) (seen * board.getCardCount() / 2);
+        Set<Integer> keysSeen = new HashSet<>();
+        for (int index = 0; index < board.getCardCount() && pairs > 0; index++) {
+            if (keysSeen.add(board.getMatchKey(index))) {
+                Card card = board.getCardAt(index);
+                card.flip();
+                card.flip();
+                pairs--;
+            }
+        }
+        return board;
+    }
+
+    private static void measure(HintEngine engine, Board board, int rounds) throws InterruptedException {
+        long start = 0;
+        long read = 0;
+        long refine = 0;
+        long cancel = 0;
+        Hint last = null;
+        for (int round = 0; round < rounds; round++) {
+            long begin = System.nanoTime();
+            HintEngine.Search search = engine.start(board, -1);
+            long started = System.nanoTime();
+            Hint first = search.getHint();
+            read += System.nanoTime() - started;
+            start += started - begin;
+            while (!search.isDone()) {
+                Thread.sleep(1);
+            }
+            refine += System.nanoTime() - started;
+            last = search.getHint();
+
+            HintEngine.Search cancelled = engine.start(board, -1);
+            Thread.sleep(2);
+            long cancelledAt = System.nanoTime();
+            cancelled.cancel();
+            while (!cancelled.isDone()) {
+                Thread.yield();
+            }
+            cancel += System.nanoTime() - cancelledAt;
+            if (first == null) {
+                break;
+            }
+        }
+        System.out.printf("%6s %10.1f %10.2f %10.1f %10.3f  %s%n", seenShare(board), start / 1e3 / rounds,
+                read / 1e3 / rounds, refine / 1e6 / rounds, cancel / 1e6 / rounds,
+                last == null ? "none" : last.describe(board.getColsSize()));
+    }
+
+    private static String seenShare(Board board) {
+        int seen = 0;
+        for (int index = 0; index < board.getCardCount(); index++) {
+            seen += board.getCardAt(index).isSeen() ? 1 : 0;
+        }
+        return Math.round(100.0 * seen / board.getCardCount()) + "%";
+    }
+
+    /**
+     * Sleeps 1 ms at a time and measures how late each wake-up is, optionally while the engine
+     * searches the board over and over.
+     * @return The mean and the 99th percentile lateness in microseconds.
+     */
+    private static double[] lateness(int wakeups, HintEngine engine, Board board) throws InterruptedException {
+        long[] late = new long[wakeups];
+        HintEngine.Search search = engine == null ? null : engine.start(board, -1);
+        for (int i = 0; i < wakeups; i++) {
+            if (search != null && search.isDone()) {
+                search = engine.start(board, -1);
+            }
+            long before = System.nanoTime();
+            Thread.sleep(1);
+            late[i] = System.nanoTime() - before - 1_000_000;
+        }
+        if (search != null) {
+            search.cancel();
+        }
+        Arrays.sort(late);
+        return new double[]{Arrays.stream(late).average().orElse(0) / 1e3, late[wakeups * 99 / 100] / 1e3};
+    }
+}
@@ -0,0 +1,345 @@
+package bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.LogManager;
+
+import core.Game;
+import model.Board;
+import model.Card;
+import patterns.builders.GameBuilder;
+import patterns.observer.GameObserver;
+import patterns.observer.UIObserver;
+import ui.ConsoleInput;
+
+/**
+ * InteractiveLatencyHarness measures what a player feels: the time from a keystroke to the
+ * next complete frame, through the real interactive path HumanPlayer.playTurn, FlipCommand,
+ * Player.updateUI, BoardMediator.notifyUI, Game.notifyObservers and the full redraw.
+ *
+ * Keystroke scripts are fed to the game over a pipe, one line each time the game blocks
+ * on input, and all output goes to a counting sink. A script is recorded once per board size
+ * and difficulty by a scripted player that remembers every revealed card, and replayed on
+ * later runs, so UI and rendering changes are compared on identical sessions.
+ *
+ * Run with: java bench.InteractiveLatencyHarness [scriptDir] [runs]
+ */
+public class InteractiveLatencyHarness {
+    private static final String[] BOARD_SIZES = {"Small", "Medium", "Large"};
+    private static final int[] DIFFICULTIES = {1, 2, 3};
+    private static final long SEED = 42;
+    private static final int DEFAULT_RUNS = 5;
+    private static final int MAX_KEYSTROKES = 5_000;  // Bounds a recording that never finishes
+    private static final int PIPE_BUFFER = 4_096;
+    private static final String ENTER_PROMPT = "Press Enter to continue...";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path scriptDir = args.length > 0 ? Path.of(args[0]) : Files.createTempDirectory("memorygame-keystrokes");
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_RUNS;
+        Files.createDirectories(scriptDir);
+        LogManager.getLogManager().reset();
+
+        PrintStream report = System.out;
+        OutputSink sink = new OutputSink();
+        System.setOut(new PrintStream(sink, false, StandardCharsets.UTF_8));  // The GameUI singleton keeps this stream
+        try {
+            report.printf("Keystroke scripts: %s%n", scriptDir.toAbsolutePath());
+            report.printf("%-10s %-7s %9s %7s %9s %9s %9s %9s %10s%n", "difficulty", "board", "keys", "frames",
+                    "p50 us", "p90 us", "p99 us", "max us", "bytes/frm");
+            for (int difficulty : DIFFICULTIES) {
+                for (String size : BOARD_SIZES) {
+                    Path script = scriptDir.resolve(size + "-" + difficulty + "-" + SEED + ".keys");
+                    if (!Files.exists(script)) {
+                        Session recording = play(size, difficulty, null, sink);  // Doubles as warm-up
+                        Files.write(script, recording.keystrokes, StandardCharsets.UTF_8);
+                    }
+                    List<String> keystrokes = Files.readAllLines(script, StandardCharsets.UTF_8);
+                    play(size, difficulty, keystrokes, sink);  // Warm-up replay
+
+                    Session total = new Session();
+                    for (int run = 0; run < runs; run++) {
+                        total.add(play(size, difficulty, keystrokes, sink));
+                    }
+                    report.printf("%-10d %-7s %9d %7d %9d %9d %9d %9d %10d%s%n", difficulty, size,
+                            total.keystrokes.size(), total.frames, total.percentileMicros(0.50),
+                            total.percentileMicros(0.90), total.percentileMicros(0.99), total.percentileMicros(1.0),
+                            total.bytes / Math.max(1, total.frames),
+                            total.diverged ? "  (script diverged, re-record it)"
+                                    : total.framelessKeystrokes > 0 ? "  (" + total.framelessKeystrokes + " keys without a frame)" : "");
+                }
+            }
+        } finally {
+            System.setOut(report);
+            ConsoleInput.close();
+        }
+    }
+
+    /**
+     * Plays one interactive game of a human against a computer player, feeding keystrokes over a pipe.
+     * @param size The board size.
+     * @param difficulty The computer difficulty.
+     * @param script The keystrokes to replay, or null to record new ones.
+     * @param sink The sink all output goes to.
+     * @return The keystrokes sent and the measured latencies.
+     */
+    private static Session play(String size, int difficulty, List<String> script, OutputSink sink)
+            throws IOException, InterruptedException {
+        Semaphore awaitingInput = new Semaphore(0);
+        PipedInputStream pipeIn = new PipedInputStream(PIPE_BUFFER);
+        PipedOutputStream pipeOut = new PipedOutputStream(pipeIn);
+        ConsoleInput.setInput(new SignallingInput(pipeIn, awaitingInput));
+
+        Game game = new GameBuilder().setNumPlayers(1).setBoardSize(size).setDifficulty(difficulty)
+                .setSeed(SEED).setTurnDelayMillis(0).build();
+        game.addObserver(new UIObserver(game.getGameUI(), game));
+        FrameProbe probe = new FrameProbe();
+        game.addObserver(probe);  // Registered last, so it sees each frame after it is drawn
+        sink.reset();
+
+        Thread loop = new Thread(() -> {
+            try {
+                game.startGame();
+            } catch (RuntimeException e) {
+                // The pipe was closed under a diverged script
+            }
+        }, "interactive-game");
+        loop.start();
+
+        Session session = new Session();
+        int next = 0;
+        while (loop.isAlive()) {
+            if (!awaitingInput.tryAcquire(50, TimeUnit.MILLISECONDS)) {
+                continue;
+            }
+            if (probe.pendingKeystroke.getAndSet(0) != 0) {
+                session.framelessKeystrokes++;
+            }
+            String keystroke;
+            if (script == null) {
+                keystroke = session.keystrokes.size() < MAX_KEYSTROKES ? choose(game.getBoard(), sink.lastLine()) : null;
+            } else {
+                keystroke = next < script.size() ? script.get(next++) : null;
+            }
+            if (keystroke == null) {
+                session.diverged = true;
+                game.abort();
+                pipeOut.close();  // The blocked read fails and the game thread ends
+                break;
+            }
+            session.keystrokes.add(keystroke);
+            probe.pendingKeystroke.set(System.nanoTime());
+            pipeOut.write((keystroke + "\n").getBytes(StandardCharsets.UTF_8));
+            pipeOut.flush();  // Wakes the reader at once
+        }
+        loop.join();
+        pipeOut.close();
+
+        session.latencies = probe.latencies();
+        session.frames = session.latencies.length;
+        session.bytes = sink.bytes();
+        return session;
+    }
+
+    /**
+     * Chooses the next keystroke like a player who remembers every revealed card.
+     * @param board The board.
+     * @param prompt The last line the game printed.
+     * @return The keystroke, "" for Enter.
+     */
+    private static String choose(Board board, String prompt) {
+        if (prompt.equals(ENTER_PROMPT)) {
+            return "";
+        }
+        List<int[]> faceDown = new ArrayList<>();
+        int[] faceUp = null;
+        for (int index = 0; index < board.getCardCount(); index++) {
+            Card card = board.getCardAt(index);
+            int[] position = {index / board.getColsSize(), index % board.getColsSize()};
+            if (card.isMatched()) {
+                continue;
+            }
+            if (card.isFaceUp()) {
+                faceUp = position;
+            } else {
+                faceDown.add(position);
+            }
+        }
+        if (faceUp != null) {
+            for (int[] candidate : faceDown) {  // A remembered partner of the first card
+                if (board.getCardAt(candidate[0], candidate[1]).isSeen() && board.isPotentialMatch(faceUp, candidate)) {
+                    return key(candidate);
+                }
+            }
+        } else {
+            for (int[] first : faceDown) {  // A remembered pair
+                for (int[] second : faceDown) {
+                    if (first != second && board.getCardAt(first[0], first[1]).isSeen()
+                            && board.getCardAt(second[0], second[1]).isSeen() && board.isPotentialMatch(first, second)) {
+                        return key(first);
+                    }
+                }
+            }
+        }
+        for (int[] candidate : faceDown) {
+            if (!board.getCardAt(candidate[0], candidate[1]).isSeen()) {
+                return key(candidate);
+            }
+        }
+        return key(faceDown.get(0));
+    }
+
+    private static String key(int[] position) {
+        return (position[0] + 1) + String.valueOf((char) ('A' + position[1]));
+    }
+
+    /**
+     * The keystrokes and frame latencies of one or more sessions.
+     */
+    private static final class Session {
+        final List<String> keystrokes = new ArrayList<>();
+        long[] latencies = new long[0];
+        long frames;
+        long bytes;
+        long framelessKeystrokes;
+        boolean diverged;
+
+        void add(Session other) {
+            keystrokes.addAll(other.keystrokes);
+            long[] merged = Arrays.copyOf(latencies, latencies.length + other.latencies.length);
+            System.arraycopy(other.latencies, 0, merged, latencies.length, other.latencies.length);
+            latencies = merged;
+            frames += other.frames;
+            bytes += other.bytes;
+            framelessKeystrokes += other.framelessKeystrokes;
+            diverged |= other.diverged;
+        }
+
+        long percentileMicros(double quantile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000;
+        }
+    }
+
+    /**
+     * Observer registered after the UIObserver: the first frame completed after a keystroke
+     * closes that keystroke's latency.
+     */
+    private static final class FrameProbe implements GameObserver {
+        final AtomicLong pendingKeystroke = new AtomicLong();
+        private long[] latencies = new long[256];
+        private int count;
+
+        @Override
+        public void update() {
+            System.out.flush();  // The frame's text has reached the sink before it is timed
+            long sent = pendingKeystroke.getAndSet(0);
+            if (sent != 0) {
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = System.nanoTime() - sent;
+            }
+        }
+
+        @Override
+        public void update(int score) {
+            // Scores are drawn as part of the frame
+        }
+
+        long[] latencies() {
+            return Arrays.copyOf(latencies, count);
+        }
+    }
+
+    /**
+     * Pipe reader that signals each time the game is about to block waiting for a line.
+     */
+    private static final class SignallingInput extends InputStream {
+        private final PipedInputStream pipe;
+        private final Semaphore awaitingInput;
+
+        SignallingInput(PipedInputStream pipe, Semaphore awaitingInput) {
+            this.pipe = pipe;
+            this.awaitingInput = awaitingInput;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (pipe.available() == 0) {
+                awaitingInput.release();
+            }
+            return pipe.read(b, off, len);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return pipe.available();
+        }
+    }
+
+    /**
+     * Output sink that counts bytes and remembers the last complete line, so the recorder
+     * can tell an Enter prompt from a coordinate prompt.
+     */
+    private static final class OutputSink extends OutputStream {
+        private final StringBuilder currentLine = new StringBuilder();
+        private volatile String lastLine = "";
+        private volatile long bytes;
+
+        @Override
+        public synchronized void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lastLine = currentLine.toString();
+                currentLine.setLength(0);
+            } else if (b != '\r' && currentLine.length() < 256) {
+                currentLine.append((char) (b & 0xff));
+            }
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+
+        String lastLine() {
+            return lastLine;
+        }
+
+        long bytes() {
+            return bytes;
+        }
+
+        synchronized void reset() {
+            bytes = 0;
+            currentLine.setLength(0);
+            lastLine = "";
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package bench;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.LogManager;
+
+import core.Game;
+import matchmaking.MatchTicket;
+import matchmaking.MatchmakingService;
+
+/**
+ * MatchmakingBenchmark drives the MatchmakingService from several threads with players whose
+ * ratings spread around 1500, a few bots among them, over all board sizes and rules.
+ *
+ * The throughput phase enqueues as fast as the threads can while at most MAX_WAITING players
+ * wait, and reports enqueues and games created per second. The arrival phase enqueues at a fixed
+ * rate, as players arriving over time would, and reports the time-to-match quantiles the service
+ * exports and the rating gap of the pairs. Created games are unregistered at once, as if they
+ * had been played.
+ *
+ * Run with: java bench.MatchmakingBenchmark [seconds] [threads] [arrivalsPerSecond]
+ */
+public class MatchmakingBenchmark {
+    private static final double RATING_SPREAD = 250;
+    private static final double BOT_SHARE = 0.05;
+    private static final int MAX_WAITING = 20_000;
+    private static final String[] SIZES = {"Small", "Medium", "Large"};
+    private static final String[] RULES = {"full", "symbol", "color"};
+
+    private static final AtomicLong names = new AtomicLong();
+    private static final Map<Game, Double> firstRatings = new ConcurrentHashMap<>();
+    private static final DoubleAdder ratingGaps = new DoubleAdder();
+    private static final LongAdder pairs = new LongAdder();
+
+    public static void main(String[] args) throws InterruptedException {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+        int arrivals = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+        LogManager.getLogManager().reset();
+        MatchmakingService service = MatchmakingService.getInstance();
+
+        System.out.printf("Throughput: %d threads for %d s, at most %d waiting%n", threads, seconds, MAX_WAITING);
+        long enqueuedBefore = service.getEnqueuedCount();
+        long matchesBefore = service.getMatchCount();
+        long start = System.nanoTime();
+        long deadline = start + seconds * 1_000_000_000L;
+        run(threads, t -> {
+            SplittableRandom random = new SplittableRandom(40 + t);
+            while (System.nanoTime() < deadline) {
+                if (service.getWaitingCount() >= MAX_WAITING) {
+                    Thread.yield();
+                    continue;
+                }
+                enqueue(service, random);
+            }
+        });
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("  %.0f enqueues/s, %.0f games created/s, %d still waiting%n",
+                (service.getEnqueuedCount() - enqueuedBefore) / elapsed,
+                (service.getMatchCount() - matchesBefore) / elapsed, service.getWaitingCount());
+        report(service);
+
+        Thread.sleep(2_000);  // Let the sweeper pair the leftovers before measuring waits
+        ratingGaps.reset();
+        pairs.reset();
+        System.out.printf("%nArrivals: %d players/s for %d s%n", arrivals, seconds);
+        long period = 1_000_000_000L * threads / arrivals;
+        long phaseStart = System.nanoTime();
+        long phaseEnd = phaseStart + seconds * 1_000_000_000L;
+        run(threads, t -> {
+            SplittableRandom random = new SplittableRandom(400 + t);
+            long next = phaseStart + t * period / threads;
+            while (next < phaseEnd) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                enqueue(service, random);
+                next += period;
+            }
+        });
+        Thread.sleep(1_000);
+        System.out.printf("  %d still waiting after the last arrival%n", service.getWaitingCount());
+        report(service);
+    }
+
+    private static void enqueue(MatchmakingService service, SplittableRandom random) {
+        String size = SIZES[random.nextInt(SIZES.length)];
+        String rules = RULES[random.nextInt(RULES.length)];
+        MatchTicket ticket;
+        if (random.nextDouble() < BOT_SHARE) {
+            ticket = service.enqueueBot(1 + random.nextInt(3), size, rules);
+        } else {
+            double rating = 1500 + RATING_SPREAD * gaussian(random);
+            ticket = service.enqueueHuman("player-" + names.incrementAndGet(), rating, size, rules);
+        }
+        double rating = ticket.getRating();
+        ticket.getGame().thenAccept(game -> {
+            Double other = firstRatings.putIfAbsent(game, rating);
+            if (other != null) {
+                firstRatings.remove(game);
+                ratingGaps.add(Math.abs(other - rating));
+                pairs.increment();
+            }
+        });
+    }
+
+    private static void report(MatchmakingService service) {
+        long[] waits = service.getTimeToMatch().quantileNanos(0.5, 0.9, 0.99, 1.0);
+        System.out.printf("  time to match (last 8192 players): p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                waits[0] / 1e6, waits[1] / 1e6, waits[2] / 1e6, waits[3] / 1e6);
+        System.out.printf("  mean rating gap of %d pairs: %.1f%n", pairs.sum(), ratingGaps.sum() / Math.max(1, pairs.sum()));
+    }
+
+    private static void run(int threads, java.util.function.IntConsumer body) throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            workers[t] = new Thread(() -> body.accept(index), "enqueuer-" + t);
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        double u = 1 - random.nextDouble();  // Box-Muller, u in (0, 1]
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+}
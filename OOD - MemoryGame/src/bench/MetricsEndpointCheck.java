@@ -0,0 +1,69 @@
+package bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.LogManager;
+
+import core.GameManager;
+import core.SessionCache;
+import matchmaking.MatchmakingService;
+import metrics.PrometheusEndpoint;
+import metrics.StallWatchdog;
+import rating.RatingEngine;
+
+/**
+ * MetricsEndpointCheck starts the Prometheus endpoint on an ephemeral port, as Main does for
+ * -Dmemorygame.metrics.port, and scrapes "/metrics" over HTTP. It checks that the scrape
+ * answers 200 with the expected metrics and that it created none of the services it reads.
+ * The process exits with status 1 on a failure.
+ *
+ * Run with: java bench.MetricsEndpointCheck
+ */
+public class MetricsEndpointCheck {
+    private static final String[] EXPECTED = {"memorygame_active_sessions", "memorygame_stalls_total",
+            "memorygame_sessions_open", "memorygame_rated_players", "memorygame_matchmaking_waiting",
+            "memorygame_time_to_match_seconds"};
+
+    public static void main(String[] args) throws IOException {
+        LogManager.getLogManager().reset();
+        List<String> failures = new ArrayList<>();
+        try (PrometheusEndpoint endpoint = PrometheusEndpoint.start(0)) {
+            URL url = new URL("http://localhost:" + endpoint.getPort() + "/metrics");
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            int status = connection.getResponseCode();
+            String body;
+            try (InputStream in = connection.getInputStream()) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                in.transferTo(bytes);
+                body = bytes.toString(StandardCharsets.UTF_8);
+            }
+            if (status != 200) {
+                failures.add("Status " + status);
+            }
+            for (String name : EXPECTED) {
+                if (!body.contains("\n" + name + " ") && !body.contains("\n" + name + "{")
+                        && !body.contains("\n" + name + "_count ")) {
+                    failures.add("Missing " + name);
+                }
+            }
+            System.out.println("Scraped port " + endpoint.getPort() + ": status " + status + ", "
+                    + body.lines().count() + " lines");
+        }
+        if (GameManager.getExistingInstance() != null || StallWatchdog.getExistingInstance() != null
+                || SessionCache.getExistingInstance() != null || RatingEngine.getExistingInstance() != null
+                || MatchmakingService.getExistingInstance() != null) {
+            failures.add("The scrape created a service");
+        }
+        if (!failures.isEmpty()) {
+            failures.forEach(failure -> System.out.println("FAILED: " + failure));
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+}
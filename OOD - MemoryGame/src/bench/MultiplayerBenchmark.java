@@ -0,0 +1,94 @@
+package bench;
+
+import java.util.List;
+import java.util.logging.LogManager;
+
+import core.Game;
+import core.RankIndex;
+import model.Player;
+import patterns.builders.GameBuilder;
+import patterns.observer.UIObserver;
+
+/**
+ * MultiplayerBenchmark plays headless endless games between more and more computer players on
+ * one large board, with the console UI drawing every notification to a discarding stream, and
+ * reports the time per turn. A turn touches the player taking it and the board, never the other
+ * players, so the time per turn should stay flat from two players to thousands.
+ *
+ * After each game it checks the game's rank index against the players' scores: positions in
+ * order of score, every player ranked by its current score, and determineWinner the highest
+ * score of the lowest seat.
+ *
+ * Run with: java bench.MultiplayerBenchmark [turns] [boardPairs] [maxPlayers] [difficulty]
+ * The process exits with status 1 when a rank index is wrong or the turn at the most players
+ * takes more than twice as long as with two.
+ */
+public class MultiplayerBenchmark {
+    private static final double GROWTH_LIMIT = 2.0;
+
+    public static void main(String[] args) {
+        long turns = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        int boardPairs = args.length > 1 ? Integer.parseInt(args[1]) : 260;
+        int maxPlayers = args.length > 2 ? Integer.parseInt(args[2]) : 4_096;
+        int difficulty = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        LogManager.getLogManager().reset();
+
+        play(2, turns, boardPairs, difficulty);  // Warm-up
+        System.out.printf("%8s %10s %12s %12s %10s%n", "players", "turns", "us/turn", "leader", "score");
+        double first = 0;
+        double last = 0;
+        int most = 2;
+        boolean consistent = true;
+        for (int players = 2; players <= maxPlayers; players *= 4) {
+            long start = System.nanoTime();
+            Game game = play(players, turns, boardPairs, difficulty);
+            double microsPerTurn = (System.nanoTime() - start) / 1e3 / game.getMetrics().getTurns();
+            Player leader = game.determineWinner();
+            System.out.printf("%8d %10d %12.2f %12s %10d%n", players, game.getMetrics().getTurns(), microsPerTurn,
+                    leader.getName(), leader.getScore());
+            consistent &= check(game);
+            first = first == 0 ? microsPerTurn : first;
+            last = microsPerTurn;
+            most = players;
+        }
+
+        double growth = last / first;
+        System.out.printf("%nTime per turn at %d players over 2 players: %.2f%n", most, growth);
+        if (!consistent || growth > GROWTH_LIMIT) {
+            System.out.println(consistent ? "The time per turn grew with the players." : "A rank index was wrong.");
+            System.exit(1);
+        }
+        System.out.println("Rank indexes consistent and time per turn flat.");
+    }
+
+    private static Game play(int players, long turns, int boardPairs, int difficulty) {
+        Game game = new GameBuilder().setComputerPlayers(players).setBoardPairs(boardPairs)
+                .setDifficulty(difficulty).setSeed(players).setHeadless(true).setEndless(turns, 0).build();
+        game.addObserver(new UIObserver(game.getGameUI(), game));
+        game.startGame();
+        return game;
+    }
+
+    /**
+     * Checks a game's rank index against its players' scores.
+     * @return true if the index is consistent.
+     */
+    private static boolean check(Game game) {
+        List<Player> players = game.getPlayers();
+        RankIndex ranks = game.getRanks();
+        int winner = 0;
+        for (int seat = 0; seat < players.size(); seat++) {
+            int score = players.get(seat).getScore();
+            if (ranks.getScore(seat) != score || ranks.seatAt(ranks.positionOf(seat)) != seat) {
+                return false;
+            }
+            winner = score > players.get(winner).getScore() ? seat : winner;
+        }
+        for (int position = 1; position < ranks.size(); position++) {
+            if (ranks.getScore(ranks.seatAt(position)) > ranks.getScore(ranks.seatAt(position - 1))) {
+                return false;
+            }
+        }
+        return game.determineWinner() == players.get(winner);
+    }
+}
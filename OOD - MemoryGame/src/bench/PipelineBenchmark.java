@@ -0,0 +1,165 @@
+package bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.LogManager;
+
+import core.Game;
+import patterns.builders.GameBuilder;
+import patterns.observer.GameObserver;
+import patterns.observer.UIObserver;
+import ui.RenderPipeline;
+
+/**
+ * PipelineBenchmark plays the same seeded endless game between two Hard computer players on a
+ * Large board twice for each output speed: serially, with a UIObserver drawing and writing every
+ * frame on the game thread, and pipelined (GameBuilder.setPipelined), with the frames written
+ * on the render thread. The output is a sink that takes as long to write as a terminal of the
+ * given speed, or no time at all. It reports the turn throughput, the frames written and
+ * dropped, and the mean and maximum latency from a notification to the end of writing the frame
+ * that shows it.
+ *
+ * Run with: java bench.PipelineBenchmark [turns] [megabytesPerSecond...]
+ */
+public class PipelineBenchmark {
+    private static final double[] DEFAULT_SPEEDS = {0, 50, 10, 2};  // 0 for a sink that costs nothing
+
+    public static void main(String[] args) {
+        long turns = args.length > 0 ? Long.parseLong(args[0]) : 5_000;
+        double[] speeds = DEFAULT_SPEEDS;
+        if (args.length > 1) {
+            speeds = new double[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                speeds[i - 1] = Double.parseDouble(args[i]);
+            }
+        }
+        LogManager.getLogManager().reset();
+
+        play(false, turns, 0);  // Warm-up
+        play(true, turns, 0);
+        System.out.printf("%8s %10s %12s %10s %10s %12s %12s%n", "MB/s", "mode", "turns/s", "frames",
+                "dropped", "mean us", "max us");
+        for (double speed : speeds) {
+            for (boolean pipelined : new boolean[]{false, true}) {
+                play(pipelined, turns, speed).print(speed == 0 ? "free" : String.valueOf(speed));
+            }
+        }
+    }
+
+    private static Result play(boolean pipelined, long turns, double megabytesPerSecond) {
+        PrintStream out = new PrintStream(new TerminalSink(megabytesPerSecond), false);
+        Game game = new GameBuilder().setBoardSize("Large").setDifficulty(3).setSeed(7).setHeadless(true)
+                .setOutput(out).setPipelined(pipelined).setEndless(turns, 0).build();
+        TimedScreen screen = null;
+        if (!pipelined) {
+            screen = new TimedScreen(new UIObserver(game.getGameUI(), game));
+            game.addObserver(screen);
+        }
+        RenderPipeline pipeline = game.getPipeline();
+        long start = System.nanoTime();
+        game.startGame();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Result result = new Result();
+        result.mode = pipelined ? "pipelined" : "serial";
+        result.turnsPerSecond = game.getMetrics().getTurns() / seconds;
+        if (pipelined) {
+            result.frames = pipeline.getWritten();
+            result.dropped = pipeline.getDropped();
+            result.meanNanos = pipeline.getMeanLatencyNanos();
+            result.maxNanos = pipeline.getMaxLatencyNanos();
+        } else {
+            result.frames = screen.frames;
+            result.meanNanos = screen.frames == 0 ? 0 : screen.nanos / screen.frames;
+            result.maxNanos = screen.maxNanos;
+        }
+        return result;
+    }
+
+    private static final class Result {
+        String mode;
+        double turnsPerSecond;
+        long frames;
+        long dropped;
+        long meanNanos;
+        long maxNanos;
+
+        void print(String speed) {
+            System.out.printf("%8s %10s %12.0f %10d %10d %12.1f %12.1f%n", speed, mode, turnsPerSecond, frames,
+                    dropped, meanNanos / 1e3, maxNanos / 1e3);
+        }
+    }
+
+    /**
+     * Times each frame of a serial game, drawn and written on the game thread.
+     */
+    private static final class TimedScreen implements GameObserver {
+        private final UIObserver screen;
+        long frames;
+        long nanos;
+        long maxNanos;
+
+        TimedScreen(UIObserver screen) {
+            this.screen = screen;
+        }
+
+        @Override
+        public void update() {
+            long start = System.nanoTime();
+            screen.update();
+            long elapsed = System.nanoTime() - start;
+            frames++;
+            nanos += elapsed;
+            maxNanos = Math.max(maxNanos, elapsed);
+        }
+
+        @Override
+        public void update(int score) {
+            update();
+        }
+    }
+
+    /**
+     * Discards the bytes written, taking as long as a terminal of the given speed would. The
+     * time is owed per byte and paid in sleeps of at least PAYMENT_NANOS and on flush.
+     */
+    private static final class TerminalSink extends OutputStream {
+        private static final long PAYMENT_NANOS = 100_000;
+        private final double nanosPerByte;
+        private double owed;
+
+        TerminalSink(double megabytesPerSecond) {
+            this.nanosPerByte = megabytesPerSecond == 0 ? 0 : 1e3 / megabytesPerSecond;
+        }
+
+        @Override
+        public void write(int b) {
+            owe(1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            owe(length);
+        }
+
+        @Override
+        public void flush() {
+            pay();
+        }
+
+        private void owe(int bytes) {
+            owed += bytes * nanosPerByte;
+            if (owed >= PAYMENT_NANOS) {
+                pay();
+            }
+        }
+
+        private void pay() {
+            long deadline = System.nanoTime() + (long) owed;
+            owed = 0;
+            for (long left = deadline - System.nanoTime(); left > 0; left = deadline - System.nanoTime()) {
+                LockSupport.parkNanos(left);
+            }
+        }
+    }
+}
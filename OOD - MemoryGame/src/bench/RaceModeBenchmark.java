@@ -0,0 +1,114 @@
+package bench;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+
+import core.RaceBot;
+import core.RaceGame;
+import patterns.builders.GameBuilder;
+
+/**
+ * RaceModeBenchmark plays races on one board with growing numbers of RaceBot threads, each
+ * thread a player, for a fixed time per thread count. The threads play one race after another,
+ * meeting at a barrier between races, where every race is checked: all cards matched and the
+ * scores adding up to the pairs on the board, so no card was ever scored twice.
+ *
+ * It reports the flips (cards revealed) per second, the races per second and the claims lost
+ * to another player per flip, against the thread count.
+ *
+ * Run with: java bench.RaceModeBenchmark [seconds] [boardSize] [maxThreads]
+ */
+public class RaceModeBenchmark {
+    private static final int MATCH_POINTS = 10;  // Awarded by the builder's default SimpleScoreStrategy
+
+    public static void main(String[] args) throws Exception {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 3;
+        String size = args.length > 1 ? args[1] : "Large";
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        System.out.printf("%8s %12s %10s %16s%n", "threads", "flips/s", "races/s", "lost claims/flip");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            Run run = new Run(threads, size, (long) (seconds * 1e9));
+            run.play();
+            System.out.printf("%8d %12.0f %10.1f %16.2f%n", threads, run.reveals / run.elapsed,
+                    run.races / run.elapsed, (double) run.lostClaims / run.reveals);
+        }
+    }
+
+    /**
+     * The races of one thread count.
+     */
+    private static final class Run {
+        final int threads;
+        final GameBuilder builder;
+        final long duration;
+        final CyclicBarrier barrier;
+        volatile RaceGame race;
+        volatile boolean finished;
+        long start;
+        long reveals;
+        long lostClaims;
+        long races;
+        double elapsed;
+
+        Run(int threads, String size, long duration) {
+            this.threads = threads;
+            this.builder = new GameBuilder().setBoardSize(size).setSeed(threads);
+            this.duration = duration;
+            this.barrier = new CyclicBarrier(threads, this::nextRace);
+        }
+
+        void play() throws InterruptedException {
+            race = builder.buildRace(threads);
+            start = System.nanoTime();
+            Thread[] players = new Thread[threads];
+            for (int p = 0; p < threads; p++) {
+                int player = p;
+                players[p] = new Thread(() -> playRaces(player), "race-bot-" + p);
+                players[p].start();
+            }
+            for (Thread player : players) {
+                player.join();
+            }
+        }
+
+        private void playRaces(int player) {
+            try {
+                for (long r = 0; !finished; r++) {
+                    new RaceBot(race, player, r * threads + player).run();
+                    barrier.await();
+                }
+            } catch (InterruptedException | BrokenBarrierException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Checks the finished race and starts the next, run by the last thread to arrive.
+         */
+        private void nextRace() {
+            long total = 0;
+            for (int p = 0; p < race.getPlayerCount(); p++) {
+                total += race.getScore(p);
+            }
+            for (int i = 0; i < race.getCardCount(); i++) {
+                if (race.getState(i) != RaceGame.MATCHED) {
+                    throw new IllegalStateException("Card " + i + " is not matched at the end of the race");
+                }
+            }
+            if (total != (long) MATCH_POINTS * race.getCardCount() / 2) {
+                throw new IllegalStateException("The scores add up to " + total);
+            }
+            reveals += race.getRevealCount();
+            lostClaims += race.getLostClaimCount();
+            races++;
+            long now = System.nanoTime();
+            if (now - start >= duration) {
+                elapsed = (now - start) / 1e9;
+                finished = true;
+            } else {
+                race = builder.buildRace(threads);
+            }
+        }
+    }
+}
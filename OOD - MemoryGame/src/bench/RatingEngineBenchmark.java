@@ -0,0 +1,179 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.logging.LogManager;
+
+import rating.PlayerRating;
+import rating.RatingEngine;
+
+/**
+ * RatingEngineBenchmark reports millions of synthetic game results to the RatingEngine from
+ * several threads at once, as concurrent games finishing would, and measures results rated per
+ * second, rating and leaderboard query time and the parallel recompute of the whole history.
+ * Each player has a hidden true skill and wins with the Elo probability of the skill difference,
+ * so the benchmark also shows how well the ratings recover the skills.
+ *
+ * The recomputed ratings, and those after a save and load of the history, must equal the live
+ * ones exactly; the exit status is 1 if they do not.
+ *
+ * Run with: java bench.RatingEngineBenchmark [players] [games] [threads]
+ */
+public class RatingEngineBenchmark {
+    private static final double SKILL_SPREAD = 200;  // Standard deviation of the true skills
+    private static final double DRAW_RATE = 0.05;
+    private static final int QUERIES = 1_000_000;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int playerCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        long gameCount = args.length > 1 ? Long.parseLong(args[1]) : 2_000_000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+        LogManager.getLogManager().reset();
+
+        String[] players = new String[playerCount];
+        double[] skills = new double[playerCount];
+        SplittableRandom setup = new SplittableRandom(39);
+        for (int p = 0; p < playerCount; p++) {
+            players[p] = RatingEngine.humanKey("player-" + p);
+            skills[p] = RatingEngine.INITIAL_RATING + SKILL_SPREAD * gaussian(setup);
+        }
+
+        RatingEngine engine = RatingEngine.getInstance();
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            long share = gameCount / threads + (t < gameCount % threads ? 1 : 0);
+            SplittableRandom random = setup.split();
+            workers[t] = new Thread(() -> {
+                for (long game = 0; game < share; game++) {
+                    int first = random.nextInt(playerCount);
+                    int second = random.nextInt(playerCount - 1);
+                    if (second >= first) {
+                        second++;  // Skip the first player
+                    }
+                    double firstWins = 1 / (1 + Math.pow(10, (skills[second] - skills[first]) / 400));
+                    double roll = random.nextDouble();
+                    int outcome = roll < DRAW_RATE ? 0 : roll < DRAW_RATE + (1 - DRAW_RATE) * firstWins ? 1 : -1;
+                    engine.record(players[first], players[second], outcome);
+                }
+            }, "reporter-" + t);
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        engine.flush();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Rated %d results between %d players from %d threads in %.2f s: %.0f results/s%n",
+                engine.getResultsRated(), engine.getPlayerCount(), threads, seconds, engine.getResultsRated() / seconds);
+
+        PlayerRating[] live = snapshot(engine, players);
+        SplittableRandom picks = new SplittableRandom(1);
+        long checksum = 0;
+        start = System.nanoTime();
+        for (int q = 0; q < QUERIES; q++) {
+            PlayerRating rating = engine.getRating(players[picks.nextInt(playerCount)]);
+            checksum += rating == null ? 0 : rating.getGames();
+        }
+        System.out.printf("Rating query: %.0f ns (checksum %d)%n", (System.nanoTime() - start) / (double) QUERIES, checksum);
+        start = System.nanoTime();
+        for (int q = 0; q < QUERIES; q++) {
+            checksum += engine.getTopK(10).size();
+        }
+        System.out.printf("Top-10 query: %.0f ns%n", (System.nanoTime() - start) / (double) QUERIES);
+        System.out.println();
+        System.out.println("Top 10 by conservative rating (true skill):");
+        for (PlayerRating rating : engine.getTopK(10)) {
+            int p = Integer.parseInt(rating.getPlayer().substring(rating.getPlayer().lastIndexOf('-') + 1));
+            System.out.printf("  %-40s (%.0f)%n", rating, skills[p]);
+        }
+        report(players, skills, live);
+
+        start = System.nanoTime();
+        engine.recompute();
+        System.out.printf("%nRecomputed the history in %d ms on %d cores%n", (System.nanoTime() - start) / 1_000_000,
+                Runtime.getRuntime().availableProcessors());
+        boolean identical = compare("Recompute", live, snapshot(engine, players));
+
+        Path file = Files.createTempFile("memorygame-ratings", ".bin");
+        try {
+            engine.save(file);
+            start = System.nanoTime();
+            engine.load(file);
+            System.out.printf("Saved %d bytes and loaded them in %d ms%n", Files.size(file),
+                    (System.nanoTime() - start) / 1_000_000);
+            identical &= compare("Load", live, snapshot(engine, players));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        if (!identical) {
+            System.exit(1);
+        }
+    }
+
+    private static PlayerRating[] snapshot(RatingEngine engine, String[] players) {
+        PlayerRating[] ratings = new PlayerRating[players.length];
+        for (int p = 0; p < players.length; p++) {
+            ratings[p] = engine.getRating(players[p]);
+        }
+        return ratings;
+    }
+
+    private static boolean compare(String what, PlayerRating[] expected, PlayerRating[] actual) {
+        int differences = 0;
+        for (int p = 0; p < expected.length; p++) {
+            boolean same = expected[p] == null ? actual[p] == null : actual[p] != null
+                    && expected[p].getRating() == actual[p].getRating()
+                    && expected[p].getDeviation() == actual[p].getDeviation()
+                    && expected[p].getGames() == actual[p].getGames();
+            differences += same ? 0 : 1;
+        }
+        System.out.println(what + ": " + (differences == 0 ? "all ratings identical to the live ones"
+                : differences + " ratings differ from the live ones"));
+        return differences == 0;
+    }
+
+    /**
+     * Prints how well the ratings recover the true skills.
+     */
+    private static void report(String[] players, double[] skills, PlayerRating[] ratings) {
+        List<Integer> rated = new ArrayList<>();
+        for (int p = 0; p < players.length; p++) {
+            if (ratings[p] != null) {
+                rated.add(p);
+            }
+        }
+        double meanSkill = rated.stream().mapToDouble(p -> skills[p]).average().orElse(0);
+        double meanRating = rated.stream().mapToDouble(p -> ratings[p].getRating()).average().orElse(0);
+        double covariance = 0;
+        double skillVariance = 0;
+        double ratingVariance = 0;
+        for (int p : rated) {
+            covariance += (skills[p] - meanSkill) * (ratings[p].getRating() - meanRating);
+            skillVariance += (skills[p] - meanSkill) * (skills[p] - meanSkill);
+            ratingVariance += (ratings[p].getRating() - meanRating) * (ratings[p].getRating() - meanRating);
+        }
+        int k = Math.min(100, rated.size());
+        Set<Integer> bestBySkill = new HashSet<>(rated.stream()
+                .sorted(Comparator.comparingDouble((Integer p) -> -skills[p])).limit(k).toList());
+        long found = rated.stream().sorted(Comparator.comparingDouble((Integer p) -> -ratings[p].getRating()))
+                .limit(k).filter(bestBySkill::contains).count();
+        double[] deviations = rated.stream().mapToDouble(p -> ratings[p].getDeviation()).sorted().toArray();
+        System.out.printf("%nCorrelation of rating and true skill: %.3f; %d of the %d most skilled are in the top %d by rating%n",
+                covariance / Math.sqrt(skillVariance * ratingVariance), found, k, k);
+        System.out.printf("Median rating deviation: %.0f%n", deviations.length == 0 ? 0 : deviations[deviations.length / 2]);
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        double u = 1 - random.nextDouble();  // Box-Muller, u in (0, 1]
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+}
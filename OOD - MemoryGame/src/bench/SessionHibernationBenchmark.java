@@ -0,0 +1,144 @@
+package bench;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.logging.LogManager;
+
+import core.SessionCache;
+import patterns.builders.GameBuilder;
+
+/**
+ * SessionHibernationBenchmark opens many human-against-computer sessions in the SessionCache
+ * under a small heap budget, then plays random flips across them: most moves go to a hot set
+ * of sessions and the rest to any session, so both resident and hibernated games are moved.
+ * Reports the cache hit rate, evictions, rehydration and flip latency, heap used and the
+ * bytes the hibernated sessions take on disk.
+ *
+ * Run with: java bench.SessionHibernationBenchmark [sessions] [moves] [boardSize]
+ * The budget defaults to 16 MB here; override it with -Dmemorygame.sessions.heapBudgetMB.
+ */
+public class SessionHibernationBenchmark {
+    private static final int DEFAULT_SESSIONS = 100_000;
+    private static final int DEFAULT_MOVES = 200_000;
+    private static final double HOT_SET_FRACTION = 0.02;
+    private static final double HOT_MOVE_FRACTION = 0.9;
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) throws IOException {
+        int sessionCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SESSIONS;
+        int moves = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MOVES;
+        String size = args.length > 2 ? args[2] : "Small";
+        LogManager.getLogManager().reset();
+        Path spillDir = Files.createTempDirectory("memorygame-sessions");
+        if (System.getProperty("memorygame.sessions.heapBudgetMB") == null) {
+            System.setProperty("memorygame.sessions.heapBudgetMB", "16");
+        }
+        System.setProperty("memorygame.sessions.spillDir", spillDir.toString());
+        SessionCache cache = SessionCache.getInstance();
+
+        long heapBefore = usedHeapAfterGc();
+        long start = System.nanoTime();
+        String[] ids = new String[sessionCount];
+        for (int i = 0; i < sessionCount; i++) {
+            ids[i] = cache.open(newGame(size, i));
+        }
+        long openMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("Opened %d %s sessions in %d ms, budget %d MB%n", sessionCount, size, openMillis,
+                cache.getHeapBudgetBytes() / (1024 * 1024));
+        report(cache, heapBefore, spillDir);
+
+        Random random = new Random(7);
+        int hotSet = Math.max(1, (int) (sessionCount * HOT_SET_FRACTION));
+        int[] shape = cache.withGame(ids[0], game -> new int[]{game.getBoard().getRowsSize(), game.getBoard().getColsSize()});
+        int rows = shape[0];
+        int cols = shape[1];
+        long[] flipNanos = new long[moves];
+        long rejected = 0;
+        long finished = 0;
+        long hitsBefore = cache.getHits();
+        long missesBefore = cache.getMisses();
+        start = System.nanoTime();
+        for (int move = 0; move < moves; move++) {
+            int slot = random.nextDouble() < HOT_MOVE_FRACTION ? random.nextInt(hotSet) : random.nextInt(sessionCount);
+            while (true) {
+                long flipStart = System.nanoTime();
+                try {
+                    cache.flip(ids[slot], random.nextInt(rows), random.nextInt(cols));
+                    flipNanos[move] = System.nanoTime() - flipStart;
+                    break;
+                } catch (IllegalArgumentException e) {
+                    rejected++;  // Face up or matched; pick another card
+                } catch (IllegalStateException e) {
+                    finished++;  // The game is over; the player starts a new one
+                    cache.close(ids[slot]);
+                    ids[slot] = cache.open(newGame(size, sessionCount + move));
+                }
+            }
+        }
+        long moveMillis = (System.nanoTime() - start) / 1_000_000;
+
+        long hits = cache.getHits() - hitsBefore;
+        long misses = cache.getMisses() - missesBefore;
+        System.out.printf("%nPlayed %d flips in %d ms (%d rejected cards, %d finished games)%n",
+                moves, moveMillis, rejected, finished);
+        System.out.printf("Cache: %d hits, %d misses (%.1f%% hit rate), %d evictions%n",
+                hits, misses, 100.0 * hits / Math.max(1, hits + misses), cache.getEvictions());
+        Arrays.sort(flipNanos);
+        System.out.printf("Flip latency us:         p50 %d, p90 %d, p99 %d, max %d%n",
+                percentile(flipNanos, 0.50), percentile(flipNanos, 0.90),
+                percentile(flipNanos, 0.99), percentile(flipNanos, 1.0));
+        System.out.printf("Rehydration: %d, mean %.1f us%n", misses,
+                cache.getRehydrationLatency().getSumSeconds() * 1e6 / Math.max(1, cache.getMisses()));
+        report(cache, heapBefore, spillDir);
+
+        for (String id : ids) {
+            cache.close(id);
+        }
+        Files.deleteIfExists(spillDir);
+    }
+
+    private static GameBuilder newGame(String size, long seed) {
+        return new GameBuilder().setNumPlayers(1).setBoardSize(size).setDifficulty(2).setSeed(seed);
+    }
+
+    private static void report(SessionCache cache, long heapBefore, Path spillDir) throws IOException {
+        long onDisk;
+        long files;
+        try (Stream<Path> spilled = Files.list(spillDir)) {
+            long[] totals = spilled.mapToLong(SessionHibernationBenchmark::sizeOf).collect(
+                    () -> new long[2], (t, bytes) -> { t[0] += bytes; t[1]++; }, (a, b) -> { a[0] += b[0]; a[1] += b[1]; });
+            onDisk = totals[0];
+            files = totals[1];
+        }
+        System.out.printf("Resident %d of %d sessions, estimated %d KB; heap used %d KB; "
+                        + "%d hibernated, %d KB on disk (%d bytes each)%n",
+                cache.getResidentCount(), cache.getSessionCount(), cache.getResidentBytes() / 1024,
+                (usedHeapAfterGc() - heapBefore) / 1024, files, onDisk / 1024, onDisk / Math.max(1, files));
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000;
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,141 @@
+package bench;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.LogManager;
+
+import core.Game;
+import model.Card;
+import model.Player;
+import patterns.builders.GameBuilder;
+import patterns.observer.TurnObserver;
+import spectator.SpectatorChannel;
+import spectator.SpectatorFrame;
+import spectator.Subscription;
+
+/**
+ * SpectatorFanoutBenchmark plays a headless endless game between two computer players, paced
+ * to a number of turns per second, while growing crowds of spectators watch it through one
+ * SpectatorChannel. A few delivery threads
+ * poll their share of the subscriptions and copy every frame into a sink buffer, as a server
+ * copies them into socket buffers; a few more spectators never poll, to show that they are
+ * dropped instead of holding frames back; they are polled once the game is over, which is when
+ * a stalled spectator's connection would next be served.
+ *
+ * For each crowd it reports the publish cost per frame, which should stay flat however many
+ * watch, the frames published and delivered per second and the spectators dropped.
+ *
+ * Run with: java bench.SpectatorFanoutBenchmark [seconds] [turnsPerSecond] [deliveryThreads] [stalled] [boardSize]
+ */
+public class SpectatorFanoutBenchmark {
+    private static final int[] CROWDS = {1, 10, 100, 1_000, 10_000};
+
+    public static void main(String[] args) throws InterruptedException {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 3;
+        int turnsPerSecond = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int deliveryThreads = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        int stalled = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        String size = args.length > 4 ? args[4] : "Large";
+        LogManager.getLogManager().reset();
+
+        System.out.printf("%10s %14s %12s %16s %10s%n", "spectators", "publish ns/fr", "frames/s", "delivered fr/s", "dropped");
+        for (int crowd : CROWDS) {
+            Game game = new GameBuilder().setBoardSize(size).setDifficulty(3).setSeed(crowd)
+                    .setHeadless(true).setEndless(0, (long) (seconds * 1_000)).build();
+            SpectatorChannel channel = new SpectatorChannel(game);
+            game.addTurnObserver(new Pacer(1_000_000_000L / turnsPerSecond));
+            List<Subscription> watching = new ArrayList<>();
+            for (int i = 0; i < crowd; i++) {
+                watching.add(channel.subscribe());
+            }
+            List<Subscription> stalledSubscriptions = new ArrayList<>();
+            for (int i = 0; i < stalled; i++) {
+                stalledSubscriptions.add(channel.subscribe());
+            }
+
+            Thread loop = new Thread(game::startGame, "spectated-game");
+            long[] delivered = new long[deliveryThreads];
+            List<Thread> deliverers = new ArrayList<>();
+            for (int t = 0; t < deliveryThreads; t++) {
+                int share = t;
+                Thread deliverer = new Thread(() -> delivered[share] = deliver(watching, share, deliveryThreads, loop),
+                        "spectator-delivery-" + t);
+                deliverers.add(deliverer);
+            }
+            long start = System.nanoTime();
+            loop.start();
+            for (Thread deliverer : deliverers) {
+                deliverer.start();
+            }
+            loop.join();
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            long total = 0;
+            for (int t = 0; t < deliveryThreads; t++) {
+                deliverers.get(t).join();
+                total += delivered[t];
+            }
+            for (Subscription subscription : stalledSubscriptions) {
+                subscription.poll();
+            }
+            long frames = channel.getFrameCount();
+            System.out.printf("%10d %14.0f %12.0f %16.0f %10d%n", crowd, (double) channel.getPublishNanos() / frames,
+                    frames / elapsed, total / elapsed, channel.getDroppedCount());
+        }
+    }
+
+    /**
+     * Pacer holds the game thread after each turn so that turns start at a fixed rate.
+     */
+    private static final class Pacer implements TurnObserver {
+        private final long period;
+        private long next = System.nanoTime();
+
+        Pacer(long period) {
+            this.period = period;
+        }
+
+        @Override
+        public void turnPlayed(Player player, int[] cardIndices, Card first, Card second, boolean isMatch) {
+            next += period;
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+
+    /**
+     * Delivers the frames of every share-th subscription until the game ends and the
+     * subscriptions are drained.
+     * @return The frames delivered.
+     */
+    private static long deliver(List<Subscription> watching, int share, int shares, Thread game) {
+        ByteBuffer sink = ByteBuffer.allocateDirect(64 * 1024);
+        long delivered = 0;
+        boolean drained = false;
+        while (!drained) {
+            boolean running = game.isAlive();
+            boolean idle = true;
+            for (int i = share; i < watching.size(); i += shares) {
+                Subscription subscription = watching.get(i);
+                SpectatorFrame frame;
+                while ((frame = subscription.poll()) != null) {
+                    if (sink.remaining() < frame.length()) {
+                        sink.clear();
+                    }
+                    frame.copyTo(sink);
+                    delivered++;
+                    idle = false;
+                }
+            }
+            drained = !running && idle;
+            if (idle && running) {
+                Thread.onSpinWait();
+                Thread.yield();
+            }
+        }
+        return delivered;
+    }
+}
@@ -0,0 +1,158 @@
+package bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.spi.ToolProvider;
+
+/**
+ * StartupBenchmark launches fresh JVMs and measures the wall-clock time to the first board
+ * frame of the interactive game and to the end of the first headless game, once with the
+ * JDK's default class-data sharing only and once with an application archive built by
+ * a training run ("app.Main --train").
+ *
+ * Class-data sharing only archives classes loaded from jar files, so when the classes are
+ * on a directory class path the benchmark packs them into a temporary jar first.
+ *
+ * Run with: java bench.StartupBenchmark [launches]
+ */
+public class StartupBenchmark {
+    private static final int DEFAULT_LAUNCHES = 10;
+    private static final String[] MILESTONES = {"board", "headless"};
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int launches = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_LAUNCHES;
+        Path workDir = Files.createTempDirectory("memorygame-startup");
+        String classPath = jarClassPath(workDir);
+        Path archive = workDir.resolve("memorygame.jsa");
+
+        long trainingMillis = train(classPath, archive);
+        System.out.printf("Training run: %d ms, archive %d KB%n%n", trainingMillis, Files.size(archive) / 1024);
+
+        System.out.printf("%-10s %-12s %10s %10s %10s%n", "milestone", "archive", "min ms", "median ms", "max ms");
+        for (String milestone : MILESTONES) {
+            launch(classPath, null, milestone);  // Warm the file system cache
+            report(milestone, "none", time(classPath, null, milestone, launches));
+            report(milestone, "app", time(classPath, archive, milestone, launches));
+        }
+
+        Files.deleteIfExists(archive);
+        Files.deleteIfExists(workDir.resolve("memorygame.jar"));
+        Files.deleteIfExists(workDir);
+    }
+
+    /**
+     * Gets a class path made of jar files, packing a directory class path into a jar if needed.
+     * @param workDir Directory for the temporary jar.
+     * @return The class path to launch with.
+     */
+    private static String jarClassPath(Path workDir) {
+        String classPath = System.getProperty("java.class.path");
+        List<String> entries = Arrays.asList(classPath.split(File.pathSeparator));
+        if (entries.stream().noneMatch(e -> new File(e).isDirectory())) {
+            return classPath;
+        }
+        Path jar = workDir.resolve("memorygame.jar");
+        List<String> jarArgs = new ArrayList<>(List.of("--create", "--file", jar.toString()));
+        for (String entry : entries) {
+            jarArgs.addAll(List.of("-C", entry, "."));
+        }
+        ToolProvider tool = ToolProvider.findFirst("jar")
+                .orElseThrow(() -> new IllegalStateException("The jar tool is not available"));
+        int status = tool.run(System.out, System.err, jarArgs.toArray(new String[0]));
+        if (status != 0) {
+            throw new IllegalStateException("Packing the classes into a jar failed with status " + status);
+        }
+        return jar.toString();
+    }
+
+    /**
+     * Runs the training run that writes the application archive.
+     * @param classPath The jar class path.
+     * @param archive The archive to write.
+     * @return Duration of the training run in milliseconds.
+     */
+    private static long train(String classPath, Path archive) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(javaCommand(), "-Xlog:cds=off,cds+dynamic=off",
+                "-XX:ArchiveClassesAtExit=" + archive, "-cp", classPath, "app.Main", "--train")
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        if (process.waitFor() != 0 || !Files.exists(archive)) {
+            throw new IllegalStateException("The training run did not produce " + archive);
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * Times a number of launches of one milestone.
+     * @param classPath The jar class path.
+     * @param archive The application archive, or null for the default sharing only.
+     * @param milestone The probe milestone.
+     * @param launches Number of launches.
+     * @return Sorted launch times in milliseconds.
+     */
+    private static long[] time(String classPath, Path archive, String milestone, int launches)
+            throws IOException, InterruptedException {
+        long[] millis = new long[launches];
+        for (int i = 0; i < launches; i++) {
+            millis[i] = launch(classPath, archive, milestone);
+        }
+        Arrays.sort(millis);
+        return millis;
+    }
+
+    /**
+     * Launches one probe JVM and waits for its marker line.
+     * @param classPath The jar class path.
+     * @param archive The application archive, or null for the default sharing only.
+     * @param milestone The probe milestone.
+     * @return Time from launch to the marker in milliseconds.
+     */
+    private static long launch(String classPath, Path archive, String milestone)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(List.of(javaCommand(), "-Xlog:cds=off"));
+        if (archive != null) {
+            command.add("-XX:SharedArchiveFile=" + archive);
+        }
+        command.addAll(List.of("-cp", classPath, "bench.StartupProbe", milestone));
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try (OutputStream stdin = process.getOutputStream()) {
+            stdin.write('\n');  // Answers the title screen's Enter prompt
+        }
+        long elapsed = -1;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.equals(StartupProbe.MARKER)) {
+                    elapsed = System.nanoTime() - start;
+                }
+            }
+        }
+        if (process.waitFor() != 0 || elapsed < 0) {
+            throw new IllegalStateException("Probe '" + milestone + "' did not complete");
+        }
+        return elapsed / 1_000_000;
+    }
+
+    private static void report(String milestone, String archive, long[] millis) {
+        System.out.printf("%-10s %-12s %10d %10d %10d%n", milestone, archive,
+                millis[0], millis[millis.length / 2], millis[millis.length - 1]);
+    }
+
+    private static String javaCommand() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+}
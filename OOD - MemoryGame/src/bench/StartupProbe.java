@@ -0,0 +1,30 @@
+package bench;
+
+import java.util.logging.LogManager;
+
+import core.GameManager;
+import patterns.builders.GameBuilder;
+
+/**
+ * StartupProbe is the child process launched by StartupBenchmark. It runs one startup
+ * milestone and then prints a marker line, so the parent can time the launch up to it.
+ *
+ * Run with: java bench.StartupProbe board|headless
+ */
+public class StartupProbe {
+    static final String MARKER = "STARTUP-PROBE-DONE";
+
+    public static void main(String[] args) {
+        LogManager.getLogManager().reset();
+        String milestone = args.length > 0 ? args[0] : "board";
+        if (milestone.equals("board")) {
+            // The interactive path: title screen, one Enter from the parent, then the first board frame
+            GameManager.getInstance().setupGame(0, "Small", 1);
+        } else {
+            new GameBuilder().setBoardSize("Small").setDifficulty(3).setSeed(1).setHeadless(true).build().startGame();
+        }
+        System.out.println(MARKER);
+        System.out.flush();
+        System.exit(0);  // Skip playing the interactive game
+    }
+}
@@ -0,0 +1,321 @@
+package cluster;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import metrics.LatencyHistogram;
+import server.GameHost;
+import server.UnknownGameException;
+
+/**
+ * GameRouter spreads games over GameWorker processes on this host and forwards each request
+ * to the worker that holds the game. A HashRing of the workers decides where a game belongs;
+ * the router's directory records where it is, which differs only while the game moves.
+ * Plugged into a GameServer, it serves the same HTTP API as a single process.
+ *
+ * A game moves by being exported from its worker in SessionCodec's compact form, restored on
+ * the new worker and resumed there; requests for it wait in the router meanwhile. Draining a
+ * worker takes it off the ring, moves its games to their new owners and stops it. A new worker
+ * joins the ring and takes over the games that now hash to it, about one in N.
+ */
+public class GameRouter implements GameHost, GameRouterMXBean, AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(GameRouter.class.getName());
+
+    private final Path directory;
+    private final Map<Integer, WorkerLink> workers = new ConcurrentHashMap<>();
+    private final Map<String, Placement> placements = new ConcurrentHashMap<>();
+    private final AtomicLong gameIds = new AtomicLong();
+    private final LongAdder moves = new LongAdder();
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+    private volatile HashRing ring = HashRing.empty();
+    private int nextWorker;  // Guarded by this
+
+    /**
+     * Where a game is. Requests and moves of a game hold its placement's lock.
+     */
+    private static final class Placement {
+        WorkerLink worker;
+
+        Placement(WorkerLink worker) {
+            this.worker = worker;
+        }
+    }
+
+    private GameRouter(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Starts a router and its worker processes.
+     * @param workerCount The number of workers to start.
+     * @return The running router.
+     * @throws IOException If a worker cannot be started.
+     */
+    public static GameRouter start(int workerCount) throws IOException {
+        GameRouter router = new GameRouter(Files.createTempDirectory("memorygame-cluster"));
+        List<WorkerLink> started = new ArrayList<>();
+        try {
+            synchronized (router) {
+                for (int i = 0; i < workerCount; i++) {
+                    started.add(WorkerLink.launch(router.nextWorker++, router.directory));  // Launched together, then awaited
+                }
+                for (WorkerLink worker : started) {
+                    worker.awaitReady();
+                    router.workers.put(worker.getIndex(), worker);
+                    router.ring = router.ring.with(worker.getIndex());
+                }
+            }
+        } catch (IOException e) {
+            started.forEach(WorkerLink::close);
+            throw e;
+        }
+        LOGGER.info("Game router started " + workerCount + " workers in " + router.directory);
+        return router;
+    }
+
+    @Override
+    public String create(Map<String, String> parameters) {
+        String id = "game-" + gameIds.incrementAndGet();
+        WorkerLink worker = workers.get(ring.ownerOf(id));
+        Placement placement = new Placement(worker);
+        synchronized (placement) {
+            placements.put(id, placement);  // Before the worker has it, so a drain cannot miss it
+            try {
+                worker.create(id, parameters);
+            } catch (RuntimeException e) {
+                placements.remove(id);
+                throw e;
+            }
+        }
+        if (worker.isDraining()) {
+            move(id, ring.ownerOf(id));  // Placed by the ring of before the drain
+        }
+        return id;
+    }
+
+    @Override
+    public String state(String id) {
+        return onWorker(id, worker -> worker.state(id));
+    }
+
+    @Override
+    public String flip(String id, int row, int col, Consumer<String> published) {
+        return onWorker(id, worker -> {
+            String state = worker.flip(id, row, col);
+            published.accept(state);
+            return state;
+        });
+    }
+
+    @Override
+    public String undo(String id, Consumer<String> published) {
+        return onWorker(id, worker -> {
+            String state = worker.undo(id);
+            published.accept(state);
+            return state;
+        });
+    }
+
+    @Override
+    public void close(String id) {
+        Placement placement = placements.remove(id);
+        if (placement != null) {
+            synchronized (placement) {
+                placement.worker.close(id);
+            }
+        }
+    }
+
+    private <T> T onWorker(String id, Function<WorkerLink, T> request) {
+        Placement placement = placements.get(id);
+        if (placement == null) {
+            throw new UnknownGameException("Unknown game " + id);
+        }
+        synchronized (placement) {
+            return request.apply(placement.worker);
+        }
+    }
+
+    /**
+     * Moves a game to another worker: exports it, restores it there and resumes it. If the
+     * restore fails, the game is restored on its old worker.
+     * @param gameId The game id.
+     * @param worker The index of the worker to move it to.
+     * @throws IllegalArgumentException if there is no such game or worker.
+     */
+    @Override
+    public void moveGame(String gameId, int worker) {
+        WorkerLink target = workers.get(worker);
+        if (target == null || target.isDraining()) {
+            throw new IllegalArgumentException("No worker " + worker + " to move to");
+        }
+        if (!move(gameId, worker)) {
+            throw new IllegalArgumentException("Unknown game " + gameId);
+        }
+    }
+
+    /**
+     * Moves a game unless it was closed meanwhile.
+     * @return false if the game is not hosted.
+     */
+    private boolean move(String id, int worker) {
+        Placement placement = placements.get(id);
+        if (placement == null) {
+            return false;
+        }
+        synchronized (placement) {
+            if (placements.get(id) != placement) {
+                return false;  // Closed, or creation failed
+            }
+            WorkerLink source = placement.worker;
+            WorkerLink target = workers.get(worker);
+            if (source == target) {
+                return true;
+            }
+            long start = System.nanoTime();
+            byte[] snapshot = source.export(id);
+            try {
+                target.restore(id, snapshot);
+            } catch (RuntimeException e) {
+                LOGGER.warning("Moving " + id + " to worker " + worker + " failed, keeping it on worker "
+                        + source.getIndex() + ": " + e);
+                source.restore(id, snapshot);
+                throw e;
+            }
+            placement.worker = target;
+            moves.increment();
+            moveLatency.record(System.nanoTime() - start);
+        }
+        return true;
+    }
+
+    /**
+     * Starts a worker and moves to it the games that now hash to it.
+     * @return The new worker's index.
+     */
+    @Override
+    public synchronized int addWorker() {
+        int index = nextWorker++;
+        WorkerLink worker;
+        try {
+            worker = WorkerLink.launch(index, directory);
+            worker.awaitReady();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start worker " + index, e);
+        }
+        workers.put(index, worker);
+        ring = ring.with(index);
+        int moved = 0;
+        for (String id : placements.keySet()) {
+            if (ring.ownerOf(id) == index && move(id, index)) {
+                moved++;
+            }
+        }
+        LOGGER.info("Worker " + index + " joined and took over " + moved + " games");
+        return index;
+    }
+
+    /**
+     * Takes a worker off the ring, moves its games to the other workers and stops it.
+     * @param worker The worker's index.
+     * @return The number of games moved.
+     * @throws IllegalArgumentException if there is no such worker or it is the last one.
+     */
+    @Override
+    public synchronized int drainWorker(int worker) {
+        WorkerLink link = workers.get(worker);
+        if (link == null) {
+            throw new IllegalArgumentException("No worker " + worker);
+        }
+        if (workers.size() == 1) {
+            throw new IllegalArgumentException("Cannot drain the last worker");
+        }
+        HashRing remaining = ring.without(worker);
+        ring = remaining;  // New games go elsewhere from here
+        link.setDraining();
+        int moved = 0;
+        for (Map.Entry<String, Placement> entry : placements.entrySet()) {
+            Placement placement = entry.getValue();
+            WorkerLink current;
+            synchronized (placement) {
+                current = placement.worker;
+            }
+            if (current == link && move(entry.getKey(), remaining.ownerOf(entry.getKey()))) {
+                moved++;
+            }
+        }
+        workers.remove(worker);
+        link.close();
+        LOGGER.info("Worker " + worker + " drained, " + moved + " games moved");
+        return moved;
+    }
+
+    @Override
+    public int[] getWorkerIndices() {
+        return workers.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    /**
+     * Counts the games on each worker, in the order of getWorkerIndices.
+     * @return The counts.
+     */
+    @Override
+    public int[] getGamesPerWorker() {
+        int[] indices = getWorkerIndices();
+        int[] counts = new int[indices.length];
+        for (Placement placement : placements.values()) {
+            WorkerLink worker;
+            synchronized (placement) {
+                worker = placement.worker;
+            }
+            for (int i = 0; i < indices.length; i++) {
+                if (indices[i] == worker.getIndex()) {
+                    counts[i]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public int getGameCount() {
+        return placements.size();
+    }
+
+    @Override
+    public long getGamesMoved() {
+        return moves.sum();
+    }
+
+    /**
+     * Gets the time games took to move, export to resume, while their requests waited.
+     * @return The histogram.
+     */
+    public LatencyHistogram getMoveLatency() {
+        return moveLatency;
+    }
+
+    /**
+     * Stops every worker; their games are lost.
+     */
+    @Override
+    public synchronized void close() {
+        for (WorkerLink worker : workers.values()) {
+            worker.close();
+        }
+        workers.clear();
+        placements.clear();
+        ring = HashRing.empty();
+    }
+}
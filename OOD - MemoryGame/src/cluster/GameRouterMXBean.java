@@ -0,0 +1,14 @@
+package cluster;
+
+/**
+ * Management interface exposing the GameRouter over JMX.
+ */
+public interface GameRouterMXBean {
+    int[] getWorkerIndices();
+    int[] getGamesPerWorker();
+    int getGameCount();
+    long getGamesMoved();
+    int addWorker();
+    int drainWorker(int worker);
+    void moveGame(String gameId, int worker);
+}
@@ -0,0 +1,252 @@
+package cluster;
+
+import static cluster.WorkerProtocol.CLOSE;
+import static cluster.WorkerProtocol.COUNT;
+import static cluster.WorkerProtocol.CREATE;
+import static cluster.WorkerProtocol.EXPORT;
+import static cluster.WorkerProtocol.FAILED;
+import static cluster.WorkerProtocol.FLIP;
+import static cluster.WorkerProtocol.INVALID;
+import static cluster.WorkerProtocol.OK;
+import static cluster.WorkerProtocol.RESTORE;
+import static cluster.WorkerProtocol.STATE;
+import static cluster.WorkerProtocol.UNDO;
+import static cluster.WorkerProtocol.UNKNOWN_GAME;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import core.FlipOutcome;
+import core.Game;
+import core.SessionCache;
+import server.GameServer;
+import server.UnknownGameException;
+
+/**
+ * GameWorker hosts a share of a GameRouter's games in its own process, as sessions of the
+ * process's SessionCache, and serves the WorkerProtocol on a Unix domain socket.
+ *
+ * Every request is applied on one owner thread, so a worker's games are only ever touched by
+ * that thread; connection threads only read requests and write replies. The worker maps the
+ * router's game ids to its own session ids, and a game that moves away is exported and closed.
+ * Run with "app.Main --worker socketPath"; the worker exits when its standard input closes,
+ * so it does not outlive the router that started it.
+ */
+public final class GameWorker {
+    private static final Logger LOGGER = Logger.getLogger(GameWorker.class.getName());
+
+    private final ServerSocketChannel server;
+    private final SessionCache sessions = SessionCache.getInstance();
+    private final Map<String, String> games = new HashMap<>();  // Game id to session id; owner thread only
+    private final ExecutorService owner = Executors.newSingleThreadExecutor(r -> new Thread(r, "game-worker-owner"));
+    private final AtomicInteger connectionIds = new AtomicInteger();
+
+    private GameWorker(ServerSocketChannel server) {
+        this.server = server;
+    }
+
+    /**
+     * Binds the worker's socket and serves connections until standard input closes.
+     * @param socket The path of the Unix domain socket; an existing file there is replaced.
+     * @throws IOException If the socket cannot be bound.
+     */
+    public static void run(Path socket) throws IOException {
+        Files.deleteIfExists(socket);
+        ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socket));
+        socket.toFile().deleteOnExit();
+        GameWorker worker = new GameWorker(server);
+        Thread acceptor = new Thread(worker::accept, "game-worker-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        LOGGER.info("Game worker listening on " + socket);
+        while (System.in.read() >= 0) {
+            // The router never writes; end of input means it is gone
+        }
+        server.close();
+        worker.owner.shutdownNow();
+    }
+
+    private void accept() {
+        try {
+            while (true) {
+                SocketChannel channel = server.accept();
+                Thread connection = new Thread(() -> serve(channel), "game-worker-connection-" + connectionIds.incrementAndGet());
+                connection.setDaemon(true);
+                connection.start();
+            }
+        } catch (IOException e) {
+            LOGGER.fine("Stopped accepting: " + e);
+        }
+    }
+
+    /**
+     * Reads the requests of one connection and answers them in order.
+     */
+    private void serve(SocketChannel channel) {
+        try (channel;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+            while (true) {
+                int op;
+                try {
+                    op = in.readUnsignedByte();
+                } catch (EOFException e) {
+                    return;  // The router closed the connection
+                }
+                String gameId = in.readUTF();
+                Function<String, Object> action = readAction(op, in);
+                reply(out, op, owner.submit(() -> action.apply(gameId)));
+                out.flush();
+            }
+        } catch (IOException e) {
+            LOGGER.fine("Connection closed: " + e);
+        }
+    }
+
+    /**
+     * Reads the fields of a request.
+     * @return The action to run on the owner thread with the game id.
+     */
+    private Function<String, Object> readAction(int op, DataInputStream in) throws IOException {
+        switch (op) {
+            case CREATE: {
+                Map<String, String> parameters = new HashMap<>();
+                int count = in.readUnsignedByte();
+                for (int i = 0; i < count; i++) {
+                    parameters.put(in.readUTF(), in.readUTF());
+                }
+                return gameId -> create(gameId, parameters);
+            }
+            case FLIP: {
+                int row = in.readUnsignedByte();
+                int col = in.readUnsignedByte();
+                return gameId -> withGame(gameId, game -> {
+                    if (game.flip(row, col) != FlipOutcome.FIRST_CARD) {
+                        game.playComputerTurns();
+                    }
+                    return GameServer.render(gameId, game);
+                });
+            }
+            case RESTORE: {
+                byte[] snapshot = new byte[in.readInt()];
+                in.readFully(snapshot);
+                return gameId -> restore(gameId, snapshot);
+            }
+            case STATE:
+                return gameId -> withGame(gameId, game -> GameServer.render(gameId, game));
+            case UNDO:
+                return gameId -> withGame(gameId, game -> {
+                    game.undoLastAction();
+                    return GameServer.render(gameId, game);
+                });
+            case CLOSE:
+                return gameId -> {
+                    String sessionId = games.remove(gameId);
+                    if (sessionId != null) {
+                        sessions.close(sessionId);
+                    }
+                    return null;
+                };
+            case EXPORT:
+                return gameId -> {
+                    byte[] snapshot = sessions.export(sessionOf(gameId));
+                    games.remove(gameId);
+                    return snapshot;
+                };
+            case COUNT:
+                return gameId -> games.size();
+            default:
+                throw new IOException("Unknown request " + op);  // The stream cannot be resynchronized
+        }
+    }
+
+    private String create(String gameId, Map<String, String> parameters) {
+        if (games.containsKey(gameId)) {
+            throw new IllegalStateException("Game " + gameId + " already exists");
+        }
+        String sessionId = sessions.open(GameServer.gameBuilder(parameters));
+        games.put(gameId, sessionId);
+        return withGame(gameId, game -> {
+            game.playComputerTurns();  // Computer players who move first, or a game without humans
+            return GameServer.render(gameId, game);
+        });
+    }
+
+    private String restore(String gameId, byte[] snapshot) {
+        if (games.containsKey(gameId)) {
+            throw new IllegalStateException("Game " + gameId + " already exists");
+        }
+        games.put(gameId, sessions.restore(snapshot));
+        return withGame(gameId, game -> GameServer.render(gameId, game));
+    }
+
+    private <T> T withGame(String gameId, Function<Game, T> action) {
+        return sessions.withGame(sessionOf(gameId), action);
+    }
+
+    private String sessionOf(String gameId) {
+        String sessionId = games.get(gameId);
+        if (sessionId == null) {
+            throw new UnknownGameException("Unknown game " + gameId);
+        }
+        return sessionId;
+    }
+
+    /**
+     * Waits for a request's result and writes the reply.
+     */
+    private static void reply(DataOutputStream out, int op, Future<Object> result) throws IOException {
+        Object value;
+        try {
+            value = result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UnknownGameException) {
+                out.writeByte(UNKNOWN_GAME);
+                out.writeUTF(cause.getMessage());
+            } else if (cause instanceof IllegalArgumentException || cause instanceof IllegalStateException) {
+                out.writeByte(INVALID);
+                out.writeUTF(String.valueOf(cause.getMessage()));
+            } else {
+                LOGGER.warning("Request " + op + " failed: " + cause);
+                out.writeByte(FAILED);
+                out.writeUTF(String.valueOf(cause));
+            }
+            return;
+        }
+        out.writeByte(OK);
+        if (value instanceof String) {
+            out.writeUTF((String) value);
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else if (value instanceof Integer) {
+            out.writeInt((Integer) value);
+        }
+    }
+}
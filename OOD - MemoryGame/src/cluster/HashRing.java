@@ -0,0 +1,124 @@
+package cluster;
+
+import java.util.Arrays;
+
+/**
+ * HashRing maps game ids to workers by consistent hashing. Each worker owns VIRTUAL_NODES
+ * points on a ring of 64-bit hashes, and a game belongs to the worker of the first point at or
+ * after the game id's hash. Adding or removing a worker only moves the games next to its
+ * points, about one in N of them.
+ *
+ * The ring is immutable: adding or removing a worker returns a new ring, so lookups need no
+ * lock and the router swaps rings with a volatile write.
+ */
+final class HashRing {
+    static final int VIRTUAL_NODES = 128;
+
+    private final long[] points;  // Sorted
+    private final int[] owners;  // Worker of each point
+
+    private HashRing(long[] points, int[] owners) {
+        this.points = points;
+        this.owners = owners;
+    }
+
+    /**
+     * Gets a ring without workers.
+     * @return The empty ring.
+     */
+    static HashRing empty() {
+        return new HashRing(new long[0], new int[0]);
+    }
+
+    /**
+     * Gets a ring with one more worker.
+     * @param worker The worker's index.
+     * @return The new ring.
+     */
+    HashRing with(int worker) {
+        long[] merged = new long[points.length + VIRTUAL_NODES];
+        int[] mergedOwners = new int[merged.length];
+        long[] added = new long[VIRTUAL_NODES];
+        for (int i = 0; i < VIRTUAL_NODES; i++) {
+            added[i] = hash("worker-" + worker + "#" + i);
+        }
+        Arrays.sort(added);
+        int a = 0;
+        int p = 0;
+        for (int i = 0; i < merged.length; i++) {
+            if (p == points.length || (a < added.length && added[a] < points[p])) {
+                merged[i] = added[a++];
+                mergedOwners[i] = worker;
+            } else {
+                merged[i] = points[p];
+                mergedOwners[i] = owners[p++];
+            }
+        }
+        return new HashRing(merged, mergedOwners);
+    }
+
+    /**
+     * Gets a ring without a worker.
+     * @param worker The worker's index.
+     * @return The new ring.
+     */
+    HashRing without(int worker) {
+        int kept = 0;
+        for (int owner : owners) {
+            kept += owner == worker ? 0 : 1;
+        }
+        long[] remaining = new long[kept];
+        int[] remainingOwners = new int[kept];
+        int j = 0;
+        for (int i = 0; i < points.length; i++) {
+            if (owners[i] != worker) {
+                remaining[j] = points[i];
+                remainingOwners[j++] = owners[i];
+            }
+        }
+        return new HashRing(remaining, remainingOwners);
+    }
+
+    /**
+     * Gets the worker a game belongs to.
+     * @param gameId The game id.
+     * @return The worker's index.
+     * @throws IllegalStateException if the ring has no workers.
+     */
+    int ownerOf(String gameId) {
+        if (points.length == 0) {
+            throw new IllegalStateException("No workers to host games");
+        }
+        int i = Arrays.binarySearch(points, hash(gameId));
+        if (i < 0) {
+            i = -i - 1;  // The insertion point is the next point clockwise
+        }
+        return owners[i == points.length ? 0 : i];
+    }
+
+    boolean contains(int worker) {
+        for (int owner : owners) {
+            if (owner == worker) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Hashes a string with 64-bit FNV-1a and a final avalanche, so that ids differing in
+     * their last digit land far apart.
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+}
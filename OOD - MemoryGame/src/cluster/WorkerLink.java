@@ -0,0 +1,297 @@
+package cluster;
+
+import static cluster.WorkerProtocol.CLOSE;
+import static cluster.WorkerProtocol.COUNT;
+import static cluster.WorkerProtocol.CREATE;
+import static cluster.WorkerProtocol.EXPORT;
+import static cluster.WorkerProtocol.FLIP;
+import static cluster.WorkerProtocol.INVALID;
+import static cluster.WorkerProtocol.OK;
+import static cluster.WorkerProtocol.RESTORE;
+import static cluster.WorkerProtocol.STATE;
+import static cluster.WorkerProtocol.UNDO;
+import static cluster.WorkerProtocol.UNKNOWN_GAME;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import server.UnknownGameException;
+
+/**
+ * WorkerLink is the router's side of one GameWorker process: it launches the process and
+ * sends it WorkerProtocol requests over a few Unix domain socket connections, each used by
+ * one caller at a time.
+ */
+final class WorkerLink implements AutoCloseable {
+    private static final int CONNECTIONS = 4;
+    private static final long START_TIMEOUT_MILLIS = 15_000;
+
+    private final int index;
+    private final Path socket;
+    private final Process process;
+    private final BlockingQueue<Connection> idle = new ArrayBlockingQueue<>(CONNECTIONS);
+    private final AtomicInteger open = new AtomicInteger();
+    private volatile boolean draining;
+
+    /**
+     * One connection and its streams.
+     */
+    private static final class Connection {
+        final SocketChannel channel;
+        final DataInputStream in;
+        final DataOutputStream out;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+            this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+        }
+    }
+
+    private interface Fields {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private interface Result<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    private static final Result<String> STATE_TEXT = in -> in.readUTF();
+
+    private WorkerLink(int index, Path socket, Process process) {
+        this.index = index;
+        this.socket = socket;
+        this.process = process;
+    }
+
+    /**
+     * Starts a worker process with the class path of this one. The worker spills its
+     * hibernated sessions to its own directory, since session ids are only unique per process.
+     * @param index The worker's index.
+     * @param directory The directory for the worker's socket and spill files.
+     * @return The link, not yet connected.
+     * @throws IOException If the process cannot be started.
+     */
+    static WorkerLink launch(int index, Path directory) throws IOException {
+        Path socket = directory.resolve("worker-" + index + ".sock");
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Dmemorygame.sessions.spillDir=" + directory.resolve("worker-" + index + "-sessions"));
+        String budget = System.getProperty("memorygame.sessions.heapBudgetMB");
+        if (budget != null) {
+            command.add("-Dmemorygame.sessions.heapBudgetMB=" + budget);
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("app.Main");
+        command.add("--worker");
+        command.add(socket.toString());
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();  // Standard input stays a pipe: the worker exits when it closes
+        return new WorkerLink(index, socket, process);
+    }
+
+    /**
+     * Waits until the worker accepts connections.
+     * @throws IOException If the worker exits or does not listen in time.
+     */
+    void awaitReady() throws IOException {
+        long deadline = System.currentTimeMillis() + START_TIMEOUT_MILLIS;
+        while (true) {
+            try {
+                idle.add(connect());
+                return;
+            } catch (IOException e) {
+                if (!process.isAlive() || System.currentTimeMillis() > deadline) {
+                    throw new IOException("Worker " + index + " did not start", e);
+                }
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while starting worker " + index, e);
+            }
+        }
+    }
+
+    private Connection connect() throws IOException {
+        SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            channel.connect(UnixDomainSocketAddress.of(socket));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        open.incrementAndGet();
+        return new Connection(channel);
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    boolean isDraining() {
+        return draining;
+    }
+
+    void setDraining() {
+        draining = true;
+    }
+
+    String create(String gameId, Map<String, String> parameters) {
+        return call(CREATE, gameId, out -> {
+            out.writeByte(parameters.size());
+            for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+                out.writeUTF(parameter.getKey());
+                out.writeUTF(parameter.getValue());
+            }
+        }, STATE_TEXT);
+    }
+
+    String state(String gameId) {
+        return call(STATE, gameId, out -> { }, STATE_TEXT);
+    }
+
+    String flip(String gameId, int row, int col) {
+        if (row < 0 || row > 0xFF || col < 0 || col > 0xFF) {
+            throw new IllegalArgumentException("Invalid position " + row + ", " + col);
+        }
+        return call(FLIP, gameId, out -> {
+            out.writeByte(row);
+            out.writeByte(col);
+        }, STATE_TEXT);
+    }
+
+    String undo(String gameId) {
+        return call(UNDO, gameId, out -> { }, STATE_TEXT);
+    }
+
+    void close(String gameId) {
+        call(CLOSE, gameId, out -> { }, in -> null);
+    }
+
+    byte[] export(String gameId) {
+        return call(EXPORT, gameId, out -> { }, in -> {
+            byte[] snapshot = new byte[in.readInt()];
+            in.readFully(snapshot);
+            return snapshot;
+        });
+    }
+
+    String restore(String gameId, byte[] snapshot) {
+        return call(RESTORE, gameId, out -> {
+            out.writeInt(snapshot.length);
+            out.write(snapshot);
+        }, STATE_TEXT);
+    }
+
+    int count() {
+        return call(COUNT, "", out -> { }, DataInputStream::readInt);
+    }
+
+    /**
+     * Sends a request on an idle connection and reads its reply.
+     * @throws UnknownGameException if the worker does not host the game.
+     * @throws IllegalArgumentException if the worker rejected the request.
+     * @throws UncheckedIOException if the worker failed or cannot be reached.
+     */
+    private <T> T call(int op, String gameId, Fields fields, Result<T> result) {
+        Connection connection = acquire();
+        boolean healthy = false;
+        try {
+            connection.out.writeByte(op);
+            connection.out.writeUTF(gameId);
+            fields.write(connection.out);
+            connection.out.flush();
+            int status = connection.in.readUnsignedByte();
+            T value = status == OK ? result.read(connection.in) : null;
+            String reason = status == OK ? null : connection.in.readUTF();
+            healthy = true;
+            if (status == UNKNOWN_GAME) {
+                throw new UnknownGameException(reason);
+            } else if (status == INVALID) {
+                throw new IllegalArgumentException(reason);
+            } else if (status != OK) {
+                throw new UncheckedIOException(new IOException("Worker " + index + " failed: " + reason));
+            }
+            return value;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Worker " + index + " is unreachable", e);
+        } finally {
+            release(connection, healthy);
+        }
+    }
+
+    private Connection acquire() {
+        Connection connection = idle.poll();
+        if (connection != null) {
+            return connection;
+        }
+        if (open.get() < CONNECTIONS) {
+            try {
+                return connect();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Worker " + index + " is unreachable", e);
+            }
+        }
+        try {
+            return idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for worker " + index);
+        }
+    }
+
+    private void release(Connection connection, boolean healthy) {
+        if (healthy && idle.offer(connection)) {
+            return;
+        }
+        open.decrementAndGet();  // A connection in an unknown state is not reused
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+    }
+
+    /**
+     * Closes the connections and stops the worker process, waiting briefly for it to exit.
+     */
+    @Override
+    public void close() {
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            release(connection, false);
+        }
+        try {
+            process.getOutputStream().close();  // End of input tells the worker to exit
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (IOException e) {
+            process.destroyForcibly();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package cluster;
+
+/**
+ * WorkerProtocol defines the requests GameRouter sends to a GameWorker over a Unix domain
+ * socket, written with DataOutputStream. A request is an op byte and the game id as modified
+ * UTF-8, then the op's fields:
+ * <pre>
+ * CREATE   count u8, then count parameter names and values, each UTF
+ * STATE, UNDO, CLOSE, EXPORT
+ * FLIP     row u8, col u8
+ * RESTORE  length i32, snapshot bytes (as exported)
+ * COUNT    (game id empty)
+ * </pre>
+ * A reply is a status byte, then for OK the op's result: the game's state as UTF for CREATE,
+ * STATE, FLIP, UNDO and RESTORE, the snapshot as length i32 and bytes for EXPORT, the number
+ * of games as i32 for COUNT, and nothing for CLOSE. Any other status is followed by the reason
+ * as UTF.
+ *
+ * Requests on one connection are answered in order; a router keeps a few connections per
+ * worker to overlap their round trips.
+ */
+final class WorkerProtocol {
+    static final int CREATE = 1;
+    static final int STATE = 2;
+    static final int FLIP = 3;
+    static final int UNDO = 4;
+    static final int CLOSE = 5;
+    static final int EXPORT = 6;
+    static final int RESTORE = 7;
+    static final int COUNT = 8;
+
+    static final int OK = 0;
+    static final int UNKNOWN_GAME = 1;
+    static final int INVALID = 2;  // IllegalArgumentException or IllegalStateException
+    static final int FAILED = 3;
+
+    private WorkerProtocol() {
+    }
+}
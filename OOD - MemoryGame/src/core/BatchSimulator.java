@@ -0,0 +1,364 @@
+package core;
+
+import java.util.List;
+
+import model.Card;
+import patterns.factory.CardFactory;
+import patterns.strategy.match.MatchStrategy;
+
+/**
+ * BatchSimulator plays many computer-against-computer games in lockstep, one turn of every
+ * running game per step, with all game state in primitive columns instead of Game, Board,
+ * Card and Player objects. It follows the rules of Game with the difficulty strategies and
+ * consumes each game's seeded random numbers in the same order, so a game simulated here ends
+ * with the same scores and turn count as the headless Game built with the same seed.
+ *
+ * Each step first lets every running game choose its two cards (a scan of that game's cards),
+ * then settles the match checks, scores, turns and game-over tests of all games at once in
+ * branch-free loops over the per-game columns, which HotSpot compiles to SIMD instructions.
+ * Only match strategies that are equivalence relations are supported, as all built-in ones are.
+ */
+public class BatchSimulator {
+    private static final int MATCH_POINTS = 10;  // As awarded by SimpleScoreStrategy, the default
+    private static final byte SEEN = 1;
+    private static final byte MATCHED = 2;
+    private static final long MULTIPLIER = 0x5DEECE66DL;  // The java.util.Random generator
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    private final int games;
+    private final int cards;
+    private final int difficulty;
+    // Per-card columns, game-major: card c of game g is at g * cards + c
+    private final byte[] keys;
+    private final byte[] flags;
+    // Per-game columns
+    private final long[] randomState;
+    private final int[] unmatched;
+    private final int[] turns;
+    private final int[] currentPlayer;
+    private final int[] pairsFirst;
+    private final int[] pairsSecond;
+    private final int[] firstKey;
+    private final int[] secondKey;
+    private final int[] firstCard;
+    private final int[] secondCard;
+    private final int[] done;
+    // Scratch space of the card selection
+    private final int[] candidates;
+    private final int[] seenCards;
+    private final int[] keyCounts;
+
+    /**
+     * Constructs a BatchSimulator for one game per seed.
+     * @param boardSize The board size (Small, Medium, Large).
+     * @param difficulty The difficulty of both computer players (1-Easy, 2-Medium, 3-Hard).
+     * @param matchStrategy The matching strategy.
+     * @param seeds The seed of each game, as passed to GameBuilder.setSeed.
+     * @throws IllegalArgumentException if the difficulty is not Easy, Medium or Hard.
+     */
+    public BatchSimulator(String boardSize, int difficulty, MatchStrategy matchStrategy, long[] seeds) {
+        if (difficulty < 1 || difficulty > 3) {
+            throw new IllegalArgumentException("The batch simulator plays Easy, Medium and Hard only, not " + difficulty);
+        }
+        this.games = seeds.length;
+        this.difficulty = difficulty;
+        List<Card> deck = new CardFactory().createPairsOfCards(pairsFor(boardSize));
+        this.cards = deck.size();
+        byte[] deckKeys = matchKeys(deck, matchStrategy);
+
+        keys = new byte[games * cards];
+        flags = new byte[games * cards];
+        randomState = new long[games];
+        unmatched = new int[games];
+        turns = new int[games];
+        currentPlayer = new int[games];
+        pairsFirst = new int[games];
+        pairsSecond = new int[games];
+        firstKey = new int[games];
+        secondKey = new int[games];
+        firstCard = new int[games];
+        secondCard = new int[games];
+        done = new int[games];
+        candidates = new int[cards];
+        seenCards = new int[cards];
+        keyCounts = new int[cards];
+
+        int[] layout = new int[cards];
+        for (int g = 0; g < games; g++) {
+            randomState[g] = (seeds[g] ^ MULTIPLIER) & MASK;
+            for (int c = 0; c < cards; c++) {
+                layout[c] = c;
+            }
+            for (int i = cards; i > 1; i--) {  // Collections.shuffle
+                int j = nextInt(g, i);
+                int swap = layout[i - 1];
+                layout[i - 1] = layout[j];
+                layout[j] = swap;
+            }
+            for (int c = 0; c < cards; c++) {
+                keys[g * cards + c] = deckKeys[layout[c]];
+            }
+            unmatched[g] = cards;
+        }
+    }
+
+    /**
+     * Plays all games to the end.
+     */
+    public void run() {
+        int running = games;
+        while (running > 0) {
+            for (int g = 0; g < games; g++) {
+                if (done[g] == 0) {
+                    selectCards(g);
+                }
+            }
+            settleTurns();
+            markCards();
+            running = countRunning();
+        }
+    }
+
+    /**
+     * Settles the turn of every game: match check, score, turn count and next player.
+     * Finished games take part with a zero mask, so the loop has no branches.
+     */
+    private void settleTurns() {
+        for (int g = 0; g < games; g++) {
+            int live = 1 - done[g];
+            int difference = firstKey[g] ^ secondKey[g];
+            int match = (((difference | -difference) >>> 31) ^ 1) & live;
+            int player = currentPlayer[g];
+            pairsFirst[g] += match & (player ^ 1);
+            pairsSecond[g] += match & player;
+            unmatched[g] -= match << 1;
+            turns[g] += live;
+            currentPlayer[g] = player ^ (live & (match ^ 1));  // A match keeps the turn
+        }
+    }
+
+    /**
+     * Marks the two chosen cards of every running game as seen, and as matched if they matched.
+     */
+    private void markCards() {
+        for (int g = 0; g < games; g++) {
+            if (done[g] == 0) {
+                int matched = firstKey[g] == secondKey[g] ? MATCHED : 0;
+                flags[g * cards + firstCard[g]] |= (byte) (SEEN | matched);
+                flags[g * cards + secondCard[g]] |= (byte) (SEEN | matched);
+            }
+        }
+    }
+
+    /**
+     * Marks the games whose cards are all matched as done.
+     * @return The number of games still running.
+     */
+    private int countRunning() {
+        int finished = 0;
+        for (int g = 0; g < games; g++) {
+            int left = unmatched[g];
+            done[g] = ((left | -left) >>> 31) ^ 1;
+            finished += done[g];
+        }
+        return games - finished;
+    }
+
+    /**
+     * Chooses the two cards of a game's turn the way its difficulty strategy does.
+     * @param g The game.
+     */
+    private void selectCards(int g) {
+        switch (difficulty) {
+            case 2 -> selectMedium(g);
+            case 3 -> selectHard(g);
+            default -> selectEasy(g);
+        }
+        firstKey[g] = keys[g * cards + firstCard[g]];
+        secondKey[g] = keys[g * cards + secondCard[g]];
+    }
+
+    /**
+     * EasyStrategy: two different random cards in play.
+     */
+    private void selectEasy(int g) {
+        int count = collect(g, candidates, MATCHED, 0);
+        int first = nextInt(g, count);
+        int second;
+        do {
+            second = nextInt(g, count);
+        } while (first == second);
+        choose(g, candidates[first], candidates[second]);
+    }
+
+    /**
+     * MediumStrategy: a random remembered card with a random card in play.
+     */
+    private void selectMedium(int g) {
+        int known = collect(g, seenCards, SEEN | MATCHED, SEEN);
+        if (known == 0) {
+            selectEasy(g);
+            return;
+        }
+        int first = seenCards[nextInt(g, known)];
+        int count = collect(g, candidates, MATCHED, 0);
+        int second;
+        do {
+            second = candidates[nextInt(g, count)];
+        } while (second == first);
+        choose(g, first, second);
+    }
+
+    /**
+     * HardStrategy: the first remembered pair, else a random unseen card with a remembered partner,
+     * else two different random unseen cards.
+     */
+    private void selectHard(int g) {
+        int base = g * cards;
+        int seen = collect(g, seenCards, SEEN | MATCHED, SEEN);
+        for (int i = 0; i < seen; i++) {
+            keyCounts[keys[base + seenCards[i]]]++;
+        }
+        int pairKey = -1;
+        for (int i = 0; i < seen && pairKey < 0; i++) {
+            if (keyCounts[keys[base + seenCards[i]]] > 1) {
+                pairKey = keys[base + seenCards[i]];
+            }
+        }
+        for (int i = 0; i < seen; i++) {
+            keyCounts[keys[base + seenCards[i]]] = 0;
+        }
+        if (pairKey >= 0) {
+            int first = -1;
+            for (int i = 0; i < seen; i++) {
+                if (keys[base + seenCards[i]] == pairKey) {
+                    if (first < 0) {
+                        first = seenCards[i];
+                    } else {
+                        choose(g, first, seenCards[i]);
+                        return;
+                    }
+                }
+            }
+        }
+
+        int unseen = collect(g, candidates, SEEN | MATCHED, 0);
+        if (unseen == 0) {
+            throw new IllegalStateException("Game " + g + " has no unseen card and no remembered pair");
+        }
+        int first = candidates[nextInt(g, unseen)];
+        for (int i = 0; i < seen; i++) {
+            if (keys[base + seenCards[i]] == keys[base + first]) {
+                choose(g, first, seenCards[i]);
+                return;
+            }
+        }
+        first = candidates[nextInt(g, unseen)];
+        int second = candidates[nextInt(g, unseen)];
+        while (first == second) {
+            second = candidates[nextInt(g, unseen)];
+        }
+        choose(g, first, second);
+    }
+
+    private void choose(int g, int first, int second) {
+        firstCard[g] = first;
+        secondCard[g] = second;
+    }
+
+    /**
+     * Collects a game's cards whose flags, masked, equal a value, in board order.
+     * @param g The game.
+     * @param into The array to fill with card positions.
+     * @param mask The flags to test.
+     * @param value The required value of the tested flags.
+     * @return The number of cards collected.
+     */
+    private int collect(int g, int[] into, int mask, int value) {
+        int count = 0;
+        int base = g * cards;
+        for (int c = 0; c < cards; c++) {
+            if ((flags[base + c] & mask) == value) {
+                into[count++] = c;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Draws the next value of a game's random source, exactly as java.util.Random.nextInt(bound).
+     * @param g The game.
+     * @param bound The exclusive upper bound.
+     * @return The value.
+     */
+    private int nextInt(int g, int bound) {
+        int r = next31(g);
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            return (int) ((bound * (long) r) >> 31);
+        }
+        for (int u = r; u - (r = u % bound) + m < 0; u = next31(g)) {
+            // Reject values from the incomplete last range
+        }
+        return r;
+    }
+
+    private int next31(int g) {
+        long state = (randomState[g] * MULTIPLIER + ADDEND) & MASK;
+        randomState[g] = state;
+        return (int) (state >>> 17);
+    }
+
+    /**
+     * Numbers the cards of a deck so that two cards match exactly when their keys are equal.
+     * @param deck The deck in creation order.
+     * @param matchStrategy The matching strategy.
+     * @return The key of each card.
+     */
+    private static byte[] matchKeys(List<Card> deck, MatchStrategy matchStrategy) {
+        byte[] deckKeys = new byte[deck.size()];
+        for (int c = 0; c < deck.size(); c++) {
+            int key = c;
+            for (int earlier = 0; earlier < c; earlier++) {
+                if (matchStrategy.doCardsMatch(deck.get(earlier), deck.get(c))) {
+                    key = deckKeys[earlier];
+                    break;
+                }
+            }
+            deckKeys[c] = (byte) key;
+        }
+        return deckKeys;
+    }
+
+    private static int pairsFor(String boardSize) {
+        return switch (boardSize.toLowerCase()) {
+            case "small" -> 13;
+            case "medium" -> 26;
+            default -> 52;
+        };
+    }
+
+    public int getGameCount() {
+        return games;
+    }
+
+    /**
+     * Gets a player's final score.
+     * @param game The game, in seed order.
+     * @param player 0 for the first computer player, 1 for the second.
+     * @return The score.
+     */
+    public int getScore(int game, int player) {
+        return MATCH_POINTS * (player == 0 ? pairsFirst[game] : pairsSecond[game]);
+    }
+
+    /**
+     * Gets the number of turns a game took.
+     * @param game The game, in seed order.
+     * @return The turn count.
+     */
+    public int getTurns(int game) {
+        return turns[game];
+    }
+}
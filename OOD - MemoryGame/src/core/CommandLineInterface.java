@@ -4,6 +4,10 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Scanner;
 
+import patterns.strategy.difficulty.LearnedPolicy;
+import patterns.strategy.difficulty.TunedLevels;
+import ui.ConsoleInput;
+
 /**
  * Handles game instructions and processes user commands in a console-based game.
  */
@@ -14,7 +18,7 @@ public class CommandLineInterface implements AutoCloseable {
      * Constructs a new CommandLineInterface object.
      */
     public CommandLineInterface() {
-        scanner = new Scanner(System.in);
+        scanner = ConsoleInput.getScanner();
     }
 
     /**
@@ -39,7 +43,16 @@ public class CommandLineInterface implements AutoCloseable {
         // String boardSize = "Medium"; // Default board size
         int difficultyLevel = 1; // Default difficulty for single player
         if (numPlayers <= 1) {
-            difficultyLevel = promptForInt("Enter computer difficulty level (1-Easy, 2-Medium, 3-Hard):", 1, 3);
+            int tunedLevels = TunedLevels.getInstance().getLevels().size();  // Saved from FIRST_LEVEL on by BotTuner
+            String tunedChoices = tunedLevels == 0 ? "" : ", " + TunedLevels.FIRST_LEVEL + "-"
+                    + (TunedLevels.FIRST_LEVEL + tunedLevels - 1) + " Tuned";
+            boolean learned = LearnedPolicy.isDefaultLoaded();  // Offered only with a trained policy file
+            String prompt = "Enter computer difficulty level (1-Easy, 2-Medium, 3-Hard"
+                    + (learned ? ", " + LearnedPolicy.LEVEL + "-Learned" : "") + tunedChoices + "):";
+            int maxLevel = tunedLevels > 0 ? TunedLevels.FIRST_LEVEL + tunedLevels - 1 : learned ? LearnedPolicy.LEVEL : 3;
+            do {
+                difficultyLevel = promptForInt(prompt, 1, maxLevel);
+            } while (difficultyLevel == LearnedPolicy.LEVEL && !learned);  // Between Hard and the tuned levels
             // difficultyLevel = 1; // Default difficulty for single player
         }
 
@@ -109,10 +122,10 @@ public class CommandLineInterface implements AutoCloseable {
     }
 
     /**
-     * Closes the scanner to release system resources.
+     * Closes the shared scanner to release system resources.
      */
     @Override
     public void close() {
-        scanner.close();
+        ConsoleInput.close();
     }
 }
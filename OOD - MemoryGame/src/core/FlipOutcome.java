@@ -0,0 +1,10 @@
+package core;
+
+/**
+ * Outcome of a card flipped through Game.flip.
+ */
+public enum FlipOutcome {
+    FIRST_CARD,  // The first card of the turn is face up
+    MATCH,       // The second card matched; the player moves again
+    NO_MATCH     // The second card did not match; the cards are face down and the turn passed
+}
@@ -1,6 +1,7 @@
 package core;
 
 import model.Board;
+import model.HumanPlayer;
 import model.Player;
 import model.TurnResult;
 import patterns.mediator.BoardMediator;
@@ -9,17 +10,34 @@ import patterns.state.game.GameState;
 import patterns.strategy.match.MatchStrategy;
 import patterns.strategy.score.ScoreStrategy;
 import ui.GameUI;
+import ui.RenderPipeline;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import model.Card;
+import model.ComputerPlayer;
+import patterns.builders.GameBuilder;
 import patterns.command.Command;
 import patterns.command.FlipCommand;
 import patterns.factory.CardFactory;
 import patterns.factory.PlayerFactory;
 import patterns.memento.Memento;
 import patterns.observer.GameObserver;
-
+import patterns.observer.TurnObserver;
+import patterns.strategy.difficulty.DifficultyStrategy;
+import metrics.GameMetrics;
+import metrics.Heartbeat;
+import metrics.MetricsRegistry;
+import metrics.StallWatchdog;
+import metrics.jfr.GameEvents;
+import metrics.jfr.MatchDecisionEvent;
+import metrics.jfr.TurnEvent;
+import rating.RatingEngine;
+
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 /**
@@ -29,6 +47,8 @@ import java.util.logging.Logger;
 public class Game {
     private Board board;
     private List<Player> players = new ArrayList<>();
+    private List<String> ratingKeys = new ArrayList<>();  // Each player's RatingEngine key, in player order
+    private RankIndex ranks = new RankIndex(0);  // Players by score, updated as scores change
     private int currentPlayerIndex = 0;
     private GameStateManager stateManager;
     private MatchStrategy matchStrategy;
@@ -37,8 +57,30 @@ public class Game {
     private Caretaker caretaker = new Caretaker();
     private static final Logger LOGGER = Logger.getLogger(GameManager.class.getName());
     private List<GameObserver> observers = new ArrayList<>();
+    private List<TurnObserver> turnObservers = new ArrayList<>();
+    private static final AtomicLong GAME_IDS = new AtomicLong();
+    private final String gameId;
+    private final GameMetrics metrics;
+    private final Heartbeat heartbeat = new Heartbeat(this);
+    private final Object pauseLock = new Object();
+    private volatile boolean paused;
+    private volatile boolean aborted;
+    private boolean rated;  // The result went to the RatingEngine
+    private String boardSize;
+    private int difficulty;
+    private int opponentDifficulty;
+    private final int botMemory;
+    private Random random;  // Shared by the shuffle and the computer players
+    private int[] pendingFlip;  // First card of a human turn played through flip()
+    private long pendingTurnStartNanos;
+    private CardFactory deck;  // Keeps producing pairs for an endless game
+    private final boolean endless;
+    private final long turnLimit;
+    private final long timeLimitNanos;
+    private long deadlineNanos;
 
     private GameUI gameUI;
+    private RenderPipeline pipeline;  // Writes the screen on its own thread, null for a serial game
 
     /**
      * Constructs a Game instance with specified settings.
@@ -48,28 +90,61 @@ public class Game {
      * @param matchStrategy The matching strategy to use.
      */
     public Game(int numPlayers, String boardSize, int difficulty, MatchStrategy matchStrategy, ScoreStrategy scoreStrategy) {
-        this.matchStrategy = matchStrategy;
-        this.scoreStrategy = scoreStrategy;
+        this(new GameBuilder().setNumPlayers(numPlayers).setBoardSize(boardSize).setDifficulty(difficulty)
+                .setMatchStrategy(matchStrategy).setScoreStrategy(scoreStrategy));
+    }
+
+    /**
+     * Constructs a Game instance from a builder, which may configure a seeded or headless game.
+     * @param builder The builder holding the game settings.
+     */
+    public Game(GameBuilder builder) {
+        this.gameId = builder.getGameId() != null ? builder.getGameId() : "game-" + GAME_IDS.incrementAndGet();
+        this.matchStrategy = builder.getMatchStrategy();
+        this.scoreStrategy = builder.getScoreStrategy();
         this.mediator = new BoardMediator(null, this); // Board is null initially
         this.stateManager = new GameStateManager(this);
-        initializeGame(numPlayers, boardSize, difficulty, matchStrategy);
+        this.boardSize = builder.getBoardSize();
+        this.difficulty = builder.getDifficulty();
+        this.opponentDifficulty = builder.getOpponentDifficulty();
+        this.botMemory = builder.getBotMemory();
+        this.endless = builder.isEndless();
+        this.turnLimit = builder.getTurnLimit();
+        this.timeLimitNanos = builder.getTimeLimitMillis() * 1_000_000;
+        if (endless) {
+            this.deadlineNanos = System.nanoTime() + timeLimitNanos;
+        }
+        this.metrics = new GameMetrics(MetricsRegistry.getInstance().forGame(difficulty, boardSize));
+        initializeGame(builder);
     }
 
     /**
      * Initializes the game with the specified settings.
-     * @param numPlayers Number of players in the game.
-     * @param boardSize Size of the game board (Small, Medium, Large).
-     * @param difficulty Computer player difficulty (if applicable).
-     * @param matchStrategy The matching strategy to use.
+     * @param builder The builder holding the game settings.
      */
-    private void initializeGame(int numPlayers, String boardSize, int difficulty, MatchStrategy matchStrategy) {
-        int numberOfPairs = determinePairs(boardSize);
+    private void initializeGame(GameBuilder builder) {
+        int numPlayers = builder.getNumPlayers();
+        this.random = builder.getRandom();
+        int numberOfPairs = builder.getBoardPairs() > 0 ? builder.getBoardPairs() : determinePairs(boardSize);
         this.board = new Board(numberOfPairs, matchStrategy);
-        this.board.setupBoard(new CardFactory());
-        this.board.displayBoard();
+        this.deck = new CardFactory();
+        this.board.setupBoard(deck, random);
         this.mediator.setBoard(this.board); // Update mediator with the initialized board
-        initializePlayers(numPlayers, difficulty);
-        this.gameUI = GameUI.getInstance(this,numPlayers > 0 ? true : false);
+        if (builder.isHeadless()) {
+            this.gameUI = GameUI.createHeadless(this, builder.getOutput());
+        } else {
+            this.gameUI = GameUI.getInstance(this, numPlayers > 0 ? true : false);
+        }
+        this.gameUI.displayBoard();
+        if (builder.isPipelined()) {
+            pipeline = new RenderPipeline(this, builder.isHeadless() ? builder.getOutput() : System.out);
+            addObserver(pipeline);
+        }
+        if (botMemory > 0) {
+            board.getReveals();  // Records from the first turn on
+        }
+        initializePlayers(numPlayers, builder.getComputerPlayers(), builder.getPlayerNames(), difficulty, opponentDifficulty,
+                random, builder.getTurnDelayMillis());
     }
 
     /**
@@ -86,11 +161,23 @@ public class Game {
         if (observers != null) {
             observers.clear();
         }
+        turnObservers.clear();
         
         board = null;
         players.clear();
         players = new ArrayList<>();
+        ratingKeys = new ArrayList<>();
+        ranks = new RankIndex(0);
         currentPlayerIndex = 0;
+        caretaker = new Caretaker();  // Mementos hold cards and players of the finished round
+        mediator.setBoard(null);
+        if (gameUI != null) {
+            gameUI.detachGame(this);
+        }
+        if (pipeline != null) {
+            pipeline.close();
+            pipeline = null;
+        }
         
         LOGGER.info("Game has been reset.");
     }
@@ -100,7 +187,7 @@ public class Game {
      * @param numPlayers Number of players in the game.
      * @param difficulty Computer player difficulty (if applicable).
      */
-    private int determinePairs(String size) {
+    static int determinePairs(String size) {
         return switch (size.toLowerCase()) {
             case "small" -> 13;
             case "medium" -> 26;
@@ -111,20 +198,40 @@ public class Game {
 
     /**
      * Initializes players for the game using the Builder pattern for flexible player creation.
-     * @param numPlayers Number of players in the game.
-     * @param difficulty Computer player difficulty (if applicable).
+     * Computer players of a level whose strategy keeps no memory share one strategy.
+     * @param numPlayers Number of human players in the game.
+     * @param computerPlayers Number of computer players in the game.
+     * @param playerNames Names of the human players; the rest are called "Player n".
+     * @param difficulty Difficulty of the first computer player.
+     * @param opponentDifficulty Difficulty of the other computer players.
+     * @param random Random source shared by the computer players.
+     * @param turnDelayMillis Pause between a computer player's flips.
      */
-    private void initializePlayers(int numPlayers, int difficulty) {
+    private void initializePlayers(int numPlayers, int computerPlayers, List<String> playerNames, int difficulty,
+                                   int opponentDifficulty, Random random, long turnDelayMillis) {
         for (int i = 0; i < numPlayers; i++) {
-            Player player = PlayerFactory.createPlayer("human", "Player " + (i + 1), board, 0);
+            String name = i < playerNames.size() ? playerNames.get(i) : "Player " + (i + 1);
+            Player player = PlayerFactory.createPlayer("human", name, board, 0);
             player.setMediator(mediator);
             players.add(player);
+            ratingKeys.add(RatingEngine.humanKey(player.getName()));
         }
-        for (int i = 0; i < 2 - numPlayers; i++) {
-            Player player = PlayerFactory.createPlayer("computer", "Computer " + (i + 1), board, difficulty);
+        Map<Integer, DifficultyStrategy> shared = new HashMap<>();
+        Map<Integer, String> botKeys = new HashMap<>();
+        for (int i = 0; i < computerPlayers; i++) {
+            int level = i == 0 ? difficulty : opponentDifficulty;
+            DifficultyStrategy strategy = shared.get(level);
+            Player player = strategy != null
+                    ? PlayerFactory.createComputerPlayer("Computer " + (i + 1), board, strategy, turnDelayMillis)
+                    : PlayerFactory.createComputerPlayer("Computer " + (i + 1), board, level, botMemory, random, turnDelayMillis);
+            if (strategy == null && ((ComputerPlayer) player).getStrategy().isShareable()) {
+                shared.put(level, ((ComputerPlayer) player).getStrategy());
+            }
             player.setMediator(mediator);
             players.add(player);
+            ratingKeys.add(botKeys.computeIfAbsent(level, RatingEngine::botKey));
         }
+        ranks = new RankIndex(players.size());
     }
     
 
@@ -154,6 +261,15 @@ public class Game {
         this.stateManager.setState(newState);
     }
 
+    /**
+     * Gets the current state of the game.
+     *
+     * @return The current state.
+     */
+    public GameState getCurrentState() {
+        return stateManager.getCurrentState();
+    }
+
     /**
      * Adds an observer to the game.
      *
@@ -163,13 +279,24 @@ public class Game {
         observers.add(observer);
     }
     
+    /**
+     * Adds an observer that is told the cards and result of every turn.
+     *
+     * @param observer The observer to add.
+     */
+    public void addTurnObserver(TurnObserver observer) {
+        turnObservers.add(observer);
+    }
+
     /**
      * Notifies all observers of the game.
      */
     public void notifyObservers() {
+        long start = System.nanoTime();
         for (GameObserver observer : observers) {
             observer.update();
         }
+        metrics.recordObserverNotification(System.nanoTime() - start);
     }
 
     /**
@@ -183,10 +310,34 @@ public class Game {
 
     /**
      * Determines the winner of the game based on scores and announces the result.
+     * Of players sharing the highest score, the one seated first wins.
      */
     public Player determineWinner() {
-        Player winner = players.stream().max((p1, p2) -> Integer.compare(p1.getScore(), p2.getScore())).orElse(null);
-        return winner;
+        int leaders = ranks.getLeaderCount();
+        if (leaders == 0) {
+            return null;
+        }
+        int winner = ranks.seatAt(0);
+        for (int position = 1; position < leaders; position++) {
+            winner = Math.min(winner, ranks.seatAt(position));
+        }
+        return players.get(winner);
+    }
+
+    /**
+     * Gets the players ranked by score, kept up to date as scores change.
+     * @return The rank index, by seat index in getPlayers().
+     */
+    public RankIndex getRanks() {
+        return ranks;
+    }
+
+    /**
+     * Re-ranks a player whose score was changed outside updateScore.
+     * @param seat The player's seat index.
+     */
+    void rerank(int seat) {
+        ranks.update(seat, players.get(seat).getScore());
     }
 
     /**
@@ -217,9 +368,13 @@ public class Game {
         Player currentPlayer = getCurrentPlayer();
         int score = scoreStrategy.updateScore(currentPlayer, isMatch, cards);
         mediator.notifyScore(score,currentPlayer);
+        ranks.update(currentPlayerIndex, currentPlayer.getScore());
+        GameEvents.score(this, currentPlayer.getName(), score, currentPlayer.getScore());
         if (isMatch){
             for (Card card : cards) card.setMatched(true);
-            caretaker.saveMemento(new Memento(cards, score, currentPlayer));
+            if (!endless) {  // The matched slots are refilled, so an endless game keeps no undo history
+                caretaker.saveMemento(new Memento(cards, score, currentPlayer));
+            }
         } 
     }
     
@@ -227,39 +382,144 @@ public class Game {
      * Ends the game and announces the winner.
      */
     public void finishGame() {
+        reportResult();
+        if (pipeline != null) {
+            pipeline.close();  // The results follow the last frame
+        }
         stateManager.goToGameOverState();
     }
 
+    /**
+     * Reports the finished game to the RatingEngine, one result per pair of players next to each
+     * other in the ranking, so a game of many players adds a result per player rather than per
+     * pair; a two-player game is one result as before. Only played-out games are rated, once.
+     */
+    private void reportResult() {
+        Player winner = determineWinner();
+        if (rated || aborted || winner == null || !isGameOver()) {
+            return;
+        }
+        rated = true;
+        RatingEngine ratings = RatingEngine.getInstance();
+        for (int position = 1; position < ranks.size(); position++) {
+            int i = Math.min(ranks.seatAt(position - 1), ranks.seatAt(position));
+            int j = Math.max(ranks.seatAt(position - 1), ranks.seatAt(position));
+            if (!ratingKeys.get(i).equals(ratingKeys.get(j))) {  // Two bots of one level are one player
+                ratings.record(ratingKeys.get(i), ratingKeys.get(j),
+                        Integer.compare(players.get(i).getScore(), players.get(j).getScore()));
+            }
+        }
+    }
+
     /**
      * Checks if the game is over based on the state of the board.
      *
      * @return true if the game is over, false otherwise.
      */
     public boolean isGameOver() {
-        return board.isAllMatched();
+        if (endless) {
+            return aborted || (turnLimit > 0 && metrics.getTurns() >= turnLimit)
+                    || (timeLimitNanos > 0 && System.nanoTime() - deadlineNanos >= 0);
+        }
+        return aborted || board.isAllMatched();
+    }
+
+    /**
+     * Gets how many cards each Medium computer player remembers on its own.
+     * @return The memory capacity, or 0 if they share the board's memory of every card seen.
+     */
+    public int getBotMemory() {
+        return botMemory;
+    }
+
+    /**
+     * Checks if this is an endless game, whose matched pairs are replaced until a turn or time limit.
+     * @return true if the game is endless.
+     */
+    public boolean isEndless() {
+        return endless;
+    }
+
+    /**
+     * Checks if a match can be taken back. An endless game refills a matched pair's slots at
+     * once, and other players may see the new cards, so it cannot; a finished game has been
+     * scored and rated, so it cannot either.
+     * @return true unless the game is endless or over.
+     */
+    public boolean canUndo() {
+        return !endless && !isGameOver();
     }
 
     /**
      * Starts the game and initializes the game state.
      */
     public void startGame() {
-        System.out.println("Let's begin!");
-        notifyObservers();
-        stateManager.goToPlayingState();
+        StallWatchdog watchdog = StallWatchdog.getInstance();
+        watchdog.watch(heartbeat);
+        if (endless) {
+            deadlineNanos = System.nanoTime() + timeLimitNanos;  // The time limit counts from the start
+        }
+        try {
+            gameUI.displayMessage("Let's begin!");
+            notifyObservers();
+            stateManager.goToPlayingState();
+        } finally {
+            watchdog.unwatch(heartbeat);
+            if (pipeline != null) {
+                pipeline.close();
+            }
+        }
     }
 
     /**
      * Processes the current player's turn by flipping cards and checking for matches.
      */
     public void processGameTurn() {
+        awaitResume();
         if (isGameOver()) {
             finishGame();
             return;
         }
 
+        heartbeat.turnStarted();
+        try {
+            playCurrentTurn();
+        } finally {
+            heartbeat.turnEnded();
+        }
+    }
+
+    /**
+     * Plays one turn of the current player and applies its result.
+     */
+    private void playCurrentTurn() {
         Player currentPlayer = getCurrentPlayer();
-        TurnResult result = currentPlayer.playTurn();
+        boolean prompted = pipeline != null && currentPlayer instanceof HumanPlayer;
+        if (prompted) {
+            pipeline.setSynchronous(true);  // The prompts follow the frames
+        }
+        try {
+            TurnEvent turnEvent = GameEvents.beginTurn();
+            long turnStart = System.nanoTime();
+            TurnResult result = currentPlayer.playTurn();
+            applyTurnResult(currentPlayer, result, turnEvent, turnStart);
+        } finally {
+            if (prompted) {
+                pipeline.setSynchronous(false);
+            }
+        }
+    }
 
+    /**
+     * Applies the result of a player's turn: decides the match, updates the score or flips the
+     * cards back and passes the turn, and finishes the game when the board is cleared.
+     * @param currentPlayer The player who took the turn.
+     * @param result The cards the player flipped.
+     * @param turnEvent The started turn event, may be null.
+     * @param turnStart The System.nanoTime() at which the turn started.
+     * @return true if the two cards matched.
+     */
+    private boolean applyTurnResult(Player currentPlayer, TurnResult result, TurnEvent turnEvent, long turnStart) {
         // Check if turn resulted in a card flip action
         if (result.isSuccessful() && result.getCardIndices() != null && result.getCardIndices().length == 4) {
             int[] cardIndices = result.getCardIndices();
@@ -267,25 +527,43 @@ public class Game {
             // Retrieve the cards from the board
             Card card1 = board.getCardAt(cardIndices[0], cardIndices[1]);
             Card card2 = board.getCardAt(cardIndices[2], cardIndices[3]);
+            board.recordReveal(cardIndices[0] * board.getColsSize() + cardIndices[1]);
+            board.recordReveal(cardIndices[2] * board.getColsSize() + cardIndices[3]);
 
             // Check if the two selected cards match
+            MatchDecisionEvent matchEvent = GameEvents.beginMatchDecision();
             boolean isMatch = matchStrategy.doCardsMatch(card1, card2);
+            GameEvents.commitMatchDecision(matchEvent, this, currentPlayer.getName(), matchStrategy, card1, card2, isMatch);
 
-            gameUI.displayFlipResult(card1, card2, isMatch);
+            displayFlipResult(card1, card2, isMatch);
+            for (TurnObserver observer : turnObservers) {
+                observer.turnPlayed(currentPlayer, cardIndices, card1, card2, isMatch);
+            }
 
             if (isMatch) {
                 // LOGGER.info("Match found by " + currentPlayer.getName());
+                metrics.recordMatch();
                 updateScore(isMatch, new Card[]{card1, card2});
                 card1.setMatched(true);
                 card2.setMatched(true);
+                if (endless) {
+                    int cols = board.getColsSize();
+                    board.replacePair(cardIndices[0] * cols + cardIndices[1], cardIndices[2] * cols + cardIndices[3],
+                            deck.createPair(random), random);
+                }
             } else {
                 // LOGGER.info("No match found. Next player's turn.");
+                updateScore(isMatch, new Card[]{card1, card2});  // Lets PenaltyScoreStrategy charge the miss
                 Command flip1 = new FlipCommand(card1);
                 Command flip2 = new FlipCommand(card2);
                 flip1.execute();
                 flip2.execute();
+                GameEvents.flip(this, currentPlayer.getName(), card1);
+                GameEvents.flip(this, currentPlayer.getName(), card2);
                 switchPlayer();
             }
+            metrics.recordTurn(System.nanoTime() - turnStart);
+            GameEvents.commitTurn(turnEvent, this, currentPlayer.getName(), true, isMatch);
             notifyObservers();
 
             if (isGameOver()) {
@@ -293,13 +571,97 @@ public class Game {
             } else {
                 // LOGGER.info(currentPlayer.getName() + " completed their turn.");
             }
+            return isMatch;
         } else {
+            metrics.recordTurn(System.nanoTime() - turnStart);
+            GameEvents.commitTurn(turnEvent, this, currentPlayer.getName(), false, false);
             // Handle other outcomes such as undo or end turn without card flips
             if (result.getCardIndices() == null) {
                 // LOGGER.info("No cards were flipped during " + currentPlayer.getName() + "'s turn.");
                 
             }
+            return false;
+        }
+    }
+
+    /**
+     * Shows the result of a turn. A pipelined game queues it like a frame, unless the UI waits
+     * for Enter after it, which waits for the frames before it to be written.
+     */
+    private void displayFlipResult(Card card1, Card card2, boolean isMatch) {
+        if (pipeline == null) {
+            gameUI.displayFlipResult(card1, card2, isMatch);
+        } else if (gameUI.isWaitingForEnter()) {
+            pipeline.flush();
+            gameUI.displayFlipResult(card1, card2, isMatch);
+        } else {
+            pipeline.publish(ui -> ui.displayFlipResult(card1, card2, isMatch));
+        }
+    }
+
+    /**
+     * Gets the render stage of a pipelined game.
+     * @return The pipeline, or null if the game renders on the thread playing it.
+     */
+    public RenderPipeline getPipeline() {
+        return pipeline;
+    }
+
+    /**
+     * Flips a card for the current human player without reading the console, for games driven
+     * by moves from outside such as hosted sessions. The first flip of a turn reveals the card;
+     * the second one completes the turn the same way HumanPlayer.playTurn does.
+     * @param row The row of the card.
+     * @param col The column of the card.
+     * @return The outcome of the flip.
+     * @throws IllegalStateException if the game is over or it is not a human player's turn.
+     * @throws IllegalArgumentException if the card cannot be flipped.
+     */
+    public FlipOutcome flip(int row, int col) {
+        if (isGameOver()) {
+            throw new IllegalStateException(gameId + " is over");
+        }
+        Player currentPlayer = getCurrentPlayer();
+        if (!(currentPlayer instanceof HumanPlayer)) {
+            throw new IllegalStateException("It is " + currentPlayer.getName() + "'s turn");
+        }
+        if (!board.isValidPosition(row, col) || board.getCardAt(row, col).isMatched() || board.isCardFlipped(row, col)) {
+            throw new IllegalArgumentException("The card at " + (row + 1) + (char) ('A' + col) + " cannot be flipped");
+        }
+        Card card = board.getCardAt(row, col);
+        new FlipCommand(card).execute();
+        mediator.notifyFlip(currentPlayer, card);
+        notifyObservers();
+        if (pendingFlip == null) {
+            pendingFlip = new int[]{row, col};
+            pendingTurnStartNanos = System.nanoTime();
+            for (TurnObserver observer : turnObservers) {
+                observer.cardFlipped(currentPlayer, row, col, card);
+            }
+            return FlipOutcome.FIRST_CARD;
         }
+        int[] first = pendingFlip;
+        pendingFlip = null;
+        TurnResult result = new TurnResult(true, new int[]{first[0], first[1], row, col});
+        boolean isMatch = applyTurnResult(currentPlayer, result, GameEvents.beginTurn(), pendingTurnStartNanos);
+        return isMatch ? FlipOutcome.MATCH : FlipOutcome.NO_MATCH;
+    }
+
+    /**
+     * Plays the computer players' turns until a human player is to move or the game is over.
+     */
+    public void playComputerTurns() {
+        while (!isGameOver() && !(getCurrentPlayer() instanceof HumanPlayer)) {
+            processGameTurn();
+        }
+    }
+
+    /**
+     * Checks if the game is waiting for a human player's move.
+     * @return true if the game is running and a human player is to move.
+     */
+    public boolean isAwaitingHumanMove() {
+        return !isGameOver() && getCurrentPlayer() instanceof HumanPlayer;
     }
 
 
@@ -310,9 +672,21 @@ public class Game {
      * @param col The column index of the card.
      */
     public void undoLastAction() {
+        if (endless) {
+            throw new IllegalStateException("Undo is not available in an endless game");
+        }
+        if (isGameOver()) {
+            throw new IllegalStateException(gameId + " is over");  // Already scored and rated
+        }
+        metrics.recordUndo();
         Memento lastState = caretaker.restoreMemento();
         if (lastState != null) {
             lastState.undoMatch();  // This reverts the last action
+            int seat = players.indexOf(lastState.getPlayer());  // Undo is rare, so the seat is looked up
+            rerank(seat);
+            for (TurnObserver observer : turnObservers) {
+                observer.matchUndone(lastState.getPlayer(), seat);
+            }
             LOGGER.info("Last action undone. Reverted score and card match states.");
         } else {
             LOGGER.info("No more actions to undo.");
@@ -330,4 +704,211 @@ public class Game {
     public void displayResults() {
         gameUI.endGame();
     }
+
+    /**
+     * Displays a message through the game's UI.
+     * @param message The message to display.
+     */
+    public void displayMessage(String message) {
+        gameUI.displayMessage(message);
+    }
+
+    /**
+     * Gets the UI this game renders to.
+     * @return The game UI.
+     */
+    public GameUI getGameUI() {
+        return gameUI;
+    }
+
+    /**
+     * Gets the unique identifier of this game.
+     * @return The game id.
+     */
+    public String getGameId() {
+        return gameId;
+    }
+
+    /**
+     * Gets the board size this game was configured with.
+     * @return The board size (Small, Medium, Large).
+     */
+    public String getBoardSize() {
+        return boardSize;
+    }
+
+    /**
+     * Gets the computer difficulty this game was configured with.
+     * @return The difficulty level.
+     */
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * Gets the difficulty of the second computer player.
+     * @return The difficulty level.
+     */
+    public int getOpponentDifficulty() {
+        return opponentDifficulty;
+    }
+
+    /**
+     * Gets the hot-path counters of this game.
+     * @return The game metrics.
+     */
+    public GameMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Pauses the game before the next turn is processed.
+     */
+    public void pause() {
+        paused = true;
+        LOGGER.info(gameId + " paused.");
+    }
+
+    /**
+     * Resumes a paused game.
+     */
+    public void resume() {
+        synchronized (pauseLock) {
+            paused = false;
+            pauseLock.notifyAll();
+        }
+        LOGGER.info(gameId + " resumed.");
+    }
+
+    /**
+     * Aborts the game; the game loop ends at the next state transition.
+     */
+    public void abort() {
+        aborted = true;
+        resume();
+        LOGGER.info(gameId + " aborted.");
+    }
+
+    /**
+     * Checks if the game is paused.
+     * @return true if the game is paused, false otherwise.
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Checks if the game was aborted.
+     * @return true if the game was aborted, false otherwise.
+     */
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * Blocks the game loop while the game is paused.
+     */
+    private void awaitResume() {
+        synchronized (pauseLock) {
+            while (paused) {
+                try {
+                    pauseLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the matching strategy.
+     * @return The matching strategy.
+     */
+    public MatchStrategy getMatchStrategy() {
+        return matchStrategy;
+    }
+
+    /**
+     * Gets the scoring strategy.
+     * @return The scoring strategy.
+     */
+    public ScoreStrategy getScoreStrategy() {
+        return scoreStrategy;
+    }
+
+    /**
+     * Gets the undo history.
+     * @return The caretaker holding the mementos.
+     */
+    Caretaker getCaretaker() {
+        return caretaker;
+    }
+
+    /**
+     * Gets the index of the player whose turn it is.
+     * @return The current player index.
+     */
+    public int getCurrentPlayerIndex() {
+        return currentPlayerIndex;
+    }
+
+    /**
+     * Gets the first card of a human turn played through flip().
+     * @return The (row, col) of the card, or null if no turn is half done.
+     */
+    int[] getPendingFlip() {
+        return pendingFlip;
+    }
+
+    /**
+     * Restores whose turn it is and a half-done human turn, for a game rebuilt from a saved form.
+     * @param currentPlayerIndex The index of the player whose turn it is.
+     * @param pendingFlip The first card of a half-done human turn, or null.
+     */
+    void restoreTurn(int currentPlayerIndex, int[] pendingFlip) {
+        this.currentPlayerIndex = currentPlayerIndex;
+        this.pendingFlip = pendingFlip;
+        this.pendingTurnStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Draws a seed from the game's random source, so a rebuilt copy of the game
+     * continues with fresh but reproducible randomness.
+     * @return The seed.
+     */
+    long nextSeed() {
+        return random.nextLong();
+    }
+
+    /**
+     * Captures a plain-text snapshot of the board and scores for diagnostics.
+     * Face-down cards are shown as "??", matched cards as "..", face-up cards by number and symbol.
+     * @return The snapshot text.
+     */
+    public String snapshot() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(gameId).append(" board=").append(boardSize).append(" turns=").append(metrics.getTurns());
+        Board currentBoard = board;
+        if (currentBoard == null) {
+            return sb.append(" (reset)").toString();
+        }
+        sb.append('\n');
+        int cols = currentBoard.getColsSize();
+        for (int i = 0; i < currentBoard.getCardCount(); i++) {
+            Card card = currentBoard.getCardAt(i);
+            if (card.isMatched()) {
+                sb.append("..");
+            } else if (card.isFaceUp()) {
+                sb.append(card.getNumber()).append(card.getSymbol());
+            } else {
+                sb.append("??");
+            }
+            sb.append((i + 1) % cols == 0 ? '\n' : ' ');
+        }
+        for (Player player : new ArrayList<>(players)) {
+            sb.append(player.getName()).append(": ").append(player.getScore()).append('\n');
+        }
+        return sb.toString();
+    }
 }
@@ -2,6 +2,8 @@ package core;
 
 import java.util.Scanner;
 
+import ui.ConsoleInput;
+
 /**
  * GameConfigurator handles the initial configuration of the game based on user input.
  */
@@ -13,7 +15,7 @@ public class GameConfigurator {
      * Constructs a new GameConfigurator object.
      */
     public GameConfigurator() {
-        this.scanner = new Scanner(System.in);
+        this.scanner = ConsoleInput.getScanner();
     }
 
     /**
@@ -7,9 +7,14 @@ import ui.GameUI;
 import patterns.observer.UIObserver;
 import patterns.strategy.match.FullMatchStrategy;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Logger;
 
+import metrics.ManagementRegistry;
 import model.Board;
 import model.Player;
 
@@ -26,6 +31,8 @@ public class GameManager {
     ScoreStrategy scoreStrategy = new SimpleScoreStrategy(); // Consider injecting this dependency
     GameUI gameUI;
     UIObserver uiObserver;
+    private final Map<String, Game> activeGames = new ConcurrentHashMap<>();
+    private final LongAdder gamesCreated = new LongAdder();
 
 
     /**
@@ -33,6 +40,7 @@ public class GameManager {
      */
     private GameManager() {
         this.gameRunning = false;
+        ManagementRegistry.registerManager(this);
     }
 
     /**
@@ -46,6 +54,14 @@ public class GameManager {
         return instance;
     }
 
+    /**
+     * Gets the instance if it has been created, without creating it.
+     * @return The instance, or null.
+     */
+    public static synchronized GameManager getExistingInstance() {
+        return instance;
+    }
+
     /**
      * Sets up the game with the provided configuration parameters.
      * @param numPlayers Number of players in the game.
@@ -56,8 +72,9 @@ public class GameManager {
         try {
             currentGame = new Game(numPlayers, boardSize, difficulty, matchStrategy, scoreStrategy);
             this.gameUI = GameUI.getInstance(currentGame,numPlayers > 0 ? true : false);
-            this.uiObserver = new UIObserver(gameUI);
+            this.uiObserver = new UIObserver(gameUI, currentGame);
             currentGame.addObserver(uiObserver);
+            registerGame(currentGame);
             LOGGER.info("Game setup complete.");
             gameUI.displayMemoryGame();
 
@@ -86,10 +103,11 @@ public class GameManager {
      */
     public void resetGame() {
         if (currentGame != null) {
+            unregisterGame(currentGame);
             currentGame.resetGame();  // Ensure the current game resets its state
-            
         }
         currentGame = null;  // Allow for garbage collection
+        uiObserver = null;   // The observer points back at the finished game
         LOGGER.info("Game state has been reset.");
     }
 
@@ -153,5 +171,40 @@ public class GameManager {
         currentGame.addObserver(uiObserver);
     }
 
+    /**
+     * Registers a game as an active session and exposes it over JMX when enabled.
+     * @param game The game to register.
+     */
+    public void registerGame(Game game) {
+        activeGames.put(game.getGameId(), game);
+        gamesCreated.increment();
+        ManagementRegistry.registerGame(game);
+    }
+
+    /**
+     * Removes a game from the active sessions.
+     * @param game The game to unregister.
+     */
+    public void unregisterGame(Game game) {
+        activeGames.remove(game.getGameId());
+        ManagementRegistry.unregisterGame(game);
+    }
+
+    /**
+     * Gets all active game sessions.
+     * @return A live view of the active games.
+     */
+    public Collection<Game> getActiveGames() {
+        return activeGames.values();
+    }
+
+    /**
+     * Gets the number of games created since startup.
+     * @return The number of games created.
+     */
+    public long getGamesCreated() {
+        return gamesCreated.sum();
+    }
+
 
 }
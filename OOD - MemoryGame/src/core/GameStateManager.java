@@ -1,5 +1,6 @@
 package core;
 
+import metrics.jfr.GameEvents;
 import patterns.state.game.GameState;
 import patterns.state.game.GameOverState;
 import patterns.state.game.InitializingState;
@@ -11,6 +12,8 @@ import patterns.state.game.WaitingForPlayerState;
  */
 public class GameStateManager {
     private GameState currentState;
+    private GameState pendingState;  // Transition requested while a state is being handled
+    private boolean handling;
     private Game game;
 
     /**
@@ -24,11 +27,38 @@ public class GameStateManager {
 
     /**
      * Sets the current state of the game.
+     * Transitions requested from inside a state's handle method are queued and run by the
+     * outermost call in a loop, so long games do not grow the stack with every turn.
+     * The last transition requested during a handle call wins.
      * @param newState The new state to set.
      */
     public void setState(GameState newState) {
-        this.currentState = newState;
-        this.currentState.handle(game);
+        if (handling) {
+            pendingState = newState;
+            return;
+        }
+        handling = true;
+        try {
+            GameState next = newState;
+            while (next != null) {
+                GameEvents.stateTransition(game, currentState, next);
+                this.currentState = next;
+                this.pendingState = null;
+                this.currentState.handle(game);
+                next = pendingState;
+            }
+        } finally {
+            handling = false;
+            pendingState = null;
+        }
+    }
+
+    /**
+     * Gets the current state of the game.
+     * @return The current state.
+     */
+    public GameState getCurrentState() {
+        return currentState;
     }
 
     /**
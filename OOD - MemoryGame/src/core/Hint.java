@@ -0,0 +1,83 @@
+package core;
+
+/**
+ * Hint is a suggested move for a human player, as found by the HintEngine: the card to flip
+ * first and the card to flip second, with the chance of a pair this turn. Immutable.
+ */
+public final class Hint {
+    public static final int PARTNER_OR_NEW = -1;  // Second card: the partner if seen, otherwise a new card
+
+    private final int first;  // -1 when the first card is already flipped
+    private final int second;
+    private final boolean certain;
+    private final boolean firstSeen;
+    private final double chance;
+    private final int depth;
+
+    /**
+     * Constructs a hint.
+     * @param first The index of the card to flip first, or -1 if it is already flipped.
+     * @param second The index of the card to flip second, or PARTNER_OR_NEW.
+     * @param certain Whether the two cards are known to match.
+     * @param firstSeen Whether the first card has been seen before.
+     * @param chance The chance of a pair this turn, from 0 to 1.
+     * @param depth The number of turns ahead the move was chosen for.
+     */
+    Hint(int first, int second, boolean certain, boolean firstSeen, double chance, int depth) {
+        this.first = first;
+        this.second = second;
+        this.certain = certain;
+        this.firstSeen = firstSeen;
+        this.chance = chance;
+        this.depth = depth;
+    }
+
+    public int getFirst() {
+        return first;
+    }
+
+    public int getSecond() {
+        return second;
+    }
+
+    public boolean isCertain() {
+        return certain;
+    }
+
+    public double getChance() {
+        return chance;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Describes the hint in the coordinates the player types, such as 1A.
+     * @param cols The number of columns on the board.
+     * @return The description.
+     */
+    public String describe(int cols) {
+        if (certain) {
+            return first < 0
+                    ? "Hint: flip " + coordinates(second, cols) + ", it matches the card you flipped."
+                    : "Hint: " + coordinates(first, cols) + " and " + coordinates(second, cols) + " are a pair you have seen.";
+        }
+        String move;
+        if (first < 0) {
+            move = "Hint: flip " + coordinates(second, cols) + ", a card not yet seen.";
+        } else if (firstSeen) {
+            move = "Hint: flip " + coordinates(first, cols) + ", which you have seen, then "
+                    + coordinates(second, cols) + ", a card not yet seen.";
+        } else {
+            move = "Hint: flip " + coordinates(first, cols) + ", a card not yet seen; if it matches a card you have "
+                    + "seen flip that one, otherwise another new card.";
+        }
+        String outlook = depth > 1 ? ", best over your next " + depth + " turns)" : ")";
+        return move + " (" + Math.round(chance * 100) + "% chance of a pair" + outlook;
+    }
+
+    private static String coordinates(int index, int cols) {
+        return (index / cols + 1) + String.valueOf((char) ('A' + index % cols));
+    }
+}
@@ -0,0 +1,353 @@
+package core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import model.Board;
+import model.Card;
+
+/**
+ * HintEngine works out suggested moves for a human player while the game waits for their input.
+ * A search starts from a snapshot of what the player can know, taken on the game thread: the
+ * match keys of the cards seen and, as the deck is known, the keys still face down somewhere.
+ * The snapshot yields an exact hint at once: a pair already seen, or else the first card with
+ * the best chance of a pair this turn. A background thread then refines it, playing out random
+ * deals of the face-down cards over more and more turns ahead, so a move that reveals more
+ * cards can win over one with the same chance now. The player's own turns are played out, not
+ * the opponents'.
+ *
+ * Searches run one at a time on a single daemon thread of minimum priority that yields between
+ * samples and never touches the board, so input and rendering are never held up. A search is
+ * cancelled as soon as the player moves; the hint read meanwhile is always the latest one.
+ */
+public final class HintEngine {
+    private static final int MAX_DEPTH = 8;  // Turns looked ahead
+    private static final int SAMPLES = 4096;  // Deals played out per depth
+    private static final int YIELD_EVERY = 64;  // Samples
+
+    private static HintEngine instance;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "hint-engine");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private HintEngine() {
+    }
+
+    public static synchronized HintEngine getInstance() {
+        if (instance == null) {
+            instance = new HintEngine();
+        }
+        return instance;
+    }
+
+    /**
+     * Starts a search on the board as it is now. Takes the snapshot on the calling thread, one
+     * pass over the cards, and queues the refinement.
+     * @param board The board.
+     * @param flipped The index of the card the player flipped this turn, or -1 before the first card.
+     * @return The search, with a hint available at once.
+     */
+    public Search start(Board board, int flipped) {
+        Search search = new Search(board, flipped);
+        if (!search.isDone()) {
+            worker.execute(search);
+        }
+        return search;
+    }
+
+    /**
+     * A search for one position of one player, refined until it has looked MAX_DEPTH turns
+     * ahead or is cancelled.
+     */
+    public static final class Search implements Runnable {
+        private static final int UNSEEN = -1;  // Option: flip a card not yet seen first
+
+        private final int flipped;
+        private final int[] unseen;  // Positions not yet seen, lowest first
+        private final int[] deal;  // Dense keys of the unseen cards, shuffled per sample
+        private final boolean[] singles;  // Dense key to whether one card of it is seen and unmatched
+        private final int[] singleAt;  // Dense key to the position of its seen card
+        private final int[] hiddenCount;  // Dense key to the number of unseen cards with it
+        private final boolean[] state;  // Singles during a playout
+        private final SplittableRandom random = new SplittableRandom();
+        private int[] options = new int[0];
+        private volatile Hint hint;
+        private volatile boolean cancelled;
+        private volatile boolean done;
+
+        Search(Board board, int flipped) {
+            this.flipped = flipped;
+            int cardCount = board.getCardCount();
+            Map<Integer, Integer> dense = new HashMap<>();
+            int[] keys = new int[cardCount];
+            int unseenCount = 0;
+            for (int index = 0; index < cardCount; index++) {
+                Card card = board.getCardAt(index);
+                if (card.isMatched()) {
+                    keys[index] = -1;
+                    continue;
+                }
+                keys[index] = dense.computeIfAbsent(board.getMatchKey(index), key -> dense.size());
+                unseenCount += card.isSeen() || card.isFaceUp() ? 0 : 1;
+            }
+            unseen = new int[unseenCount];
+            deal = new int[unseenCount];
+            singles = new boolean[dense.size()];
+            singleAt = new int[dense.size()];
+            hiddenCount = new int[dense.size()];
+            state = new boolean[dense.size()];
+            int pairFirst = -1;
+            int pairSecond = -1;
+            int next = 0;
+            for (int index = 0; index < cardCount; index++) {
+                int key = keys[index];
+                if (key < 0) {
+                    continue;
+                }
+                Card card = board.getCardAt(index);
+                if (!card.isSeen() && !card.isFaceUp()) {
+                    unseen[next] = index;
+                    deal[next++] = key;
+                    hiddenCount[key]++;
+                } else if (index != flipped && singles[key] && pairFirst < 0
+                        && (flipped < 0 || keys[flipped] == key)) {
+                    pairFirst = singleAt[key];  // A pair seen, or the partner of the flipped card
+                    pairSecond = index;
+                } else if (index != flipped) {
+                    singles[key] = true;
+                    singleAt[key] = index;
+                }
+            }
+            if (flipped >= 0) {
+                if (pairSecond < 0 && keys[flipped] >= 0 && singles[keys[flipped]]) {
+                    pairSecond = singleAt[keys[flipped]];  // The partner was seen before the flipped card
+                }
+                finishSecond(pairSecond, keys[flipped]);
+            } else if (pairFirst >= 0) {
+                finish(new Hint(pairFirst, pairSecond, true, true, 1, 1));
+            } else if (unseen.length == 0) {
+                done = true;  // Nothing to suggest
+            } else {
+                chooseOptions();
+                hint = hintFor(bestOf(chances()), 1);
+            }
+        }
+
+        /**
+         * Settles the second card of a turn: the flipped card's partner if seen, otherwise the
+         * first unseen card, as no other seen card can match.
+         */
+        private void finishSecond(int partner, int key) {
+            if (partner >= 0) {
+                finish(new Hint(-1, partner, true, true, 1, 1));
+            } else if (unseen.length > 0) {
+                double chance = key < 0 ? 0 : (double) hiddenCount[key] / unseen.length;
+                finish(new Hint(-1, unseen[0], false, false, chance, 1));
+            } else {
+                done = true;
+            }
+        }
+
+        private void finish(Hint result) {
+            hint = result;
+            done = true;
+        }
+
+        /**
+         * Picks the first moves worth comparing: an unseen card, and one seen card for each
+         * number of unseen cards that could match it, as seen cards with the same number are
+         * alike.
+         */
+        private void chooseOptions() {
+            Map<Integer, Integer> byCount = new HashMap<>();
+            for (int key = 0; key < singles.length; key++) {
+                if (singles[key] && hiddenCount[key] > 0) {
+                    byCount.putIfAbsent(hiddenCount[key], key);
+                }
+            }
+            options = new int[byCount.size() + 1];
+            options[0] = UNSEEN;
+            int next = 1;
+            for (int key : byCount.values()) {
+                options[next++] = key;
+            }
+        }
+
+        /**
+         * Works out the exact chance of a pair this turn for each option.
+         */
+        private double[] chances() {
+            int u = unseen.length;
+            double[] chances = new double[options.length];
+            for (int i = 0; i < options.length; i++) {
+                if (options[i] != UNSEEN) {
+                    chances[i] = (double) hiddenCount[options[i]] / u;
+                    continue;
+                }
+                double chance = 0;
+                for (int key = 0; key < hiddenCount.length; key++) {
+                    if (hiddenCount[key] > 0) {
+                        double second = singles[key] ? 1 : u > 1 ? (hiddenCount[key] - 1.0) / (u - 1) : 0;
+                        chance += (double) hiddenCount[key] / u * second;
+                    }
+                }
+                chances[i] = chance;
+            }
+            return chances;
+        }
+
+        /**
+         * Gets the option with the highest value; the unseen card wins a tie as it reveals more.
+         */
+        private static int bestOf(double[] values) {
+            int best = 0;
+            for (int i = 1; i < values.length; i++) {
+                best = values[i] > values[best] + 1e-9 ? i : best;
+            }
+            return best;
+        }
+
+        private Hint hintFor(int option, int depth) {
+            double chance = chances()[option];
+            if (options[option] == UNSEEN) {
+                return new Hint(unseen[0], Hint.PARTNER_OR_NEW, false, false, chance, depth);
+            }
+            return new Hint(singleAt[options[option]], unseen[0], false, true, chance, depth);
+        }
+
+        /**
+         * Refines the hint by playing out random deals, one depth at a time.
+         */
+        @Override
+        public void run() {
+            try {
+                double[] totals = new double[options.length];
+                for (int depth = 2; depth <= MAX_DEPTH && options.length > 1; depth++) {
+                    Arrays.fill(totals, 0);
+                    for (int sample = 0; sample < SAMPLES; sample++) {
+                        if (cancelled) {
+                            return;
+                        }
+                        if (sample % YIELD_EVERY == 0) {
+                            Thread.yield();
+                        }
+                        shuffle(2 * depth);
+                        for (int i = 0; i < options.length; i++) {
+                            totals[i] += playOut(options[i], depth);  // The same deal for every option
+                        }
+                    }
+                    hint = hintFor(bestOf(totals), depth);
+                }
+            } finally {
+                done = true;
+            }
+        }
+
+        /**
+         * Shuffles the front of the deal, the cards a playout can reach.
+         */
+        private void shuffle(int cards) {
+            for (int i = 0; i < Math.min(cards, deal.length - 1); i++) {
+                int j = i + random.nextInt(deal.length - i);
+                int swap = deal[i];
+                deal[i] = deal[j];
+                deal[j] = swap;
+            }
+        }
+
+        /**
+         * Plays the player's next turns on the current deal, remembering every card: a pair
+         * seen is taken, otherwise an unseen card is flipped, then its partner if seen or else
+         * another unseen card.
+         * @param option The first move of the first turn.
+         * @param depth The number of turns.
+         * @return The pairs found.
+         */
+        private int playOut(int option, int depth) {
+            System.arraycopy(singles, 0, state, 0, singles.length);
+            int pairsSeen = 0;
+            int pairs = 0;
+            int next = 0;
+            for (int turn = 0; turn < depth; turn++) {
+                if (pairsSeen > 0) {
+                    pairsSeen--;
+                    pairs++;
+                    continue;
+                }
+                if (next == deal.length) {
+                    break;
+                }
+                int first;
+                if (turn == 0 && option != UNSEEN) {
+                    first = option;
+                    state[first] = false;
+                } else {
+                    first = deal[next++];
+                    if (state[first]) {
+                        state[first] = false;
+                        pairs++;
+                        continue;
+                    }
+                }
+                if (next == deal.length) {
+                    break;
+                }
+                int second = deal[next++];
+                if (second == first) {
+                    pairs++;
+                    continue;
+                }
+                pairsSeen += reveal(first) + reveal(second);
+            }
+            return pairs;
+        }
+
+        /**
+         * Remembers a card that was not matched.
+         * @return 1 if it completes a pair seen, otherwise 0.
+         */
+        private int reveal(int key) {
+            state[key] = !state[key];
+            return state[key] ? 0 : 1;
+        }
+
+        /**
+         * Gets the latest hint.
+         * @return The hint, or null if there is no card left to suggest.
+         */
+        public Hint getHint() {
+            return hint;
+        }
+
+        /**
+         * Stops the search; the latest hint stays readable.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * Checks if the search has stopped, refined as far as it goes or cancelled.
+         * @return true if stopped.
+         */
+        public boolean isDone() {
+            return done;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public int getFlipped() {
+            return flipped;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package core;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import model.Card;
+
+/**
+ * RaceBot plays one player of a RaceGame on its own thread until the race is over. It
+ * remembers the cards it revealed itself: if it knows a face-down pair it claims that,
+ * otherwise it reveals a random face-down card and looks for its partner among the cards it
+ * remembers before trying another random one. A pair it learns of is kept on a short stack,
+ * so a turn costs one scan of its memory.
+ *
+ * When it cannot claim two cards it backs off for a random, growing time, so players each
+ * holding one of the last cards do not keep claiming and releasing them in lockstep.
+ */
+public class RaceBot implements Runnable {
+    private static final int MAX_BACKOFF_SHIFT = 10;
+
+    private final RaceGame race;
+    private final int player;
+    private final SplittableRandom random;
+    private final Card[] memory;  // Cards this bot has seen, by index; null if unseen
+    private final int[] knownPairs;  // Stack of index pairs seen face down
+    private int knownPairCount;
+    private int failures;  // Consecutive turns without two cards
+    private long matches;
+
+    /**
+     * Constructs a bot.
+     * @param race The race to play.
+     * @param player The player the bot plays.
+     * @param seed The seed of the bot's random choices.
+     */
+    public RaceBot(RaceGame race, int player, long seed) {
+        this.race = race;
+        this.player = player;
+        this.random = new SplittableRandom(seed);
+        this.memory = new Card[race.getCardCount()];
+        this.knownPairs = new int[race.getCardCount()];
+    }
+
+    @Override
+    public void run() {
+        while (!race.isOver()) {
+            if (playKnownPair() || playRandomFirst()) {
+                failures = 0;
+            } else {
+                failures = Math.min(failures + 1, MAX_BACKOFF_SHIFT);
+                LockSupport.parkNanos(random.nextLong(1L << (failures + 6)));  // Doubling up to 65 us
+            }
+        }
+    }
+
+    /**
+     * Claims a known pair, skipping pairs another player took meanwhile.
+     * @return true if the bot played a pair.
+     */
+    private boolean playKnownPair() {
+        while (knownPairCount > 0) {
+            int second = knownPairs[--knownPairCount];
+            int first = knownPairs[--knownPairCount];
+            if (race.claim(player, first)) {
+                if (race.claim(player, second)) {
+                    reveal(first);
+                    reveal(second);
+                    settle(first, second);
+                    return true;
+                }
+                race.release(player, first);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reveals a random face-down card, then its remembered partner or another random card.
+     * @return false if no card could be claimed.
+     */
+    private boolean playRandomFirst() {
+        int first = race.claimAny(player, random.nextInt(memory.length));
+        if (first < 0) {
+            return false;
+        }
+        Card card = reveal(first);
+        int partner = partnerOf(first, card);
+        int second = partner >= 0 && race.claim(player, partner) ? partner : race.claimAny(player, random.nextInt(memory.length));
+        if (second < 0) {
+            race.release(player, first);
+            return false;
+        }
+        Card secondCard = reveal(second);
+        if (!settle(first, second)) {
+            int secondPartner = partnerOf(second, secondCard);
+            if (secondPartner >= 0 && secondPartner != first) {
+                knownPairs[knownPairCount++] = second;
+                knownPairs[knownPairCount++] = secondPartner;
+            }
+        }
+        return true;
+    }
+
+    private Card reveal(int index) {
+        Card card = race.reveal(player, index);
+        memory[index] = card;
+        return card;
+    }
+
+    private boolean settle(int first, int second) {
+        if (race.settle(player, first, second)) {
+            memory[first] = null;
+            memory[second] = null;
+            matches++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Finds a remembered card matching the given one that is still face down.
+     * @return Its index, or -1 if there is none.
+     */
+    private int partnerOf(int index, Card card) {
+        for (int i = 0; i < memory.length; i++) {
+            Card remembered = memory[i];
+            if (i != index && remembered != null) {
+                int state = race.getState(i);
+                if (state == RaceGame.MATCHED) {
+                    memory[i] = null;  // Matched by another player
+                } else if (state == RaceGame.FACE_DOWN && race.matches(card, remembered)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the pairs this bot matched.
+     * @return The count.
+     */
+    public long getMatches() {
+        return matches;
+    }
+}
@@ -0,0 +1,276 @@
+package core;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import model.Board;
+import model.Card;
+import patterns.factory.CardFactory;
+import patterns.strategy.match.MatchStrategy;
+import patterns.strategy.score.ScoreStrategy;
+
+/**
+ * RaceGame is the real-time mode: every player flips at once instead of waiting for a turn,
+ * and whoever turns over a pair first scores it. It is played by threads, one or more per
+ * player, typically RaceBots.
+ *
+ * Each card's state is one packed 64-bit word changed only by compare-and-set:
+ * <pre>
+ * bits 0-1   FACE_DOWN, CLAIMED, FACE_UP or MATCHED
+ * bits 2-9   the player who claimed the card
+ * bits 10-63 a version, incremented by every change, so a stale word never compares equal
+ * </pre>
+ * A player claims a face-down card (FACE_DOWN to CLAIMED), reveals it (CLAIMED to FACE_UP,
+ * after which every player may look at it), does the same with a second card and settles the
+ * two: both become MATCHED if they match, or FACE_DOWN again. Only the claiming player can
+ * move a claimed or face-up card on, so two players can never hold the same card. The words
+ * are a cache line apart, so threads working on neighbouring cards do not contend.
+ *
+ * Scores are kept in one LongAdder per player, whose cells spread the updates of a player
+ * played by several threads. The points of a settled pair come from the game's ScoreStrategy,
+ * called from every player's thread and without a Player, as a race has none; stateless ones
+ * such as SimpleScoreStrategy and PenaltyScoreStrategy suit it.
+ */
+public class RaceGame {
+    public static final int FACE_DOWN = 0;
+    public static final int CLAIMED = 1;
+    public static final int FACE_UP = 2;
+    public static final int MATCHED = 3;
+    public static final int MAX_PLAYERS = 256;
+    private static final int STRIDE = 8;  // Longs per card word: one 64-byte cache line each
+    private static final int OWNER_SHIFT = 2;
+    private static final int VERSION_SHIFT = 10;
+
+    private final Card[] cards;  // Only their final fields are read, from any thread
+    private final MatchStrategy matchStrategy;
+    private final ScoreStrategy scoreStrategy;  // Called from every player's thread
+    private final AtomicLongArray words;
+    private final LongAdder[] scores;
+    private final AtomicInteger pairsLeft;
+    private final LongAdder reveals = new LongAdder();
+    private final LongAdder lostClaims = new LongAdder();
+
+    /**
+     * Constructs a race with its cards face down.
+     * @param boardSize The board size (Small, Medium, Large).
+     * @param players The number of players, at most MAX_PLAYERS.
+     * @param matchStrategy The matching strategy.
+     * @param scoreStrategy The scoring strategy, asked for the points of every settled pair.
+     * @param random The random source of the layout, as seeded by GameBuilder.setSeed.
+     * @throws IllegalArgumentException if the number of players is out of range.
+     */
+    public RaceGame(String boardSize, int players, MatchStrategy matchStrategy, ScoreStrategy scoreStrategy,
+            Random random) {
+        if (players < 1 || players > MAX_PLAYERS) {
+            throw new IllegalArgumentException("A race has 1 to " + MAX_PLAYERS + " players, not " + players);
+        }
+        Board board = new Board(Game.determinePairs(boardSize), matchStrategy);
+        board.setupBoard(new CardFactory(), random);
+        this.cards = new Card[board.getCardCount()];
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = board.getCardAt(i);
+        }
+        this.matchStrategy = matchStrategy;
+        this.scoreStrategy = scoreStrategy;
+        this.words = new AtomicLongArray(cards.length * STRIDE);
+        this.scores = new LongAdder[players];
+        for (int p = 0; p < players; p++) {
+            scores[p] = new LongAdder();
+        }
+        this.pairsLeft = new AtomicInteger(cards.length / 2);
+    }
+
+    /**
+     * Claims a face-down card for a player.
+     * @param player The player.
+     * @param index The card's index.
+     * @return true if the player now holds the card, false if it was not face down.
+     */
+    public boolean claim(int player, int index) {
+        int slot = index * STRIDE;
+        long word = words.get(slot);
+        if (stateOf(word) != FACE_DOWN) {
+            return false;
+        }
+        if (words.compareAndSet(slot, word, next(word, player, CLAIMED))) {
+            return true;
+        }
+        lostClaims.increment();
+        return false;
+    }
+
+    /**
+     * Claims the first face-down card at or after a starting index, wrapping around.
+     * @param player The player.
+     * @param start The index to start from.
+     * @return The claimed card's index, or -1 if no card is face down.
+     */
+    public int claimAny(int player, int start) {
+        for (int i = 0; i < cards.length; i++) {
+            int index = (start + i) % cards.length;
+            int slot = index * STRIDE;
+            long word = words.get(slot);
+            if (stateOf(word) == FACE_DOWN) {
+                if (words.compareAndSet(slot, word, next(word, player, CLAIMED))) {
+                    return index;
+                }
+                lostClaims.increment();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Turns a claimed card face up for everyone to see.
+     * @param player The player holding the card.
+     * @param index The card's index.
+     * @return The card.
+     * @throws IllegalStateException if the player does not hold the card.
+     */
+    public Card reveal(int player, int index) {
+        advance(player, index, CLAIMED, FACE_UP);
+        reveals.increment();
+        return cards[index];
+    }
+
+    /**
+     * Settles a player's two face-up cards: both are matched if they match, or turned face down
+     * again, and the player scores what the ScoreStrategy awards, such as a penalty for a miss.
+     * @param player The player holding both cards.
+     * @param first The first card's index.
+     * @param second The second card's index.
+     * @return true if the cards matched.
+     * @throws IllegalStateException if the player does not hold both cards face up.
+     */
+    public boolean settle(int player, int first, int second) {
+        boolean isMatch = matchStrategy.doCardsMatch(cards[first], cards[second]);
+        int state = isMatch ? MATCHED : FACE_DOWN;
+        advance(player, first, FACE_UP, state);
+        advance(player, second, FACE_UP, state);
+        int points = scoreStrategy.updateScore(null, isMatch, new Card[]{cards[first], cards[second]});
+        if (points != 0) {
+            scores[player].add(points);
+        }
+        if (isMatch) {
+            pairsLeft.decrementAndGet();
+        }
+        return isMatch;
+    }
+
+    /**
+     * Turns a card the player holds, claimed or face up, face down again, for example when no
+     * second card could be claimed.
+     * @param player The player holding the card.
+     * @param index The card's index.
+     * @throws IllegalStateException if the player does not hold the card.
+     */
+    public void release(int player, int index) {
+        int slot = index * STRIDE;
+        long word = words.get(slot);
+        int state = stateOf(word);
+        if ((state != CLAIMED && state != FACE_UP) || ownerOf(word) != player
+                || !words.compareAndSet(slot, word, next(word, player, FACE_DOWN))) {
+            throw new IllegalStateException("Player " + player + " does not hold card " + index);
+        }
+    }
+
+    /**
+     * Moves a card the player holds from one state to the next. The holder is the only thread
+     * that changes a held card, so the compare-and-set only fails on a broken rule.
+     */
+    private void advance(int player, int index, int from, int to) {
+        int slot = index * STRIDE;
+        long word = words.get(slot);
+        if (stateOf(word) != from || ownerOf(word) != player || !words.compareAndSet(slot, word, next(word, player, to))) {
+            throw new IllegalStateException("Player " + player + " does not hold card " + index);
+        }
+    }
+
+    private static long next(long word, int player, int state) {
+        return ((word >>> VERSION_SHIFT) + 1) << VERSION_SHIFT | (long) player << OWNER_SHIFT | state;
+    }
+
+    private static int stateOf(long word) {
+        return (int) (word & 3);
+    }
+
+    private static int ownerOf(long word) {
+        return (int) (word >>> OWNER_SHIFT) & (MAX_PLAYERS - 1);
+    }
+
+    /**
+     * Gets a card's state.
+     * @param index The card's index.
+     * @return FACE_DOWN, CLAIMED, FACE_UP or MATCHED.
+     */
+    public int getState(int index) {
+        return stateOf(words.get(index * STRIDE));
+    }
+
+    /**
+     * Gets the player who last claimed a card.
+     * @param index The card's index.
+     * @return The player.
+     */
+    public int getOwner(int index) {
+        return ownerOf(words.get(index * STRIDE));
+    }
+
+    /**
+     * Gets a card that everyone can see.
+     * @param index The card's index.
+     * @return The card if it is face up or matched, otherwise null.
+     */
+    public Card peek(int index) {
+        int state = getState(index);
+        return state == FACE_UP || state == MATCHED ? cards[index] : null;
+    }
+
+    /**
+     * Checks whether two cards match, as the player holding one of them may after revealing it.
+     * @param first The first card.
+     * @param second The second card.
+     * @return true if they match.
+     */
+    public boolean matches(Card first, Card second) {
+        return matchStrategy.doCardsMatch(first, second);
+    }
+
+    public int getCardCount() {
+        return cards.length;
+    }
+
+    public int getPlayerCount() {
+        return scores.length;
+    }
+
+    public long getScore(int player) {
+        return scores[player].sum();
+    }
+
+    public int getPairsLeft() {
+        return pairsLeft.get();
+    }
+
+    public boolean isOver() {
+        return pairsLeft.get() == 0;
+    }
+
+    /**
+     * Gets the number of cards revealed, which counts every flip of the race.
+     * @return The count.
+     */
+    public long getRevealCount() {
+        return reveals.sum();
+    }
+
+    /**
+     * Gets the number of claims that lost the compare-and-set to another player's.
+     * @return The count.
+     */
+    public long getLostClaimCount() {
+        return lostClaims.sum();
+    }
+}
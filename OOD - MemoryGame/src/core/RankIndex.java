@@ -0,0 +1,223 @@
+package core;
+
+/**
+ * RankIndex keeps the players of a game ordered by score, highest first, as scores change.
+ * Players with the same score form a group that occupies a contiguous range of the order and
+ * share a rank; when a score changes the player is swapped across the group boundaries between
+ * its old and new score, so an update costs one step per distinct score passed, however many
+ * players the game has. Within a group the order is arbitrary.
+ *
+ * Players are identified by their seat index in the game. Not thread-safe; a game updates it
+ * from the thread applying the turns.
+ */
+public class RankIndex {
+    private final int[] order;  // Rank position to seat
+    private final int[] positionOf;  // Seat to rank position
+    private final int[] scores;  // Seat to the score it is ranked by
+    // Groups by score in an open-addressing table, so updates do not box scores. There are never
+    // more groups than players, so the table is sized once and stays at most a quarter full.
+    private final int[] groupScores;
+    private final Group[] groups;  // null marks a free slot
+    private final int mask;
+    private final int shift;
+
+    /**
+     * The range of rank positions held by the players with one score.
+     */
+    private static final class Group {
+        int first;
+        int last;
+
+        Group(int first, int last) {
+            this.first = first;
+            this.last = last;
+        }
+    }
+
+    /**
+     * Constructs an index of players who all have a score of 0, ranked in seat order.
+     * @param players The number of players.
+     */
+    public RankIndex(int players) {
+        order = new int[players];
+        positionOf = new int[players];
+        scores = new int[players];
+        for (int i = 0; i < players; i++) {
+            order[i] = i;
+            positionOf[i] = i;
+        }
+        int capacity = Integer.highestOneBit(Math.max(1, players)) << 2;
+        groupScores = new int[capacity];
+        groups = new Group[capacity];
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(capacity) + 1;
+        if (players > 0) {
+            putGroup(0, new Group(0, players - 1));
+        }
+    }
+
+    /**
+     * Moves a player to the place of a new score.
+     * @param seat The player's seat index.
+     * @param score The player's new score.
+     */
+    public void update(int seat, int score) {
+        int old = scores[seat];
+        if (score > old) {
+            moveUp(seat, score);
+        } else if (score < old) {
+            moveDown(seat, score);
+        }
+    }
+
+    private void moveUp(int seat, int score) {
+        Group own = group(scores[seat]);
+        swap(positionOf[seat], own.first);  // The player leaves its group at the top end
+        int position = own.first++;
+        if (own.first > own.last) {
+            removeGroup(scores[seat]);
+        }
+        while (position > 0) {
+            int above = scores[order[position - 1]];
+            if (above > score) {
+                break;
+            }
+            Group group = group(above);
+            if (above == score) {
+                group.last = position;
+                scores[seat] = score;
+                return;
+            }
+            swap(position, group.first);  // Pass the group; its first player takes the freed place
+            position = group.first++;
+            group.last++;
+        }
+        scores[seat] = score;
+        putGroup(score, new Group(position, position));
+    }
+
+    private void moveDown(int seat, int score) {
+        Group own = group(scores[seat]);
+        swap(positionOf[seat], own.last);  // The player leaves its group at the bottom end
+        int position = own.last--;
+        if (own.first > own.last) {
+            removeGroup(scores[seat]);
+        }
+        while (position < order.length - 1) {
+            int below = scores[order[position + 1]];
+            if (below < score) {
+                break;
+            }
+            Group group = group(below);
+            if (below == score) {
+                group.first = position;
+                scores[seat] = score;
+                return;
+            }
+            swap(position, group.last);
+            position = group.last--;
+            group.first--;
+        }
+        scores[seat] = score;
+        putGroup(score, new Group(position, position));
+    }
+
+    private int home(int score) {
+        return (score * 0x9E3779B9) >>> shift;  // Fibonacci hashing spreads runs of close scores
+    }
+
+    private Group group(int score) {
+        int slot = home(score);
+        while (groups[slot] != null && groupScores[slot] != score) {
+            slot = (slot + 1) & mask;
+        }
+        return groups[slot];
+    }
+
+    private void putGroup(int score, Group group) {
+        int slot = home(score);
+        while (groups[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        groupScores[slot] = score;
+        groups[slot] = group;
+    }
+
+    /**
+     * Removes the group of a score, moving back the entries after it that would no longer be
+     * reachable from their home slot.
+     * @param score The score of an existing group.
+     */
+    private void removeGroup(int score) {
+        int free = home(score);
+        while (groupScores[free] != score || groups[free] == null) {
+            free = (free + 1) & mask;
+        }
+        for (int slot = (free + 1) & mask; groups[slot] != null; slot = (slot + 1) & mask) {
+            int home = home(groupScores[slot]);
+            if (((slot - home) & mask) >= ((slot - free) & mask)) {  // The free slot lies on its probe path
+                groupScores[free] = groupScores[slot];
+                groups[free] = groups[slot];
+                free = slot;
+            }
+        }
+        groups[free] = null;
+    }
+
+    private void swap(int a, int b) {
+        int seatA = order[a];
+        int seatB = order[b];
+        order[a] = seatB;
+        order[b] = seatA;
+        positionOf[seatB] = a;
+        positionOf[seatA] = b;
+    }
+
+    /**
+     * Gets the seat of the player at a rank position.
+     * @param position The position, 0 for the highest score.
+     * @return The seat index.
+     */
+    public int seatAt(int position) {
+        return order[position];
+    }
+
+    /**
+     * Gets a player's position in the order.
+     * @param seat The player's seat index.
+     * @return The position, 0 for the first of the players with the highest score.
+     */
+    public int positionOf(int seat) {
+        return positionOf[seat];
+    }
+
+    /**
+     * Gets a player's rank; players with the same score share the rank of the first of them.
+     * @param seat The player's seat index.
+     * @return The rank, 1 for the highest score.
+     */
+    public int rankOf(int seat) {
+        return group(scores[seat]).first + 1;
+    }
+
+    /**
+     * Gets the number of players with the highest score.
+     * @return The size of the leading group, 0 if there are no players.
+     */
+    public int getLeaderCount() {
+        return order.length == 0 ? 0 : group(scores[order[0]]).last + 1;
+    }
+
+    /**
+     * Gets the score a player is ranked by.
+     * @param seat The player's seat index.
+     * @return The score.
+     */
+    public int getScore(int seat) {
+        return scores[seat];
+    }
+
+    public int size() {
+        return order.length;
+    }
+}
@@ -0,0 +1,432 @@
+package core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import metrics.LatencyHistogram;
+import patterns.builders.GameBuilder;
+
+/**
+ * SessionCache hosts headless game sessions that are played move by move, and keeps their
+ * estimated heap use under a budget. When the budget is exceeded, the least recently active
+ * sessions are written to a compact file in the spill directory and dropped from the heap;
+ * the next move on such a session rebuilds it from the file before it is applied.
+ * Implements Singleton pattern like GameManager.
+ *
+ * Configured with -Dmemorygame.sessions.heapBudgetMB (default 256) and
+ * -Dmemorygame.sessions.spillDir (default a new "memorygame-sessions" temporary directory for each
+ * process, as session ids start over in every process).
+ */
+public class SessionCache {
+    private static final Logger LOGGER = Logger.getLogger(SessionCache.class.getName());
+    // Heap estimate of a headless game, measured with bench.FootprintSuite
+    private static final long HEAP_BYTES_PER_GAME = 1_536;
+    private static final long HEAP_BYTES_PER_CARD = 48;
+    private static final long HEAP_BYTES_PER_MEMENTO = 64;
+    private static SessionCache instance;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final LinkedHashMap<String, Session> recentlyActive = new LinkedHashMap<>(16, 0.75f, true);  // Guarded by itself
+    private final long heapBudgetBytes;
+    private final Path spillDirectory;
+    private final AtomicLong residentBytes = new AtomicLong();
+    private final AtomicInteger residentSessions = new AtomicInteger();
+    private final AtomicLong sessionIds = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LatencyHistogram rehydrationLatency = new LatencyHistogram();
+    private volatile boolean spillDirectoryCreated;
+
+    /**
+     * A hosted game; the game is null while the session is hibernated on disk.
+     */
+    private static final class Session {
+        final String id;
+        Game game;  // Guarded by the session
+        long heapBytes;  // Guarded by the session
+
+        Session(String id, Game game) {
+            this.id = id;
+            this.game = game;
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation from outside the class.
+     * @param heapBudgetBytes The heap budget for resident sessions.
+     * @param spillDirectory The directory hibernated sessions are written to.
+     */
+    private SessionCache(long heapBudgetBytes, Path spillDirectory) {
+        this.heapBudgetBytes = heapBudgetBytes;
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * Provides access to the singleton instance of SessionCache.
+     * @return The singleton instance.
+     */
+    public static synchronized SessionCache getInstance() {
+        if (instance == null) {
+            long budgetMB = Long.getLong("memorygame.sessions.heapBudgetMB", 256);
+            String spillDir = System.getProperty("memorygame.sessions.spillDir");
+            instance = new SessionCache(budgetMB * 1024 * 1024,
+                    spillDir != null ? Path.of(spillDir) : createTemporarySpillDirectory());
+        }
+        return instance;
+    }
+
+    private static Path createTemporarySpillDirectory() {
+        try {
+            Path directory = Files.createTempDirectory("memorygame-sessions");
+            directory.toFile().deleteOnExit();  // Only removed if every session was closed or rehydrated
+            return directory;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create a spill directory", e);
+        }
+    }
+
+    /**
+     * Gets the instance if it has been created, without creating it.
+     * @return The instance, or null.
+     */
+    public static synchronized SessionCache getExistingInstance() {
+        return instance;
+    }
+
+    /**
+     * Opens a session for a new headless game.
+     * @param builder The game settings; the game is always built headless.
+     * @return The session id.
+     */
+    public String open(GameBuilder builder) {
+        return register(builder.setHeadless(true).build());
+    }
+
+    /**
+     * Runs an action on a session's game, rebuilding the game from disk first if it was hibernated.
+     * Actions on the same session are serialized.
+     * @param id The session id.
+     * @param action The action, for example a move.
+     * @param <T> The action's result type.
+     * @return The action's result.
+     * @throws IllegalArgumentException if there is no such session.
+     */
+    public <T> T withGame(String id, Function<Game, T> action) {
+        Session session = sessions.get(id);
+        if (session == null) {
+            throw new IllegalArgumentException("Unknown session " + id);
+        }
+        T result;
+        synchronized (session) {
+            if (sessions.get(id) != session) {
+                throw new IllegalArgumentException("Unknown session " + id);  // Closed meanwhile
+            }
+            if (session.game == null) {
+                misses.increment();
+                rehydrate(session);
+            } else {
+                hits.increment();
+            }
+            result = action.apply(session.game);
+            long heapBytes = estimateHeapBytes(session.game);
+            residentBytes.addAndGet(heapBytes - session.heapBytes);
+            session.heapBytes = heapBytes;
+        }
+        touch(session);
+        evictOverBudget();
+        return result;
+    }
+
+    /**
+     * Flips a card for the human player of a session and lets the computer players move
+     * once the human's turn is over.
+     * @param id The session id.
+     * @param row The row of the card.
+     * @param col The column of the card.
+     * @return The outcome of the flip.
+     */
+    public FlipOutcome flip(String id, int row, int col) {
+        return withGame(id, game -> {
+            FlipOutcome outcome = game.flip(row, col);
+            if (outcome != FlipOutcome.FIRST_CARD) {
+                game.playComputerTurns();
+            }
+            return outcome;
+        });
+    }
+
+    /**
+     * Closes a session and deletes its hibernated form.
+     * @param id The session id.
+     */
+    public void close(String id) {
+        Session session = sessions.remove(id);
+        if (session == null) {
+            return;
+        }
+        synchronized (recentlyActive) {
+            recentlyActive.remove(id);
+        }
+        synchronized (session) {
+            if (session.game != null) {
+                residentBytes.addAndGet(-session.heapBytes);
+                residentSessions.decrementAndGet();
+                session.game = null;
+            }
+            deleteQuietly(spillFile(id));
+        }
+    }
+
+    /**
+     * Closes a session and returns its game in the compact form of a hibernated session, to be
+     * restored by another process. A hibernated session's file is returned as it is.
+     * @param id The session id.
+     * @return The compact form.
+     * @throws IllegalArgumentException if there is no such session.
+     * @throws IllegalStateException if the game cannot be encoded; the session stays open.
+     */
+    public byte[] export(String id) {
+        Session session = sessions.get(id);
+        if (session == null) {
+            throw new IllegalArgumentException("Unknown session " + id);
+        }
+        byte[] snapshot;
+        synchronized (session) {
+            if (sessions.get(id) != session) {
+                throw new IllegalArgumentException("Unknown session " + id);  // Closed meanwhile
+            }
+            if (session.game == null) {
+                try {
+                    snapshot = Files.readAllBytes(spillFile(id));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not export " + id, e);
+                }
+            } else if (!SessionCodec.canEncode(session.game)) {
+                throw new IllegalStateException("Session " + id + " cannot be exported");
+            } else {
+                snapshot = SessionCodec.encode(session.game);
+            }
+        }
+        close(id);
+        return snapshot;
+    }
+
+    /**
+     * Opens a session for a game exported by export, possibly by another process.
+     * @param snapshot The compact form.
+     * @return The new session id.
+     * @throws IllegalArgumentException if the snapshot is not a supported saved game.
+     */
+    public String restore(byte[] snapshot) {
+        return register(SessionCodec.decode(snapshot));
+    }
+
+    private String register(Game game) {
+        String id = "session-" + sessionIds.incrementAndGet();
+        Session session = new Session(id, game);
+        synchronized (session) {
+            session.heapBytes = estimateHeapBytes(game);
+            residentBytes.addAndGet(session.heapBytes);
+        }
+        residentSessions.incrementAndGet();
+        sessions.put(id, session);
+        touch(session);
+        evictOverBudget();
+        return id;
+    }
+
+    /**
+     * Marks a session as the most recently active, unless it was closed meanwhile.
+     * @param session The session.
+     */
+    private void touch(Session session) {
+        synchronized (recentlyActive) {
+            if (sessions.get(session.id) == session) {
+                recentlyActive.put(session.id, session);
+            }
+        }
+    }
+
+    /**
+     * Hibernates the least recently active sessions until the resident sessions fit the budget.
+     * Sessions that stay on the heap, pinned in memory or not written, go back in the LRU order
+     * as the most recently active, so a later eviction still finds them.
+     */
+    private void evictOverBudget() {
+        List<Session> kept = null;  // Made on the first session kept, as most moves evict nothing
+        try {
+            while (residentBytes.get() > heapBudgetBytes) {
+                Session eldest;
+                synchronized (recentlyActive) {
+                    Iterator<Session> it = recentlyActive.values().iterator();
+                    if (!it.hasNext()) {
+                        return;
+                    }
+                    eldest = it.next();
+                    it.remove();
+                }
+                if (!hibernate(eldest)) {
+                    kept = kept == null ? new ArrayList<>() : kept;
+                    kept.add(eldest);
+                }
+            }
+        } finally {
+            if (kept != null) {
+                restore(kept);
+            }
+        }
+    }
+
+    /**
+     * Puts sessions kept on the heap back in the LRU order, unless closed meanwhile.
+     * @param kept The sessions.
+     */
+    private void restore(List<Session> kept) {
+        synchronized (recentlyActive) {
+            for (Session session : kept) {
+                if (sessions.containsKey(session.id)) {
+                    recentlyActive.putIfAbsent(session.id, session);  // A touch meanwhile keeps its place
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a session's game to its spill file and drops it from the heap.
+     * @param session The session.
+     * @return false if the game stays on the heap, pinned in memory or not written.
+     */
+    private boolean hibernate(Session session) {
+        synchronized (session) {
+            Game game = session.game;
+            if (game == null || !sessions.containsKey(session.id)) {
+                return true;  // Already hibernated or closed
+            }
+            if (!SessionCodec.canEncode(game)) {
+                return false;  // Pinned in memory
+            }
+            try {
+                createSpillDirectory();
+                Files.write(spillFile(session.id), SessionCodec.encode(game));
+            } catch (IOException e) {
+                LOGGER.warning("Could not hibernate " + session.id + ": " + e.getMessage());
+                return false;
+            }
+            session.game = null;
+            residentBytes.addAndGet(-session.heapBytes);
+            session.heapBytes = 0;
+            residentSessions.decrementAndGet();
+            evictions.increment();
+            return true;
+        }
+    }
+
+    /**
+     * Rebuilds a hibernated session's game from its spill file. Called with the session locked.
+     * @param session The session.
+     */
+    private void rehydrate(Session session) {
+        long start = System.nanoTime();
+        Path file = spillFile(session.id);
+        try {
+            session.game = SessionCodec.decode(Files.readAllBytes(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not rehydrate " + session.id, e);
+        }
+        deleteQuietly(file);
+        session.heapBytes = estimateHeapBytes(session.game);
+        residentBytes.addAndGet(session.heapBytes);
+        residentSessions.incrementAndGet();
+        rehydrationLatency.record(System.nanoTime() - start);
+    }
+
+    private void createSpillDirectory() throws IOException {
+        if (!spillDirectoryCreated) {
+            Files.createDirectories(spillDirectory);
+            spillDirectoryCreated = true;
+        }
+    }
+
+    private Path spillFile(String id) {
+        return spillDirectory.resolve(id + ".session");
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.warning("Could not delete " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Estimates the heap held by a game.
+     * @param game The game.
+     * @return Estimated bytes.
+     */
+    private static long estimateHeapBytes(Game game) {
+        if (game.getBoard() == null) {
+            return HEAP_BYTES_PER_GAME;
+        }
+        return HEAP_BYTES_PER_GAME + HEAP_BYTES_PER_CARD * game.getBoard().getCardCount()
+                + HEAP_BYTES_PER_MEMENTO * game.getCaretaker().getMementosCount();
+    }
+
+    /**
+     * Gets the ids of all open sessions.
+     * @return The session ids.
+     */
+    public List<String> getSessionIds() {
+        return new ArrayList<>(sessions.keySet());
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Gets the number of sessions whose game is on the heap.
+     * @return The resident session count.
+     */
+    public int getResidentCount() {
+        return residentSessions.get();
+    }
+
+    public long getResidentBytes() {
+        return residentBytes.get();
+    }
+
+    public long getHeapBudgetBytes() {
+        return heapBudgetBytes;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public LatencyHistogram getRehydrationLatency() {
+        return rehydrationLatency;
+    }
+}
@@ -0,0 +1,209 @@
+package core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.Board;
+import model.Card;
+import model.HumanPlayer;
+import model.Player;
+import patterns.builders.GameBuilder;
+import patterns.factory.CardFactory;
+import patterns.memento.Memento;
+import patterns.strategy.match.ColorMatchStrategy;
+import patterns.strategy.match.FullMatchStrategy;
+import patterns.strategy.match.MatchStrategy;
+import patterns.strategy.match.SymbolMatchStrategy;
+import patterns.strategy.score.PenaltyScoreStrategy;
+import patterns.strategy.score.ScoreStrategy;
+import patterns.strategy.score.SimpleScoreStrategy;
+import patterns.strategy.score.TimeBasedScoreStrategy;
+
+/**
+ * SessionCodec writes a headless game to a compact binary form and rebuilds it.
+ * A card is stored as its id and three flags, since the id determines its number and
+ * symbol in the CardFactory deck; players as the human players' names and everyone's
+ * scores, and the undo history as board positions. A Large game takes a little over 200 bytes.
+ * The computer players continue with a seed drawn from the game's random source.
+ */
+final class SessionCodec {
+    private static final int VERSION = 2;  // 2 added the opponent difficulty and human player names
+    private static final int SEEN = 1;
+    private static final int FACE_UP = 2;
+    private static final int MATCHED = 4;
+    private static final List<Class<? extends MatchStrategy>> MATCH_STRATEGIES =
+            List.of(FullMatchStrategy.class, ColorMatchStrategy.class, SymbolMatchStrategy.class);
+    private static final List<Class<? extends ScoreStrategy>> SCORE_STRATEGIES =
+            List.of(SimpleScoreStrategy.class, PenaltyScoreStrategy.class, TimeBasedScoreStrategy.class);
+
+    private SessionCodec() {
+    }
+
+    /**
+     * Checks if a game uses only strategies the codec can rebuild. Endless games cannot be
+     * encoded, since their cards do not come from the fixed deck, nor games with a board or
+     * players other than the board size and the two-player default give, nor games whose
+     * computer players remember cards on their own.
+     * @param game The game.
+     * @return true if the game can be encoded.
+     */
+    static boolean canEncode(Game game) {
+        int humans = (int) game.getPlayers().stream().filter(p -> p instanceof HumanPlayer).count();
+        return !game.isEndless() && MATCH_STRATEGIES.contains(game.getMatchStrategy().getClass())
+                && SCORE_STRATEGIES.contains(game.getScoreStrategy().getClass())
+                && game.getPlayers().size() == humans + Math.max(0, 2 - humans) && game.getBotMemory() == 0
+                && game.getBoard().getCardCount() == 2 * Game.determinePairs(game.getBoardSize());
+    }
+
+    /**
+     * Encodes a game.
+     * @param game The game, which must not be running a turn.
+     * @return The compact form.
+     */
+    static byte[] encode(Game game) {
+        Board board = game.getBoard();
+        List<Player> players = game.getPlayers();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + board.getCardCount() * 2);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeUTF(game.getGameId());
+            out.writeUTF(game.getBoardSize());
+            out.writeByte(game.getDifficulty());
+            out.writeByte(game.getOpponentDifficulty());
+            out.writeByte(MATCH_STRATEGIES.indexOf(game.getMatchStrategy().getClass()));
+            out.writeByte(SCORE_STRATEGIES.indexOf(game.getScoreStrategy().getClass()));
+            out.writeLong(game.nextSeed());
+
+            out.writeByte((int) players.stream().filter(p -> p instanceof HumanPlayer).count());
+            for (Player player : players) {
+                if (player instanceof HumanPlayer) {
+                    out.writeUTF(player.getName());
+                }
+            }
+            out.writeByte(players.size());
+            for (Player player : players) {
+                out.writeInt(player.getScore());
+            }
+            out.writeByte(game.getCurrentPlayerIndex());
+            int[] pending = game.getPendingFlip();
+            out.writeShort(pending == null ? -1 : pending[0] * board.getColsSize() + pending[1]);
+
+            out.writeShort(board.getCardCount());
+            for (int i = 0; i < board.getCardCount(); i++) {
+                Card card = board.getCardAt(i);
+                out.writeByte(card.getId());
+                out.writeByte((card.isSeen() ? SEEN : 0) | (card.isFaceUp() ? FACE_UP : 0)
+                        | (card.isMatched() ? MATCHED : 0));
+            }
+
+            List<Memento> mementos = game.getCaretaker().getMementos();
+            out.writeShort(mementos.size());
+            for (Memento memento : mementos) {
+                Card[] cards = memento.getMatchedCards();
+                out.writeShort(indexOf(board, cards[0]));
+                out.writeShort(indexOf(board, cards[1]));
+                out.writeByte(players.indexOf(memento.getPlayer()));
+                out.writeInt(memento.getScoreChange());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);  // Cannot happen on a byte array
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Rebuilds a headless game from its compact form.
+     * @param data The compact form.
+     * @return The game.
+     * @throws IllegalArgumentException if the data is not a supported saved game.
+     */
+    static Game decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported saved game version " + version);
+            }
+            GameBuilder builder = new GameBuilder()
+                    .setGameId(in.readUTF())
+                    .setBoardSize(in.readUTF())
+                    .setDifficulty(in.readUnsignedByte())
+                    .setOpponentDifficulty(in.readUnsignedByte())
+                    .setMatchStrategy(newInstance(MATCH_STRATEGIES.get(in.readUnsignedByte())))
+                    .setScoreStrategy(newInstance(SCORE_STRATEGIES.get(in.readUnsignedByte())))
+                    .setSeed(in.readLong());
+            String[] names = new String[in.readUnsignedByte()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = in.readUTF();
+            }
+            builder.setNumPlayers(names.length).setPlayerNames(names).setHeadless(true);
+            Game game = builder.build();
+
+            List<Player> players = game.getPlayers();
+            int playerCount = in.readUnsignedByte();
+            for (int i = 0; i < playerCount; i++) {
+                players.get(i).addScore(in.readInt());
+                game.rerank(i);
+            }
+            int currentPlayerIndex = in.readUnsignedByte();
+            int pendingIndex = in.readShort();
+
+            Board board = game.getBoard();
+            int cardCount = in.readUnsignedShort();
+            List<Card> deck = new CardFactory().createPairsOfCards(cardCount / 2);  // Ordered by id
+            List<Card> layout = new ArrayList<>(cardCount);
+            for (int i = 0; i < cardCount; i++) {
+                Card card = deck.get(in.readUnsignedByte() - 1);
+                int flags = in.readUnsignedByte();
+                if ((flags & SEEN) != 0) {
+                    card.flip();  // Seen and face up
+                    if ((flags & FACE_UP) == 0) {
+                        card.flip();
+                    }
+                }
+                if ((flags & MATCHED) != 0) {
+                    card.setMatched(true);
+                }
+                layout.add(card);
+            }
+            board.restoreCards(layout);
+
+            int mementoCount = in.readUnsignedShort();
+            for (int i = 0; i < mementoCount; i++) {
+                Card first = board.getCardAt(in.readUnsignedShort());
+                Card second = board.getCardAt(in.readUnsignedShort());
+                Player player = players.get(in.readUnsignedByte());
+                game.getCaretaker().saveMemento(new Memento(new Card[]{first, second}, in.readInt(), player));
+            }
+
+            int cols = board.getColsSize();
+            game.restoreTurn(currentPlayerIndex,
+                    pendingIndex < 0 ? null : new int[]{pendingIndex / cols, pendingIndex % cols});
+            return game;
+        } catch (IOException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Corrupt saved game", e);
+        }
+    }
+
+    private static int indexOf(Board board, Card card) {
+        for (int i = 0; i < board.getCardCount(); i++) {
+            if (board.getCardAt(i) == card) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Memento card " + card.getId() + " is not on the board");
+    }
+
+    private static <T> T newInstance(Class<T> type) {
+        try {
+            return type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create " + type.getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package matchmaking;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import core.Game;
+
+/**
+ * MatchTicket is one player waiting in the MatchmakingService. Its state moves from WAITING to
+ * MATCHED or CANCELLED exactly once, by compare-and-set, so a ticket is never paired twice even
+ * while several threads search the queues at the same time.
+ */
+public final class MatchTicket {
+    static final int WAITING = 0;
+    static final int CLAIMING = 1;  // Searching for an opponent; cannot be taken meanwhile
+    static final int MATCHED = 2;
+    static final int CANCELLED = 3;
+    private static final AtomicIntegerFieldUpdater<MatchTicket> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(MatchTicket.class, "state");
+
+    private final String player;
+    private final String name;
+    private final int botLevel;
+    private final double rating;
+    private final String boardSize;
+    private final String rules;
+    private final long enqueuedNanos;
+    private final CompletableFuture<Game> game = new CompletableFuture<>();
+    private volatile int state = WAITING;
+    volatile boolean queued;  // Added to a bucket queue, so counted as waiting
+
+    /**
+     * Constructs a MatchTicket.
+     * @param player The player's rating key.
+     * @param name The human player's name, or null for a bot.
+     * @param botLevel The bot's difficulty level, or 0 for a human.
+     * @param rating The player's rating.
+     * @param boardSize The preferred board size.
+     * @param rules The preferred rules.
+     */
+    MatchTicket(String player, String name, int botLevel, double rating, String boardSize, String rules) {
+        this.player = player;
+        this.name = name;
+        this.botLevel = botLevel;
+        this.rating = rating;
+        this.boardSize = boardSize;
+        this.rules = rules;
+        this.enqueuedNanos = System.nanoTime();
+    }
+
+    boolean transition(int from, int to) {
+        return STATE.compareAndSet(this, from, to);
+    }
+
+    int getState() {
+        return state;
+    }
+
+    void setState(int state) {
+        this.state = state;
+    }
+
+    public String getPlayer() {
+        return player;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isBot() {
+        return botLevel > 0;
+    }
+
+    public int getBotLevel() {
+        return botLevel;
+    }
+
+    public double getRating() {
+        return rating;
+    }
+
+    public String getBoardSize() {
+        return boardSize;
+    }
+
+    public String getRules() {
+        return rules;
+    }
+
+    public long getEnqueuedNanos() {
+        return enqueuedNanos;
+    }
+
+    /**
+     * Gets the game this ticket was paired into.
+     * @return A future completed with the game when a match is made, cancelled if the ticket is.
+     */
+    public CompletableFuture<Game> getGame() {
+        return game;
+    }
+
+    public boolean isWaiting() {
+        return state == WAITING || state == CLAIMING;
+    }
+}
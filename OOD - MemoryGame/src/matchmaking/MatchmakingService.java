@@ -0,0 +1,335 @@
+package matchmaking;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import core.Game;
+import metrics.QuantileWindow;
+import patterns.builders.GameBuilder;
+import patterns.strategy.match.ColorMatchStrategy;
+import patterns.strategy.match.FullMatchStrategy;
+import patterns.strategy.match.MatchStrategy;
+import patterns.strategy.match.SymbolMatchStrategy;
+import rating.PlayerRating;
+import rating.RatingEngine;
+
+/**
+ * MatchmakingService pairs waiting players, human or bot, who want the same board size and rules
+ * and are close in rating, and builds their game. The game is not registered anywhere: it
+ * belongs to the holders of the two tickets, who host it, register it with the GameManager if
+ * it should be monitored, and unregister it when it ends.
+ * Implements Singleton pattern like GameManager.
+ *
+ * Each board size and rules combination has a pool of rating buckets BUCKET_WIDTH points wide,
+ * and each bucket is a lock-free ConcurrentLinkedQueue of tickets in arrival order. A new ticket
+ * first searches the nearest buckets for an opponent within its search radius, and joins its own
+ * bucket if there is none. The radius starts at INITIAL_RADIUS and widens with the time waited,
+ * up to MAX_RADIUS; a daemon thread sweeps the waiting tickets every SWEEP_MILLIS so that widened
+ * radii are searched again. Tickets are claimed by compare-and-set, so concurrent searches never
+ * pair a ticket twice; matched and cancelled tickets are unlinked lazily by the next search that
+ * passes them.
+ *
+ * Players are rated by the RatingEngine; a player without a rated game starts at its initial
+ * rating. The time from enqueue to match is kept for the last WAIT_WINDOW matched tickets and
+ * exported as quantiles.
+ */
+public class MatchmakingService {
+    private static final Logger LOGGER = Logger.getLogger(MatchmakingService.class.getName());
+    private static final double BUCKET_WIDTH = 50;
+    private static final int BUCKETS = 64;  // Ratings 0 to 3200; higher and lower ones share the end buckets
+    private static final double INITIAL_RADIUS = 50;
+    private static final double RADIUS_GROWTH_PER_SECOND = 50;
+    private static final double MAX_RADIUS = 800;
+    private static final long SWEEP_MILLIS = 50;
+    private static final int WAIT_WINDOW = 8192;
+    private static MatchmakingService instance;
+
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+    private final LongAdder waiting = new LongAdder();
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder matches = new LongAdder();
+    private final QuantileWindow timeToMatch = new QuantileWindow(WAIT_WINDOW);
+    private ScheduledExecutorService sweeper;
+
+    private MatchmakingService() {
+    }
+
+    /**
+     * Provides access to the singleton instance of MatchmakingService.
+     * @return The singleton instance of MatchmakingService.
+     */
+    public static synchronized MatchmakingService getInstance() {
+        if (instance == null) {
+            instance = new MatchmakingService();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the instance if it has been created, without creating it.
+     * @return The instance, or null.
+     */
+    public static synchronized MatchmakingService getExistingInstance() {
+        return instance;
+    }
+
+    /**
+     * Puts a human player in the queue.
+     * @param name The player's name.
+     * @param boardSize The preferred board size (Small, Medium, Large).
+     * @param rules The preferred rules: "full", "symbol" or "color" matching.
+     * @return The ticket, whose game completes when the player is paired.
+     * @throws IllegalArgumentException if the rules are unknown.
+     */
+    public MatchTicket enqueueHuman(String name, String boardSize, String rules) {
+        return enqueueHuman(name, ratingOf(RatingEngine.humanKey(name)), boardSize, rules);
+    }
+
+    /**
+     * Puts a human player in the queue with a rating from elsewhere, such as an imported ladder.
+     * @param name The player's name.
+     * @param rating The player's rating.
+     * @param boardSize The preferred board size (Small, Medium, Large).
+     * @param rules The preferred rules: "full", "symbol" or "color" matching.
+     * @return The ticket, whose game completes when the player is paired.
+     * @throws IllegalArgumentException if the rules are unknown.
+     */
+    public MatchTicket enqueueHuman(String name, double rating, String boardSize, String rules) {
+        return enqueue(new MatchTicket(RatingEngine.humanKey(name), name, 0, rating, boardSize, rules));
+    }
+
+    /**
+     * Puts a computer player in the queue.
+     * @param level The difficulty level.
+     * @param boardSize The preferred board size (Small, Medium, Large).
+     * @param rules The preferred rules: "full", "symbol" or "color" matching.
+     * @return The ticket, whose game completes when the bot is paired.
+     * @throws IllegalArgumentException if the rules are unknown.
+     */
+    public MatchTicket enqueueBot(int level, String boardSize, String rules) {
+        String player = RatingEngine.botKey(level);
+        return enqueue(new MatchTicket(player, null, level, ratingOf(player), boardSize, rules));
+    }
+
+    /**
+     * Takes a ticket out of the queue.
+     * @param ticket The ticket.
+     * @return true if it was cancelled, false if it was paired or cancelled already, or is being
+     *         considered by a search right now; retry in the last case.
+     */
+    public boolean cancel(MatchTicket ticket) {
+        if (!ticket.transition(MatchTicket.WAITING, MatchTicket.CANCELLED)) {
+            return false;
+        }
+        if (ticket.queued) {
+            waiting.decrement();
+        }
+        ticket.getGame().cancel(false);
+        return true;
+    }
+
+    private MatchTicket enqueue(MatchTicket ticket) {
+        matchStrategyFor(ticket.getRules());  // Unknown rules fail before the ticket waits
+        Pool pool = pools.computeIfAbsent(ticket.getBoardSize().toLowerCase(Locale.ROOT) + '/'
+                + ticket.getRules().toLowerCase(Locale.ROOT), key -> new Pool());
+        enqueued.increment();
+        if (!tryMatch(pool, ticket, System.nanoTime())) {
+            ticket.queued = true;
+            waiting.increment();
+            pool.buckets.get(bucketOf(ticket.getRating())).add(ticket);
+            startSweeper();
+        }
+        return ticket;
+    }
+
+    /**
+     * Searches an opponent for a ticket and, if one accepts, creates their game.
+     * @return true if the ticket was paired.
+     */
+    private boolean tryMatch(Pool pool, MatchTicket ticket, long now) {
+        if (!ticket.transition(MatchTicket.WAITING, MatchTicket.CLAIMING)) {
+            return false;  // Paired by another search, or cancelled
+        }
+        MatchTicket opponent = findOpponent(pool, ticket, now);
+        if (opponent == null) {
+            ticket.setState(MatchTicket.WAITING);
+            return false;
+        }
+        ticket.setState(MatchTicket.MATCHED);
+        if (ticket.queued) {
+            waiting.decrement();
+        }
+        waiting.decrement();  // The opponent was found in a queue
+        boolean older = ticket.getEnqueuedNanos() - opponent.getEnqueuedNanos() <= 0;
+        startGame(older ? ticket : opponent, older ? opponent : ticket, now);
+        return true;
+    }
+
+    /**
+     * Scans the buckets within a ticket's radius, nearest first, and claims the first waiting
+     * ticket of another player that either radius accepts.
+     */
+    private MatchTicket findOpponent(Pool pool, MatchTicket ticket, long now) {
+        double radius = radius(ticket, now);
+        int home = bucketOf(ticket.getRating());
+        int reach = (int) Math.ceil(radius / BUCKET_WIDTH);
+        for (int distance = 0; distance <= reach; distance++) {
+            for (int side = distance == 0 ? 1 : -1; side <= 1; side += 2) {
+                int bucket = home + side * distance;
+                if (bucket < 0 || bucket >= BUCKETS) {
+                    continue;
+                }
+                Iterator<MatchTicket> candidates = pool.buckets.get(bucket).iterator();
+                while (candidates.hasNext()) {
+                    MatchTicket candidate = candidates.next();
+                    int state = candidate.getState();
+                    if (state == MatchTicket.MATCHED || state == MatchTicket.CANCELLED) {
+                        candidates.remove();
+                        continue;
+                    }
+                    double gap = Math.abs(candidate.getRating() - ticket.getRating());
+                    if (state == MatchTicket.WAITING && !candidate.getPlayer().equals(ticket.getPlayer())
+                            && gap <= Math.max(radius, radius(candidate, now))
+                            && candidate.transition(MatchTicket.WAITING, MatchTicket.MATCHED)) {
+                        candidates.remove();
+                        return candidate;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates the game of a pair, the longer waiting player first, and hands it to both tickets.
+     */
+    private void startGame(MatchTicket first, MatchTicket second, long now) {
+        GameBuilder builder = new GameBuilder().setBoardSize(first.getBoardSize())
+                .setMatchStrategy(matchStrategyFor(first.getRules())).setHeadless(true);
+        if (!first.isBot() && !second.isBot()) {
+            builder.setNumPlayers(2).setPlayerNames(first.getName(), second.getName());
+        } else if (first.isBot() && second.isBot()) {
+            builder.setNumPlayers(0).setDifficulty(first.getBotLevel()).setOpponentDifficulty(second.getBotLevel());
+        } else {
+            MatchTicket human = first.isBot() ? second : first;
+            MatchTicket bot = first.isBot() ? first : second;
+            builder.setNumPlayers(1).setPlayerNames(human.getName()).setDifficulty(bot.getBotLevel());
+        }
+        timeToMatch.record(now - first.getEnqueuedNanos());
+        timeToMatch.record(now - second.getEnqueuedNanos());
+        matches.increment();
+        Game game;
+        try {
+            game = builder.build();  // Owned by the ticket holders; registering here would keep every match forever
+        } catch (RuntimeException e) {
+            LOGGER.warning("Could not create the game of " + first.getPlayer() + " and " + second.getPlayer() + ": " + e);
+            first.getGame().completeExceptionally(e);
+            second.getGame().completeExceptionally(e);
+            return;
+        }
+        first.getGame().complete(game);
+        second.getGame().complete(game);
+    }
+
+    /**
+     * Retries every waiting ticket with its widened radius.
+     */
+    private void sweep() {
+        long now = System.nanoTime();
+        for (Pool pool : pools.values()) {
+            for (Queue<MatchTicket> bucket : pool.buckets) {
+                for (MatchTicket ticket : bucket) {
+                    if (ticket.getState() == MatchTicket.WAITING) {
+                        tryMatch(pool, ticket, now);
+                    }
+                }
+            }
+        }
+    }
+
+    private synchronized void startSweeper() {
+        if (sweeper == null) {
+            sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "matchmaking-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sweeper.scheduleWithFixedDelay(() -> {
+                try {
+                    sweep();
+                } catch (RuntimeException e) {
+                    LOGGER.warning("Matchmaking sweep failed: " + e);
+                }
+            }, SWEEP_MILLIS, SWEEP_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static double radius(MatchTicket ticket, long now) {
+        double waitedSeconds = (now - ticket.getEnqueuedNanos()) / 1e9;
+        return Math.min(MAX_RADIUS, INITIAL_RADIUS + RADIUS_GROWTH_PER_SECOND * Math.max(0, waitedSeconds));
+    }
+
+    private static int bucketOf(double rating) {
+        return (int) Math.max(0, Math.min(BUCKETS - 1, rating / BUCKET_WIDTH));
+    }
+
+    private static double ratingOf(String player) {
+        PlayerRating rating = RatingEngine.getInstance().getRating(player);
+        return rating == null ? RatingEngine.INITIAL_RATING : rating.getRating();
+    }
+
+    /**
+     * Maps rules to their matching strategy.
+     * @param rules "full", "symbol" or "color".
+     * @return A new matching strategy.
+     * @throws IllegalArgumentException if the rules are unknown.
+     */
+    public static MatchStrategy matchStrategyFor(String rules) {
+        return switch (rules.toLowerCase(Locale.ROOT)) {
+            case "full" -> new FullMatchStrategy();
+            case "symbol" -> new SymbolMatchStrategy();
+            case "color" -> new ColorMatchStrategy();
+            default -> throw new IllegalArgumentException("Unknown rules: " + rules);
+        };
+    }
+
+    public long getWaitingCount() {
+        return waiting.sum();
+    }
+
+    public long getEnqueuedCount() {
+        return enqueued.sum();
+    }
+
+    public long getMatchCount() {
+        return matches.sum();
+    }
+
+    public QuantileWindow getTimeToMatch() {
+        return timeToMatch;
+    }
+
+    /**
+     * The rating buckets of one board size and rules combination.
+     */
+    private static final class Pool {
+        private final List<Queue<MatchTicket>> buckets = new ArrayList<>(BUCKETS);
+
+        private Pool() {
+            for (int b = 0; b < BUCKETS; b++) {
+                buckets.add(new ConcurrentLinkedQueue<>());
+            }
+        }
+    }
+}
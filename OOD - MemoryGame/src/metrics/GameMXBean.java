@@ -0,0 +1,26 @@
+package metrics;
+
+/**
+ * Management interface exposing a single live game over JMX.
+ */
+public interface GameMXBean {
+    String getGameId();
+    String getBoardSize();
+    int getDifficulty();
+    String getCurrentPlayer();
+    boolean isPaused();
+    boolean isAborted();
+
+    long getTurnsProcessed();
+    double getTurnsPerSecond();
+    long getMatches();
+    long getUndoCount();
+    double getAverageObserverNotificationMicros();
+    double getAverageRenderMicros();
+    double getAverageAiDecisionMicros();
+
+    void pause();
+    void resume();
+    void abort();
+    String snapshot();
+}
@@ -0,0 +1,13 @@
+package metrics;
+
+/**
+ * Management interface exposing the GameManager over JMX.
+ */
+public interface GameManagerMXBean {
+    int getActiveSessions();
+    String[] getActiveGameIds();
+    long getGamesCreated();
+    long getTurnsProcessed();
+    long getMatches();
+    double getTurnsPerSecond();
+}
@@ -0,0 +1,67 @@
+package metrics;
+
+import java.util.Collection;
+
+import core.Game;
+import core.GameManager;
+
+/**
+ * GameManagerMonitor adapts the GameManager and its active sessions to the GameManagerMXBean interface.
+ */
+public class GameManagerMonitor implements GameManagerMXBean {
+    private final GameManager manager;
+
+    /**
+     * Constructs a GameManagerMonitor.
+     * @param manager The game manager to expose.
+     */
+    public GameManagerMonitor(GameManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public int getActiveSessions() {
+        return manager.getActiveGames().size();
+    }
+
+    @Override
+    public String[] getActiveGameIds() {
+        return manager.getActiveGames().stream().map(Game::getGameId).sorted().toArray(String[]::new);
+    }
+
+    @Override
+    public long getGamesCreated() {
+        return manager.getGamesCreated();
+    }
+
+    @Override
+    public long getTurnsProcessed() {
+        long total = 0;
+        for (Game game : activeGames()) {
+            total += game.getMetrics().getTurns();
+        }
+        return total;
+    }
+
+    @Override
+    public long getMatches() {
+        long total = 0;
+        for (Game game : activeGames()) {
+            total += game.getMetrics().getMatches();
+        }
+        return total;
+    }
+
+    @Override
+    public double getTurnsPerSecond() {
+        double total = 0;
+        for (Game game : activeGames()) {
+            total += game.getMetrics().getTurnsPerSecond();
+        }
+        return total;
+    }
+
+    private Collection<Game> activeGames() {
+        return manager.getActiveGames();
+    }
+}
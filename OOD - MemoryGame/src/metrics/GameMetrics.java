@@ -0,0 +1,191 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * GameMetrics holds the hot-path counters of a single game.
+ * Every counter is a LongAdder so recording from the game loop never contends with monitoring reads.
+ * Samples are also forwarded to the LabeledMetrics shared by games of the same configuration.
+ */
+public class GameMetrics {
+    private final long createdNanos = System.nanoTime();
+    private final LabeledMetrics labeled;
+    private final LongAdder turns = new LongAdder();
+    private final LongAdder flips = new LongAdder();
+    private final LongAdder matches = new LongAdder();
+    private final LongAdder undos = new LongAdder();
+    private final LongAdder observerNotifications = new LongAdder();
+    private final LongAdder observerNanos = new LongAdder();
+    private final LongAdder renders = new LongAdder();
+    private final LongAdder renderNanos = new LongAdder();
+    private final LongAdder aiDecisions = new LongAdder();
+    private final LongAdder aiDecisionNanos = new LongAdder();
+
+    /**
+     * Constructs the metrics of one game.
+     * @param labeled The aggregate metrics for the game's difficulty and board size.
+     */
+    public GameMetrics(LabeledMetrics labeled) {
+        this.labeled = labeled;
+    }
+
+    /**
+     * Records a processed turn.
+     * @param nanos Time spent processing the turn in nanoseconds.
+     */
+    public void recordTurn(long nanos) {
+        turns.increment();
+        labeled.recordTurn(nanos);
+    }
+
+    /**
+     * Records a card flipped by a player.
+     */
+    public void recordFlip() {
+        flips.increment();
+        labeled.recordFlip();
+    }
+
+    /**
+     * Records a successful match.
+     */
+    public void recordMatch() {
+        matches.increment();
+        labeled.recordMatch();
+    }
+
+    /**
+     * Records an undo request.
+     */
+    public void recordUndo() {
+        undos.increment();
+    }
+
+    /**
+     * Records the time spent notifying all observers once.
+     * @param nanos Elapsed time in nanoseconds.
+     */
+    public void recordObserverNotification(long nanos) {
+        observerNotifications.increment();
+        observerNanos.add(nanos);
+    }
+
+    /**
+     * Records the time spent rendering one frame.
+     * @param nanos Elapsed time in nanoseconds.
+     */
+    public void recordRender(long nanos) {
+        renders.increment();
+        renderNanos.add(nanos);
+        labeled.recordRender(nanos);
+    }
+
+    /**
+     * Records the time a computer player spent choosing its cards.
+     * @param nanos Elapsed time in nanoseconds.
+     */
+    public void recordAiDecision(long nanos) {
+        aiDecisions.increment();
+        aiDecisionNanos.add(nanos);
+        labeled.recordAiDecision(nanos);
+    }
+
+    /**
+     * Gets the number of turns processed.
+     * @return The turn count.
+     */
+    public long getTurns() {
+        return turns.sum();
+    }
+
+    /**
+     * Gets the number of cards flipped.
+     * @return The flip count.
+     */
+    public long getFlips() {
+        return flips.sum();
+    }
+
+    /**
+     * Gets the number of matches found.
+     * @return The match count.
+     */
+    public long getMatches() {
+        return matches.sum();
+    }
+
+    /**
+     * Gets the number of undo requests.
+     * @return The undo count.
+     */
+    public long getUndos() {
+        return undos.sum();
+    }
+
+    /**
+     * Gets the number of times all observers were notified.
+     * @return The notification count.
+     */
+    public long getObserverNotifications() {
+        return observerNotifications.sum();
+    }
+
+    /**
+     * Gets the total time spent notifying observers.
+     * @return The time in nanoseconds.
+     */
+    public long getObserverNanos() {
+        return observerNanos.sum();
+    }
+
+    /**
+     * Gets the number of frames rendered.
+     * @return The frame count.
+     */
+    public long getRenders() {
+        return renders.sum();
+    }
+
+    /**
+     * Gets the total time spent rendering frames.
+     * @return The time in nanoseconds.
+     */
+    public long getRenderNanos() {
+        return renderNanos.sum();
+    }
+
+    /**
+     * Gets the number of decisions made by computer players.
+     * @return The decision count.
+     */
+    public long getAiDecisions() {
+        return aiDecisions.sum();
+    }
+
+    /**
+     * Gets the total time computer players spent choosing cards.
+     * @return The time in nanoseconds.
+     */
+    public long getAiDecisionNanos() {
+        return aiDecisionNanos.sum();
+    }
+
+    /**
+     * Gets the average number of turns per second since the game was created.
+     * @return Turns per second.
+     */
+    public double getTurnsPerSecond() {
+        double seconds = (System.nanoTime() - createdNanos) / 1_000_000_000.0;
+        return seconds > 0 ? getTurns() / seconds : 0.0;
+    }
+
+    /**
+     * Computes an average in microseconds from a total and a count.
+     * @param totalNanos Total elapsed nanoseconds.
+     * @param count Number of samples.
+     * @return Average in microseconds, or 0 when there are no samples.
+     */
+    public static double averageMicros(long totalNanos, long count) {
+        return count == 0 ? 0.0 : totalNanos / 1000.0 / count;
+    }
+}
@@ -0,0 +1,109 @@
+package metrics;
+
+import core.Game;
+
+/**
+ * GameMonitor adapts a Game and its metrics to the GameMXBean management interface.
+ */
+public class GameMonitor implements GameMXBean {
+    private final Game game;
+    private final GameMetrics metrics;
+
+    /**
+     * Constructs a GameMonitor for a game.
+     * @param game The game to expose.
+     */
+    public GameMonitor(Game game) {
+        this.game = game;
+        this.metrics = game.getMetrics();
+    }
+
+    @Override
+    public String getGameId() {
+        return game.getGameId();
+    }
+
+    @Override
+    public String getBoardSize() {
+        return game.getBoardSize();
+    }
+
+    @Override
+    public int getDifficulty() {
+        return game.getDifficulty();
+    }
+
+    @Override
+    public String getCurrentPlayer() {
+        try {
+            return game.getCurrentPlayer().getName();
+        } catch (RuntimeException e) {
+            return "";  // Players are cleared once the game has been reset
+        }
+    }
+
+    @Override
+    public boolean isPaused() {
+        return game.isPaused();
+    }
+
+    @Override
+    public boolean isAborted() {
+        return game.isAborted();
+    }
+
+    @Override
+    public long getTurnsProcessed() {
+        return metrics.getTurns();
+    }
+
+    @Override
+    public double getTurnsPerSecond() {
+        return metrics.getTurnsPerSecond();
+    }
+
+    @Override
+    public long getMatches() {
+        return metrics.getMatches();
+    }
+
+    @Override
+    public long getUndoCount() {
+        return metrics.getUndos();
+    }
+
+    @Override
+    public double getAverageObserverNotificationMicros() {
+        return GameMetrics.averageMicros(metrics.getObserverNanos(), metrics.getObserverNotifications());
+    }
+
+    @Override
+    public double getAverageRenderMicros() {
+        return GameMetrics.averageMicros(metrics.getRenderNanos(), metrics.getRenders());
+    }
+
+    @Override
+    public double getAverageAiDecisionMicros() {
+        return GameMetrics.averageMicros(metrics.getAiDecisionNanos(), metrics.getAiDecisions());
+    }
+
+    @Override
+    public void pause() {
+        game.pause();
+    }
+
+    @Override
+    public void resume() {
+        game.resume();
+    }
+
+    @Override
+    public void abort() {
+        game.abort();
+    }
+
+    @Override
+    public String snapshot() {
+        return game.snapshot();
+    }
+}
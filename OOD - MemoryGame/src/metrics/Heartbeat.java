@@ -0,0 +1,75 @@
+package metrics;
+
+import core.Game;
+
+/**
+ * Heartbeat marks the start and end of each turn of one game loop.
+ * Beating costs two volatile writes per turn; the StallWatchdog reads it from its own thread.
+ */
+public class Heartbeat {
+    private final Game game;
+    private Thread loopThread;
+    private volatile long turnStartNanos;  // 0 between turns
+    private long reportedTurnStart;  // Only touched by the watchdog thread
+
+    /**
+     * Constructs the heartbeat of a game.
+     * @param game The game whose loop beats.
+     */
+    public Heartbeat(Game game) {
+        this.game = game;
+    }
+
+    /**
+     * Marks the start of a turn on the calling thread.
+     */
+    public void turnStarted() {
+        loopThread = Thread.currentThread();
+        long now = System.nanoTime();
+        turnStartNanos = now == 0 ? 1 : now;  // Published after the thread
+    }
+
+    /**
+     * Marks the end of the current turn.
+     */
+    public void turnEnded() {
+        turnStartNanos = 0;
+    }
+
+    /**
+     * Gets the start of the current turn.
+     * @return The System.nanoTime() at which the turn started, or 0 between turns.
+     */
+    public long getTurnStartNanos() {
+        return turnStartNanos;
+    }
+
+    /**
+     * Gets the thread running the current turn.
+     * @return The loop thread, or null if no turn has started yet.
+     */
+    public Thread getLoopThread() {
+        return loopThread;
+    }
+
+    /**
+     * Gets the game this heartbeat belongs to.
+     * @return The game.
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * Marks a turn as reported so one stuck turn is only reported once.
+     * @param turnStart The start of the stuck turn.
+     * @return true if the turn had not been reported yet.
+     */
+    boolean markReported(long turnStart) {
+        if (reportedTurnStart == turnStart) {
+            return false;
+        }
+        reportedTurnStart = turnStart;
+        return true;
+    }
+}
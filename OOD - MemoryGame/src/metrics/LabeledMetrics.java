@@ -0,0 +1,131 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LabeledMetrics aggregates the counters and latency histograms of all games sharing
+ * the same difficulty and board size.
+ */
+public class LabeledMetrics {
+    private final String difficulty;
+    private final String boardSize;
+    private final LongAdder turns = new LongAdder();
+    private final LongAdder flips = new LongAdder();
+    private final LongAdder matches = new LongAdder();
+    private final LatencyHistogram turnLatency = new LatencyHistogram();
+    private final LatencyHistogram aiDecisionLatency = new LatencyHistogram();
+    private final LatencyHistogram renderLatency = new LatencyHistogram();
+
+    /**
+     * Constructs the metrics for one label set.
+     * @param difficulty The difficulty label.
+     * @param boardSize The board size label.
+     */
+    public LabeledMetrics(String difficulty, String boardSize) {
+        this.difficulty = difficulty;
+        this.boardSize = boardSize;
+    }
+
+    /**
+     * Records a processed turn.
+     * @param nanos Time spent processing the turn in nanoseconds.
+     */
+    public void recordTurn(long nanos) {
+        turns.increment();
+        turnLatency.record(nanos);
+    }
+
+    /**
+     * Records a card flipped by a player.
+     */
+    public void recordFlip() {
+        flips.increment();
+    }
+
+    /**
+     * Records a successful match.
+     */
+    public void recordMatch() {
+        matches.increment();
+    }
+
+    /**
+     * Records the time a computer player spent choosing its cards.
+     * @param nanos Elapsed time in nanoseconds.
+     */
+    public void recordAiDecision(long nanos) {
+        aiDecisionLatency.record(nanos);
+    }
+
+    /**
+     * Records the time spent rendering one frame.
+     * @param nanos Elapsed time in nanoseconds.
+     */
+    public void recordRender(long nanos) {
+        renderLatency.record(nanos);
+    }
+
+    /**
+     * Gets the difficulty label.
+     * @return The difficulty.
+     */
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * Gets the board size label.
+     * @return The board size.
+     */
+    public String getBoardSize() {
+        return boardSize;
+    }
+
+    /**
+     * Gets the number of turns processed by the games with these labels.
+     * @return The turn count.
+     */
+    public long getTurns() {
+        return turns.sum();
+    }
+
+    /**
+     * Gets the number of cards flipped in the games with these labels.
+     * @return The flip count.
+     */
+    public long getFlips() {
+        return flips.sum();
+    }
+
+    /**
+     * Gets the number of matches found in the games with these labels.
+     * @return The match count.
+     */
+    public long getMatches() {
+        return matches.sum();
+    }
+
+    /**
+     * Gets the histogram of turn processing times.
+     * @return The turn latency histogram.
+     */
+    public LatencyHistogram getTurnLatency() {
+        return turnLatency;
+    }
+
+    /**
+     * Gets the histogram of computer player decision times.
+     * @return The decision latency histogram.
+     */
+    public LatencyHistogram getAiDecisionLatency() {
+        return aiDecisionLatency;
+    }
+
+    /**
+     * Gets the histogram of frame render times.
+     * @return The render latency histogram.
+     */
+    public LatencyHistogram getRenderLatency() {
+        return renderLatency;
+    }
+}
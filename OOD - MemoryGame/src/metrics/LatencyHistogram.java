@@ -0,0 +1,79 @@
+package metrics;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram records durations into fixed buckets with one LongAdder per bucket.
+ * Recording never blocks, and readers sum the adders without locking.
+ */
+public class LatencyHistogram {
+    /** Upper bounds of the buckets in seconds, as exported in the "le" label. */
+    private static final double[] BOUNDS_SECONDS = {
+        0.00001, 0.00005, 0.0001, 0.0005, 0.001, 0.005, 0.01, 0.05, 0.1, 0.5, 1, 5
+    };
+    private static final long[] BOUNDS_NANOS = new long[BOUNDS_SECONDS.length];
+    private static final String[] BOUND_LABELS = new String[BOUNDS_SECONDS.length];
+
+    static {
+        for (int i = 0; i < BOUNDS_SECONDS.length; i++) {
+            BOUNDS_NANOS[i] = (long) (BOUNDS_SECONDS[i] * 1_000_000_000L);
+            BOUND_LABELS[i] = BigDecimal.valueOf(BOUNDS_SECONDS[i]).stripTrailingZeros().toPlainString();
+        }
+    }
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_NANOS.length + 1];  // Last bucket is +Inf
+    private final LongAdder sumNanos = new LongAdder();
+
+    /**
+     * Constructs an empty histogram.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one duration.
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        int i = 0;
+        while (i < BOUNDS_NANOS.length && nanos > BOUNDS_NANOS[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        sumNanos.add(nanos);
+    }
+
+    /**
+     * Gets the bucket upper bounds in seconds as "le" label values, excluding +Inf.
+     * @return The bucket bound labels.
+     */
+    public static String[] getBoundLabels() {
+        return BOUND_LABELS.clone();
+    }
+
+    /**
+     * Takes a snapshot of the cumulative bucket counts; the last entry is the +Inf bucket.
+     * @return Cumulative counts, one per bound plus +Inf.
+     */
+    public long[] cumulativeCounts() {
+        long[] counts = new long[buckets.length];
+        long running = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            running += buckets[i].sum();
+            counts[i] = running;
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the total recorded time in seconds.
+     * @return The sum of all durations in seconds.
+     */
+    public double getSumSeconds() {
+        return sumNanos.sum() / 1_000_000_000.0;
+    }
+}
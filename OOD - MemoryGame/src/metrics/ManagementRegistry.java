@@ -0,0 +1,95 @@
+package metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import cluster.GameRouterMXBean;
+import core.Game;
+import core.GameManager;
+
+/**
+ * ManagementRegistry registers the game MBeans with the platform MBean server.
+ * Registration is opt-in through the "memorygame.jmx" system property so plain CLI runs
+ * do not pay for starting the platform MBean server.
+ */
+public final class ManagementRegistry {
+    private static final Logger LOGGER = Logger.getLogger(ManagementRegistry.class.getName());
+    private static final String DOMAIN = "memorygame";
+
+    private ManagementRegistry() {
+    }
+
+    /**
+     * Checks whether JMX registration is enabled.
+     * @return true if the "memorygame.jmx" system property is set to true.
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean("memorygame.jmx");
+    }
+
+    /**
+     * Registers the GameManager MBean.
+     * @param manager The game manager.
+     */
+    public static void registerManager(GameManager manager) {
+        register(new GameManagerMonitor(manager), DOMAIN + ":type=GameManager");
+    }
+
+    /**
+     * Registers the MBean of a game router, which adds, drains and lists its workers.
+     * @param router The router.
+     */
+    public static void registerRouter(GameRouterMXBean router) {
+        register(router, DOMAIN + ":type=Router");
+    }
+
+    /**
+     * Registers the MBean of a live game.
+     * @param game The game to register.
+     */
+    public static void registerGame(Game game) {
+        register(new GameMonitor(game), gameName(game));
+    }
+
+    /**
+     * Unregisters the MBean of a game, if present.
+     * @param game The game to unregister.
+     */
+    public static void unregisterGame(Game game) {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(gameName(game));
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            LOGGER.warning("Failed to unregister MBean for " + game.getGameId() + ": " + e.getMessage());
+        }
+    }
+
+    private static void register(Object mbean, String objectName) {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(objectName);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(mbean, name);
+            }
+        } catch (JMException e) {
+            LOGGER.warning("Failed to register MBean " + objectName + ": " + e.getMessage());
+        }
+    }
+
+    private static String gameName(Game game) {
+        return DOMAIN + ":type=Game,id=" + game.getGameId();
+    }
+}
@@ -0,0 +1,206 @@
+package metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import core.GameManager;
+import core.SessionCache;
+import patterns.strategy.difficulty.TunedLevels;
+import matchmaking.MatchmakingService;
+import rating.RatingEngine;
+
+/**
+ * MetricsRegistry holds the process-wide metrics, one LabeledMetrics per difficulty and board size,
+ * and renders them in the Prometheus text exposition format.
+ * Implements Singleton pattern like GameManager.
+ */
+public class MetricsRegistry {
+    private static final double[] SUMMARY_QUANTILES = {0.5, 0.9, 0.99};
+    private static final LatencyHistogram NO_LATENCY = new LatencyHistogram();  // For a service not yet created
+    private static final QuantileWindow NO_WAITS = new QuantileWindow(1);
+    private static MetricsRegistry instance;
+    private final Map<String, LabeledMetrics> byLabels = new ConcurrentHashMap<>();
+
+    /**
+     * Private constructor to prevent instantiation from outside the class.
+     */
+    private MetricsRegistry() {
+    }
+
+    /**
+     * Provides access to the singleton instance of MetricsRegistry.
+     * @return The singleton instance.
+     */
+    public static synchronized MetricsRegistry getInstance() {
+        if (instance == null) {
+            instance = new MetricsRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the metrics shared by all games with the given configuration.
+     * @param difficulty The computer difficulty level.
+     * @param boardSize The board size (Small, Medium, Large).
+     * @return The labeled metrics.
+     */
+    public LabeledMetrics forGame(int difficulty, String boardSize) {
+        String difficultyLabel = difficultyLabel(difficulty);
+        String sizeLabel = boardSize == null ? "unknown" : boardSize.toLowerCase(Locale.ROOT);
+        return byLabels.computeIfAbsent(difficultyLabel + '/' + sizeLabel,
+                key -> new LabeledMetrics(difficultyLabel, sizeLabel));
+    }
+
+    /**
+     * Maps a difficulty level to its label.
+     * @param difficulty The difficulty level.
+     * @return The label.
+     */
+    public static String difficultyLabel(int difficulty) {
+        return switch (difficulty) {
+            case 1 -> "easy";
+            case 2 -> "medium";
+            case 3 -> "hard";
+            case 4 -> "learned";
+            default -> difficulty >= TunedLevels.FIRST_LEVEL ? "tuned" : "unknown";
+        };
+    }
+
+    /**
+     * Renders all metrics in the Prometheus text exposition format.
+     * Reads only LongAdder sums, so a scrape never blocks the game threads. Services are read only
+     * if they exist, so a scrape never creates one or starts its threads; a missing service reads 0.
+     * @return The exposition text.
+     */
+    public String scrape() {
+        List<LabeledMetrics> all = new ArrayList<>(byLabels.values());
+        StringBuilder out = new StringBuilder(4096);
+
+        GameManager manager = GameManager.getExistingInstance();
+        header(out, "memorygame_active_sessions", "gauge", "Games currently registered with the GameManager.");
+        out.append("memorygame_active_sessions ").append(manager == null ? 0 : manager.getActiveGames().size()).append('\n');
+        header(out, "memorygame_games_created_total", "counter", "Games created since startup.");
+        out.append("memorygame_games_created_total ").append(manager == null ? 0 : manager.getGamesCreated()).append('\n');
+
+        StallWatchdog watchdog = StallWatchdog.getExistingInstance();
+        header(out, "memorygame_stalls_total", "counter", "Turns reported by the stall watchdog.");
+        out.append("memorygame_stalls_total ").append(watchdog == null ? 0 : watchdog.getStallCount()).append('\n');
+
+        SessionCache sessions = SessionCache.getExistingInstance();
+        boolean noSessions = sessions == null;
+        header(out, "memorygame_sessions_open", "gauge", "Move-driven sessions open in the SessionCache.");
+        out.append("memorygame_sessions_open ").append(noSessions ? 0 : sessions.getSessionCount()).append('\n');
+        header(out, "memorygame_sessions_resident", "gauge", "Open sessions whose game is on the heap.");
+        out.append("memorygame_sessions_resident ").append(noSessions ? 0 : sessions.getResidentCount()).append('\n');
+        header(out, "memorygame_session_resident_bytes", "gauge", "Estimated heap held by resident sessions.");
+        out.append("memorygame_session_resident_bytes ").append(noSessions ? 0 : sessions.getResidentBytes()).append('\n');
+        header(out, "memorygame_session_cache_hits_total", "counter", "Session moves applied to a resident game.");
+        out.append("memorygame_session_cache_hits_total ").append(noSessions ? 0 : sessions.getHits()).append('\n');
+        header(out, "memorygame_session_cache_misses_total", "counter", "Session moves that rehydrated a hibernated game.");
+        out.append("memorygame_session_cache_misses_total ").append(noSessions ? 0 : sessions.getMisses()).append('\n');
+        header(out, "memorygame_session_evictions_total", "counter", "Sessions hibernated to disk.");
+        out.append("memorygame_session_evictions_total ").append(noSessions ? 0 : sessions.getEvictions()).append('\n');
+        histogram(out, "memorygame_session_rehydration_seconds", "Time to rebuild a hibernated session.",
+                noSessions ? NO_LATENCY : sessions.getRehydrationLatency());
+
+        RatingEngine ratings = RatingEngine.getExistingInstance();
+        boolean noRatings = ratings == null;
+        header(out, "memorygame_rated_players", "gauge", "Players known to the RatingEngine.");
+        out.append("memorygame_rated_players ").append(noRatings ? 0 : ratings.getPlayerCount()).append('\n');
+        header(out, "memorygame_rated_results_total", "counter", "Game results applied to the ratings.");
+        out.append("memorygame_rated_results_total ").append(noRatings ? 0 : ratings.getResultsRated()).append('\n');
+        header(out, "memorygame_rating_pending_results", "gauge", "Game results waiting for their rating batch.");
+        out.append("memorygame_rating_pending_results ").append(noRatings ? 0 : ratings.getPendingResults()).append('\n');
+        histogram(out, "memorygame_rating_batch_seconds", "Time to apply one batch of results to the ratings.",
+                noRatings ? NO_LATENCY : ratings.getBatchLatency());
+
+        MatchmakingService matchmaking = MatchmakingService.getExistingInstance();
+        boolean noMatchmaking = matchmaking == null;
+        header(out, "memorygame_matchmaking_waiting", "gauge", "Players waiting in the matchmaking queues.");
+        out.append("memorygame_matchmaking_waiting ").append(noMatchmaking ? 0 : matchmaking.getWaitingCount()).append('\n');
+        header(out, "memorygame_matchmaking_enqueued_total", "counter", "Players put in the matchmaking queues.");
+        out.append("memorygame_matchmaking_enqueued_total ").append(noMatchmaking ? 0 : matchmaking.getEnqueuedCount())
+                .append('\n');
+        header(out, "memorygame_matchmaking_matches_total", "counter", "Games created by matchmaking.");
+        out.append("memorygame_matchmaking_matches_total ").append(noMatchmaking ? 0 : matchmaking.getMatchCount()).append('\n');
+        summary(out, "memorygame_time_to_match_seconds", "Time from enqueue to match of recently matched players.",
+                noMatchmaking ? NO_WAITS : matchmaking.getTimeToMatch());
+
+        header(out, "memorygame_turns_total", "counter", "Turns processed.");
+        for (LabeledMetrics m : all) {
+            sample(out, "memorygame_turns_total", m, null, m.getTurns());
+        }
+        header(out, "memorygame_flips_total", "counter", "Cards flipped by players.");
+        for (LabeledMetrics m : all) {
+            sample(out, "memorygame_flips_total", m, null, m.getFlips());
+        }
+        header(out, "memorygame_matches_total", "counter", "Matching pairs found.");
+        for (LabeledMetrics m : all) {
+            sample(out, "memorygame_matches_total", m, null, m.getMatches());
+        }
+        histogram(out, "memorygame_turn_duration_seconds", "Time to process one turn.", all, 0);
+        histogram(out, "memorygame_ai_decision_seconds", "Time a computer player spends choosing cards.", all, 1);
+        histogram(out, "memorygame_render_seconds", "Time to redraw the console UI.", all, 2);
+        return out.toString();
+    }
+
+    private static void histogram(StringBuilder out, String name, String help, List<LabeledMetrics> all, int which) {
+        header(out, name, "histogram", help);
+        String[] bounds = LatencyHistogram.getBoundLabels();
+        for (LabeledMetrics m : all) {
+            LatencyHistogram histogram = which == 0 ? m.getTurnLatency()
+                    : which == 1 ? m.getAiDecisionLatency() : m.getRenderLatency();
+            long[] counts = histogram.cumulativeCounts();
+            for (int i = 0; i < bounds.length; i++) {
+                sample(out, name + "_bucket", m, bounds[i], counts[i]);
+            }
+            sample(out, name + "_bucket", m, "+Inf", counts[bounds.length]);
+            labels(out.append(name).append("_sum"), m, null).append(' ').append(histogram.getSumSeconds()).append('\n');
+            sample(out, name + "_count", m, null, counts[bounds.length]);
+        }
+    }
+
+    private static void histogram(StringBuilder out, String name, String help, LatencyHistogram histogram) {
+        header(out, name, "histogram", help);
+        String[] bounds = LatencyHistogram.getBoundLabels();
+        long[] counts = histogram.cumulativeCounts();
+        for (int i = 0; i < bounds.length; i++) {
+            out.append(name).append("_bucket{le=\"").append(bounds[i]).append("\"} ").append(counts[i]).append('\n');
+        }
+        out.append(name).append("_bucket{le=\"+Inf\"} ").append(counts[bounds.length]).append('\n');
+        out.append(name).append("_sum ").append(histogram.getSumSeconds()).append('\n');
+        out.append(name).append("_count ").append(counts[bounds.length]).append('\n');
+    }
+
+    private static void summary(StringBuilder out, String name, String help, QuantileWindow window) {
+        header(out, name, "summary", help);
+        long[] values = window.quantileNanos(SUMMARY_QUANTILES);
+        for (int q = 0; q < SUMMARY_QUANTILES.length; q++) {
+            out.append(name).append("{quantile=\"").append(SUMMARY_QUANTILES[q]).append("\"} ")
+               .append(values[q] / 1_000_000_000.0).append('\n');
+        }
+        out.append(name).append("_sum ").append(window.getSumSeconds()).append('\n');
+        out.append(name).append("_count ").append(window.getCount()).append('\n');
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, LabeledMetrics m, String le, long value) {
+        labels(out.append(name), m, le).append(' ').append(value).append('\n');
+    }
+
+    private static StringBuilder labels(StringBuilder out, LabeledMetrics m, String le) {
+        out.append("{difficulty=\"").append(m.getDifficulty())
+           .append("\",board_size=\"").append(m.getBoardSize()).append('"');
+        if (le != null) {
+            out.append(",le=\"").append(le).append('"');
+        }
+        return out.append('}');
+    }
+}
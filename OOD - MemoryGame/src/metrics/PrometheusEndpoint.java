@@ -0,0 +1,81 @@
+package metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * PrometheusEndpoint serves MetricsRegistry on "/metrics" using the JDK's built-in HTTP server.
+ * Scrapes run on a dedicated daemon thread, never on a game thread.
+ */
+public class PrometheusEndpoint implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(PrometheusEndpoint.class.getName());
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private PrometheusEndpoint(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts the endpoint on the loopback-reachable wildcard address.
+     * @param port The port to bind, or 0 for an ephemeral port.
+     * @return The running endpoint.
+     * @throws IOException If the port cannot be bound.
+     */
+    public static PrometheusEndpoint start(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-endpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.createContext("/metrics", PrometheusEndpoint::handle);
+        server.setExecutor(executor);
+        server.start();
+        LOGGER.info("Metrics endpoint listening on port " + server.getAddress().getPort());
+        return new PrometheusEndpoint(server, executor);
+    }
+
+    /**
+     * Gets the bound port, useful when started with port 0.
+     * @return The port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the endpoint.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = MetricsRegistry.getInstance().scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
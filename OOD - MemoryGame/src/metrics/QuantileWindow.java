@@ -0,0 +1,70 @@
+package metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * QuantileWindow keeps the most recent durations in a ring buffer, for quantiles over a sliding
+ * window where fixed histogram buckets are too coarse, such as waits of seconds to minutes.
+ * Recording claims a slot with one atomic increment and never blocks; reading sorts a copy.
+ */
+public class QuantileWindow {
+    private final AtomicLongArray samples;
+    private final AtomicLong recorded = new AtomicLong();
+    private final LongAdder sumNanos = new LongAdder();
+
+    /**
+     * Constructs an empty window.
+     * @param capacity The number of most recent durations kept.
+     */
+    public QuantileWindow(int capacity) {
+        this.samples = new AtomicLongArray(capacity);
+    }
+
+    /**
+     * Records one duration.
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        samples.set((int) (recorded.getAndIncrement() % samples.length()), nanos);
+        sumNanos.add(nanos);
+    }
+
+    /**
+     * Computes quantiles of the durations in the window.
+     * @param quantiles The quantiles, each between 0 and 1.
+     * @return The duration at each quantile in nanoseconds, 0 if nothing was recorded.
+     */
+    public long[] quantileNanos(double... quantiles) {
+        int size = (int) Math.min(recorded.get(), samples.length());
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        long[] values = new long[quantiles.length];
+        for (int q = 0; q < quantiles.length && size > 0; q++) {
+            int rank = (int) Math.ceil(quantiles[q] * size) - 1;  // Nearest rank
+            values[q] = sorted[Math.max(0, Math.min(size - 1, rank))];
+        }
+        return values;
+    }
+
+    /**
+     * Gets the number of durations recorded since startup.
+     * @return The count.
+     */
+    public long getCount() {
+        return recorded.get();
+    }
+
+    /**
+     * Gets the total recorded time in seconds.
+     * @return The sum of all durations in seconds.
+     */
+    public double getSumSeconds() {
+        return sumNanos.sum() / 1_000_000_000.0;
+    }
+}
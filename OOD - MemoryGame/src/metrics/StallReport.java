@@ -0,0 +1,85 @@
+package metrics;
+
+import java.util.List;
+
+/**
+ * StallReport describes a game loop that has been stuck in one turn past the watchdog threshold:
+ * which game, in which state, whose turn, for how long, and a few stack samples of the loop thread.
+ */
+public final class StallReport {
+    private final String gameId;
+    private final String boardSize;
+    private final String state;
+    private final String player;
+    private final String threadName;
+    private final long turnMillis;
+    private final List<String> stackSamples;
+
+    /**
+     * Constructs a stall report.
+     * @param gameId The game id.
+     * @param boardSize The board size.
+     * @param state The simple name of the game's current state.
+     * @param player The name of the current player.
+     * @param threadName The name of the stuck thread.
+     * @param turnMillis How long the turn had been running when it was detected.
+     * @param stackSamples The formatted stack samples, oldest first.
+     */
+    public StallReport(String gameId, String boardSize, String state, String player, String threadName,
+                       long turnMillis, List<String> stackSamples) {
+        this.gameId = gameId;
+        this.boardSize = boardSize;
+        this.state = state;
+        this.player = player;
+        this.threadName = threadName;
+        this.turnMillis = turnMillis;
+        this.stackSamples = List.copyOf(stackSamples);
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public String getBoardSize() {
+        return boardSize;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public String getPlayer() {
+        return player;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public long getTurnMillis() {
+        return turnMillis;
+    }
+
+    public List<String> getStackSamples() {
+        return stackSamples;
+    }
+
+    /**
+     * Formats the report as a key=value line followed by the stack samples.
+     * @return The report text.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("stall gameId=").append(gameId)
+                .append(" boardSize=").append(boardSize)
+                .append(" state=").append(state)
+                .append(" player=").append(player)
+                .append(" thread=").append(threadName)
+                .append(" turnMillis=").append(turnMillis)
+                .append(" samples=").append(stackSamples.size());
+        for (int i = 0; i < stackSamples.size(); i++) {
+            sb.append("\n--- sample ").append(i + 1).append(" ---\n").append(stackSamples.get(i));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,195 @@
+package metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import core.Game;
+import metrics.jfr.GameEvents;
+
+/**
+ * StallWatchdog watches the heartbeats of all running game loops from one daemon thread.
+ * When a turn runs past the threshold it samples the stack of the loop thread a few times
+ * and emits a StallReport as a log warning and a "memorygame.Stall" Flight Recorder event.
+ * Each scan only reads one volatile field per game, so thousands of games cost next to nothing.
+ * Implements Singleton pattern like GameManager.
+ *
+ * The threshold is set with -Dmemorygame.watchdog.thresholdMillis (default two minutes, 0 disables).
+ */
+public class StallWatchdog {
+    private static final Logger LOGGER = Logger.getLogger(StallWatchdog.class.getName());
+    private static final long DEFAULT_THRESHOLD_MILLIS = 120_000;
+    private static final int STACK_SAMPLES = 3;
+    private static final long SAMPLE_INTERVAL_MILLIS = 100;
+    private static final int MAX_FRAMES = 32;
+    private static StallWatchdog instance;
+
+    private final Set<Heartbeat> watched = ConcurrentHashMap.newKeySet();
+    private final long thresholdNanos;
+    private final long scanIntervalMillis;
+    private final LongAdder stalls = new LongAdder();
+    private Thread thread;
+
+    /**
+     * Private constructor to prevent instantiation from outside the class.
+     * @param thresholdMillis The turn duration reported as a stall, 0 to disable.
+     */
+    private StallWatchdog(long thresholdMillis) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.scanIntervalMillis = Math.max(10, Math.min(1_000, thresholdMillis / 4));
+    }
+
+    /**
+     * Provides access to the singleton instance of StallWatchdog.
+     * @return The singleton instance.
+     */
+    public static synchronized StallWatchdog getInstance() {
+        if (instance == null) {
+            instance = new StallWatchdog(Long.getLong("memorygame.watchdog.thresholdMillis", DEFAULT_THRESHOLD_MILLIS));
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the instance if it has been created, without creating it.
+     * @return The instance, or null.
+     */
+    public static synchronized StallWatchdog getExistingInstance() {
+        return instance;
+    }
+
+    /**
+     * Checks if the watchdog is enabled.
+     * @return true if a threshold is configured.
+     */
+    public boolean isEnabled() {
+        return thresholdNanos > 0;
+    }
+
+    /**
+     * Starts watching a game loop. The watchdog thread is started with the first game.
+     * @param heartbeat The heartbeat of the game loop.
+     */
+    public void watch(Heartbeat heartbeat) {
+        if (!isEnabled()) {
+            return;
+        }
+        watched.add(heartbeat);
+        startThread();
+    }
+
+    /**
+     * Stops watching a game loop.
+     * @param heartbeat The heartbeat of the game loop.
+     */
+    public void unwatch(Heartbeat heartbeat) {
+        watched.remove(heartbeat);
+    }
+
+    /**
+     * Gets the number of stalls reported since startup.
+     * @return The stall count.
+     */
+    public long getStallCount() {
+        return stalls.sum();
+    }
+
+    /**
+     * Gets the number of game loops being watched.
+     * @return The watched game count.
+     */
+    public int getWatchedCount() {
+        return watched.size();
+    }
+
+    private synchronized void startThread() {
+        if (thread != null) {
+            return;
+        }
+        thread = new Thread(this::run, "game-watchdog");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(scanIntervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            scan();
+        }
+    }
+
+    /**
+     * Checks every watched game loop once and reports the ones stuck in a turn.
+     */
+    private void scan() {
+        long now = System.nanoTime();
+        for (Heartbeat heartbeat : watched) {
+            long turnStart = heartbeat.getTurnStartNanos();
+            if (turnStart != 0 && now - turnStart > thresholdNanos && heartbeat.markReported(turnStart)) {
+                report(heartbeat, turnStart);
+            }
+        }
+    }
+
+    /**
+     * Samples the stuck thread and emits the stall report.
+     * @param heartbeat The heartbeat of the stuck game loop.
+     * @param turnStart The start of the stuck turn.
+     */
+    private void report(Heartbeat heartbeat, long turnStart) {
+        Thread loopThread = heartbeat.getLoopThread();
+        List<String> samples = new ArrayList<>(STACK_SAMPLES);
+        for (int i = 0; i < STACK_SAMPLES && heartbeat.getTurnStartNanos() == turnStart; i++) {
+            if (i > 0) {
+                try {
+                    Thread.sleep(SAMPLE_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            samples.add(format(loopThread.getStackTrace()));
+        }
+
+        Game game = heartbeat.getGame();
+        StallReport report = new StallReport(game.getGameId(), game.getBoardSize(), describeState(game),
+                describePlayer(game), loopThread.getName(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - turnStart), samples);
+        stalls.increment();
+        LOGGER.warning(report.toString());
+        GameEvents.stall(game, report);
+    }
+
+    private static String format(StackTraceElement[] stack) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < stack.length && i < MAX_FRAMES; i++) {
+            sb.append("\tat ").append(stack[i]).append('\n');
+        }
+        if (stack.length > MAX_FRAMES) {
+            sb.append("\t... ").append(stack.length - MAX_FRAMES).append(" more\n");
+        }
+        return sb.toString();
+    }
+
+    private static String describeState(Game game) {
+        Object state = game.getCurrentState();
+        return state == null ? "none" : state.getClass().getSimpleName();
+    }
+
+    private static String describePlayer(Game game) {
+        try {
+            return game.getCurrentPlayer().getName();
+        } catch (RuntimeException e) {
+            return "none";  // The game is being reset
+        }
+    }
+}
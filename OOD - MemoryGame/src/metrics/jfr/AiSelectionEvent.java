@@ -0,0 +1,17 @@
+package metrics.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Duration event covering a computer player's card selection.
+ */
+@Name("memorygame.AiSelection")
+@Label("AI Selection")
+public class AiSelectionEvent extends GameEvent {
+    @Label("Difficulty Strategy")
+    String strategy;
+
+    @Label("Candidate Count")
+    int candidateCount;
+}
@@ -0,0 +1,17 @@
+package metrics.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Instant event emitted whenever a card is flipped.
+ */
+@Name("memorygame.CardFlip")
+@Label("Card Flip")
+public class CardFlipEvent extends GameEvent {
+    @Label("Card Id")
+    int cardId;
+
+    @Label("Face Up")
+    boolean faceUp;
+}
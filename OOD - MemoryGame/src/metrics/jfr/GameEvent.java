@@ -0,0 +1,36 @@
+package metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+import core.Game;
+
+/**
+ * Base class for the game's JDK Flight Recorder events.
+ * Carries the fields every event shares so recordings can be filtered by game, player and board.
+ */
+@Category({"Memory Game"})
+public abstract class GameEvent extends Event {
+    @Label("Game Id")
+    String gameId;
+
+    @Label("Player")
+    String player;
+
+    @Label("Board Size")
+    String boardSize;
+
+    /**
+     * Fills the common fields from the game the event belongs to.
+     * @param game The game, may be null when the event is not bound to a game.
+     * @param playerName The name of the acting player, may be null.
+     */
+    void describe(Game game, String playerName) {
+        if (game != null) {
+            this.gameId = game.getGameId();
+            this.boardSize = game.getBoardSize();
+        }
+        this.player = playerName;
+    }
+}
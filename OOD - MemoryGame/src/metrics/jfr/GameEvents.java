@@ -0,0 +1,244 @@
+package metrics.jfr;
+
+import core.Game;
+import jdk.jfr.FlightRecorder;
+import metrics.StallReport;
+import model.Board;
+import model.Card;
+
+/**
+ * GameEvents fills and commits the Flight Recorder events of the game.
+ * Every method checks isEnabled/shouldCommit first, so a disabled event costs only the check.
+ * No event is created before the Flight Recorder has been initialized: the first event
+ * instance registers the event classes, which is a large part of JVM startup otherwise.
+ */
+public final class GameEvents {
+
+    private GameEvents() {
+    }
+
+    /**
+     * Checks whether the Flight Recorder is initialized, either at launch or by a later
+     * recording started through jcmd or JMX. Until then no recording can want the events.
+     * @return true if events may be recorded.
+     */
+    public static boolean isRecorderInitialized() {
+        return FlightRecorder.isInitialized();
+    }
+
+    /**
+     * Begins a turn event.
+     * @return The started event, or null if the Flight Recorder is not initialized.
+     */
+    public static TurnEvent beginTurn() {
+        if (!isRecorderInitialized()) {
+            return null;
+        }
+        TurnEvent event = new TurnEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Begins a match decision event.
+     * @return The started event, or null if the Flight Recorder is not initialized.
+     */
+    public static MatchDecisionEvent beginMatchDecision() {
+        if (!isRecorderInitialized()) {
+            return null;
+        }
+        MatchDecisionEvent event = new MatchDecisionEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Begins an AI selection event.
+     * @return The started event, or null if the Flight Recorder is not initialized.
+     */
+    public static AiSelectionEvent beginAiSelection() {
+        if (!isRecorderInitialized()) {
+            return null;
+        }
+        AiSelectionEvent event = new AiSelectionEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Begins a render event.
+     * @return The started event, or null if the Flight Recorder is not initialized.
+     */
+    public static RenderEvent beginRender() {
+        if (!isRecorderInitialized()) {
+            return null;
+        }
+        RenderEvent event = new RenderEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits a turn event that was begun by the caller.
+     * @param event The started turn event, may be null.
+     * @param game The game the turn belongs to.
+     * @param player The name of the player who took the turn.
+     * @param successful Whether two cards were flipped.
+     * @param match Whether the two cards matched.
+     */
+    public static void commitTurn(TurnEvent event, Game game, String player, boolean successful, boolean match) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.describe(game, player);
+            event.successful = successful;
+            event.match = match;
+            event.commit();
+        }
+    }
+
+    /**
+     * Commits a match decision event that was begun by the caller.
+     * @param event The started match decision event, may be null.
+     * @param game The game the decision belongs to.
+     * @param player The name of the acting player.
+     * @param strategy The match strategy used.
+     * @param card1 The first card.
+     * @param card2 The second card.
+     * @param match The decision.
+     */
+    public static void commitMatchDecision(MatchDecisionEvent event, Game game, String player, Object strategy,
+                                           Card card1, Card card2, boolean match) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.describe(game, player);
+            event.strategy = strategy.getClass().getSimpleName();
+            event.firstCardId = card1.getId();
+            event.secondCardId = card2.getId();
+            event.match = match;
+            event.commit();
+        }
+    }
+
+    /**
+     * Commits an AI selection event that was begun by the caller.
+     * The candidate count is only computed when the event is recorded.
+     * @param event The started AI selection event, may be null.
+     * @param game The game the selection belongs to.
+     * @param player The name of the computer player.
+     * @param strategy The difficulty strategy used.
+     * @param board The board the strategy chose from.
+     */
+    public static void commitAiSelection(AiSelectionEvent event, Game game, String player, Object strategy, Board board) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.describe(game, player);
+            event.strategy = strategy.getClass().getSimpleName();
+            event.candidateCount = board.countUnmatched();
+            event.commit();
+        }
+    }
+
+    /**
+     * Commits a render event that was begun by the caller.
+     * @param event The started render event, may be null.
+     * @param game The rendered game.
+     * @param player The name of the player whose turn is displayed.
+     */
+    public static void commitRender(RenderEvent event, Game game, String player) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.describe(game, player);
+            event.commit();
+        }
+    }
+
+    /**
+     * Emits a card flip event.
+     * @param game The game the card belongs to.
+     * @param player The name of the player flipping the card.
+     * @param card The flipped card.
+     */
+    public static void flip(Game game, String player, Card card) {
+        if (!isRecorderInitialized()) {
+            return;
+        }
+        CardFlipEvent event = new CardFlipEvent();
+        if (event.isEnabled()) {
+            event.describe(game, player);
+            event.cardId = card.getId();
+            event.faceUp = card.isFaceUp();
+            event.commit();
+        }
+    }
+
+    /**
+     * Emits a score update event.
+     * @param game The game the score belongs to.
+     * @param player The name of the scoring player.
+     * @param points The points added by this update.
+     * @param score The player's score after the update.
+     */
+    public static void score(Game game, String player, int points, int score) {
+        if (!isRecorderInitialized()) {
+            return;
+        }
+        ScoreUpdateEvent event = new ScoreUpdateEvent();
+        if (event.isEnabled()) {
+            event.describe(game, player);
+            event.points = points;
+            event.score = score;
+            event.commit();
+        }
+    }
+
+    /**
+     * Emits a state transition event.
+     * @param game The game changing state.
+     * @param from The previous state, may be null.
+     * @param to The new state.
+     */
+    public static void stateTransition(Game game, Object from, Object to) {
+        if (!isRecorderInitialized()) {
+            return;
+        }
+        StateTransitionEvent event = new StateTransitionEvent();
+        if (event.isEnabled()) {
+            event.describe(game, null);
+            event.fromState = from == null ? null : from.getClass().getSimpleName();
+            event.toState = to.getClass().getSimpleName();
+            event.commit();
+        }
+    }
+
+    /**
+     * Emits a stall event.
+     * @param game The stuck game.
+     * @param report The stall report.
+     */
+    public static void stall(Game game, StallReport report) {
+        if (!isRecorderInitialized()) {
+            return;
+        }
+        StallEvent event = new StallEvent();
+        if (event.isEnabled()) {
+            event.describe(game, report.getPlayer());
+            event.state = report.getState();
+            event.thread = report.getThreadName();
+            event.turnDuration = report.getTurnMillis();
+            event.stackSamples = String.join("\n", report.getStackSamples());
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package metrics.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Duration event covering the match strategy's decision for two cards.
+ */
+@Name("memorygame.MatchDecision")
+@Label("Match Decision")
+public class MatchDecisionEvent extends GameEvent {
+    @Label("Match Strategy")
+    String strategy;
+
+    @Label("First Card Id")
+    int firstCardId;
+
+    @Label("Second Card Id")
+    int secondCardId;
+
+    @Label("Match")
+    boolean match;
+}
@@ -0,0 +1,12 @@
+package metrics.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Duration event covering one full redraw of the console UI.
+ */
+@Name("memorygame.Render")
+@Label("UI Render")
+public class RenderEvent extends GameEvent {
+}
@@ -0,0 +1,17 @@
+package metrics.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Instant event emitted when a player's score changes.
+ */
+@Name("memorygame.ScoreUpdate")
+@Label("Score Update")
+public class ScoreUpdateEvent extends GameEvent {
+    @Label("Points")
+    int points;
+
+    @Label("Score")
+    int score;
+}
@@ -0,0 +1,25 @@
+package metrics.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Instant event emitted by the StallWatchdog when a turn runs past the stall threshold.
+ */
+@Name("memorygame.Stall")
+@Label("Game Loop Stall")
+public class StallEvent extends GameEvent {
+    @Label("State")
+    String state;
+
+    @Label("Thread")
+    String thread;
+
+    @Label("Turn Duration")
+    @Timespan(Timespan.MILLISECONDS)
+    long turnDuration;
+
+    @Label("Stack Samples")
+    String stackSamples;
+}
@@ -0,0 +1,17 @@
+package metrics.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Instant event emitted by the GameStateManager on every state transition.
+ */
+@Name("memorygame.StateTransition")
+@Label("State Transition")
+public class StateTransitionEvent extends GameEvent {
+    @Label("From State")
+    String fromState;
+
+    @Label("To State")
+    String toState;
+}
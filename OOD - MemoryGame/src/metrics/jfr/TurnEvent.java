@@ -0,0 +1,19 @@
+package metrics.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Duration event spanning one processed turn, from the player's move to the match decision.
+ */
+@Name("memorygame.Turn")
+@Label("Turn")
+@Description("One turn of a game, from the start of the player's move to the end of scoring")
+public class TurnEvent extends GameEvent {
+    @Label("Successful")
+    boolean successful;
+
+    @Label("Match")
+    boolean match;
+}
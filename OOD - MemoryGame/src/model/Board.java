@@ -1,8 +1,10 @@
 package model;
 
+import java.io.PrintStream;
 import java.util.Collections;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import patterns.factory.CardFactory;
 import patterns.strategy.match.MatchStrategy;
@@ -16,6 +18,7 @@ public class Board {
     private int rows;
     private int cols;
     private MatchStrategy matchStrategy;
+    private RevealLog reveals;  // Created for the first player that reads it
     
     /**
      * Constructor for the Board class.
@@ -34,9 +37,51 @@ public class Board {
      * @param cardFactory Factory to create card objects.
      */
     public void setupBoard(CardFactory cardFactory) {
+        setupBoard(cardFactory, new Random());
+    }
+
+    /**
+     * Sets up the game board using the given random source for shuffling, so seeded games are reproducible.
+     * @param cardFactory Factory to create card objects.
+     * @param random Random source used to shuffle the cards.
+     */
+    public void setupBoard(CardFactory cardFactory, Random random) {
         this.cards.clear(); // Clear existing cards if any
         this.cards = cardFactory.createPairsOfCards(numberOfPairs); // Create pairs of cards
-        Collections.shuffle(this.cards); // Shuffle the cards to randomize the board layout
+        Collections.shuffle(this.cards, random); // Shuffle the cards to randomize the board layout
+    }
+
+    /**
+     * Replaces the cards with a layout restored from a saved game.
+     * @param restoredCards The cards in board order.
+     */
+    public void restoreCards(List<Card> restoredCards) {
+        this.cards = new ArrayList<>(restoredCards);
+    }
+
+    /**
+     * Replaces a matched pair with a new pair from the deck, for endless games. The first new card
+     * takes the first freed slot; the second is placed in the other freed slot or swapped with a
+     * random card nobody has seen yet, so the new pair does not give itself away. Every card on
+     * the board keeps its partner on the board.
+     * @param firstIndex Index of the first matched card.
+     * @param secondIndex Index of the second matched card.
+     * @param pair The two new matching cards.
+     * @param random Random source choosing where the second card goes.
+     */
+    public void replacePair(int firstIndex, int secondIndex, Card[] pair, Random random) {
+        cards.set(firstIndex, pair[0]);
+        cards.set(secondIndex, pair[1]);
+        int target = secondIndex;
+        int candidates = 1;
+        for (int index = 0; index < cards.size(); index++) {
+            Card card = cards.get(index);
+            if (index != firstIndex && index != secondIndex && !card.isSeen() && !card.isMatched()
+                    && random.nextInt(++candidates) == 0) {
+                target = index;  // Reservoir sampling over the unseen cards
+            }
+        }
+        Collections.swap(cards, secondIndex, target);
     }
 
     /**
@@ -55,28 +100,50 @@ public class Board {
         return cards.stream().allMatch(Card::isMatched);
     }
 
+    /**
+     * Counts the cards that have not been matched yet.
+     * @return The number of unmatched cards.
+     */
+    public int countUnmatched() {
+        int count = 0;
+        for (Card card : cards) {
+            if (!card.isMatched()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * Displays the board state for debugging or command-line interaction purposes.
      */
     public void displayBoard() {
-        System.out.print("  ");
+        displayBoard(System.out);
+    }
+
+    /**
+     * Displays the board state on the given stream.
+     * @param out The stream to print to.
+     */
+    public void displayBoard(PrintStream out) {
+        out.print("  ");
         
         for (int col = 0; col < cols; ++col) {
-            System.out.printf("   %c  ", 'A' + col);
+            out.printf("   %c  ", 'A' + col);
         }
-        System.out.println("\n");
+        out.println("\n");
 
         for (int row = 0; row < rows; ++row) {
-            System.out.printf("%d ", row + 1);
+            out.printf("%d ", row + 1);
             for (int col = 0; col < cols; ++col) {
                 Card card = getCardAt(row, col);
-                System.out.printf(" " + card.display());
+                out.print(" " + card.display());
             }
-            System.out.println();
+            out.println();
         }
-        System.out.println();
-        System.out.println("Remaining pairs: " + numberOfPairs);
-        System.out.println();
+        out.println();
+        out.println("Remaining pairs: " + numberOfPairs);
+        out.println();
     }
 
     /**
@@ -121,7 +188,52 @@ public class Board {
         return seenCards;
     }
 
-        /**
+    /**
+     * Records a card revealed by a turn, for players who remember what they saw on their own.
+     * Costs nothing until a player reads the reveals.
+     * @param index The card's index.
+     */
+    public void recordReveal(int index) {
+        if (reveals != null) {
+            reveals.record(index, matchStrategy.matchKey(cards.get(index)));
+        }
+    }
+
+    /**
+     * Gets the key the board matches a card by; two cards match when their keys are equal.
+     * @param index The card's index.
+     * @return The card's match key.
+     */
+    public int getMatchKey(int index) {
+        return matchStrategy.matchKey(cards.get(index));
+    }
+
+    /**
+     * Gets the cards revealed on this board, recorded from the first call on.
+     * @return The reveal log.
+     */
+    public RevealLog getReveals() {
+        if (reveals == null) {
+            reveals = new RevealLog();
+        }
+        return reveals;
+    }
+
+    /**
+     * Provides a list of all cards that are not matched yet.
+     * @return A list of card indices (row, col) that are still in play.
+     */
+    public List<int[]> getUnmatchedCardIndices() {
+        List<int[]> unmatched = new ArrayList<>();
+        for (int index = 0; index < cards.size(); index++) {
+            if (!cards.get(index).isMatched()) {
+                unmatched.add(new int[]{index / cols, index % cols});
+            }
+        }
+        return unmatched;
+    }
+
+    /**
      * Provides a list of cards that have not been seen and are not matched.
      * @return A list of card indices that are still in play.
      */
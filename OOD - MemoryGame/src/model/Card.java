@@ -128,6 +128,20 @@ public class Card implements Cloneable{
         return symbol;
     }
 
+    /**
+     * Gets the initial of the card's suit, for plain-text protocols.
+     * @return 'S', 'H', 'C' or 'D', or '?' for an unknown symbol.
+     */
+    public char getSuitInitial() {
+        switch (symbol.isEmpty() ? ' ' : symbol.charAt(0)) {
+            case '♠': return 'S';
+            case '♥': return 'H';
+            case '♣': return 'C';
+            case '♦': return 'D';
+            default: return '?';
+        }
+    }
+
     /**
      * Gets the color of the number on the card.
      * @return the color of the number on the card.
@@ -1,5 +1,7 @@
 package model;
 
+import metrics.jfr.AiSelectionEvent;
+import metrics.jfr.GameEvents;
 import patterns.strategy.difficulty.DifficultyStrategy;
 import patterns.command.Command;
 import patterns.command.FlipCommand;
@@ -10,6 +12,7 @@ import patterns.command.FlipCommand;
  */
 public class ComputerPlayer extends Player {
     private DifficultyStrategy strategy;
+    private long turnDelayMillis = 1000;  // Pause between flips so humans can follow the computer's turn
 
     /**
      * Constructor for ComputerPlayer that sets the difficulty level and initializes the player with a name and board.
@@ -36,7 +39,11 @@ public class ComputerPlayer extends Player {
             return null;
         }
 
+        AiSelectionEvent selectionEvent = GameEvents.beginAiSelection();
+        long decisionStart = System.nanoTime();
         int[][] cardPairs = strategy.selectCards(board);
+        mediator.notifyDecision(System.nanoTime() - decisionStart);
+        GameEvents.commitAiSelection(selectionEvent, mediator.getGame(), getName(), strategy, board);
 
         if (cardPairs != null && cardPairs.length == 2) {
             int[] firstCard = cardPairs[0];
@@ -46,15 +53,17 @@ public class ComputerPlayer extends Player {
             Command flip2 = new FlipCommand(board.getCardAt(secondCard[0], secondCard[1]));
 
             updateUI();  // Update the UI to display the flipped card
-            waitingEffect(1);  // Pause for visualization
+            waitingEffect();  // Pause for visualization
 
             flip1.execute();  // Execute the first flip
+            mediator.notifyFlip(this, board.getCardAt(firstCard[0], firstCard[1]));
             updateUI();  // Update the UI to display the flipped card
-            waitingEffect(1);  // Pause for visualization
+            waitingEffect();  // Pause for visualization
             
             flip2.execute();  // Execute the second flip
+            mediator.notifyFlip(this, board.getCardAt(secondCard[0], secondCard[1]));
             updateUI();  // Update the UI to display the flipped card
-            waitingEffect(1);  // Pause for visualization
+            waitingEffect();  // Pause for visualization
 
 
                 return new TurnResult(true, new int[] {firstCard[0], firstCard[1], secondCard[0], secondCard[1]});
@@ -75,19 +84,37 @@ public class ComputerPlayer extends Player {
     }
 
     /**
-     * Pauses the game for a specified number of seconds to visualize the computer player's turn.
-     * @param seconds the number of seconds to pause the game.
+     * Sets the pause between the computer player's flips; 0 disables it for headless games.
+     * @param turnDelayMillis the pause in milliseconds.
      */
-    private void waitingEffect (int seconds) {
+    public void setTurnDelayMillis(long turnDelayMillis) {
+        this.turnDelayMillis = turnDelayMillis;
+    }
+
+    /**
+     * Gets the difficulty strategy of the computer player.
+     * @return the difficulty strategy.
+     */
+    public DifficultyStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Pauses the game for the configured delay to visualize the computer player's turn.
+     */
+    private void waitingEffect() {
+        if (turnDelayMillis <= 0) {
+            return;
+        }
         try {
-            Thread.sleep(seconds * 1000);  // Pause for visualization
+            Thread.sleep(turnDelayMillis);  // Pause for visualization
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt(); // Handle thread interruption
         }
     }
 
     /**
-     * Resets the player's score, name, board, and strategy.
+     * Resets the player's score, name, board, mediator and strategy.
      * @return null
      */
     @Override
@@ -95,6 +122,7 @@ public class ComputerPlayer extends Player {
         score = 0;
         name = "";
         board = null;
+        mediator = null;
         strategy = null;
         return null;
     }
@@ -1,14 +1,16 @@
 package model;
 
-import java.util.Scanner;
+import core.Hint;
+import core.HintEngine;
 import patterns.command.Command;
 import patterns.command.FlipCommand;
+import ui.ConsoleInput;
 
 /**
  * HumanPlayer class extends Player for interactive gameplay managed by a human.
  */
 public class HumanPlayer extends Player {
-    private Scanner scanner;
+    private HintEngine.Search hint;  // Searching while the player thinks
 
     /**
      * Constructor for HumanPlayer that initializes the player with a name and board.
@@ -18,7 +20,6 @@ public class HumanPlayer extends Player {
      */
     public HumanPlayer(String name, Board board) {
         super(name, board);
-        this.scanner = new Scanner(System.in);
     }
 
     /**
@@ -33,15 +34,29 @@ public class HumanPlayer extends Player {
         int[] firstCard = null;
         int[] secondCard = null;
 
-        System.out.println(getName() + ", enter command or coordinates (e.g., 1A, end, undo, help): ");
+        System.out.println(getName() + ", enter command or coordinates (e.g., 1A, end, undo, hint, help): ");
         while (cardCounter != 0) {
-            String input = scanner.nextLine().trim().toUpperCase();
+            if (hint == null) {
+                hint = HintEngine.getInstance().start(board,
+                        cardCounter == 1 ? firstCard[0] * board.getColsSize() + firstCard[1] : -1);
+            }
+            String input = ConsoleInput.nextLine().trim().toUpperCase();
+            if (input.equals("HINT")) {
+                displayHint();
+                continue;
+            }
+            hint.cancel();  // The player moved; the board is about to change
+            hint = null;
 
             switch (input) {
                 case "END":
                     endTheGame();
                     return new TurnResult(false, null);  // End the turn without any actions
                 case "UNDO":
+                    if (!mediator.canUndo()) {
+                        System.out.println("Undo is not available in endless mode.");
+                        break;
+                    }
                     undoLastMove();
                     updateUI();  // Update the UI to display the flipped card
                     return new TurnResult(false, null);  // Allow for continuation of the turn
@@ -95,6 +110,14 @@ public class HumanPlayer extends Player {
         
     }
 
+    /**
+     * Shows the latest suggestion of the hint search, without waiting for it.
+     */
+    private void displayHint() {
+        Hint latest = hint.getHint();
+        System.out.println(latest == null ? "No hint available." : latest.describe(board.getColsSize()));
+    }
+
     /**
      * Undoes the last move by flipping the last two cards back over.
      */
@@ -102,9 +125,10 @@ public class HumanPlayer extends Player {
         System.out.println("Enter card coordinates (e.g., 1A, 2B) to flip a card.");
         System.out.println("Type 'end' to end the game.");
         System.out.println("Type 'undo' to undo the last move.");
+        System.out.println("Type 'hint' for a suggested move.");
         System.out.println();
         System.out.println("Press Enter to continue...");
-        scanner.nextLine();
+        ConsoleInput.nextLine();
     }
 
     /**
@@ -124,6 +148,7 @@ public class HumanPlayer extends Player {
             }
             Command flipCommand = new FlipCommand(card);
             flipCommand.execute();
+            mediator.notifyFlip(this, card);
             updateUI();  // Update the UI to display the flipped card
             return true;
         } else {
@@ -149,16 +174,6 @@ public class HumanPlayer extends Player {
         return null;
     }
 
-    /**
-     * Closes the scanner to release resources.
-     */
-    public void close() {
-        if (scanner != null) {
-            scanner.close();
-            scanner = null; // Help GC and prevent further use
-        }
-    }
-
     /**
      * Updates the player's score based on the score of the current turn.
      *
@@ -170,16 +185,20 @@ public class HumanPlayer extends Player {
     }
 
     /**
-     * Resets the player's score and name to empty strings, and sets the board and scanner to null.
+     * Resets the player's score and name to empty strings, and releases the board and mediator.
      *
      * @return null
      */
     @Override
     public Object resetPlayer() {
+        if (hint != null) {
+            hint.cancel();
+            hint = null;
+        }
         score = 0;
         name = "";
         board = null;
-        scanner = null;
+        mediator = null;
         return null;
     }
 
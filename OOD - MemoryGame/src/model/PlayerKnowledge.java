@@ -0,0 +1,209 @@
+package model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * PlayerKnowledge is what one computer player remembers of the board: at most a fixed number
+ * of card positions with their match keys. Seeing a card makes it the most recently seen; when
+ * the memory is full the least recently seen card is forgotten, as a person forgets.
+ *
+ * The player catches up from the board's RevealLog at the start of its turn, so a reveal costs
+ * the game one record however many players remember it. A player that missed many reveals
+ * replays only the last REPLAY_FACTOR times its capacity, which the older sightings would
+ * rarely outlive.
+ *
+ * Remembered positions are a bitset; the cards are slots in fixed arrays, linked from most to
+ * least recently seen and chained into buckets by match key, so seeing a card walks one bucket
+ * and finding the remembered partner of a card at most one pass over the memory. A player
+ * remembering 8 cards of a 2600-card board holds well under a kilobyte.
+ */
+public final class PlayerKnowledge {
+    private static final int REPLAY_FACTOR = 4;
+    private static final int NONE = -1;
+
+    private final int capacity;
+    private final BitSet remembered = new BitSet();  // Positions
+    private final int[] positions;  // Slot to position
+    private final int[] keys;  // Slot to match key
+    private final int[] newer;  // Slot to the next more recently seen slot
+    private final int[] older;  // Slot to the next less recently seen slot
+    private final int[] chain;  // Slot to the next slot of its key bucket
+    private final int[] buckets;  // Hashed match key to its first slot
+    private final int[] free;  // Stack of unused slots
+    private int freeCount;
+    private int newest = NONE;
+    private int oldest = NONE;
+    private long cursor;  // Next reveal to read
+
+    /**
+     * Constructs an empty memory.
+     * @param capacity The most cards remembered.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public PlayerKnowledge(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("A memory holds at least one card: " + capacity);
+        }
+        this.capacity = capacity;
+        positions = new int[capacity];
+        keys = new int[capacity];
+        newer = new int[capacity];
+        older = new int[capacity];
+        chain = new int[capacity];
+        buckets = new int[Integer.highestOneBit(2 * capacity - 1) << 1];
+        Arrays.fill(buckets, NONE);
+        free = new int[capacity];
+        for (int slot = 0; slot < capacity; slot++) {
+            free[freeCount++] = capacity - 1 - slot;
+        }
+    }
+
+    /**
+     * Sees the cards revealed since the last call and forgets the cards matched since.
+     * @param board The board.
+     */
+    public void catchUp(Board board) {
+        RevealLog log = board.getReveals();
+        long from = Math.max(cursor, Math.max(log.getOldest(), log.getCount() - (long) REPLAY_FACTOR * capacity));
+        for (long reveal = from; reveal < log.getCount(); reveal++) {
+            see(log.positionAt(reveal), log.keyAt(reveal));
+        }
+        cursor = log.getCount();
+        for (int slot = oldest; slot != NONE; ) {
+            int next = newer[slot];
+            if (board.getCardAt(positions[slot]).isMatched()) {
+                forget(slot);  // Matches are in plain sight
+            }
+            slot = next;
+        }
+    }
+
+    /**
+     * Sees a card, which becomes the most recently seen.
+     * @param position The card's index on the board.
+     * @param key The card's match key.
+     */
+    public void see(int position, int key) {
+        if (remembered.get(position)) {
+            for (int slot = buckets[bucketOf(key)]; slot != NONE; slot = chain[slot]) {
+                if (positions[slot] == position && keys[slot] == key) {
+                    unlink(slot);
+                    linkNewest(slot);
+                    return;
+                }
+            }
+            forget(find(position));  // Another card took the place, as in an endless game
+        }
+        if (freeCount == 0) {
+            forget(oldest);
+        }
+        int slot = free[--freeCount];
+        positions[slot] = position;
+        keys[slot] = key;
+        linkNewest(slot);
+        int bucket = bucketOf(key);
+        chain[slot] = buckets[bucket];
+        buckets[bucket] = slot;
+        remembered.set(position);
+    }
+
+    /**
+     * Checks if a card is remembered.
+     * @param position The card's index on the board.
+     * @return true if remembered.
+     */
+    public boolean remembers(int position) {
+        return remembered.get(position);
+    }
+
+    /**
+     * Gets a remembered card that matches a remembered card.
+     * @param position The remembered card's index on the board.
+     * @return The partner's index, or -1 if no partner is remembered.
+     * @throws IllegalStateException if the card is not remembered.
+     */
+    public int partnerOf(int position) {
+        int slot = find(position);
+        for (int other = buckets[bucketOf(keys[slot])]; other != NONE; other = chain[other]) {
+            if (other != slot && keys[other] == keys[slot]) {
+                return positions[other];
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Gets the remembered cards.
+     * @return Their indexes on the board, most recently seen first.
+     */
+    public int[] getRemembered() {
+        int[] result = new int[capacity - freeCount];
+        int count = 0;
+        for (int slot = newest; slot != NONE; slot = older[slot]) {
+            result[count++] = positions[slot];
+        }
+        return result;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private void forget(int slot) {
+        unlink(slot);
+        int bucket = bucketOf(keys[slot]);
+        if (buckets[bucket] == slot) {
+            buckets[bucket] = chain[slot];
+        } else {
+            int previous = buckets[bucket];
+            while (chain[previous] != slot) {
+                previous = chain[previous];
+            }
+            chain[previous] = chain[slot];
+        }
+        remembered.clear(positions[slot]);
+        free[freeCount++] = slot;
+    }
+
+    /**
+     * Finds the slot of a remembered position.
+     */
+    private int find(int position) {
+        for (int slot = newest; slot != NONE; slot = older[slot]) {
+            if (positions[slot] == position) {
+                return slot;
+            }
+        }
+        throw new IllegalStateException("Position " + position + " is not remembered");
+    }
+
+    private void linkNewest(int slot) {
+        older[slot] = newest;
+        newer[slot] = NONE;
+        if (newest != NONE) {
+            newer[newest] = slot;
+        }
+        newest = slot;
+        if (oldest == NONE) {
+            oldest = slot;
+        }
+    }
+
+    private void unlink(int slot) {
+        if (newer[slot] != NONE) {
+            older[newer[slot]] = older[slot];
+        } else {
+            newest = older[slot];
+        }
+        if (older[slot] != NONE) {
+            newer[older[slot]] = newer[slot];
+        } else {
+            oldest = newer[slot];
+        }
+    }
+
+    private int bucketOf(int key) {
+        return (key ^ key >>> 16) & (buckets.length - 1);
+    }
+}
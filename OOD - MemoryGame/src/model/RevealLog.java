@@ -0,0 +1,61 @@
+package model;
+
+/**
+ * RevealLog records every card revealed on a board, once, as its position and match key, so
+ * each computer player can catch up on what it saw since its last turn instead of every reveal
+ * being delivered to every player. The latest CAPACITY reveals are kept in a ring; reveals are
+ * numbered from 0 and an older number is no longer readable.
+ *
+ * Written and read by the thread playing the game.
+ */
+public final class RevealLog {
+    public static final int CAPACITY = 4096;  // A power of two
+    private static final int MASK = CAPACITY - 1;
+
+    private final long[] entries = new long[CAPACITY];  // Match key in the high half, position in the low half
+    private long count;
+
+    /**
+     * Records a revealed card.
+     * @param position The card's index on the board.
+     * @param key The card's match key.
+     */
+    void record(int position, int key) {
+        entries[(int) (count & MASK)] = (long) key << 32 | (position & 0xFFFFFFFFL);
+        count++;
+    }
+
+    /**
+     * Gets the number of the next reveal, which is the number of reveals so far.
+     * @return The reveal count.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the number of the oldest reveal still readable.
+     * @return The reveal number.
+     */
+    public long getOldest() {
+        return Math.max(0, count - CAPACITY);
+    }
+
+    /**
+     * Gets the position of a reveal.
+     * @param reveal The reveal number, from getOldest() to getCount() - 1.
+     * @return The card's index on the board.
+     */
+    public int positionAt(long reveal) {
+        return (int) entries[(int) (reveal & MASK)];
+    }
+
+    /**
+     * Gets the match key of a reveal.
+     * @param reveal The reveal number, from getOldest() to getCount() - 1.
+     * @return The card's match key.
+     */
+    public int keyAt(long reveal) {
+        return (int) (entries[(int) (reveal & MASK)] >>> 32);
+    }
+}
@@ -1,11 +1,18 @@
 package patterns.builders;
 
+import java.util.Random;
+
 import model.Board;
 import model.ComputerPlayer;
+import patterns.strategy.difficulty.BotProfile;
 import patterns.strategy.difficulty.DifficultyStrategy;
 import patterns.strategy.difficulty.EasyStrategy;
 import patterns.strategy.difficulty.HardStrategy;
+import patterns.strategy.difficulty.LearnedPolicy;
+import patterns.strategy.difficulty.LearnedStrategy;
 import patterns.strategy.difficulty.MediumStrategy;
+import patterns.strategy.difficulty.ProfiledStrategy;
+import patterns.strategy.difficulty.TunedLevels;
 
 
 /**
@@ -13,8 +20,12 @@ import patterns.strategy.difficulty.MediumStrategy;
  */
 public class ComputerPlayerBuilder implements ComputerPlayerBuilderinterface {
     private String name;
-    private DifficultyStrategy strategy;
+    private int difficulty;
     private Board board;
+    private Random random = new Random();
+    private long turnDelayMillis = 1000;
+    private DifficultyStrategy strategy;
+    private int memoryCapacity;
 
     /**
      * Constructs a ComputerPlayerBuilder with default values.
@@ -27,24 +38,78 @@ public class ComputerPlayerBuilder implements ComputerPlayerBuilderinterface {
 
     /**
      * Sets the difficulty level of the computer player.
-     * @param difficulty the difficulty level of the computer player.
+     * @param difficulty the difficulty level of the computer player (1-Easy, 2-Medium, 3-Hard, 4-Learned,
+     *                   5 and above for levels tuned by training.BotTuner).
      * @return the ComputerPlayerBuilder object.
      */
     public ComputerPlayerBuilder setDifficulty(int difficulty) {
+        this.difficulty = difficulty;
+        return this;
+    }
+
+    /**
+     * Sets the random source used by the difficulty strategy, for reproducible games.
+     * @param random the random source.
+     * @return the ComputerPlayerBuilder object.
+     */
+    public ComputerPlayerBuilder setRandom(Random random) {
+        this.random = random;
+        return this;
+    }
+
+    /**
+     * Sets the pause between the computer player's flips.
+     * @param turnDelayMillis the pause in milliseconds, 0 for headless games.
+     * @return the ComputerPlayerBuilder object.
+     */
+    public ComputerPlayerBuilder setTurnDelayMillis(long turnDelayMillis) {
+        this.turnDelayMillis = turnDelayMillis;
+        return this;
+    }
+
+    /**
+     * Gives a Medium player a memory of its own that holds a limited number of cards, instead of
+     * the board's memory of every card anyone has seen.
+     * @param memoryCapacity the most cards remembered, or 0 for the board's memory.
+     * @return the ComputerPlayerBuilder object.
+     */
+    public ComputerPlayerBuilder setMemoryCapacity(int memoryCapacity) {
+        this.memoryCapacity = memoryCapacity;
+        return this;
+    }
+
+    /**
+     * Sets a strategy to play with instead of creating one for the difficulty level, for example
+     * to share one strategy between many computer players of a game.
+     * @param strategy the difficulty strategy, which should be shareable.
+     * @return the ComputerPlayerBuilder object.
+     */
+    public ComputerPlayerBuilder setStrategy(DifficultyStrategy strategy) {
+        this.strategy = strategy;
+        return this;
+    }
+
+    /**
+     * Creates the difficulty strategy for the configured level.
+     * @return the difficulty strategy.
+     */
+    private DifficultyStrategy createStrategy() {
         switch (difficulty) {
             case 1:
-                this.strategy = new EasyStrategy();
-                break;
+                return new EasyStrategy(random);
             case 2:
-                this.strategy = new MediumStrategy();
-                break;
+                return memoryCapacity > 0 ? new MediumStrategy(random, memoryCapacity) : new MediumStrategy(random);
             case 3:
-                this.strategy = new HardStrategy();
-                break;
+                return new HardStrategy(random);
+            case 4:
+                return new LearnedStrategy(random, LearnedPolicy.getDefault());
             default:
-                this.strategy = new EasyStrategy(); // Default to easy if difficulty is unknown
+                BotProfile profile = TunedLevels.getInstance().get(difficulty);
+                if (profile != null) {
+                    return new ProfiledStrategy(random, profile);
+                }
+                return new EasyStrategy(random); // Default to easy if difficulty is unknown
         }
-        return this;
     }
 
     /**
@@ -64,6 +129,8 @@ public class ComputerPlayerBuilder implements ComputerPlayerBuilderinterface {
      */
     @Override
     public ComputerPlayer build() {
-        return new ComputerPlayer(name, strategy, board);
+        ComputerPlayer player = new ComputerPlayer(name, strategy != null ? strategy : createStrategy(), board);
+        player.setTurnDelayMillis(turnDelayMillis);
+        return player;
     }
 }
@@ -0,0 +1,361 @@
+package patterns.builders;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Random;
+
+import core.Game;
+import core.RaceGame;
+import patterns.strategy.match.FullMatchStrategy;
+import patterns.strategy.match.MatchStrategy;
+import patterns.strategy.score.ScoreStrategy;
+import patterns.strategy.score.SimpleScoreStrategy;
+import ui.NullPrintStream;
+
+/**
+ * GameBuilder class for constructing Game objects in a step-by-step process.
+ * Besides the interactive settings it can configure seeded, headless games
+ * for benchmarks and simulations.
+ */
+public class GameBuilder {
+    private int numPlayers = 0;
+    private String boardSize = "Small";
+    private int difficulty = 1;
+    private int opponentDifficulty;
+    private MatchStrategy matchStrategy = new FullMatchStrategy();
+    private ScoreStrategy scoreStrategy = new SimpleScoreStrategy();
+    private Random random;
+    private boolean headless;
+    private PrintStream output = System.out;
+    private long turnDelayMillis = 1000;
+    private String gameId;
+    private boolean endless;
+    private long turnLimit;
+    private long timeLimitMillis;
+    private List<String> playerNames = List.of();
+    private int computerPlayers = -1;  // By default as many as make two players
+    private int boardPairs;
+    private int botMemory;
+    private boolean pipelined;
+
+    /**
+     * Sets the number of human players.
+     * @param numPlayers the number of human players (0, 1 or 2).
+     * @return the GameBuilder object.
+     */
+    public GameBuilder setNumPlayers(int numPlayers) {
+        this.numPlayers = numPlayers;
+        return this;
+    }
+
+    /**
+     * Sets the board size.
+     * @param boardSize the board size (Small, Medium, Large).
+     * @return the GameBuilder object.
+     */
+    public GameBuilder setBoardSize(String boardSize) {
+        this.boardSize = boardSize;
+        return this;
+    }
+
+    /**
+     * Sets the difficulty of the computer players.
+     * @param difficulty the difficulty level (1-Easy, 2-Medium, 3-Hard).
+     * @return the GameBuilder object.
+     */
+    public GameBuilder setDifficulty(int difficulty) {
+        this.difficulty = difficulty;
+        return this;
+    }
+
+    /**
+     * Sets a different difficulty for the computer players after the first, for example to play
+     * a new level against a reference level in a game without human players.
+     * @param opponentDifficulty the difficulty level of the other computer players.
+     * @return the GameBuilder object.
+     */
+    public GameBuilder setOpponentDifficulty(int opponentDifficulty) {
+        this.opponentDifficulty = opponentDifficulty;
+        return this;
+    }
+
+    /**
+     * Sets the matching strategy.
+     * @param matchStrategy the matching strategy.
+     * @return the GameBuilder object.
+     */
+    public GameBuilder setMatchStrategy(MatchStrategy matchStrategy) {
+        this.matchStrategy = matchStrategy;
+        return this;
+    }
+
+    /**
+     * Sets the scoring strategy.
+     * @param scoreStrategy the scoring strategy.
+     * @return the GameBuilder object.
+     */
+    public GameBuilder setScoreStrategy(ScoreStrategy scoreStrategy) {
+        this.scoreStrategy = scoreStrategy;
+        return this;
+    }
+
+    /**
+     * Seeds the shuffle and the computer players so the game is reproducible.
+     * @param seed the seed.
+     * @return the GameBuilder object.
+     */
+    public GameBuilder setSeed(long seed) {
+        this.random = new Random(seed);
+        return this;
+    }
+
+    /**
+     * Makes the game headless: it gets its own GameUI writing to the configured output (by default
+     * the shared NullPrintStream),
+     * never waits for Enter, and computer players do not pause between flips.
+     * @param headless whether the game is headless.
+     * @return the GameBuilder object.
+     */
+    public GameBuilder setHeadless(boolean headless) {
+        this.headless = headless;
+        if (headless) {
+            this.turnDelayMillis = 0;
+            this.output = NullPrintStream.INSTANCE;
+        }
+        return this;
+    }
+
+    /**
+     * Sets the stream a headless game writes to.
+     * @param output the output stream.
+     * @return the GameBuilder object.
+     */
+    public GameBuilder setOutput(PrintStream output) {
+        this.output = output;
+        return this;
+    }
+
+    /**
+     * Sets the pause between a computer player's flips.
+     * @param turnDelayMillis the pause in milliseconds.
+     * @return the GameBuilder object.
+     */
+    public GameBuilder setTurnDelayMillis(long turnDelayMillis) {
+        this.turnDelayMillis = turnDelayMillis;
+        return this;
+    }
+
+    /**
+     * Sets the game id, for example to keep the id of a game that is rebuilt from its saved form.
+     * @param gameId the game id.
+     * @return the GameBuilder object.
+     */
+    public GameBuilder setGameId(String gameId) {
+        this.gameId = gameId;
+        return this;
+    }
+
+    /**
+     * Makes the game endless: matched pairs are replaced from a deck produced on demand, so the
+     * board never clears, and the game ends when either limit is reached.
+     * @param turnLimit the number of turns to play, or 0 for no turn limit.
+     * @param timeLimitMillis the time to play from the start of the game, or 0 for no time limit.
+     * @return the GameBuilder object.
+     * @throws IllegalArgumentException if neither limit is set.
+     */
+    public GameBuilder setEndless(long turnLimit, long timeLimitMillis) {
+        if (turnLimit <= 0 && timeLimitMillis <= 0) {
+            throw new IllegalArgumentException("An endless game needs a turn or time limit");
+        }
+        this.endless = true;
+        this.turnLimit = Math.max(0, turnLimit);
+        this.timeLimitMillis = Math.max(0, timeLimitMillis);
+        return this;
+    }
+
+    /**
+     * Names the human players in seat order, for example the players paired by matchmaking.
+     * Human players without a name here are called "Player 1", "Player 2".
+     * @param playerNames the names.
+     * @return the GameBuilder object.
+     */
+    public GameBuilder setPlayerNames(String... playerNames) {
+        this.playerNames = List.of(playerNames);
+        return this;
+    }
+
+    /**
+     * Sets the number of computer players, for games with more than two players. The first
+     * plays at the difficulty, the others at the opponent difficulty; they are called
+     * "Computer 1", "Computer 2" and so on.
+     * @param computerPlayers the number of computer players.
+     * @return the GameBuilder object.
+     * @throws IllegalArgumentException if the number is negative.
+     */
+    public GameBuilder setComputerPlayers(int computerPlayers) {
+        if (computerPlayers < 0) {
+            throw new IllegalArgumentException("Negative number of computer players: " + computerPlayers);
+        }
+        this.computerPlayers = computerPlayers;
+        return this;
+    }
+
+    /**
+     * Sets the number of pairs on the board instead of the number given by the board size, for
+     * boards larger than Large. The number is rounded up to a multiple of 13 so the cards fill
+     * whole rows; pairs beyond the 52 distinct faces repeat them.
+     * @param boardPairs the number of pairs.
+     * @return the GameBuilder object.
+     * @throws IllegalArgumentException if the number is not positive.
+     */
+    public GameBuilder setBoardPairs(int boardPairs) {
+        if (boardPairs <= 0) {
+            throw new IllegalArgumentException("A board needs at least one pair: " + boardPairs);
+        }
+        this.boardPairs = (boardPairs + 12) / 13 * 13;
+        return this;
+    }
+
+    /**
+     * Gives each Medium computer player a memory of its own, which holds the given number of
+     * cards and forgets the least recently seen, instead of the board's memory of every card
+     * anyone has seen.
+     * @param botMemory the most cards a player remembers, or 0 for the board's memory.
+     * @return the GameBuilder object.
+     * @throws IllegalArgumentException if the number is negative.
+     */
+    public GameBuilder setBotMemory(int botMemory) {
+        if (botMemory < 0) {
+            throw new IllegalArgumentException("Negative bot memory: " + botMemory);
+        }
+        this.botMemory = botMemory;
+        return this;
+    }
+
+    /**
+     * Pipelines the game: the screen is drawn on the game thread and written on a thread of its
+     * own, through a bounded queue of frames, so the next turn is played while the last frame is
+     * still being written, and redraws are dropped when the output falls behind. The game draws
+     * its own screen, so no UIObserver is added.
+     * @param pipelined whether the game is pipelined.
+     * @return the GameBuilder object.
+     */
+    public GameBuilder setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+        return this;
+    }
+
+    /**
+     * Builds the Game object with the specified settings.
+     * @return the constructed Game object.
+     */
+    public Game build() {
+        return new Game(this);
+    }
+
+    /**
+     * Builds a race, the real-time mode in which all players flip at once, with this builder's
+     * board size, matching and scoring strategies and seed.
+     * @param players the number of players, each played by one or more threads.
+     * @return the constructed RaceGame object.
+     */
+    public RaceGame buildRace(int players) {
+        return new RaceGame(boardSize, players, matchStrategy, scoreStrategy, random != null ? random : new Random());
+    }
+
+    public int getNumPlayers() {
+        return numPlayers;
+    }
+
+    public String getBoardSize() {
+        return boardSize;
+    }
+
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * Gets the difficulty of the computer players after the first.
+     * @return the opponent difficulty, or the difficulty if none was set.
+     */
+    public int getOpponentDifficulty() {
+        return opponentDifficulty > 0 ? opponentDifficulty : difficulty;
+    }
+
+    public MatchStrategy getMatchStrategy() {
+        return matchStrategy;
+    }
+
+    public ScoreStrategy getScoreStrategy() {
+        return scoreStrategy;
+    }
+
+    /**
+     * Gets the random source, creating an unseeded one if no seed was set.
+     * @return the random source.
+     */
+    public Random getRandom() {
+        return random != null ? random : new Random();
+    }
+
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
+    public PrintStream getOutput() {
+        return output;
+    }
+
+    public long getTurnDelayMillis() {
+        return turnDelayMillis;
+    }
+
+    /**
+     * Gets the game id.
+     * @return the game id, or null to let the game number itself.
+     */
+    public String getGameId() {
+        return gameId;
+    }
+
+    public boolean isEndless() {
+        return endless;
+    }
+
+    public long getTurnLimit() {
+        return turnLimit;
+    }
+
+    public long getTimeLimitMillis() {
+        return timeLimitMillis;
+    }
+
+    public List<String> getPlayerNames() {
+        return playerNames;
+    }
+
+    /**
+     * Gets the number of computer players.
+     * @return the number set, or by default as many as make two players with the human players.
+     */
+    public int getComputerPlayers() {
+        return computerPlayers >= 0 ? computerPlayers : Math.max(0, 2 - numPlayers);
+    }
+
+    /**
+     * Gets the number of pairs on the board.
+     * @return the number set, or 0 to use the number given by the board size.
+     */
+    public int getBoardPairs() {
+        return boardPairs;
+    }
+
+    public int getBotMemory() {
+        return botMemory;
+    }
+}
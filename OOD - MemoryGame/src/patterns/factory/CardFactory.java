@@ -4,38 +4,35 @@ import model.Card;
 import patterns.builders.CardBuilder;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 /**
  * CardFactory class to handle the creation of cards for the memory card game using the Prototype pattern.
  */
 public class CardFactory {
+    private static final char[] NUMBERS = {'1', '2', '3', '4', '5', '6', '7', '8', '9', 'T', 'J', 'Q', 'K'};
+    private static final String[] SYMBOLS = {"♠", "♥", "♣", "♦"};
+    private static final String[] COLORS = {"Black", "Red", "Black", "Red"};  // Colors corresponding to suits: spades, hearts, clubs, diamonds
     private int cardIdCounter = 1;  // Ensure unique IDs for each card
 
     /**
      * Creates pairs of matching cards, each pair consisting of an original and a clone with unique IDs.
      * @param numberOfPairs Number of pairs of cards to create.
-     * @param numbers Array of card numbers (characters).
-     * @param symbols Array of symbols for the cards.
-     * @param colors Array of colors of the cards.
      * @return List of cards with each pair having unique but identical cards.
      */
      public List<Card> createPairsOfCards(int numberOfPairs) {
-        final char[] numbers = {'1', '2', '3', '4', '5', '6', '7', '8', '9', 'T', 'J', 'Q', 'K'};
-        final String[] symbols = {"♠", "♥", "♣", "♦"};
-        final String[] colors = {"Black", "Red", "Black", "Red"};  // Colors corresponding to suits: spades, hearts, clubs, diamonds
-
         List<Card> cards = new ArrayList<>();
         CardBuilder builder = new CardBuilder();
 
         // Loop through as many times as needed to create the required number of pairs
         int pairCount = 0;
         while (pairCount < numberOfPairs) {
-            for (int i = 0; i < symbols.length && pairCount < numberOfPairs; i++) {
-                for (int j = 0; j < numbers.length && pairCount < numberOfPairs; j++) {
+            for (int i = 0; i < SYMBOLS.length && pairCount < numberOfPairs; i++) {
+                for (int j = 0; j < NUMBERS.length && pairCount < numberOfPairs; j++) {
                     builder.setId(cardIdCounter++)
-                            .setNumber(numbers[j])
-                            .setSymbol(symbols[i])
-                            .setColor(colors[i]);
+                            .setNumber(NUMBERS[j])
+                            .setSymbol(SYMBOLS[i])
+                            .setColor(COLORS[i]);
 
                     Card original = builder.build();
                     Card clone = original.clone(); // Create a matching card using the clone method
@@ -50,4 +47,30 @@ public class CardFactory {
 
         return cards;
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates the next pair of a deck that is produced on demand, for games that never run out of cards.
+     * The face is drawn from the given random source, so a seeded game streams the same deck every time.
+     * Ids keep counting after the cards already created and wrap around long before they overflow.
+     * @param random Random source choosing the face of the pair.
+     * @return The two matching cards.
+     */
+    public Card[] createPair(Random random) {
+        int suit = random.nextInt(SYMBOLS.length);
+        Card original = new CardBuilder().setId(nextId())
+                .setNumber(NUMBERS[random.nextInt(NUMBERS.length)])
+                .setSymbol(SYMBOLS[suit])
+                .setColor(COLORS[suit])
+                .build();
+        Card clone = original.clone();
+        clone.setId(nextId());
+        return new Card[]{original, clone};
+    }
+
+    private int nextId() {
+        if (cardIdCounter == Integer.MAX_VALUE) {
+            cardIdCounter = 1;  // Only the few cards on a board need distinct ids
+        }
+        return cardIdCounter++;
+    }
+}
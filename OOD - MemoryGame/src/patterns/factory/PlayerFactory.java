@@ -1,10 +1,13 @@
 package patterns.factory;
 
+import java.util.Random;
+
 import model.Board;
 import model.Player;
 import patterns.builders.ComputerPlayerBuilder;
 import patterns.builders.PlayerBuilder;
 import patterns.builders.HumanPlayerBuilder;
+import patterns.strategy.difficulty.DifficultyStrategy;
 
 /**
  * Factory class for creating Player instances.
@@ -32,4 +35,46 @@ public class PlayerFactory {
         }
         return builder.build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates a computer player with an explicit random source and turn delay.
+     * @param name The name of the player.
+     * @param board The game board.
+     * @param difficulty The difficulty level of the computer player.
+     * @param random The random source used by the difficulty strategy.
+     * @param turnDelayMillis The pause between flips in milliseconds.
+     * @return A new computer Player instance.
+     */
+    public static Player createComputerPlayer(String name, Board board, int difficulty, Random random, long turnDelayMillis) {
+        return createComputerPlayer(name, board, difficulty, 0, random, turnDelayMillis);
+    }
+
+    /**
+     * Creates a computer player with an explicit memory, random source and turn delay.
+     * @param name The name of the player.
+     * @param board The game board.
+     * @param difficulty The difficulty level of the computer player.
+     * @param memoryCapacity How many cards a Medium player remembers on its own, or 0 for the board's memory.
+     * @param random The random source used by the difficulty strategy.
+     * @param turnDelayMillis The pause between flips in milliseconds.
+     * @return A new computer Player instance.
+     */
+    public static Player createComputerPlayer(String name, Board board, int difficulty, int memoryCapacity, Random random,
+                                              long turnDelayMillis) {
+        return new ComputerPlayerBuilder().setBoard(board).setName(name).setDifficulty(difficulty)
+                .setMemoryCapacity(memoryCapacity).setRandom(random).setTurnDelayMillis(turnDelayMillis).build();
+    }
+
+    /**
+     * Creates a computer player that plays with a strategy it shares with other computer players.
+     * @param name The name of the player.
+     * @param board The game board.
+     * @param strategy The shared difficulty strategy.
+     * @param turnDelayMillis The pause between flips in milliseconds.
+     * @return A new computer Player instance.
+     */
+    public static Player createComputerPlayer(String name, Board board, DifficultyStrategy strategy, long turnDelayMillis) {
+        return new ComputerPlayerBuilder().setBoard(board).setName(name).setStrategy(strategy)
+                .setTurnDelayMillis(turnDelayMillis).build();
+    }
+}
@@ -1,7 +1,9 @@
 package patterns.mediator;
 
 import core.Game;
+import metrics.jfr.GameEvents;
 import model.Board;
+import model.Card;
 import model.Player;
 
 /**
@@ -37,6 +39,32 @@ public class BoardMediator {
         game.notifyObservers();
     }
 
+    /**
+     * notifyFlip method that reports a card flipped by a player.
+     * @param player The player who flipped the card.
+     * @param card The flipped card.
+     */
+    public void notifyFlip(Player player, Card card) {
+        game.getMetrics().recordFlip();
+        GameEvents.flip(game, player.getName(), card);
+    }
+
+    /**
+     * notifyDecision method that records how long a computer player took to choose its cards.
+     * @param nanos The decision time in nanoseconds.
+     */
+    public void notifyDecision(long nanos) {
+        game.getMetrics().recordAiDecision(nanos);
+    }
+
+    /**
+     * Checks if the game can take back a match.
+     * @return true if an undo request would be served.
+     */
+    public boolean canUndo() {
+        return game.canUndo();
+    }
+
     /**
      * requestUndo method that requests an undo action from the game.
      * @param player The player requesting the undo.
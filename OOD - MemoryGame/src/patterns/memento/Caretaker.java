@@ -1,12 +1,16 @@
 package patterns.memento;
 
-import java.util.Stack;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
 
 /**
  * Caretaker class manages the mementos to enable undo or redo operations.
  */
 public class Caretaker {
-    private Stack<Memento> mementos = new Stack<>();
+    private Deque<Memento> mementos = new ArrayDeque<>();
 
     /**
      * Saves the memento of the game state.
@@ -31,4 +35,14 @@ public class Caretaker {
     public int getMementosCount() {
         return mementos.size();
     }
+
+    /**
+     * Gets the stored mementos, oldest first, for example to save the undo history.
+     * @return A copy of the mementos.
+     */
+    public List<Memento> getMementos() {
+        List<Memento> oldestFirst = new ArrayList<>(mementos);
+        Collections.reverse(oldestFirst);  // The deque is newest first
+        return oldestFirst;
+    }
 }
@@ -0,0 +1,41 @@
+package patterns.observer;
+
+import model.Card;
+import model.Player;
+
+/**
+ * Interface for observers that follow a game turn by turn, such as protocol front ends,
+ * which need the cards of each turn rather than a redraw signal.
+ */
+public interface TurnObserver {
+    /**
+     * Called once the two cards of a turn are decided, before the score changes and before
+     * the cards are flipped back or, in an endless game, replaced.
+     * @param player The player who took the turn.
+     * @param cardIndices The row and column of the first card, then of the second.
+     * @param first The first card.
+     * @param second The second card.
+     * @param isMatch Whether the cards matched.
+     */
+    void turnPlayed(Player player, int[] cardIndices, Card first, Card second, boolean isMatch);
+
+    /**
+     * Called when a human player turns over the first card of a turn through Game.flip. The
+     * second card is only reported with the turn.
+     * @param player The player.
+     * @param row The row of the card.
+     * @param col The column of the card.
+     * @param card The card, face up.
+     */
+    default void cardFlipped(Player player, int row, int col, Card card) {
+    }
+
+    /**
+     * Called when an undo reverts a match, after the cards are turned back and the player's
+     * score is reduced.
+     * @param player The player whose match was undone.
+     * @param seat The player's index in Game.getPlayers().
+     */
+    default void matchUndone(Player player, int seat) {
+    }
+}
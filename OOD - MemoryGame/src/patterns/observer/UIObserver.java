@@ -1,5 +1,8 @@
 package patterns.observer;
 
+import core.Game;
+import metrics.jfr.GameEvents;
+import metrics.jfr.RenderEvent;
 import ui.GameUI;
 
 
@@ -8,15 +11,17 @@ import ui.GameUI;
  */
 public class UIObserver implements GameObserver {
     private GameUI gameUI;
+    private Game game;
 
     
     /**
-     * Constructs a UIObserver with a reference to the game and game UI instances.
-     * @param game The game instance.
+     * Constructs a UIObserver with a reference to the game UI and the observed game.
      * @param gameUI The game UI instance.
+     * @param game The observed game, used to record render time.
      */
-    public UIObserver(GameUI gameUI) {
+    public UIObserver(GameUI gameUI, Game game) {
         this.gameUI = gameUI;
+        this.game = game;
     }
 
     /**
@@ -25,11 +30,15 @@ public class UIObserver implements GameObserver {
      */
     @Override
     public void update() {
+        RenderEvent renderEvent = GameEvents.beginRender();
+        long start = System.nanoTime();
         clearConsole();
         displayHeader();
         updateBoardDisplay();
         updateScoreDisplay();
         updateTurnDisplay();
+        game.getMetrics().recordRender(System.nanoTime() - start);
+        GameEvents.commitRender(renderEvent, game, game.getCurrentPlayer().getName());
     }
 
     /**
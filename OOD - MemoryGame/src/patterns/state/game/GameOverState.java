@@ -24,11 +24,11 @@ public class GameOverState implements GameState {
     @Override
     public void handle(Game game) {
         try{
-            System.out.println("Game over! Displaying results...");
+            game.displayMessage("Game over! Displaying results...");
             game.displayResults();
         }
         catch (Exception e){
-            System.out.println("An error occurred while trying to determine the winner.");
+            game.displayMessage("An error occurred while trying to determine the winner.");
         }
     }
 }
\ No newline at end of file
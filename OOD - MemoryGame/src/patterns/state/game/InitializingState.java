@@ -24,7 +24,7 @@ public class InitializingState implements GameState {
     @Override
     public void handle(Game game) {
         try {
-            System.out.println("Game initialized and ready to play.");
+            game.displayMessage("Game initialized and ready to play.");
             manager.goToWaitingForPlayerState();  // Transition to the next state
         } catch (Exception e) {
             System.err.println("Failed to initialize game: " + e.getMessage());
@@ -32,7 +32,7 @@ public class PlayingState implements GameState {
             }
         }
         catch (Exception e){
-            System.out.println("An error occurred while trying to handle the game.");
+            game.displayMessage("An error occurred while trying to handle the game.");
         }
     }
 }
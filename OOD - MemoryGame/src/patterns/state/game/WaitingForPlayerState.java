@@ -28,7 +28,7 @@ public class WaitingForPlayerState implements GameState {
             }
         }
         catch (Exception e){
-            System.out.println("An error occurred while trying to handle the game.");
+            game.displayMessage("An error occurred while trying to handle the game.");
         }
     }
 }
@@ -0,0 +1,57 @@
+package patterns.strategy.difficulty;
+
+import java.util.Locale;
+
+/**
+ * BotProfile describes a computer player as a vector of parameters instead of a fixed code path,
+ * so levels can be tuned by training.BotTuner. Played by ProfiledStrategy.
+ */
+public final class BotProfile {
+    public static final int MAX_MEMORY_CAPACITY = 104;  // Every card of a Large board
+
+    private final int memoryCapacity;
+    private final double forgettingRate;
+    private final double explorationProbability;
+    private final double riskAppetite;
+
+    /**
+     * Constructs a BotProfile; values outside their range are clamped.
+     * @param memoryCapacity How many cards the bot remembers (0 to 104); the least recently seen are forgotten first.
+     * @param forgettingRate Chance per turn that each remembered card is forgotten (0 to 1).
+     * @param explorationProbability Chance per turn to ignore a remembered pair and flip at random (0 to 1).
+     * @param riskAppetite Chance to flip a second unknown card rather than a remembered one when the
+     *                     first card's partner is unknown (0 to 1); a miss costs points under PenaltyScoreStrategy.
+     */
+    public BotProfile(int memoryCapacity, double forgettingRate, double explorationProbability, double riskAppetite) {
+        this.memoryCapacity = Math.max(0, Math.min(MAX_MEMORY_CAPACITY, memoryCapacity));
+        this.forgettingRate = clamp(forgettingRate);
+        this.explorationProbability = clamp(explorationProbability);
+        this.riskAppetite = clamp(riskAppetite);
+    }
+
+    private static double clamp(double value) {
+        return Math.max(0, Math.min(1, value));
+    }
+
+    public int getMemoryCapacity() {
+        return memoryCapacity;
+    }
+
+    public double getForgettingRate() {
+        return forgettingRate;
+    }
+
+    public double getExplorationProbability() {
+        return explorationProbability;
+    }
+
+    public double getRiskAppetite() {
+        return riskAppetite;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "memory=%d forgetting=%.3f exploration=%.3f risk=%.3f",
+                memoryCapacity, forgettingRate, explorationProbability, riskAppetite);
+    }
+}
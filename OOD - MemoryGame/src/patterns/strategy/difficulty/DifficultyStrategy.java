@@ -8,4 +8,13 @@ import model.Board;
  */
 public interface DifficultyStrategy {
     int[][] selectCards(Board board);
+
+    /**
+     * Tells whether one instance can play for several computer players of a game, which is the
+     * case when it keeps no memory of its own between turns.
+     * @return true if the strategy can be shared.
+     */
+    default boolean isShareable() {
+        return true;
+    }
 }
@@ -1,6 +1,7 @@
 package patterns.strategy.difficulty;
 
 import model.Board;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -12,16 +13,33 @@ import java.util.Random;
  * any attempt to find a match based on previous flips.
  */
 public class EasyStrategy implements DifficultyStrategy {
+    private final Random random;
+
+    /**
+     * Constructs an EasyStrategy with an unseeded random source.
+     */
+    public EasyStrategy() {
+        this(new Random());
+    }
+
+    /**
+     * Constructs an EasyStrategy with the given random source, for reproducible games.
+     * @param random The random source.
+     */
+    public EasyStrategy(Random random) {
+        this.random = random;
+    }
+
     @Override
     public int[][] selectCards(Board board) {
-        Random random = new Random();
-        int firstIndex = random.nextInt(board.getCardCount());
+        List<int[]> unmatched = board.getUnmatchedCardIndices();
+        int firstIndex = random.nextInt(unmatched.size());
         int secondIndex;
 
         do {
-            secondIndex = random.nextInt(board.getCardCount());
+            secondIndex = random.nextInt(unmatched.size());
         } while (firstIndex == secondIndex); // Ensure two different cards are selected
 
-        return new int[][]{{firstIndex}, {secondIndex}};
+        return new int[][]{unmatched.get(firstIndex), unmatched.get(secondIndex)};
     }
 }
@@ -19,7 +19,22 @@ import java.util.Arrays;
  */
 public class HardStrategy implements DifficultyStrategy {
 
-    Random random = new Random();
+    private final Random random;
+
+    /**
+     * Constructs a HardStrategy with an unseeded random source.
+     */
+    public HardStrategy() {
+        this(new Random());
+    }
+
+    /**
+     * Constructs a HardStrategy with the given random source, for reproducible games.
+     * @param random The random source.
+     */
+    public HardStrategy(Random random) {
+        this.random = random;
+    }
 
     @Override
     public int[][] selectCards(Board board) {
@@ -0,0 +1,168 @@
+package patterns.strategy.difficulty;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.logging.Logger;
+
+/**
+ * LearnedPolicy is the decision table trained by training.PolicyTrainer. When the first card of
+ * a turn is a new card whose partner has not been seen, a player either flips another unseen
+ * card (explore: it may match, but reveals a card to the opponent) or a card it already knows
+ * (safe: reveals nothing new). The table holds that choice for every pair of counts of unseen
+ * cards and remembered single cards, one bit each, so a query is a single array lookup.
+ *
+ * File format: the magic "MGPL", a version byte, the largest unseen and single counts as shorts,
+ * then the bits in (unseen, singles) order, eight to a byte.
+ */
+public class LearnedPolicy {
+    private static final Logger LOGGER = Logger.getLogger(LearnedPolicy.class.getName());
+    private static final int MAGIC = 0x4D47504C;  // "MGPL"
+    private static final int VERSION = 1;
+    public static final int LEVEL = 4;  // The difficulty level that plays the learned policy
+    private static LearnedPolicy defaultPolicy;
+    private static boolean defaultLoaded;  // Whether the default policy was read from its file
+
+    private final int maxUnseen;
+    private final int maxSingles;
+    private final BitSet safeFlips;
+
+    /**
+     * Constructs a LearnedPolicy from its decision bits.
+     * @param maxUnseen The largest unseen card count in the table.
+     * @param maxSingles The largest single card count in the table.
+     * @param safeFlips Bit unseen * (maxSingles + 1) + singles is set where the safe flip is preferred.
+     */
+    public LearnedPolicy(int maxUnseen, int maxSingles, BitSet safeFlips) {
+        this.maxUnseen = maxUnseen;
+        this.maxSingles = maxSingles;
+        this.safeFlips = (BitSet) safeFlips.clone();
+    }
+
+    /**
+     * Gets the policy computer players use at the learned difficulty, loaded once from the file
+     * named by -Dmemorygame.policyFile (default "memorygame.policy"). Without a readable file the
+     * policy always explores, which plays like HardStrategy.
+     * @return The default policy.
+     */
+    public static synchronized LearnedPolicy getDefault() {
+        if (defaultPolicy == null) {
+            Path file = defaultFile();
+            try {
+                defaultPolicy = load(file);
+                defaultLoaded = true;
+            } catch (IOException | IllegalArgumentException e) {
+                LOGGER.warning("No learned policy in " + file + " (" + e.getMessage() + "); the learned level will always explore.");
+                defaultPolicy = new LearnedPolicy(0, 0, new BitSet());
+            }
+        }
+        return defaultPolicy;
+    }
+
+    /**
+     * Checks if the default policy was read from its file, loading it first if the file exists.
+     * @return true if loaded, false if the learned level would always explore.
+     */
+    public static synchronized boolean isDefaultLoaded() {
+        if (defaultPolicy == null && !Files.isReadable(defaultFile())) {
+            return false;  // Nothing to load, and nothing to warn about until the level is played
+        }
+        getDefault();
+        return defaultLoaded;
+    }
+
+    private static Path defaultFile() {
+        return Path.of(System.getProperty("memorygame.policyFile", "memorygame.policy"));
+    }
+
+    /**
+     * Checks if the safe flip is preferred.
+     * @param unseen Unseen cards left after the first card of the turn.
+     * @param singles Remembered cards whose partner has not been seen, not counting the first card.
+     * @return true to flip a remembered card, false to flip another unseen card.
+     */
+    public boolean prefersSafeFlip(int unseen, int singles) {
+        if (unseen > maxUnseen || singles > maxSingles) {
+            return false;
+        }
+        return safeFlips.get(unseen * (maxSingles + 1) + singles);
+    }
+
+    /**
+     * Loads a policy file.
+     * @param file The file.
+     * @return The policy.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if the file is not a policy file.
+     */
+    public static LearnedPolicy load(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Reads a policy.
+     * @param input The stream to read from.
+     * @return The policy.
+     * @throws IOException if the stream cannot be read.
+     * @throws IllegalArgumentException if the stream does not hold a policy.
+     */
+    public static LearnedPolicy read(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        if (in.readInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a policy file");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported policy version " + version);
+        }
+        int maxUnseen = in.readUnsignedShort();
+        int maxSingles = in.readUnsignedShort();
+        byte[] bits = new byte[((maxUnseen + 1) * (maxSingles + 1) + 7) / 8];
+        in.readFully(bits);
+        return new LearnedPolicy(maxUnseen, maxSingles, BitSet.valueOf(bits));
+    }
+
+    /**
+     * Writes this policy.
+     * @param output The stream to write to.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void write(OutputStream output) throws IOException {
+        DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeShort(maxUnseen);
+        out.writeShort(maxSingles);
+        byte[] bits = new byte[((maxUnseen + 1) * (maxSingles + 1) + 7) / 8];
+        byte[] set = safeFlips.toByteArray();
+        System.arraycopy(set, 0, bits, 0, Math.min(set.length, bits.length));
+        out.write(bits);
+        out.flush();
+    }
+
+    /**
+     * Saves this policy to a file.
+     * @param file The file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void save(Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(out);
+        }
+    }
+
+    /**
+     * Counts the states where the safe flip is preferred.
+     * @return The count.
+     */
+    public int countSafeFlips() {
+        return safeFlips.cardinality();
+    }
+}
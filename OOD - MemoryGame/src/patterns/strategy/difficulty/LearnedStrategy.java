@@ -0,0 +1,67 @@
+package patterns.strategy.difficulty;
+
+import model.Board;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Concrete strategy for the Learned difficulty.
+ * Perfect Memory with a Trained Policy: like HardStrategy it takes a remembered pair when there is
+ * one, and otherwise flips a random unseen card and takes its partner if it was seen before.
+ * When the partner is unknown, a LearnedPolicy trained by self-play decides, from the counts of
+ * unseen and remembered cards, whether to flip another unseen card or a remembered one.
+ * Behavior: Plays the safe flip where revealing a new card would help the opponent more than it
+ * helps this player.
+ */
+public class LearnedStrategy implements DifficultyStrategy {
+    private final Random random;
+    private final LearnedPolicy policy;
+
+    /**
+     * Constructs a LearnedStrategy with the default policy and an unseeded random source.
+     */
+    public LearnedStrategy() {
+        this(new Random(), LearnedPolicy.getDefault());
+    }
+
+    /**
+     * Constructs a LearnedStrategy with the given random source and policy.
+     * @param random The random source.
+     * @param policy The trained policy.
+     */
+    public LearnedStrategy(Random random, LearnedPolicy policy) {
+        this.random = random;
+        this.policy = policy;
+    }
+
+    @Override
+    public int[][] selectCards(Board board) {
+        List<int[]> seenCards = board.getSeenCards();
+        for (int i = 0; i < seenCards.size(); i++) {
+            for (int j = i + 1; j < seenCards.size(); j++) {
+                if (board.isPotentialMatch(seenCards.get(i), seenCards.get(j))) {
+                    return new int[][]{seenCards.get(i), seenCards.get(j)};
+                }
+            }
+        }
+
+        List<int[]> unseenCards = board.getUnseenAndUnmatchedCardIndices();
+        int firstIndex = random.nextInt(unseenCards.size());
+        int[] firstCard = unseenCards.get(firstIndex);
+        for (int[] secondCard : seenCards) {
+            if (board.isPotentialMatch(firstCard, secondCard)) {
+                return new int[][]{firstCard, secondCard};
+            }
+        }
+
+        int unseenLeft = unseenCards.size() - 1;
+        if (seenCards.isEmpty() || (unseenLeft > 0 && !policy.prefersSafeFlip(unseenLeft, seenCards.size()))) {
+            int secondIndex = random.nextInt(unseenLeft);
+            if (secondIndex >= firstIndex) {
+                secondIndex++;  // Skip the first card
+            }
+            return new int[][]{firstCard, unseenCards.get(secondIndex)};
+        }
+        return new int[][]{firstCard, seenCards.get(random.nextInt(seenCards.size()))};
+    }
+}
@@ -1,9 +1,10 @@
 package patterns.strategy.difficulty;
 
 import model.Board;
+import model.PlayerKnowledge;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
-import java.util.Arrays;
 
 
 /**
@@ -15,20 +16,60 @@ import java.util.Arrays;
  * Behavior: Randomly selects a card that has been flipped previously (if available)
  * to attempt forming a pair. If no pairs can be identified from memory, it resorts
  * to flipping a card at random, similar to the EasyStrategy.
+ * Human-like variant: with a memory capacity the player remembers only the cards it saw
+ * itself, in a PlayerKnowledge of that many cards, instead of every card anyone has seen, and
+ * flips a remembered card's partner when it remembers both.
  */
 public class MediumStrategy implements DifficultyStrategy {
+    private final Random random;
+    private final PlayerKnowledge knowledge;  // Null when playing from the board's memory
+
+    /**
+     * Constructs a MediumStrategy with an unseeded random source.
+     */
+    public MediumStrategy() {
+        this(new Random());
+    }
+
+    /**
+     * Constructs a MediumStrategy with the given random source, for reproducible games.
+     * @param random The random source.
+     */
+    public MediumStrategy(Random random) {
+        this.random = random;
+        this.knowledge = null;
+    }
+
+    /**
+     * Constructs a human-like MediumStrategy that remembers a limited number of cards.
+     * @param random The random source.
+     * @param memoryCapacity The most cards remembered; the least recently seen are forgotten first.
+     */
+    public MediumStrategy(Random random, int memoryCapacity) {
+        this.random = random;
+        this.knowledge = new PlayerKnowledge(memoryCapacity);
+    }
+
+    @Override
+    public boolean isShareable() {
+        return knowledge == null;
+    }
+
     @Override
     public int[][] selectCards(Board board) {
+        if (knowledge != null) {
+            return selectFromKnowledge(board);
+        }
         List<int[]> knownCards = board.getSeenCards();
-        Random random = new Random();
 
         if (!knownCards.isEmpty()) {
-            int index = random.nextInt(knownCards.size());
-            int[] firstCard = knownCards.get(index);
-            int[] secondCard;
+            int[] firstCard = knownCards.get(random.nextInt(knownCards.size()));
 
+            // Try the remembered card against any card in play, not only known ones, which may never match
+            List<int[]> unmatched = board.getUnmatchedCardIndices();
+            int[] secondCard;
             do {
-                secondCard = knownCards.get(random.nextInt(knownCards.size()));
+                secondCard = unmatched.get(random.nextInt(unmatched.size()));
             } while (Arrays.equals(firstCard, secondCard));
 
             return new int[][]{firstCard, secondCard};
@@ -38,19 +79,44 @@ public class MediumStrategy implements DifficultyStrategy {
     }
 
     /**
-     * Selects a random pair of cards from the board.
+     * Plays from the player's own memory, taking a remembered pair when the first card has one.
+     * @param board The game board.
+     * @return The pair of cards to flip.
+     */
+    private int[][] selectFromKnowledge(Board board) {
+        knowledge.catchUp(board);
+        int[] remembered = knowledge.getRemembered();
+        if (remembered.length == 0) {
+            return selectRandomPair(board);
+        }
+        int cols = board.getColsSize();
+        int first = remembered[random.nextInt(remembered.length)];
+        int partner = knowledge.partnerOf(first);
+        if (partner >= 0) {
+            return new int[][]{{first / cols, first % cols}, {partner / cols, partner % cols}};
+        }
+        List<int[]> unmatched = board.getUnmatchedCardIndices();
+        int[] secondCard;
+        do {
+            secondCard = unmatched.get(random.nextInt(unmatched.size()));
+        } while (secondCard[0] * cols + secondCard[1] == first);
+        return new int[][]{{first / cols, first % cols}, secondCard};
+    }
+
+    /**
+     * Selects a random pair of unmatched cards from the board.
      * @param board The game board.
      * @return A pair of randomly selected cards.
      */
     private int[][] selectRandomPair(Board board) {
-        Random random = new Random();
-        int firstIndex = random.nextInt(board.getCardCount());
+        List<int[]> unmatched = board.getUnmatchedCardIndices();
+        int firstIndex = random.nextInt(unmatched.size());
         int secondIndex;
 
         do {
-            secondIndex = random.nextInt(board.getCardCount());
+            secondIndex = random.nextInt(unmatched.size());
         } while (firstIndex == secondIndex); // Ensure two different cards are selected
 
-        return new int[][]{{firstIndex}, {secondIndex}};
+        return new int[][]{unmatched.get(firstIndex), unmatched.get(secondIndex)};
     }
 }
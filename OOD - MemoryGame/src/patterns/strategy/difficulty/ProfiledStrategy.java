@@ -0,0 +1,150 @@
+package patterns.strategy.difficulty;
+
+import model.Board;
+import model.Card;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Concrete strategy for tuned difficulty levels.
+ * Limited, Fading Memory: the bot remembers the cards it sees revealed, up to its memory capacity,
+ * forgetting the least recently seen first and each remembered card at random with its forgetting
+ * rate. It takes a remembered pair unless it explores, and otherwise flips an unknown card and
+ * takes that card's partner if it remembers it.
+ * Behavior: When the partner is unknown, its risk appetite decides between a second unknown card
+ * and a remembered one. All parameters come from a BotProfile.
+ */
+public class ProfiledStrategy implements DifficultyStrategy {
+    private final Random random;
+    private final BotProfile profile;
+    private final LinkedHashSet<Integer> memory = new LinkedHashSet<>();  // Board positions, least recently seen first
+    private Card[] observed = new Card[0];  // The card last seen revealed at each position
+
+    /**
+     * Constructs a ProfiledStrategy.
+     * @param random The random source.
+     * @param profile The bot's parameters.
+     */
+    public ProfiledStrategy(Random random, BotProfile profile) {
+        this.random = random;
+        this.profile = profile;
+    }
+
+    @Override
+    public boolean isShareable() {
+        return false;  // The memory belongs to one bot
+    }
+
+    @Override
+    public int[][] selectCards(Board board) {
+        observe(board);
+        forget();
+        int cols = board.getColsSize();
+
+        if (random.nextDouble() >= profile.getExplorationProbability()) {
+            List<Integer> remembered = new ArrayList<>(memory);
+            for (int i = 0; i < remembered.size(); i++) {
+                for (int j = i + 1; j < remembered.size(); j++) {
+                    int[] first = position(remembered.get(i), cols);
+                    int[] second = position(remembered.get(j), cols);
+                    if (board.isPotentialMatch(first, second)) {
+                        return choose(first, second, cols);
+                    }
+                }
+            }
+        }
+
+        List<int[]> unknown = new ArrayList<>();
+        List<int[]> unmatched = board.getUnmatchedCardIndices();
+        for (int[] card : unmatched) {
+            if (!memory.contains(card[0] * cols + card[1])) {
+                unknown.add(card);
+            }
+        }
+        List<int[]> pool = unknown.isEmpty() ? unmatched : unknown;
+        int[] first = pool.get(random.nextInt(pool.size()));
+        for (Integer index : memory) {
+            int[] partner = position(index, cols);
+            if (board.isPotentialMatch(first, partner)) {
+                return choose(first, partner, cols);
+            }
+        }
+
+        List<int[]> seconds = new ArrayList<>();
+        boolean risky = random.nextDouble() < profile.getRiskAppetite();
+        for (int[] card : unmatched) {
+            int index = card[0] * cols + card[1];
+            if (index != first[0] * cols + first[1] && memory.contains(index) != risky) {
+                seconds.add(card);
+            }
+        }
+        if (seconds.isEmpty()) {
+            for (int[] card : unmatched) {
+                if (card[0] != first[0] || card[1] != first[1]) {
+                    seconds.add(card);
+                }
+            }
+        }
+        return choose(first, seconds.get(random.nextInt(seconds.size())), cols);
+    }
+
+    /**
+     * Remembers the two chosen cards, which the bot is about to see.
+     */
+    private int[][] choose(int[] first, int[] second, int cols) {
+        remember(first[0] * cols + first[1]);
+        remember(second[0] * cols + second[1]);
+        return new int[][]{first, second};
+    }
+
+    /**
+     * Notices cards revealed since the last turn and drops matched ones.
+     * @param board The game board.
+     */
+    private void observe(Board board) {
+        if (observed.length != board.getCardCount()) {
+            observed = new Card[board.getCardCount()];
+            memory.clear();
+        }
+        for (int index = 0; index < observed.length; index++) {
+            Card card = board.getCardAt(index);
+            if (card.isMatched()) {
+                memory.remove(index);
+            } else if (card.isSeen() && observed[index] != card) {
+                observed[index] = card;
+                remember(index);
+            }
+        }
+    }
+
+    private void remember(int index) {
+        memory.remove(index);  // Re-inserting makes it the most recently seen
+        if (profile.getMemoryCapacity() == 0) {
+            return;
+        }
+        memory.add(index);
+        if (memory.size() > profile.getMemoryCapacity()) {
+            Iterator<Integer> eldest = memory.iterator();
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private void forget() {
+        if (profile.getForgettingRate() <= 0) {
+            return;
+        }
+        memory.removeIf(index -> random.nextDouble() < profile.getForgettingRate());
+    }
+
+    private static int[] position(int index, int cols) {
+        return new int[]{index / cols, index % cols};
+    }
+
+    public BotProfile getProfile() {
+        return profile;
+    }
+}
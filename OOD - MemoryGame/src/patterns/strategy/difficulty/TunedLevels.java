@@ -0,0 +1,134 @@
+package patterns.strategy.difficulty;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * TunedLevels holds the difficulty levels tuned by training.BotTuner, numbered from FIRST_LEVEL
+ * after the built-in levels. They are loaded once from the properties file named by
+ * -Dmemorygame.levelsFile (default "memorygame.levels"), one line per level:
+ * level.5=memoryCapacity,forgettingRate,explorationProbability,riskAppetite
+ */
+public class TunedLevels {
+    public static final int FIRST_LEVEL = 5;  // After 1-Easy, 2-Medium, 3-Hard and 4-Learned
+    private static final Logger LOGGER = Logger.getLogger(TunedLevels.class.getName());
+    private static final String KEY_PREFIX = "level.";
+    private static TunedLevels instance;
+
+    private final Map<Integer, BotProfile> profiles = new ConcurrentHashMap<>();
+
+    private TunedLevels() {
+    }
+
+    /**
+     * Gets the tuned levels, loading the default levels file on first use. Without a readable
+     * file there are no tuned levels until some are registered.
+     * @return The single instance.
+     */
+    public static synchronized TunedLevels getInstance() {
+        if (instance == null) {
+            instance = new TunedLevels();
+            Path file = Path.of(System.getProperty("memorygame.levelsFile", "memorygame.levels"));
+            if (Files.isReadable(file)) {
+                try {
+                    instance.profiles.putAll(load(file));
+                } catch (IOException | IllegalArgumentException e) {
+                    LOGGER.warning("Could not read tuned levels from " + file + ": " + e.getMessage());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Registers a tuned level, replacing any profile it had.
+     * @param level The level, FIRST_LEVEL or above.
+     * @param profile The bot's parameters.
+     * @throws IllegalArgumentException if the level is a built-in one.
+     */
+    public void register(int level, BotProfile profile) {
+        if (level < FIRST_LEVEL) {
+            throw new IllegalArgumentException("Level " + level + " is a built-in level");
+        }
+        profiles.put(level, profile);
+    }
+
+    /**
+     * Gets a tuned level's profile.
+     * @param level The level.
+     * @return The profile, or null if the level is not tuned.
+     */
+    public BotProfile get(int level) {
+        return profiles.get(level);
+    }
+
+    /**
+     * Gets all tuned levels in level order.
+     * @return A copy of the level-to-profile map.
+     */
+    public Map<Integer, BotProfile> getLevels() {
+        return new TreeMap<>(profiles);
+    }
+
+    /**
+     * Loads a levels file.
+     * @param file The file.
+     * @return The profiles by level, in level order.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if a line is malformed.
+     */
+    public static Map<Integer, BotProfile> load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        Map<Integer, BotProfile> levels = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (!key.startsWith(KEY_PREFIX)) {
+                continue;
+            }
+            String[] values = properties.getProperty(key).split(",");
+            if (values.length != 4) {
+                throw new IllegalArgumentException(key + " needs 4 values, has " + values.length);
+            }
+            try {
+                levels.put(Integer.parseInt(key.substring(KEY_PREFIX.length())), new BotProfile(
+                        Integer.parseInt(values[0].trim()), Double.parseDouble(values[1].trim()),
+                        Double.parseDouble(values[2].trim()), Double.parseDouble(values[3].trim())));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed " + key + ": " + e.getMessage());
+            }
+        }
+        return levels;
+    }
+
+    /**
+     * Saves levels to a file.
+     * @param file The file.
+     * @param levels The profiles by level.
+     * @param comment The header comment, e.g. how the levels were tuned.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void save(Path file, Map<Integer, BotProfile> levels, String comment) throws IOException {
+        Properties properties = new Properties();
+        for (Map.Entry<Integer, BotProfile> level : levels.entrySet()) {
+            BotProfile profile = level.getValue();
+            properties.setProperty(KEY_PREFIX + level.getKey(), String.format(Locale.ROOT, "%d,%.4f,%.4f,%.4f",
+                    profile.getMemoryCapacity(), profile.getForgettingRate(),
+                    profile.getExplorationProbability(), profile.getRiskAppetite()));
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            properties.store(writer, comment);
+        }
+    }
+}
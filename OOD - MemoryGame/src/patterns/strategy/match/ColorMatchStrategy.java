@@ -11,4 +11,9 @@ public class ColorMatchStrategy implements MatchStrategy {
     public boolean doCardsMatch(Card card1, Card card2) {
         return card1.getId() != card2.getId() && card1.getColor().equals(card2.getColor());
     }
-}
\ No newline at end of file
+
+    @Override
+    public int matchKey(Card card) {
+        return card.getColor().hashCode();
+    }
+}
@@ -13,4 +13,9 @@ public class FullMatchStrategy implements MatchStrategy {
                 card1.getColor().equals(card2.getColor()) && 
                 card1.getNumber() == card2.getNumber();
     }
-}
\ No newline at end of file
+
+    @Override
+    public int matchKey(Card card) {
+        return 31 * (31 * card.getSymbol().hashCode() + card.getColor().hashCode()) + card.getNumber();
+    }
+}
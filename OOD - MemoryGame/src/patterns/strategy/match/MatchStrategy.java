@@ -7,4 +7,12 @@ import model.Card;
  */
 public interface MatchStrategy {
     boolean doCardsMatch(Card card1, Card card2);
+
+    /**
+     * Gets the key computer players remember a card by. Cards that match have the same key;
+     * cards that do not should have different keys, or a player will take them for a pair.
+     * @param card The card.
+     * @return The match key.
+     */
+    int matchKey(Card card);
 }
@@ -10,4 +10,9 @@ public class SymbolMatchStrategy implements MatchStrategy {
     public boolean doCardsMatch(Card card1, Card card2) {
         return card1.getId() != card2.getId() && card1.getSymbol().equals(card2.getSymbol());
     }
-}
\ No newline at end of file
+
+    @Override
+    public int matchKey(Card card) {
+        return card.getSymbol().hashCode();
+    }
+}
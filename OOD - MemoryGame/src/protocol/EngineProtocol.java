@@ -0,0 +1,296 @@
+package protocol;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import core.FlipOutcome;
+import core.Game;
+import core.RankIndex;
+import matchmaking.MatchmakingService;
+import model.Board;
+import model.Card;
+import model.HumanPlayer;
+import model.Player;
+import patterns.builders.GameBuilder;
+import patterns.observer.TurnObserver;
+import patterns.strategy.score.PenaltyScoreStrategy;
+import patterns.strategy.score.SimpleScoreStrategy;
+
+/**
+ * EngineProtocol plays the game for an external controller over a line-based text protocol on
+ * standard input and output, in the manner of chess engine protocols, so that bots written in
+ * any language can play through a pipe. The controller sits in the human seats; the computer
+ * players move inside the engine and their turns are reported as events.
+ *
+ * Commands, one per line, with rows and columns counted from 0:
+ * <pre>
+ * mgp                          -> id name MemoryGame, mgpok
+ * isready                      -> readyok
+ * newgame [size Small|Medium|Large] [players 0-2] [difficulty n] [opponent n]
+ *         [rules full|symbol|color] [scoring simple|penalty] [seed n]
+ *                              -> game rows cols players, then the events up to the first turn
+ * flip r c                     -> card r c FACE; after the second card the events of the turn
+ * board                        -> board rows cols, then per card: FACE if face up, .. if face
+ *                                 down, -- if matched
+ * scores                       -> scores s0 s1 ...
+ * quit
+ * </pre>
+ * Events: "card r c FACE" for each card a computer turns over, "match p r1 c1 r2 c2" or
+ * "miss p r1 c1 r2 c2" when a turn ends and "scores ..." after it, then "turn p" when player p
+ * of the controller is to move or "gameover w s0 s1 ..." with the winner's index, -1 for a draw.
+ * A face is the card's number, 1-9, T, J, Q or K, and the initial of its suit, S, H, C or D.
+ * Errors are answered with "error" and a reason, and leave the game as it was.
+ *
+ * Nothing but the protocol is written: no colours, no screen clearing and no prompts, and the
+ * replies are flushed only when the controller has no further command waiting.
+ */
+public class EngineProtocol implements TurnObserver {
+    private static final byte[] MGP = ascii("mgp");
+    private static final byte[] IS_READY = ascii("isready");
+    private static final byte[] NEW_GAME = ascii("newgame");
+    private static final byte[] FLIP = ascii("flip");
+    private static final byte[] BOARD = ascii("board");
+    private static final byte[] SCORES = ascii("scores");
+    private static final byte[] QUIT = ascii("quit");
+    private static final byte[] SIZE = ascii("size");
+    private static final byte[] PLAYERS = ascii("players");
+    private static final byte[] DIFFICULTY = ascii("difficulty");
+    private static final byte[] OPPONENT = ascii("opponent");
+    private static final byte[] RULES = ascii("rules");
+    private static final byte[] SCORING = ascii("scoring");
+    private static final byte[] SEED = ascii("seed");
+    private static final byte[] PENALTY = ascii("penalty");
+    private static final byte[] SIMPLE = ascii("simple");
+    private static final int MAX_HUMANS = 2;
+
+    private final ProtocolReader reader;
+    private final ProtocolWriter writer;
+    private Game game;
+    private IOException writeFailure;  // Raised inside a turn observer, rethrown after the turn
+
+    /**
+     * Constructs an EngineProtocol.
+     * @param in The controller's commands.
+     * @param out The engine's replies.
+     */
+    public EngineProtocol(InputStream in, OutputStream out) {
+        this.reader = new ProtocolReader(in);
+        this.writer = new ProtocolWriter(out);
+    }
+
+    /**
+     * Answers commands until "quit" or the end of the input.
+     * @throws IOException if the input cannot be read or the output written.
+     */
+    public void run() throws IOException {
+        try {
+            while (true) {
+                if (!reader.hasPendingInput()) {
+                    writer.flush();  // Only before the read would block
+                }
+                if (!reader.readLine() || reader.tokenEquals(0, QUIT)) {
+                    return;
+                }
+                try {
+                    handle();
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    writer.write("error ").write(String.valueOf(e.getMessage())).newLine();
+                }
+                if (writeFailure != null) {
+                    throw writeFailure;
+                }
+            }
+        } finally {
+            writer.flush();
+        }
+    }
+
+    private void handle() throws IOException {
+        if (reader.isOverlong()) {
+            throw new IllegalArgumentException("line too long");
+        }
+        if (reader.tokenCount() == 0) {
+            return;
+        }
+        if (reader.tokenEquals(0, FLIP)) {
+            flip();
+        } else if (reader.tokenEquals(0, BOARD)) {
+            writeBoard();
+        } else if (reader.tokenEquals(0, SCORES)) {
+            requireGame();
+            writeScores();
+        } else if (reader.tokenEquals(0, NEW_GAME)) {
+            newGame();
+        } else if (reader.tokenEquals(0, IS_READY)) {
+            writer.write("readyok").newLine();
+        } else if (reader.tokenEquals(0, MGP)) {
+            writer.write("id name MemoryGame").newLine().write("mgpok").newLine();
+        } else {
+            throw new IllegalArgumentException("unknown command " + reader.token(0));
+        }
+    }
+
+    /**
+     * Starts a headless game from the "newgame" options and plays up to the controller's turn.
+     */
+    private void newGame() throws IOException {
+        GameBuilder builder = new GameBuilder().setNumPlayers(1).setDifficulty(1).setHeadless(true);
+        boolean opponentSet = false;
+        int difficulty = 1;
+        long seed = System.nanoTime();
+        for (int i = 1; i < reader.tokenCount(); i += 2) {
+            if (i + 1 >= reader.tokenCount()) {
+                throw new IllegalArgumentException("missing value for " + reader.token(i));
+            }
+            if (reader.tokenEquals(i, SIZE)) {
+                String size = reader.token(i + 1);
+                if (!size.equalsIgnoreCase("Small") && !size.equalsIgnoreCase("Medium") && !size.equalsIgnoreCase("Large")) {
+                    throw new IllegalArgumentException("unknown size " + size);
+                }
+                builder.setBoardSize(size);
+            } else if (reader.tokenEquals(i, PLAYERS)) {
+                int humans = reader.intToken(i + 1);
+                if (humans < 0 || humans > MAX_HUMANS) {
+                    throw new IllegalArgumentException("players must be 0 to " + MAX_HUMANS);
+                }
+                builder.setNumPlayers(humans);
+            } else if (reader.tokenEquals(i, DIFFICULTY)) {
+                difficulty = reader.intToken(i + 1);
+                builder.setDifficulty(difficulty);
+            } else if (reader.tokenEquals(i, OPPONENT)) {
+                builder.setOpponentDifficulty(reader.intToken(i + 1));
+                opponentSet = true;
+            } else if (reader.tokenEquals(i, RULES)) {
+                builder.setMatchStrategy(MatchmakingService.matchStrategyFor(reader.token(i + 1)));
+            } else if (reader.tokenEquals(i, SCORING)) {
+                if (reader.tokenEquals(i + 1, PENALTY)) {
+                    builder.setScoreStrategy(new PenaltyScoreStrategy());
+                } else if (reader.tokenEquals(i + 1, SIMPLE)) {
+                    builder.setScoreStrategy(new SimpleScoreStrategy());
+                } else {
+                    throw new IllegalArgumentException("unknown scoring " + reader.token(i + 1));
+                }
+            } else if (reader.tokenEquals(i, SEED)) {
+                seed = reader.longToken(i + 1);
+            } else {
+                throw new IllegalArgumentException("unknown option " + reader.token(i));
+            }
+        }
+        if (!opponentSet) {
+            builder.setOpponentDifficulty(difficulty);
+        }
+        Game newGame = builder.setSeed(seed).build();
+        newGame.addTurnObserver(this);
+        game = newGame;
+        Board board = game.getBoard();
+        writer.write("game").writeInt(board.getRowsSize()).writeInt(board.getColsSize())
+                .writeInt(game.getPlayers().size()).newLine();
+        playUntilControllerTurn();
+    }
+
+    /**
+     * Flips a card for the controller; the second card completes the turn.
+     */
+    private void flip() throws IOException {
+        requireGame();
+        int row = reader.intToken(1);
+        int col = reader.intToken(2);
+        FlipOutcome outcome = game.flip(row, col);
+        if (outcome == FlipOutcome.FIRST_CARD) {
+            writer.write("card").writeInt(row).writeInt(col).writeFace(game.getBoard().getCardAt(row, col)).newLine();
+            return;
+        }
+        writeScores();  // The turn itself was written by turnPlayed
+        playUntilControllerTurn();
+    }
+
+    /**
+     * Plays the computer players' turns, writing the scores after each, and then tells the
+     * controller whose turn it is or that the game is over.
+     */
+    private void playUntilControllerTurn() throws IOException {
+        while (!game.isGameOver() && !(game.getCurrentPlayer() instanceof HumanPlayer)) {
+            game.processGameTurn();
+            if (writeFailure != null) {
+                throw writeFailure;
+            }
+            writeScores();
+        }
+        if (game.isGameOver()) {
+            writer.write("gameover").writeInt(winnerIndex());
+            writeScoreValues();
+        } else {
+            writer.write("turn").writeInt(game.getCurrentPlayerIndex());
+        }
+        writer.newLine();
+    }
+
+    @Override
+    public void turnPlayed(Player player, int[] cardIndices, Card first, Card second, boolean isMatch) {
+        try {
+            if (!(player instanceof HumanPlayer)) {  // The controller saw its first card when it flipped it
+                writer.write("card").writeInt(cardIndices[0]).writeInt(cardIndices[1]).writeFace(first).newLine();
+            }
+            writer.write("card").writeInt(cardIndices[2]).writeInt(cardIndices[3]).writeFace(second).newLine();
+            writer.write(isMatch ? "match" : "miss").writeInt(game.getCurrentPlayerIndex());  // The turn has not passed yet
+            for (int index : cardIndices) {
+                writer.writeInt(index);
+            }
+            writer.newLine();
+        } catch (IOException e) {
+            writeFailure = e;
+        }
+    }
+
+    private void writeBoard() throws IOException {
+        requireGame();
+        Board board = game.getBoard();
+        writer.write("board").writeInt(board.getRowsSize()).writeInt(board.getColsSize());
+        for (int i = 0; i < board.getCardCount(); i++) {
+            Card card = board.getCardAt(i);
+            if (card.isMatched()) {
+                writer.write(" --");
+            } else if (card.isFaceUp()) {
+                writer.writeFace(card);
+            } else {
+                writer.write(" ..");
+            }
+        }
+        writer.newLine();
+    }
+
+    private void writeScores() throws IOException {
+        writer.write("scores");
+        writeScoreValues();
+        writer.newLine();
+    }
+
+    private void writeScoreValues() throws IOException {
+        List<Player> players = game.getPlayers();
+        for (int i = 0; i < players.size(); i++) {
+            writer.writeInt(players.get(i).getScore());
+        }
+    }
+
+    /**
+     * Gets the index of the single highest scoring player.
+     * @return The index, or -1 if the highest score is shared.
+     */
+    private int winnerIndex() {
+        RankIndex ranks = game.getRanks();
+        return ranks.getLeaderCount() == 1 ? ranks.seatAt(0) : -1;
+    }
+
+    private void requireGame() {
+        if (game == null) {
+            throw new IllegalStateException("no game, send newgame first");
+        }
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,181 @@
+package protocol;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ProtocolReader splits the controller's input into lines and the lines into space-separated
+ * tokens, in place in one byte buffer. Tokens are compared and parsed as bytes, so reading
+ * a command allocates nothing; only token(int) creates a String, for setup values.
+ */
+final class ProtocolReader {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_TOKENS = 32;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final int[] starts = new int[MAX_TOKENS];
+    private final int[] ends = new int[MAX_TOKENS];
+    private int position;  // Start of the unread input
+    private int limit;  // End of the input read so far
+    private int tokens;
+    private boolean overlong;
+
+    ProtocolReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads the next line and splits it into tokens.
+     * @return false at the end of the input.
+     * @throws IOException if the input cannot be read.
+     */
+    boolean readLine() throws IOException {
+        overlong = false;
+        boolean discarding = false;
+        while (true) {
+            for (int i = position; i < limit; i++) {
+                if (buffer[i] == '\n') {
+                    int end = i > position && buffer[i - 1] == '\r' ? i - 1 : i;
+                    if (discarding) {
+                        overlong = true;
+                        tokens = 0;
+                    } else {
+                        split(position, end);
+                    }
+                    position = i + 1;
+                    return true;
+                }
+            }
+            if (limit - position == buffer.length) {  // No line end in a full buffer: drop the line
+                discarding = true;
+                limit = position;
+            }
+            if (position > 0) {  // Move the partial line to the front
+                System.arraycopy(buffer, position, buffer, 0, limit - position);
+                limit -= position;
+                position = 0;
+            }
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                if (limit > position && !discarding) {  // A last line without a line end
+                    split(position, limit);
+                    position = limit;
+                    return true;
+                }
+                return false;
+            }
+            limit += read;
+        }
+    }
+
+    private void split(int from, int to) {
+        tokens = 0;
+        int i = from;
+        while (i < to && tokens < MAX_TOKENS) {
+            while (i < to && (buffer[i] == ' ' || buffer[i] == '\t')) {
+                i++;
+            }
+            if (i == to) {
+                break;
+            }
+            starts[tokens] = i;
+            while (i < to && buffer[i] != ' ' && buffer[i] != '\t') {
+                i++;
+            }
+            ends[tokens++] = i;
+        }
+    }
+
+    /**
+     * Checks whether the line just read was longer than the buffer and dropped.
+     * @return true if the line was dropped.
+     */
+    boolean isOverlong() {
+        return overlong;
+    }
+
+    /**
+     * Checks whether more input is ready, so replies can wait in the writer until it is handled.
+     * @return true if a read would not block.
+     * @throws IOException if the input cannot be read.
+     */
+    boolean hasPendingInput() throws IOException {
+        return position < limit || in.available() > 0;
+    }
+
+    int tokenCount() {
+        return tokens;
+    }
+
+    /**
+     * Compares a token with an ASCII literal.
+     * @param index The token index.
+     * @param literal The literal as bytes.
+     * @return true if the token equals the literal.
+     */
+    boolean tokenEquals(int index, byte[] literal) {
+        if (index >= tokens || ends[index] - starts[index] != literal.length) {
+            return false;
+        }
+        for (int i = 0, at = starts[index]; i < literal.length; i++, at++) {
+            if (buffer[at] != literal[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses a token as a decimal integer.
+     * @param index The token index.
+     * @return The value.
+     * @throws NumberFormatException if the token is missing or not an integer.
+     */
+    int intToken(int index) {
+        if (index >= tokens) {
+            throw new NumberFormatException("Missing argument " + index);
+        }
+        int at = starts[index];
+        int end = ends[index];
+        boolean negative = buffer[at] == '-';
+        if (negative) {
+            at++;
+        }
+        if (at == end || end - at > 9) {
+            throw new NumberFormatException("Not a number: " + token(index));
+        }
+        int value = 0;
+        for (; at < end; at++) {
+            int digit = buffer[at] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Not a number: " + token(index));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a token as a decimal long.
+     * @param index The token index.
+     * @return The value.
+     * @throws NumberFormatException if the token is missing or not an integer.
+     */
+    long longToken(int index) {
+        return Long.parseLong(token(index));
+    }
+
+    /**
+     * Gets a token as a String.
+     * @param index The token index.
+     * @return The token, or an empty string if the line has fewer tokens.
+     */
+    String token(int index) {
+        if (index >= tokens) {
+            return "";
+        }
+        return new String(buffer, starts[index], ends[index] - starts[index], StandardCharsets.US_ASCII);
+    }
+}
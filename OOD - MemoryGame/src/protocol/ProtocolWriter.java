@@ -0,0 +1,91 @@
+package protocol;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import model.Card;
+
+/**
+ * ProtocolWriter collects the engine's replies in one byte buffer and writes them in as few
+ * system calls as it can: the protocol flushes only when the controller has nothing more
+ * waiting to be read. Text is ASCII; anything else is written as '?'.
+ */
+final class ProtocolWriter {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int count;
+
+    ProtocolWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    ProtocolWriter write(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            write(text.charAt(i));
+        }
+        return this;
+    }
+
+    ProtocolWriter write(char c) throws IOException {
+        if (count == buffer.length) {
+            flushBuffer();
+        }
+        buffer[count++] = c < 128 ? (byte) c : (byte) '?';
+        return this;
+    }
+
+    /**
+     * Writes a space and then an integer.
+     * @param value The integer.
+     * @return This writer.
+     * @throws IOException if the output cannot be written.
+     */
+    ProtocolWriter writeInt(int value) throws IOException {
+        write(' ');
+        if (value < 0) {
+            write('-');
+            if (value == Integer.MIN_VALUE) {
+                return write("2147483648");
+            }
+            value = -value;
+        }
+        int divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            write((char) ('0' + value / divisor % 10));
+        }
+        return this;
+    }
+
+    /**
+     * Writes a space and then a card's face as two characters: its number and the initial of
+     * its suit, S, H, C or D.
+     * @param card The card.
+     * @return This writer.
+     * @throws IOException if the output cannot be written.
+     */
+    ProtocolWriter writeFace(Card card) throws IOException {
+        return write(' ').write(card.getNumber()).write(card.getSuitInitial());
+    }
+
+
+    ProtocolWriter newLine() throws IOException {
+        return write('\n');
+    }
+
+    void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+}
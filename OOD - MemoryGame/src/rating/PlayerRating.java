@@ -0,0 +1,56 @@
+package rating;
+
+import java.util.Locale;
+
+/**
+ * PlayerRating is an immutable snapshot of one player's rating, as returned by RatingEngine.
+ */
+public final class PlayerRating {
+    private final String player;
+    private final double rating;
+    private final double deviation;
+    private final int games;
+
+    /**
+     * Constructs a PlayerRating.
+     * @param player The player's rating key.
+     * @param rating The rating, on the Elo scale.
+     * @param deviation The rating deviation as of the player's last game.
+     * @param games The number of rated games played.
+     */
+    public PlayerRating(String player, double rating, double deviation, int games) {
+        this.player = player;
+        this.rating = rating;
+        this.deviation = deviation;
+        this.games = games;
+    }
+
+    public String getPlayer() {
+        return player;
+    }
+
+    public double getRating() {
+        return rating;
+    }
+
+    public double getDeviation() {
+        return deviation;
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * Gets the conservative rating leaderboards rank by: the rating less twice its deviation.
+     * @return The conservative rating.
+     */
+    public double getConservativeRating() {
+        return rating - 2 * deviation;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s %.0f +/- %.0f (%d games)", player, rating, deviation, games);
+    }
+}
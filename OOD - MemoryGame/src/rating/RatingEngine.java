@@ -0,0 +1,546 @@
+package rating;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import patterns.strategy.difficulty.TunedLevels;
+
+/**
+ * RatingEngine keeps Glicko skill ratings for every human and bot that finished a game.
+ * Implements Singleton pattern like GameManager.
+ *
+ * Finished games report their result (Game calls record with the outcome by determineWinner's
+ * ranking). A report only appends the result to one of several stripe buffers, each with its own
+ * lock, so games finishing at the same time rarely wait for each other. Every BATCH_SIZE results
+ * the reporting thread that fills the batch drains the stripes and applies the batch as one
+ * Glicko rating period: every result of the period is rated against the ratings from before it.
+ *
+ * Ratings, deviations and game counts live in primitive arrays indexed by a dense player id, so
+ * a rating query is a map lookup and an array read, and never locks. A leaderboard of the TOP_K
+ * players by conservative rating (rating less twice the deviation) is kept sorted as batches are
+ * applied and published as an immutable list.
+ *
+ * All applied results are kept, with their period boundaries, in primitive arrays, and can be
+ * saved to and loaded from a file. recompute replays them from scratch; within each period the
+ * per-result terms and the per-player updates are computed in parallel, and the result is
+ * identical to the ratings built up live.
+ *
+ * File format: the magic "MGRH", a version byte, the player keys, the period ends, then each
+ * result as first player id, second player id and the first player's score in half points.
+ */
+public class RatingEngine {
+    public static final double INITIAL_RATING = 1500;
+    public static final double INITIAL_DEVIATION = 350;
+    public static final int BATCH_SIZE = 1024;  // Results per rating period
+    public static final int TOP_K = 100;  // Players on the published leaderboard
+    private static final double MIN_DEVIATION = 30;
+    private static final double DEVIATION_GROWTH = 3.5;  // Per idle period; back to 350 after about 10,000
+    private static final double Q = Math.log(10) / 400;
+    private static final int STRIPES = 64;
+    private static final int CHUNK = 256;  // Results or players per parallel task
+    private static final int MAGIC = 0x4D475248;  // "MGRH"
+    private static final int VERSION = 1;
+    private static RatingEngine instance;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final List<String> names = new ArrayList<>();  // Player keys by id, guarded by itself
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ReentrantLock batchLock = new ReentrantLock();  // Guards everything below
+    private final LongAdder resultsRated = new LongAdder();
+    private final LatencyHistogram batchLatency = new LatencyHistogram();
+
+    // Per-player columns, replaced by larger copies as players join
+    private volatile double[] ratings = new double[0];
+    private volatile double[] deviations = new double[0];
+    private volatile int[] games = new int[0];
+    private int[] lastPeriod = new int[0];
+    // Per-player scratch space of a rating period
+    private double[] periodDeviations = new double[0];
+    private double[] inverseVariances = new double[0];
+    private double[] improvements = new double[0];
+    private int[] touchedIn = new int[0];  // The period + 1 in which a player was last collected
+    // Applied results and period boundaries
+    private int[] historyFirst = new int[BATCH_SIZE];
+    private int[] historySecond = new int[BATCH_SIZE];
+    private byte[] historyScores = new byte[BATCH_SIZE];
+    private int historySize;
+    private int[] periodEnds = new int[64];
+    private int periods;
+    private final TreeSet<Integer> ranking = new TreeSet<>(this::compareStanding);  // Players with games, best first
+    private volatile List<PlayerRating> leaders = List.of();
+
+    private RatingEngine() {
+        for (int s = 0; s < STRIPES; s++) {
+            stripes[s] = new Stripe();
+        }
+    }
+
+    /**
+     * Provides access to the singleton instance of RatingEngine.
+     * @return The singleton instance of RatingEngine.
+     */
+    public static synchronized RatingEngine getInstance() {
+        if (instance == null) {
+            instance = new RatingEngine();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the instance if it has been created, without creating it.
+     * @return The instance, or null.
+     */
+    public static synchronized RatingEngine getExistingInstance() {
+        return instance;
+    }
+
+    /**
+     * Gets the rating key of a computer player level.
+     * @param level The difficulty level.
+     * @return The key, e.g. "bot:hard" or "bot:level-5".
+     */
+    public static String botKey(int level) {
+        String label = MetricsRegistry.difficultyLabel(level);
+        return level >= TunedLevels.FIRST_LEVEL || label.equals("unknown") ? "bot:level-" + level : "bot:" + label;
+    }
+
+    /**
+     * Gets the rating key of a human player.
+     * @param name The player's name.
+     * @return The key.
+     */
+    public static String humanKey(String name) {
+        return "human:" + name;
+    }
+
+    /**
+     * Records the result of a game between two players; it is rated with the next batch.
+     * @param first The first player's rating key.
+     * @param second The second player's rating key.
+     * @param outcome Positive if the first player won, 0 for a draw, negative if the second won.
+     * @throws IllegalArgumentException if both keys are the same player.
+     */
+    public void record(String first, String second, int outcome) {
+        if (first.equals(second)) {
+            throw new IllegalArgumentException("A player cannot be rated against itself: " + first);
+        }
+        int a = idOf(first);
+        int b = idOf(second);
+        byte score = (byte) (Integer.signum(outcome) + 1);  // Half points: 2 win, 1 draw, 0 loss
+        Stripe stripe = stripes[(int) Thread.currentThread().getId() & (STRIPES - 1)];
+        synchronized (stripe) {
+            stripe.add(a, b, score);
+        }
+        if (pending.incrementAndGet() >= BATCH_SIZE && batchLock.tryLock()) {
+            try {
+                applyBatch();
+            } finally {
+                batchLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Rates all recorded results now, as a possibly short rating period.
+     */
+    public void flush() {
+        batchLock.lock();
+        try {
+            applyBatch();
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    /**
+     * Replays all rated results from initial ratings, period by period, in parallel within each period.
+     * Results still waiting for their batch are rated first.
+     */
+    public void recompute() {
+        batchLock.lock();
+        try {
+            applyBatch();
+            ensureCapacity();
+            Arrays.fill(ratings, INITIAL_RATING);
+            Arrays.fill(deviations, INITIAL_DEVIATION);
+            Arrays.fill(games, 0);
+            Arrays.fill(lastPeriod, 0);
+            Arrays.fill(touchedIn, 0);
+            ranking.clear();
+            for (int period = 0; period < periods; period++) {
+                ratePeriod(period == 0 ? 0 : periodEnds[period - 1], periodEnds[period], period, false);
+            }
+            for (int id = 0; id < games.length; id++) {
+                if (games[id] > 0) {
+                    ranking.add(id);  // Ranked once at the end rather than after every period
+                }
+            }
+            publishLeaders();
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    /**
+     * Gets a player's rating in O(1), without locking.
+     * @param player The player's rating key.
+     * @return The rating, or null if the player has no rated game.
+     */
+    public PlayerRating getRating(String player) {
+        Integer id = ids.get(player);
+        int[] counts = games;
+        if (id == null || id >= counts.length || counts[id] == 0) {
+            return null;
+        }
+        return new PlayerRating(player, ratings[id], deviations[id], counts[id]);
+    }
+
+    /**
+     * Gets the best players by conservative rating, from the leaderboard published with the last batch.
+     * @param k The number of players, at most TOP_K.
+     * @return The players, best first.
+     */
+    public List<PlayerRating> getTopK(int k) {
+        List<PlayerRating> top = leaders;
+        return top.subList(0, Math.min(Math.max(k, 0), top.size()));
+    }
+
+    /**
+     * Saves all rated results, so the ratings can be recomputed after a restart.
+     * @param file The file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void save(Path file) throws IOException {
+        batchLock.lock();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            applyBatch();
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            synchronized (names) {
+                out.writeInt(names.size());
+                for (String name : names) {
+                    out.writeUTF(name);
+                }
+            }
+            out.writeInt(periods);
+            for (int period = 0; period < periods; period++) {
+                out.writeInt(periodEnds[period]);
+            }
+            for (int r = 0; r < historySize; r++) {
+                out.writeInt(historyFirst[r]);
+                out.writeInt(historySecond[r]);
+                out.writeByte(historyScores[r]);
+            }
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    /**
+     * Replaces all players and results with those of a saved file and recomputes the ratings.
+     * @param file The file.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if the file is not a rating history.
+     */
+    public void load(Path file) throws IOException {
+        batchLock.lock();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new IllegalArgumentException(file + " is not a rating history");
+            }
+            applyBatch();  // Results recorded before the load are dropped with the old history
+            int players = in.readInt();
+            synchronized (names) {
+                names.clear();
+                ids.clear();
+                for (int id = 0; id < players; id++) {
+                    String name = in.readUTF();
+                    names.add(name);
+                    ids.put(name, id);
+                }
+            }
+            periods = in.readInt();
+            periodEnds = new int[Math.max(64, periods)];
+            for (int period = 0; period < periods; period++) {
+                periodEnds[period] = in.readInt();
+            }
+            historySize = periods == 0 ? 0 : periodEnds[periods - 1];
+            historyFirst = new int[Math.max(BATCH_SIZE, historySize)];
+            historySecond = new int[historyFirst.length];
+            historyScores = new byte[historyFirst.length];
+            for (int r = 0; r < historySize; r++) {
+                historyFirst[r] = in.readInt();
+                historySecond[r] = in.readInt();
+                historyScores[r] = in.readByte();
+            }
+            ratings = new double[0];
+            deviations = new double[0];
+            games = new int[0];
+            lastPeriod = new int[0];
+            recompute();
+        } finally {
+            batchLock.unlock();
+        }
+    }
+
+    /**
+     * Drains the stripes and rates their results as one period. The caller holds batchLock.
+     */
+    private void applyBatch() {
+        long start = System.nanoTime();
+        int from = historySize;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                appendHistory(stripe);
+                stripe.size = 0;
+            }
+        }
+        int taken = historySize - from;
+        if (taken == 0) {
+            return;
+        }
+        pending.addAndGet(-taken);
+        ensureCapacity();
+        if (periods == periodEnds.length) {
+            periodEnds = Arrays.copyOf(periodEnds, periods * 2);
+        }
+        periodEnds[periods] = historySize;
+        ratePeriod(from, historySize, periods, true);
+        periods++;
+        publishLeaders();
+        resultsRated.add(taken);
+        batchLatency.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Rates one Glicko period: each result is scored against the ratings and deviations from
+     * before the period, and each player's rating moves by the sum over their results.
+     * @param from The first result of the period.
+     * @param to The end of the period's results, exclusive.
+     * @param period The period number.
+     * @param rank Whether to keep the ranking up to date.
+     */
+    private void ratePeriod(int from, int to, int period, boolean rank) {
+        int[] touched = new int[2 * (to - from)];
+        int touchedCount = 0;
+        for (int r = from; r < to; r++) {
+            touchedCount = collect(historyFirst[r], period, touched, touchedCount);
+            touchedCount = collect(historySecond[r], period, touched, touchedCount);
+        }
+        int[] players = touched;
+        double[] rating = ratings;
+        double[] deviation = deviations;
+        int[] played = games;
+        for (int i = 0; rank && i < touchedCount; i++) {
+            ranking.remove(players[i]);  // Removed before its key changes
+        }
+        forEachInParallel(touchedCount, i -> {
+            int id = players[i];
+            double idle = played[id] == 0 ? 0 : period - lastPeriod[id];
+            periodDeviations[id] = Math.min(INITIAL_DEVIATION,
+                    Math.sqrt(deviation[id] * deviation[id] + DEVIATION_GROWTH * DEVIATION_GROWTH * idle));
+            inverseVariances[id] = 0;
+            improvements[id] = 0;
+        });
+
+        int count = to - from;
+        double[] varianceFirst = new double[count];
+        double[] improvementFirst = new double[count];
+        double[] varianceSecond = new double[count];
+        double[] improvementSecond = new double[count];
+        forEachInParallel(count, i -> {
+            int a = historyFirst[from + i];
+            int b = historySecond[from + i];
+            double score = historyScores[from + i] / 2.0;
+            double gb = g(periodDeviations[b]);
+            double ea = expected(rating[a], rating[b], gb);
+            varianceFirst[i] = Q * Q * gb * gb * ea * (1 - ea);
+            improvementFirst[i] = gb * (score - ea);
+            double ga = g(periodDeviations[a]);
+            double eb = expected(rating[b], rating[a], ga);
+            varianceSecond[i] = Q * Q * ga * ga * eb * (1 - eb);
+            improvementSecond[i] = ga * ((1 - score) - eb);
+        });
+        for (int i = 0; i < count; i++) {  // In result order, so live and recomputed sums round alike
+            int a = historyFirst[from + i];
+            int b = historySecond[from + i];
+            inverseVariances[a] += varianceFirst[i];
+            improvements[a] += improvementFirst[i];
+            inverseVariances[b] += varianceSecond[i];
+            improvements[b] += improvementSecond[i];
+            played[a]++;
+            played[b]++;
+        }
+
+        forEachInParallel(touchedCount, i -> {
+            int id = players[i];
+            double variance = 1 / (1 / (periodDeviations[id] * periodDeviations[id]) + inverseVariances[id]);
+            rating[id] += Q * variance * improvements[id];
+            deviation[id] = Math.max(MIN_DEVIATION, Math.sqrt(variance));
+            lastPeriod[id] = period;
+        });
+        for (int i = 0; rank && i < touchedCount; i++) {
+            ranking.add(players[i]);
+        }
+    }
+
+    private int collect(int id, int period, int[] touched, int count) {
+        if (touchedIn[id] != period + 1) {
+            touchedIn[id] = period + 1;
+            touched[count++] = id;
+        }
+        return count;
+    }
+
+    private static double g(double deviation) {
+        return 1 / Math.sqrt(1 + 3 * Q * Q * deviation * deviation / (Math.PI * Math.PI));
+    }
+
+    private static double expected(double rating, double opponentRating, double opponentG) {
+        return 1 / (1 + Math.exp(-opponentG * Q * (rating - opponentRating)));
+    }
+
+    /**
+     * Runs a body for 0 to count - 1, in parallel chunks when there is more than one chunk.
+     */
+    private static void forEachInParallel(int count, IntConsumer body) {
+        if (count <= CHUNK) {
+            for (int i = 0; i < count; i++) {
+                body.accept(i);
+            }
+            return;
+        }
+        IntStream.range(0, (count + CHUNK - 1) / CHUNK).parallel().forEach(chunk -> {
+            for (int i = chunk * CHUNK, end = Math.min(count, i + CHUNK); i < end; i++) {
+                body.accept(i);
+            }
+        });
+    }
+
+    private int compareStanding(Integer first, Integer second) {
+        int byRating = Double.compare(ratings[second] - 2 * deviations[second], ratings[first] - 2 * deviations[first]);
+        return byRating != 0 ? byRating : Integer.compare(first, second);
+    }
+
+    private void publishLeaders() {
+        List<PlayerRating> top = new ArrayList<>(TOP_K);
+        Iterator<Integer> best = ranking.iterator();
+        synchronized (names) {
+            while (top.size() < TOP_K && best.hasNext()) {
+                int id = best.next();
+                top.add(new PlayerRating(names.get(id), ratings[id], deviations[id], games[id]));
+            }
+        }
+        leaders = List.copyOf(top);
+    }
+
+    private int idOf(String player) {
+        return ids.computeIfAbsent(player, key -> {
+            synchronized (names) {
+                names.add(key);
+                return names.size() - 1;
+            }
+        });
+    }
+
+    private void appendHistory(Stripe stripe) {
+        int needed = historySize + stripe.size;
+        if (needed > historyFirst.length) {
+            int capacity = Math.max(needed, historyFirst.length * 2);
+            historyFirst = Arrays.copyOf(historyFirst, capacity);
+            historySecond = Arrays.copyOf(historySecond, capacity);
+            historyScores = Arrays.copyOf(historyScores, capacity);
+        }
+        System.arraycopy(stripe.first, 0, historyFirst, historySize, stripe.size);
+        System.arraycopy(stripe.second, 0, historySecond, historySize, stripe.size);
+        System.arraycopy(stripe.scores, 0, historyScores, historySize, stripe.size);
+        historySize = needed;
+    }
+
+    /**
+     * Grows the per-player columns to every registered player; new players start at the initial rating.
+     */
+    private void ensureCapacity() {
+        int players;
+        synchronized (names) {
+            players = names.size();
+        }
+        int old = ratings.length;
+        if (players <= old) {
+            return;
+        }
+        int capacity = Math.max(players, old * 2);
+        double[] grownRatings = Arrays.copyOf(ratings, capacity);
+        double[] grownDeviations = Arrays.copyOf(deviations, capacity);
+        Arrays.fill(grownRatings, old, capacity, INITIAL_RATING);
+        Arrays.fill(grownDeviations, old, capacity, INITIAL_DEVIATION);
+        lastPeriod = Arrays.copyOf(lastPeriod, capacity);
+        periodDeviations = Arrays.copyOf(periodDeviations, capacity);
+        inverseVariances = Arrays.copyOf(inverseVariances, capacity);
+        improvements = Arrays.copyOf(improvements, capacity);
+        touchedIn = Arrays.copyOf(touchedIn, capacity);
+        ratings = grownRatings;
+        deviations = grownDeviations;
+        games = Arrays.copyOf(games, capacity);  // Published last: a non-zero count means the rating is there
+    }
+
+    public int getPlayerCount() {
+        synchronized (names) {
+            return names.size();
+        }
+    }
+
+    public long getResultsRated() {
+        return resultsRated.sum();
+    }
+
+    public int getPendingResults() {
+        return pending.get();
+    }
+
+    public LatencyHistogram getBatchLatency() {
+        return batchLatency;
+    }
+
+    /**
+     * A buffer of reported results, filled under its own lock.
+     */
+    private static final class Stripe {
+        private int[] first = new int[64];
+        private int[] second = new int[64];
+        private byte[] scores = new byte[64];
+        private int size;
+
+        private void add(int a, int b, byte score) {
+            if (size == first.length) {
+                first = Arrays.copyOf(first, size * 2);
+                second = Arrays.copyOf(second, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            first[size] = a;
+            second[size] = b;
+            scores[size] = score;
+            size++;
+        }
+    }
+}
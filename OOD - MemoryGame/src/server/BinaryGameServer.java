@@ -0,0 +1,122 @@
+package server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * BinaryGameServer hosts SessionCache games for remote players over TCP with the compact
+ * frames of BinaryProtocol. An acceptor thread hands each connection to one of a few event
+ * loops, each a single thread with its own selector, which read, play and reply without
+ * blocking on any one client.
+ */
+public class BinaryGameServer implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(BinaryGameServer.class.getName());
+    private static final int BACKLOG = 4096;
+
+    private final ServerSocketChannel serverChannel;
+    private final EventLoop[] loops;
+    private final Thread acceptor;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final LongAdder messagesReceived = new LongAdder();
+    private final LongAdder messagesSent = new LongAdder();
+
+    private BinaryGameServer(ServerSocketChannel serverChannel, int loopCount) throws IOException {
+        this.serverChannel = serverChannel;
+        this.loops = new EventLoop[loopCount];
+        for (int i = 0; i < loopCount; i++) {
+            loops[i] = new EventLoop(this, i);
+        }
+        this.acceptor = new Thread(this::accept, "binary-server-acceptor");
+        acceptor.setDaemon(true);
+    }
+
+    /**
+     * Starts the server on the wildcard address.
+     * @param port The port to bind, or 0 for an ephemeral port.
+     * @param loopCount The number of event loop threads.
+     * @return The running server.
+     * @throws IOException If the port cannot be bound.
+     */
+    public static BinaryGameServer start(int port, int loopCount) throws IOException {
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        channel.bind(new InetSocketAddress(port), BACKLOG);
+        BinaryGameServer server = new BinaryGameServer(channel, loopCount);
+        for (EventLoop loop : server.loops) {
+            loop.start();
+        }
+        server.acceptor.start();
+        LOGGER.info("Binary game server listening on port " + server.getPort() + " with " + loopCount + " event loops");
+        return server;
+    }
+
+    /**
+     * Accepts connections and deals them to the event loops in turn.
+     */
+    private void accept() {
+        int next = 0;
+        while (serverChannel.isOpen()) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);  // Replies are already coalesced
+                connections.incrementAndGet();
+                loops[next].register(channel);
+                next = (next + 1) % loops.length;
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                LOGGER.warning("Accepting a connection failed: " + e);
+            }
+        }
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    public long getMessagesReceived() {
+        return messagesReceived.sum();
+    }
+
+    public long getMessagesSent() {
+        return messagesSent.sum();
+    }
+
+    void connectionClosed() {
+        connections.decrementAndGet();
+    }
+
+    void messageReceived() {
+        messagesReceived.increment();
+    }
+
+    void messageSent() {
+        messagesSent.increment();
+    }
+
+    /**
+     * Stops accepting, closes every connection and its games.
+     */
+    @Override
+    public void close() {
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            LOGGER.fine("Closing the server channel failed: " + e);
+        }
+        for (EventLoop loop : loops) {
+            loop.shutdown();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package server;
+
+/**
+ * BinaryProtocol defines the frames of BinaryGameServer. Every frame is a big-endian unsigned
+ * 16-bit length, counting the bytes after it, then a one-byte type and the type's fields.
+ * Games are named by a 32-bit reference local to the connection.
+ *
+ * Client to server:
+ * <pre>
+ * CREATE  size u8 (0 Small, 1 Medium, 2 Large), difficulty u8, seed i64 (0 for a random deck)
+ * FLIP    game u32, row u8, col u8
+ * UNDO    game u32
+ * END     game u32
+ * </pre>
+ * Server to client:
+ * <pre>
+ * GAME    game u32, rows u8, cols u8, then a STATE frame with every card
+ * STATE   game u32, turn u8 (OVER when the game is over), players u8, score i32 per player,
+ *         changes u16, then per changed card: index u16 and two face bytes, the card's number
+ *         and suit initial if face up, ".." if face down or "--" if matched
+ * ENDED   game u32
+ * ERROR   game u32 (0 if none), length u16, UTF-8 message
+ * </pre>
+ * A STATE frame follows every CREATE, FLIP and UNDO and lists only the cards that changed
+ * since the last STATE of that game, the computer turns a flip led to included.
+ */
+public final class BinaryProtocol {
+    public static final int CREATE = 1;
+    public static final int FLIP = 2;
+    public static final int UNDO = 3;
+    public static final int END = 4;
+
+    public static final int GAME = 0x81;
+    public static final int STATE = 0x82;
+    public static final int ENDED = 0x83;
+    public static final int ERROR = 0xFF;
+
+    public static final int OVER = 0xFF;  // Turn of a finished game
+    public static final int MAX_FRAME = 4096;  // Longest frame body either side sends
+
+    private BinaryProtocol() {
+    }
+}
@@ -0,0 +1,34 @@
+package server;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * BufferPool keeps freed direct buffers of one event loop for reuse, so connections only hold
+ * a buffer while they have a partial frame to read or bytes to write. Used by one thread only.
+ */
+final class BufferPool {
+    static final int BUFFER_SIZE = 16 * 1024;
+
+    private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+    private final int maxPooled;
+
+    /**
+     * Constructs an empty pool.
+     * @param maxPooled The most free buffers kept; more are left to the garbage collector.
+     */
+    BufferPool(int maxPooled) {
+        this.maxPooled = maxPooled;
+    }
+
+    ByteBuffer acquire() {
+        ByteBuffer buffer = free.pollLast();  // The most recently used is likeliest in cache
+        return buffer != null ? buffer.clear() : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    void release(ByteBuffer buffer) {
+        if (free.size() < maxPooled) {
+            free.addLast(buffer);
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package server;
+
+import static server.BinaryProtocol.CREATE;
+import static server.BinaryProtocol.END;
+import static server.BinaryProtocol.ENDED;
+import static server.BinaryProtocol.ERROR;
+import static server.BinaryProtocol.FLIP;
+import static server.BinaryProtocol.GAME;
+import static server.BinaryProtocol.MAX_FRAME;
+import static server.BinaryProtocol.OVER;
+import static server.BinaryProtocol.STATE;
+import static server.BinaryProtocol.UNDO;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import core.FlipOutcome;
+import core.Game;
+import core.SessionCache;
+import model.Board;
+import model.Card;
+import model.Player;
+import patterns.builders.GameBuilder;
+
+/**
+ * Connection is one client of BinaryGameServer, owned by one EventLoop. It assembles frames
+ * from the reads, applies them to its games and queues the replies in pooled direct buffers,
+ * which are written with one gathering write after each read.
+ *
+ * Backpressure: while more than HIGH_WATER bytes wait to be written the connection is not
+ * read, so a client that does not read its replies cannot make the server buffer without
+ * bound; reading resumes once they drain below LOW_WATER.
+ */
+final class Connection {
+    private static final Logger LOGGER = Logger.getLogger(Connection.class.getName());
+    private static final int HIGH_WATER = 256 * 1024;
+    private static final int LOW_WATER = 64 * 1024;
+    private static final int CREATE_LENGTH = 11;
+    private static final int FLIP_LENGTH = 7;
+    private static final int GAME_LENGTH = 5;  // UNDO and END
+    private static final String[] SIZES = {"Small", "Medium", "Large"};
+
+    private final EventLoop loop;
+    private final SocketChannel channel;
+    private final SessionCache sessions = SessionCache.getInstance();
+    private final Map<Integer, GameSlot> games = new HashMap<>();
+    private final ArrayDeque<ByteBuffer> outbound = new ArrayDeque<>();  // Flipped, ready to write
+    private SelectionKey key;
+    private ByteBuffer inbound;  // A partial frame, or null
+    private ByteBuffer tail;  // Replies being appended, or null
+    private long pendingBytes;  // In outbound
+    private int nextGame = 1;
+    private boolean closed;
+
+    /**
+     * A game of this connection and the faces its client was last sent.
+     */
+    private static final class GameSlot {
+        final String sessionId;
+        byte[] faces;
+
+        GameSlot(String sessionId) {
+            this.sessionId = sessionId;
+        }
+    }
+
+    Connection(EventLoop loop, SocketChannel channel) {
+        this.loop = loop;
+        this.channel = channel;
+    }
+
+    void setKey(SelectionKey key) {
+        this.key = key;
+    }
+
+    /**
+     * Reads what has arrived, applies every complete frame and writes the replies.
+     */
+    void onReadable() {
+        ByteBuffer buffer = inbound != null ? inbound : loop.readBuffer.clear();
+        try {
+            if (channel.read(buffer) < 0) {
+                close();
+                return;
+            }
+        } catch (IOException e) {
+            close();
+            return;
+        }
+        buffer.flip();
+        while (buffer.remaining() >= 2) {
+            int length = buffer.getShort(buffer.position()) & 0xFFFF;
+            if (length == 0 || length > MAX_FRAME) {
+                close();  // Not a client of this protocol
+                return;
+            }
+            if (buffer.remaining() < 2 + length) {
+                break;
+            }
+            int end = buffer.position() + 2 + length;
+            buffer.position(buffer.position() + 2);
+            handle(buffer, length);
+            buffer.position(end);
+            loop.getServer().messageReceived();
+        }
+        if (buffer.hasRemaining()) {  // Keep the partial frame for the next read
+            if (inbound == null) {
+                inbound = loop.pool.acquire();
+                inbound.put(buffer);
+            } else {
+                inbound.compact();
+            }
+        } else if (inbound != null) {
+            loop.pool.release(inbound);
+            inbound = null;
+        }
+        flush();
+    }
+
+    void onWritable() {
+        flush();
+    }
+
+    /**
+     * Applies one frame.
+     * @param in The buffer, positioned after the frame's length.
+     * @param length The frame's length.
+     */
+    private void handle(ByteBuffer in, int length) {
+        int type = in.get() & 0xFF;
+        int ref = 0;
+        try {
+            switch (type) {
+                case CREATE:
+                    checkLength(length, CREATE_LENGTH);
+                    create(in.get() & 0xFF, in.get() & 0xFF, in.getLong());
+                    break;
+                case FLIP:
+                    checkLength(length, FLIP_LENGTH);
+                    ref = in.getInt();
+                    int row = in.get() & 0xFF;
+                    int col = in.get() & 0xFF;
+                    move(ref, game -> {
+                        if (game.flip(row, col) != FlipOutcome.FIRST_CARD) {
+                            game.playComputerTurns();
+                        }
+                    });
+                    break;
+                case UNDO:
+                    checkLength(length, GAME_LENGTH);
+                    ref = in.getInt();
+                    move(ref, Game::undoLastAction);
+                    break;
+                case END:
+                    checkLength(length, GAME_LENGTH);
+                    ref = in.getInt();
+                    end(ref);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown frame type " + type);
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            writeError(ref, String.valueOf(e.getMessage()));
+        } catch (RuntimeException e) {
+            LOGGER.warning("Frame type " + type + " failed: " + e);
+            writeError(ref, "internal error");
+        }
+    }
+
+    private static void checkLength(int length, int expected) {
+        if (length != expected) {
+            throw new IllegalArgumentException("Frame of " + length + " bytes, expected " + expected);
+        }
+    }
+
+    private void create(int size, int difficulty, long seed) {
+        if (size >= SIZES.length) {
+            throw new IllegalArgumentException("Unknown size " + size);
+        }
+        GameBuilder builder = new GameBuilder().setBoardSize(SIZES[size]).setNumPlayers(1)
+                .setDifficulty(difficulty).setOpponentDifficulty(difficulty);
+        if (seed != 0) {
+            builder.setSeed(seed);
+        }
+        int ref = nextGame++;
+        GameSlot slot = new GameSlot(sessions.open(builder));
+        games.put(ref, slot);
+        sessions.withGame(slot.sessionId, game -> {
+            game.playComputerTurns();
+            Board board = game.getBoard();
+            reserve(2 + GAME_LENGTH + 2).putShort((short) (GAME_LENGTH + 2)).put((byte) GAME).putInt(ref)
+                    .put((byte) board.getRowsSize()).put((byte) board.getColsSize());
+            writeState(ref, slot, game);
+            return null;
+        });
+    }
+
+    private void move(int ref, Consumer<Game> action) {
+        GameSlot slot = slotOf(ref);
+        sessions.withGame(slot.sessionId, game -> {
+            action.accept(game);
+            writeState(ref, slot, game);
+            return null;
+        });
+    }
+
+    private void end(int ref) {
+        GameSlot slot = slotOf(ref);
+        games.remove(ref);
+        sessions.close(slot.sessionId);
+        reserve(2 + GAME_LENGTH).putShort((short) GAME_LENGTH).put((byte) ENDED).putInt(ref);
+        loop.getServer().messageSent();
+    }
+
+    private GameSlot slotOf(int ref) {
+        GameSlot slot = games.get(ref);
+        if (slot == null) {
+            throw new IllegalArgumentException("Unknown game " + ref);
+        }
+        return slot;
+    }
+
+    /**
+     * Appends a STATE frame with the cards that changed since the last one sent.
+     */
+    private void writeState(int ref, GameSlot slot, Game game) {
+        Board board = game.getBoard();
+        List<Player> players = game.getPlayers();
+        int cards = board.getCardCount();
+        if (slot.faces == null || slot.faces.length != 2 * cards) {
+            slot.faces = new byte[2 * cards];  // Zeros, so every card is sent
+        }
+        ByteBuffer out = reserve(2 + 9 + 4 * players.size() + 4 * cards);
+        int start = out.position();
+        boolean over = game.isGameOver();
+        out.putShort((short) 0).put((byte) STATE).putInt(ref)
+                .put((byte) (over ? OVER : game.getCurrentPlayerIndex()))
+                .put((byte) players.size());
+        for (Player player : players) {
+            out.putInt(player.getScore());
+        }
+        int countAt = out.position();
+        out.putShort((short) 0);
+        int changes = 0;
+        byte[] faces = slot.faces;
+        for (int i = 0; i < cards; i++) {
+            Card card = board.getCardAt(i);
+            byte number;
+            byte suit;
+            if (card.isMatched()) {
+                number = '-';
+                suit = '-';
+            } else if (card.isFaceUp()) {
+                number = (byte) card.getNumber();
+                suit = (byte) card.getSuitInitial();
+            } else {
+                number = '.';
+                suit = '.';
+            }
+            if (faces[2 * i] != number || faces[2 * i + 1] != suit) {
+                faces[2 * i] = number;
+                faces[2 * i + 1] = suit;
+                out.putShort((short) i).put(number).put(suit);
+                changes++;
+            }
+        }
+        out.putShort(countAt, (short) changes);
+        out.putShort(start, (short) (out.position() - start - 2));
+        loop.getServer().messageSent();
+    }
+
+    private void writeError(int ref, String message) {
+        byte[] text = message.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(text.length, MAX_FRAME - 7);
+        reserve(2 + 7 + length).putShort((short) (7 + length)).put((byte) ERROR).putInt(ref)
+                .putShort((short) length).put(text, 0, length);
+        loop.getServer().messageSent();
+    }
+
+    /**
+     * Gets the buffer to append a reply of at most the given size to.
+     */
+    private ByteBuffer reserve(int size) {
+        if (tail != null && tail.remaining() < size) {
+            queueTail();
+        }
+        if (tail == null) {
+            tail = loop.pool.acquire();
+        }
+        return tail;
+    }
+
+    private void queueTail() {
+        tail.flip();
+        pendingBytes += tail.remaining();
+        outbound.addLast(tail);
+        tail = null;
+    }
+
+    /**
+     * Writes the queued replies with gathering writes until they are written or the socket
+     * buffer is full, and adjusts the interest set for backpressure.
+     */
+    private void flush() {
+        if (closed) {
+            return;
+        }
+        if (tail != null && tail.position() > 0) {
+            queueTail();
+        }
+        ByteBuffer[] gather = loop.gather;
+        try {
+            while (!outbound.isEmpty()) {
+                int count = 0;
+                for (ByteBuffer buffer : outbound) {
+                    if (count == gather.length) {
+                        break;
+                    }
+                    gather[count++] = buffer;
+                }
+                long written = channel.write(gather, 0, count);
+                pendingBytes -= written;
+                while (!outbound.isEmpty() && !outbound.peekFirst().hasRemaining()) {
+                    loop.pool.release(outbound.pollFirst());
+                }
+                if (written == 0) {
+                    break;  // The socket buffer is full
+                }
+            }
+        } catch (IOException e) {
+            close();
+            return;
+        } finally {
+            Arrays.fill(gather, null);
+        }
+        int interest = SelectionKey.OP_READ;
+        if (pendingBytes > HIGH_WATER || (pendingBytes > LOW_WATER && (key.interestOps() & SelectionKey.OP_READ) == 0)) {
+            interest = 0;  // Stop reading until the client catches up
+        }
+        if (!outbound.isEmpty()) {
+            interest |= SelectionKey.OP_WRITE;
+        }
+        if (key.interestOps() != interest) {
+            key.interestOps(interest);
+        }
+    }
+
+    /**
+     * Closes the connection and its games.
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Already closed by the peer
+        }
+        if (inbound != null) {
+            loop.pool.release(inbound);
+            inbound = null;
+        }
+        if (tail != null) {
+            loop.pool.release(tail);
+            tail = null;
+        }
+        while (!outbound.isEmpty()) {
+            loop.pool.release(outbound.pollFirst());
+        }
+        for (GameSlot slot : games.values()) {
+            sessions.close(slot.sessionId);
+        }
+        games.clear();
+        loop.getServer().connectionClosed();
+    }
+}
@@ -0,0 +1,143 @@
+package server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * EventBroadcaster writes the Server-Sent Events streams of GameServer. All writes happen on
+ * one daemon thread, in the order the states were published, so the request threads only
+ * queue an event and return. An event is encoded once and the same bytes are written to every
+ * subscriber of the game; a subscriber whose connection fails is dropped. A subscriber that
+ * stops reading holds up the other streams once its socket buffer is full, but never a move.
+ */
+final class EventBroadcaster {
+    private final Map<String, List<HttpExchange>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "game-server-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Adds a subscriber to a game's stream and sends it the current state first.
+     * @param id The session id.
+     * @param exchange The exchange, with the response headers sent.
+     * @param state Renders the current state, on the writer thread.
+     */
+    void subscribe(String id, HttpExchange exchange, Supplier<String> state) {
+        execute(() -> {
+            byte[] event;
+            try {
+                event = encode(state.get());
+            } catch (RuntimeException e) {  // The game was closed meanwhile
+                exchange.close();
+                return;
+            }
+            if (write(exchange, event)) {
+                subscribers.computeIfAbsent(id, key -> new CopyOnWriteArrayList<>()).add(exchange);
+                subscriberCount.incrementAndGet();
+            }
+        }, exchange);
+    }
+
+    /**
+     * Sends a game's new state to its subscribers.
+     * @param id The session id.
+     * @param state The state as JSON.
+     */
+    void publish(String id, String state) {
+        if (!subscribers.containsKey(id)) {
+            return;  // Most games are not watched
+        }
+        execute(() -> {
+            List<HttpExchange> list = subscribers.get(id);
+            if (list == null) {
+                return;
+            }
+            byte[] event = encode(state);
+            for (HttpExchange exchange : list) {
+                if (!write(exchange, event)) {
+                    remove(list, exchange);
+                }
+            }
+        }, null);
+    }
+
+    /**
+     * Ends the streams of a closed game.
+     * @param id The session id.
+     */
+    void close(String id) {
+        execute(() -> {
+            List<HttpExchange> list = subscribers.remove(id);
+            if (list != null) {
+                for (HttpExchange exchange : list) {
+                    remove(list, exchange);
+                }
+            }
+        }, null);
+    }
+
+    /**
+     * Ends all streams and stops the writer thread.
+     */
+    void close() {
+        writer.shutdownNow();
+        for (List<HttpExchange> list : subscribers.values()) {
+            for (HttpExchange exchange : list) {
+                remove(list, exchange);
+            }
+        }
+        subscribers.clear();
+    }
+
+    int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private void execute(Runnable task, HttpExchange exchange) {
+        try {
+            writer.execute(task);
+        } catch (RejectedExecutionException e) {  // Shutting down
+            if (exchange != null) {
+                exchange.close();
+            }
+        }
+    }
+
+    private void remove(List<HttpExchange> list, HttpExchange exchange) {
+        if (list.remove(exchange)) {
+            subscriberCount.decrementAndGet();
+        }
+        exchange.close();
+    }
+
+    private static boolean write(HttpExchange exchange, byte[] event) {
+        try {
+            OutputStream out = exchange.getResponseBody();
+            out.write(event);
+            out.flush();
+            return true;
+        } catch (IOException e) {
+            exchange.close();
+            return false;
+        }
+    }
+
+    private static byte[] encode(String state) {
+        return ("event: state\ndata: " + state + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+}
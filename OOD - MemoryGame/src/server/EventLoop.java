@@ -0,0 +1,102 @@
+package server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Logger;
+
+/**
+ * EventLoop serves a share of BinaryGameServer's connections on one thread with its own
+ * selector. Frames are read into one direct buffer shared by all its connections and the
+ * moves are applied on the loop thread; replies are coalesced and written once per read.
+ */
+final class EventLoop extends Thread {
+    private static final Logger LOGGER = Logger.getLogger(EventLoop.class.getName());
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int POOLED_BUFFERS = 256;
+
+    private final BinaryGameServer server;
+    private final Selector selector;
+    private final Queue<SocketChannel> accepted = new ConcurrentLinkedQueue<>();
+    final BufferPool pool = new BufferPool(POOLED_BUFFERS);
+    final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    final ByteBuffer[] gather = new ByteBuffer[16];  // Buffers of one gathering write
+    private volatile boolean running = true;
+
+    EventLoop(BinaryGameServer server, int index) throws IOException {
+        super("binary-server-loop-" + index);
+        this.server = server;
+        this.selector = Selector.open();
+        setDaemon(true);
+    }
+
+    /**
+     * Hands an accepted connection to this loop.
+     * @param channel The connection, in non-blocking mode.
+     */
+    void register(SocketChannel channel) {
+        accepted.add(channel);
+        selector.wakeup();
+    }
+
+    BinaryGameServer getServer() {
+        return server;
+    }
+
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                registerAccepted();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Connection connection = (Connection) key.attachment();
+                    if (key.isValid() && key.isReadable()) {
+                        connection.onReadable();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        connection.onWritable();
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            LOGGER.warning(getName() + " stopped: " + e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                ((Connection) key.attachment()).close();
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                LOGGER.fine("Closing the selector failed: " + e);
+            }
+        }
+    }
+
+    private void registerAccepted() {
+        SocketChannel channel;
+        while ((channel = accepted.poll()) != null) {
+            try {
+                Connection connection = new Connection(this, channel);
+                connection.setKey(channel.register(selector, SelectionKey.OP_READ, connection));
+            } catch (IOException e) {
+                LOGGER.fine("Could not register a connection: " + e);
+                server.connectionClosed();
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package server;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * GameHost holds the games a GameServer serves. Every method returns the game's state as
+ * rendered by GameServer.render, except create and close.
+ * Implemented by LocalGameHost for games of this process and by cluster.GameRouter for games
+ * spread over worker processes.
+ */
+public interface GameHost {
+    /**
+     * Creates a game and plays the computer turns that come before a human's first move.
+     * @param parameters The creation parameters, as read by GameServer.gameBuilder.
+     * @return The game id.
+     * @throws IllegalArgumentException if a parameter is invalid.
+     */
+    String create(Map<String, String> parameters);
+
+    /**
+     * Gets a game's state.
+     * @param id The game id.
+     * @return The state.
+     * @throws UnknownGameException if there is no such game.
+     */
+    String state(String id);
+
+    /**
+     * Flips a card for the human player and plays the computer turns it leads to.
+     * @param id The game id.
+     * @param row The row of the card.
+     * @param col The column of the card.
+     * @param published Given the state after the move before another move on the game can start,
+     *                  so states reach it in the order of the moves.
+     * @return The state after the move.
+     * @throws UnknownGameException if there is no such game.
+     */
+    String flip(String id, int row, int col, Consumer<String> published);
+
+    default String flip(String id, int row, int col) {
+        return flip(id, row, col, state -> { });
+    }
+
+    /**
+     * Undoes the last match.
+     * @param id The game id.
+     * @param published Given the state after the undo before another move on the game can start.
+     * @return The state after the undo.
+     * @throws UnknownGameException if there is no such game.
+     */
+    String undo(String id, Consumer<String> published);
+
+    default String undo(String id) {
+        return undo(id, state -> { });
+    }
+
+    /**
+     * Closes a game; closing an unknown game does nothing.
+     * @param id The game id.
+     */
+    void close(String id);
+}
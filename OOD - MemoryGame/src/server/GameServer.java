@@ -0,0 +1,320 @@
+package server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import core.Game;
+import matchmaking.MatchmakingService;
+import metrics.LatencyHistogram;
+import model.Board;
+import model.Card;
+import model.Player;
+import patterns.builders.GameBuilder;
+import patterns.strategy.score.PenaltyScoreStrategy;
+
+/**
+ * GameServer exposes the games of a GameHost over HTTP using the JDK's built-in server, with a
+ * Server-Sent Events stream of each game's state. By default the host is this process's
+ * SessionCache. Every reply and every event
+ * carries the whole state as a small JSON object:
+ * <pre>
+ * POST   /games?size=Small&amp;players=1&amp;difficulty=3&amp;rules=full&amp;scoring=simple&amp;seed=7
+ *                                    201, the new game's state
+ * GET    /games/{id}                 the state
+ * POST   /games/{id}/flip?row=r&amp;col=c  the state after the flip and the computer turns it led to
+ * POST   /games/{id}/undo            the state after undoing the last match
+ * DELETE /games/{id}                 204, closes the game
+ * GET    /games/{id}/events          text/event-stream of "state" events, the first one at once
+ * </pre>
+ * Bad requests are answered with 400 and {"error": reason}, unknown games with 404.
+ *
+ * Requests run on a fixed pool of handler threads. An event stream holds no thread: its
+ * handler only sends the headers and registers the stream with the EventBroadcaster, which
+ * writes the events from its own thread, so a slow subscriber never delays a move.
+ */
+public class GameServer implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(GameServer.class.getName());
+    private static final String JSON = "application/json";
+    private static final int BACKLOG = 1024;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final GameHost host;
+    private final EventBroadcaster broadcaster = new EventBroadcaster();
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+
+    private GameServer(HttpServer server, ExecutorService executor, GameHost host) {
+        this.server = server;
+        this.executor = executor;
+        this.host = host;
+    }
+
+    /**
+     * Starts the server on the wildcard address for the sessions of this process.
+     * @param port The port to bind, or 0 for an ephemeral port.
+     * @param threads The number of request handler threads.
+     * @return The running server.
+     * @throws IOException If the port cannot be bound.
+     */
+    public static GameServer start(int port, int threads) throws IOException {
+        return start(port, threads, new LocalGameHost());
+    }
+
+    /**
+     * Starts the server on the wildcard address.
+     * @param port The port to bind, or 0 for an ephemeral port.
+     * @param threads The number of request handler threads.
+     * @param host The games to serve.
+     * @return The running server.
+     * @throws IOException If the port cannot be bound.
+     */
+    public static GameServer start(int port, int threads, GameHost host) throws IOException {
+        // Without TCP_NODELAY a reply written as headers and body waits out the client's delayed
+        // ACK on a kept-alive connection, about 40 ms. Read once, before the JDK's first server.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        AtomicInteger threadIds = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "game-server-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        GameServer gameServer = new GameServer(server, executor, host);
+        server.createContext("/games", gameServer::handle);
+        server.setExecutor(executor);
+        server.start();
+        LOGGER.info("Game server listening on port " + server.getAddress().getPort());
+        return gameServer;
+    }
+
+    /**
+     * Gets the bound port, useful when started with port 0.
+     * @return The port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Gets the time the server took to apply flips and undos, computer turns included.
+     * @return The histogram.
+     */
+    public LatencyHistogram getMoveLatency() {
+        return moveLatency;
+    }
+
+    public int getSubscriberCount() {
+        return broadcaster.getSubscriberCount();
+    }
+
+    /**
+     * Stops the server and ends all event streams.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        broadcaster.close();
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] path = exchange.getRequestURI().getPath().split("/");  // "", "games", id, action
+        try {
+            if (path.length == 2 && method.equals("POST")) {
+                String id = host.create(query(exchange.getRequestURI()));
+                respond(exchange, 201, host.state(id));
+            } else if (path.length == 3 && method.equals("GET")) {
+                respond(exchange, 200, host.state(path[2]));
+            } else if (path.length == 3 && method.equals("DELETE")) {
+                host.close(path[2]);
+                broadcaster.close(path[2]);
+                exchange.getRequestBody().close();  // Drained, or the JDK server drops the kept-alive connection
+                exchange.sendResponseHeaders(204, -1);
+                exchange.close();
+            } else if (path.length == 4 && path[3].equals("events") && method.equals("GET")) {
+                subscribe(exchange, path[2]);
+            } else if (path.length == 4 && path[3].equals("flip") && method.equals("POST")) {
+                Map<String, String> query = query(exchange.getRequestURI());
+                int row = intParameter(query, "row", -1);
+                int col = intParameter(query, "col", -1);
+                String id = path[2];
+                respond(exchange, 200, move(id, published -> host.flip(id, row, col, published)));
+            } else if (path.length == 4 && path[3].equals("undo") && method.equals("POST")) {
+                String id = path[2];
+                respond(exchange, 200, move(id, published -> host.undo(id, published)));
+            } else {
+                respond(exchange, 404, error("no such resource"));
+            }
+        } catch (UnknownGameException e) {
+            respond(exchange, 404, error(e.getMessage()));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            respond(exchange, 400, error(e.getMessage()));
+        } catch (RuntimeException e) {
+            LOGGER.warning("Request " + method + " " + exchange.getRequestURI() + " failed: " + e);
+            respond(exchange, 500, error("internal error"));
+        }
+    }
+
+    /**
+     * Reads the creation parameters of a game.
+     * @param parameters The parameters: size, players (0 to 2), difficulty, opponent, rules,
+     *        scoring and seed, each optional.
+     * @return The settings of the game, not yet built.
+     * @throws IllegalArgumentException if a parameter is invalid.
+     */
+    public static GameBuilder gameBuilder(Map<String, String> parameters) {
+        int difficulty = intParameter(parameters, "difficulty", 1);
+        int players = intParameter(parameters, "players", 1);
+        if (players < 0 || players > 2) {
+            throw new IllegalArgumentException("players must be 0 to 2");
+        }
+        String size = parameters.getOrDefault("size", "Small");
+        if (!size.equalsIgnoreCase("Small") && !size.equalsIgnoreCase("Medium") && !size.equalsIgnoreCase("Large")) {
+            throw new IllegalArgumentException("unknown size " + size);
+        }
+        GameBuilder builder = new GameBuilder().setBoardSize(size).setNumPlayers(players)
+                .setDifficulty(difficulty).setOpponentDifficulty(intParameter(parameters, "opponent", difficulty))
+                .setMatchStrategy(MatchmakingService.matchStrategyFor(parameters.getOrDefault("rules", "full")));
+        String scoring = parameters.getOrDefault("scoring", "simple");
+        if (scoring.equals("penalty")) {
+            builder.setScoreStrategy(new PenaltyScoreStrategy());
+        } else if (!scoring.equals("simple")) {
+            throw new IllegalArgumentException("unknown scoring " + scoring);
+        }
+        if (parameters.containsKey("seed")) {
+            builder.setSeed(Long.parseLong(parameters.get("seed")));
+        }
+        return builder;
+    }
+
+    /**
+     * Applies a move to a game and publishes the new state to its event stream. The host
+     * publishes while it still holds the game, so concurrent moves reach the stream in order.
+     * @return The new state.
+     */
+    private String move(String id, Function<Consumer<String>, String> action) {
+        long start = System.nanoTime();
+        String state = action.apply(published -> broadcaster.publish(id, published));
+        moveLatency.record(System.nanoTime() - start);
+        return state;
+    }
+
+    private void subscribe(HttpExchange exchange, String id) throws IOException {
+        host.state(id);  // Unknown games fail before the stream starts
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);  // Chunked; the exchange stays open after this handler
+        broadcaster.subscribe(id, exchange, () -> host.state(id));
+    }
+
+    /**
+     * Renders a game's state as JSON. The board is one string with two characters per card:
+     * the face of a face-up card (number and suit initial), ".." face down or "--" matched.
+     * @param id The game id.
+     * @param game The game.
+     * @return The JSON object.
+     */
+    public static String render(String id, Game game) {
+        Board board = game.getBoard();
+        List<Player> players = game.getPlayers();
+        StringBuilder json = new StringBuilder(96 + 2 * board.getCardCount() + 32 * players.size());
+        json.append("{\"id\":\"").append(id)
+                .append("\",\"rows\":").append(board.getRowsSize())
+                .append(",\"cols\":").append(board.getColsSize())
+                .append(",\"board\":\"");
+        for (int i = 0; i < board.getCardCount(); i++) {
+            Card card = board.getCardAt(i);
+            if (card.isMatched()) {
+                json.append("--");
+            } else if (card.isFaceUp()) {
+                json.append(card.getNumber()).append(card.getSuitInitial());
+            } else {
+                json.append("..");
+            }
+        }
+        json.append("\",\"players\":[");
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            json.append(i == 0 ? "" : ",").append("{\"name\":\"").append(escape(player.getName()))
+                    .append("\",\"score\":").append(player.getScore()).append('}');
+        }
+        boolean over = game.isGameOver();
+        json.append("],\"turn\":").append(over ? -1 : game.getCurrentPlayerIndex())
+                .append(",\"over\":").append(over).append('}');
+        return json.toString();
+    }
+
+
+    private static String error(String message) {
+        return "{\"error\":\"" + escape(String.valueOf(message)) + "\"}";
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                parameters.put(pair.substring(0, equals), URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    private static int intParameter(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) {
+            if (defaultValue < 0) {
+                throw new IllegalArgumentException("missing " + name);
+            }
+            return defaultValue;
+        }
+        return Integer.parseInt(value);
+    }
+}
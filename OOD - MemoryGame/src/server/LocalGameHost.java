@@ -0,0 +1,69 @@
+package server;
+
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import core.FlipOutcome;
+import core.Game;
+import core.SessionCache;
+
+/**
+ * LocalGameHost hosts games as sessions of this process's SessionCache, named by their
+ * session ids.
+ */
+final class LocalGameHost implements GameHost {
+    private final SessionCache sessions = SessionCache.getInstance();
+
+    @Override
+    public String create(Map<String, String> parameters) {
+        String id = sessions.open(GameServer.gameBuilder(parameters));
+        return withGame(id, game -> {
+            game.playComputerTurns();  // Computer players who move first, or a game without humans
+            return id;
+        });
+    }
+
+    @Override
+    public String state(String id) {
+        return withGame(id, game -> GameServer.render(id, game));
+    }
+
+    @Override
+    public String flip(String id, int row, int col, Consumer<String> published) {
+        return withGame(id, game -> {
+            if (game.flip(row, col) != FlipOutcome.FIRST_CARD) {
+                game.playComputerTurns();
+            }
+            String state = GameServer.render(id, game);
+            published.accept(state);
+            return state;
+        });
+    }
+
+    @Override
+    public String undo(String id, Consumer<String> published) {
+        return withGame(id, game -> {
+            game.undoLastAction();
+            String state = GameServer.render(id, game);
+            published.accept(state);
+            return state;
+        });
+    }
+
+    @Override
+    public void close(String id) {
+        sessions.close(id);
+    }
+
+    private <T> T withGame(String id, Function<Game, T> action) {
+        try {
+            return sessions.withGame(id, action);
+        } catch (IllegalArgumentException e) {
+            if (e.getMessage() != null && e.getMessage().startsWith("Unknown session")) {
+                throw new UnknownGameException(e.getMessage());
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package server;
+
+/**
+ * Thrown for a request naming a game that is not hosted.
+ */
+public class UnknownGameException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public UnknownGameException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,248 @@
+package spectator;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import core.Game;
+import model.Board;
+import model.Card;
+import model.Player;
+import patterns.observer.GameObserver;
+import patterns.observer.TurnObserver;
+
+/**
+ * SpectatorChannel broadcasts the changes of one game to any number of spectators. Each change,
+ * a card turned over, a match or miss, a score or the turn passing, is encoded once into an
+ * immutable SpectatorFrame and appended to a ring the channel owns. Spectators read the ring
+ * through their Subscription at their own pace, so publishing costs the same whether one
+ * spectator watches or ten thousand; each subscription is a bounded queue of at most MAX_LAG
+ * frames, and a spectator that falls further behind is dropped.
+ *
+ * Every KEYFRAME_INTERVAL frames the channel publishes a keyframe with the whole board, and
+ * new spectators start at the latest one, so they catch up without a copy of the history.
+ *
+ * The channel observes the game as a GameObserver and TurnObserver, and is called on the
+ * game's own thread, which is the only writer of the ring.
+ */
+public class SpectatorChannel implements GameObserver, TurnObserver {
+    public static final int CAPACITY = 1024;  // Frames kept; a power of two
+    public static final int KEYFRAME_INTERVAL = 128;
+    public static final int MAX_LAG = 512;  // Must leave room for a keyframe interval in the ring
+    private static final int MASK = CAPACITY - 1;
+    private static final int OVER = 0xFF;
+
+    private final Game game;
+    private final SpectatorFrame[] ring = new SpectatorFrame[CAPACITY];
+    private volatile long published;  // Sequence of the next frame; frames before it are readable
+    private volatile long lastKeyframe;
+    private final AtomicInteger spectators = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder publishNanos = new LongAdder();
+    // State last published, to turn notifications into changes; touched by the game thread only
+    private final int[] scores;
+    private int turn = -1;
+    private boolean firstCardPublished;
+    private int[] settled;  // Positions of the last turn's cards, republished once the turn is applied
+    private int scorer = -1;  // Seat of the last turn's player, whose score is republished with the cards
+
+    /**
+     * Constructs a channel and starts observing the game.
+     * @param game The game to broadcast.
+     * @throws IllegalArgumentException if the game has more players than a frame can number.
+     */
+    public SpectatorChannel(Game game) {
+        if (game.getPlayers().size() > OVER) {
+            throw new IllegalArgumentException("Frames number at most " + OVER + " players");
+        }
+        this.game = game;
+        this.scores = new int[game.getPlayers().size()];
+        game.addObserver(this);
+        game.addTurnObserver(this);
+        publishKeyframe();
+    }
+
+    /**
+     * Adds a spectator, who starts at the latest keyframe.
+     * @return The spectator's subscription.
+     */
+    public Subscription subscribe() {
+        spectators.incrementAndGet();
+        return new Subscription(this, lastKeyframe);
+    }
+
+    @Override
+    public void cardFlipped(Player player, int row, int col, Card card) {
+        publishCard(row * game.getBoard().getColsSize() + col, card);
+        firstCardPublished = true;
+    }
+
+    @Override
+    public void turnPlayed(Player player, int[] cardIndices, Card first, Card second, boolean isMatch) {
+        long start = System.nanoTime();
+        int cols = game.getBoard().getColsSize();
+        int firstIndex = cardIndices[0] * cols + cardIndices[1];
+        int secondIndex = cardIndices[2] * cols + cardIndices[3];
+        if (!firstCardPublished) {
+            publishCard(firstIndex, first);
+        }
+        firstCardPublished = false;
+        publishCard(secondIndex, second);
+        publish(ByteBuffer.allocate(10).put(isMatch ? SpectatorFrame.MATCH : SpectatorFrame.MISS).putInt(0)
+                .put((byte) game.getCurrentPlayerIndex()).putShort((short) firstIndex).putShort((short) secondIndex));
+        settled = new int[]{firstIndex, secondIndex};  // Matched, turned back or replaced after this call
+        scorer = game.getCurrentPlayerIndex();  // The turn passes after this call
+        publishNanos.add(System.nanoTime() - start);
+    }
+
+    /**
+     * Publishes the last turn's cards as they were left, matched, turned back or replaced in an
+     * endless game, then the last turn's player's score and the turn if they changed. Only a
+     * turn changes a score, so no notification looks at the other players.
+     */
+    @Override
+    public void update() {
+        long start = System.nanoTime();
+        if (settled != null) {
+            Board board = game.getBoard();
+            for (int index : settled) {
+                publishCard(index, board.getCardAt(index));
+            }
+            settled = null;
+        }
+        if (scorer >= 0) {
+            publishScore(scorer);
+            scorer = -1;
+        }
+        int current = currentTurn();
+        if (current != turn) {
+            turn = current;
+            publish(ByteBuffer.allocate(6).put(SpectatorFrame.TURN).putInt(0).put((byte) current));
+        }
+        publishNanos.add(System.nanoTime() - start);
+    }
+
+    @Override
+    public void update(int score) {
+        update();
+    }
+
+    @Override
+    public void matchUndone(Player player, int seat) {
+        long start = System.nanoTime();
+        publishScore(seat);
+        publishNanos.add(System.nanoTime() - start);
+    }
+
+    private int currentTurn() {
+        return game.isGameOver() ? OVER : game.getCurrentPlayerIndex();
+    }
+
+    private void publishScore(int seat) {
+        int score = game.getPlayers().get(seat).getScore();
+        if (score != scores[seat]) {
+            scores[seat] = score;
+            publish(ByteBuffer.allocate(10).put(SpectatorFrame.SCORE).putInt(0).put((byte) seat).putInt(score));
+        }
+    }
+
+    private void publishCard(int index, Card card) {
+        ByteBuffer frame = ByteBuffer.allocate(9).put(SpectatorFrame.CARD).putInt(0).putShort((short) index);
+        putFace(frame, card);
+        publish(frame);
+    }
+
+    private void publishKeyframe() {
+        Board board = game.getBoard();
+        List<Player> players = game.getPlayers();
+        turn = currentTurn();
+        ByteBuffer frame = ByteBuffer.allocate(9 + 4 * players.size() + 2 * board.getCardCount())
+                .put(SpectatorFrame.KEYFRAME).putInt(0)
+                .put((byte) board.getRowsSize()).put((byte) board.getColsSize()).put((byte) turn)
+                .put((byte) players.size());
+        for (int i = 0; i < players.size(); i++) {
+            scores[i] = players.get(i).getScore();
+            frame.putInt(scores[i]);
+        }
+        for (int i = 0; i < board.getCardCount(); i++) {
+            putFace(frame, board.getCardAt(i));
+        }
+        lastKeyframe = publish(frame);
+    }
+
+    private static void putFace(ByteBuffer frame, Card card) {
+        if (card.isMatched()) {
+            frame.put((byte) '-').put((byte) '-');
+        } else if (card.isFaceUp()) {
+            frame.put((byte) card.getNumber()).put((byte) card.getSuitInitial());
+        } else {
+            frame.put((byte) '.').put((byte) '.');
+        }
+    }
+
+    /**
+     * Appends a frame to the ring, writing its sequence after the type byte, and publishes a
+     * keyframe after every KEYFRAME_INTERVAL frames.
+     * @param frame The encoded frame, its sequence still zero.
+     * @return The frame's sequence.
+     */
+    private long publish(ByteBuffer frame) {
+        long sequence = published;
+        byte[] bytes = frame.putInt(1, (int) sequence).array();
+        ring[(int) (sequence & MASK)] = new SpectatorFrame(sequence, bytes);
+        published = sequence + 1;  // Volatile write: the frame is visible to every reader from here
+        if ((sequence + 1) % KEYFRAME_INTERVAL == 0) {
+            publishKeyframe();
+        }
+        return sequence;
+    }
+
+    SpectatorFrame frameAt(long sequence) {
+        return ring[(int) (sequence & MASK)];
+    }
+
+    long getPublishedCount() {
+        return published;
+    }
+
+    int getMaxLag() {
+        return MAX_LAG;
+    }
+
+    void unsubscribed(boolean wasDropped) {
+        spectators.decrementAndGet();
+        if (wasDropped) {
+            dropped.increment();
+        }
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * Gets the number of frames published since the channel was created.
+     * @return The count.
+     */
+    public long getFrameCount() {
+        return published;
+    }
+
+    public int getSpectatorCount() {
+        return spectators.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Gets the time spent encoding and publishing frames, which does not depend on the number
+     * of spectators.
+     * @return The total in nanoseconds.
+     */
+    public long getPublishNanos() {
+        return publishNanos.sum();
+    }
+}
@@ -0,0 +1,76 @@
+package spectator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * SpectatorFrame is one encoded change of a watched game, shared by every spectator as is.
+ * A frame is a type byte, the 32-bit sequence number and the type's fields, big-endian:
+ * <pre>
+ * KEYFRAME  rows u8, cols u8, turn u8 (0xFF when over), players u8, score i32 per player,
+ *           then two face bytes per card
+ * CARD      index u16, two face bytes: number and suit initial, ".." face down or "--" matched
+ * MATCH     player u8, index u16, index u16 (CARD frames with both cards as left follow)
+ * MISS      player u8, index u16, index u16 (CARD frames with both cards as left follow)
+ * SCORE     player u8, score i32
+ * TURN      player u8, 0xFF when the game is over
+ * </pre>
+ */
+public final class SpectatorFrame {
+    public static final byte KEYFRAME = 1;
+    public static final byte CARD = 2;
+    public static final byte MATCH = 3;
+    public static final byte MISS = 4;
+    public static final byte SCORE = 5;
+    public static final byte TURN = 6;
+
+    private final long sequence;
+    private final byte[] bytes;  // Never changed after construction
+
+    SpectatorFrame(long sequence, byte[] bytes) {
+        this.sequence = sequence;
+        this.bytes = bytes;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public byte getType() {
+        return bytes[0];
+    }
+
+    public boolean isKeyframe() {
+        return bytes[0] == KEYFRAME;
+    }
+
+    public int length() {
+        return bytes.length;
+    }
+
+    /**
+     * Writes the encoded frame.
+     * @param out The stream to write to.
+     * @throws IOException if the stream fails.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes);
+    }
+
+    /**
+     * Copies the encoded frame into a buffer.
+     * @param buffer The buffer, with at least length() bytes remaining.
+     */
+    public void copyTo(ByteBuffer buffer) {
+        buffer.put(bytes);
+    }
+
+    /**
+     * Gets a read-only view of the encoded frame.
+     * @return The frame's bytes.
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+}
@@ -0,0 +1,82 @@
+package spectator;
+
+/**
+ * Subscription is one spectator's position in a SpectatorChannel. It reads the channel's
+ * frames in order from the keyframe it joined at; at most the channel's lag limit of frames
+ * may wait for it, and a spectator that falls further behind is dropped. A subscription is
+ * read by one thread at a time, typically the one that delivers the frames to the spectator.
+ */
+public final class Subscription {
+    private final SpectatorChannel channel;
+    private long cursor;  // Sequence of the next frame to read
+    private volatile boolean dropped;
+    private volatile boolean closed;
+
+    Subscription(SpectatorChannel channel, long cursor) {
+        this.channel = channel;
+        this.cursor = cursor;
+    }
+
+    /**
+     * Gets the next frame without waiting.
+     * @return The frame, or null if there is none yet or the subscription was dropped or closed.
+     */
+    public SpectatorFrame poll() {
+        if (dropped || closed) {
+            return null;
+        }
+        long published = channel.getPublishedCount();
+        if (cursor == published) {
+            return null;
+        }
+        if (published - cursor > channel.getMaxLag()) {
+            drop();
+            return null;
+        }
+        SpectatorFrame frame = channel.frameAt(cursor);
+        if (frame.getSequence() != cursor) {  // Overwritten while this spectator lagged
+            drop();
+            return null;
+        }
+        cursor++;
+        return frame;
+    }
+
+    /**
+     * Gets the number of frames waiting for this spectator.
+     * @return The backlog.
+     */
+    public long getBacklog() {
+        return channel.getPublishedCount() - cursor;
+    }
+
+    /**
+     * Checks whether the spectator fell too far behind and was dropped; it may subscribe again
+     * and catch up from the latest keyframe.
+     * @return true if dropped.
+     */
+    public boolean isDropped() {
+        return dropped;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Ends the subscription.
+     */
+    public synchronized void close() {
+        if (!closed && !dropped) {
+            closed = true;
+            channel.unsubscribed(false);
+        }
+    }
+
+    private synchronized void drop() {
+        if (!closed && !dropped) {
+            dropped = true;
+            channel.unsubscribed(true);
+        }
+    }
+}
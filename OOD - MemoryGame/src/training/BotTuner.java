@@ -0,0 +1,250 @@
+package training;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.LogManager;
+
+import core.Game;
+import patterns.builders.GameBuilder;
+import patterns.strategy.difficulty.BotProfile;
+import patterns.strategy.difficulty.TunedLevels;
+import patterns.strategy.score.PenaltyScoreStrategy;
+import patterns.strategy.score.ScoreStrategy;
+import patterns.strategy.score.SimpleScoreStrategy;
+
+/**
+ * BotTuner calibrates difficulty levels to target win rates against a reference level, for
+ * example "wins 30% against Hard", with a genetic algorithm over BotProfile parameters.
+ *
+ * A genome is the four profile parameters scaled to [0, 1]; memory capacity is scaled to the
+ * cards of the tuning board. The fitness of a genome is the distance between its win rate and the
+ * target, so lower is better. Each generation plays every candidate against the reference level
+ * in real headless games, in parallel on all cores. All candidates of a generation play the same
+ * seeds, alternating who starts, so they are compared on the same deals; the seeds change every
+ * generation, so a lucky candidate does not stay on top. The next generation keeps the elite,
+ * and fills the rest by tournament selection, blend crossover and Gaussian mutation.
+ *
+ * The best profile for each target is checked on fresh seeds and saved as a tuned level,
+ * numbered from TunedLevels.FIRST_LEVEL in target order, in the levels file the game reads.
+ *
+ * Run with: java training.BotTuner [generations] [gamesPerCandidate] [targets] [referenceLevel] [simple|penalty] [levelsFile]
+ */
+public class BotTuner {
+    private static final String BOARD_SIZE = "Small";
+    private static final int BOARD_CARDS = 26;  // Memory capacity is tuned up to every card of the board
+    private static final int GENES = 4;
+    private static final int POPULATION = 24;
+    private static final int ELITE = 2;
+    private static final int TOURNAMENT = 3;
+    private static final double BLEND = 0.25;  // BLX-alpha: children may land a quarter beyond their parents
+    private static final double MUTATION_RATE = 0.25;
+    private static final double MUTATION_SIGMA = 0.1;
+    private static final int VALIDATION_GAMES = 4_000;
+    private static final long VALIDATION_SEEDS = 1L << 40;  // Far from the seeds played during tuning
+    private static final int CANDIDATE_LEVEL = 1_000;  // Candidates play as temporary levels from here
+
+    private final int referenceLevel;
+    private final ScoreStrategy scoreStrategy;
+    private final int workers;
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a BotTuner with one worker per core.
+     * @param referenceLevel The level candidates play against.
+     * @param scoreStrategy The scoring of the games.
+     */
+    public BotTuner(int referenceLevel, ScoreStrategy scoreStrategy) {
+        this.referenceLevel = referenceLevel;
+        this.scoreStrategy = scoreStrategy;
+        this.workers = Runtime.getRuntime().availableProcessors();
+        this.executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "bot-tuner");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        int generations = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        double[] targets = Arrays.stream((args.length > 2 ? args[2] : "0.3,0.5,0.7").split(","))
+                .mapToDouble(Double::parseDouble).toArray();
+        int reference = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        boolean penalty = !(args.length > 4 && args[4].equalsIgnoreCase("simple"));
+        Path file = Path.of(args.length > 5 ? args[5] : "memorygame.levels");
+        LogManager.getLogManager().reset();
+
+        BotTuner tuner = new BotTuner(reference, penalty ? new PenaltyScoreStrategy() : new SimpleScoreStrategy());
+        System.out.printf("Tuning against level %d with %s scoring on %s boards: %d candidates x %d games for %d generations, %d workers%n",
+                reference, penalty ? "penalty" : "simple", BOARD_SIZE, POPULATION, games, generations, tuner.workers);
+
+        Map<Integer, BotProfile> levels = new TreeMap<>();
+        StringBuilder comment = new StringBuilder("Tuned against level " + reference + " with "
+                + (penalty ? "penalty" : "simple") + " scoring:");
+        for (int t = 0; t < targets.length; t++) {
+            System.out.printf(Locale.ROOT, "%nTarget win rate %.2f%n", targets[t]);
+            BotProfile best = tuner.evolve(targets[t], generations, games, t);
+            double validated = tuner.winRate(best, CANDIDATE_LEVEL + POPULATION, VALIDATION_SEEDS, VALIDATION_GAMES);
+            int level = TunedLevels.FIRST_LEVEL + t;
+            System.out.printf(Locale.ROOT, "Level %d: %s, win rate %.3f on %d fresh games%n",
+                    level, best, validated, VALIDATION_GAMES);
+            levels.put(level, best);
+            comment.append(String.format(Locale.ROOT, " level %d targets %.2f, validated %.3f;", level, targets[t], validated));
+        }
+        TunedLevels.save(file, levels, comment.toString());
+        System.out.println();
+        System.out.println("Saved " + levels.size() + " tuned levels to " + file);
+    }
+
+    /**
+     * Evolves the profile whose win rate is closest to a target.
+     * @param target The target win rate.
+     * @param generations The number of generations.
+     * @param games The games each candidate plays per generation.
+     * @param run The index of the target, which separates its random streams and seeds.
+     * @return The best profile of the last generation.
+     */
+    public BotProfile evolve(double target, int generations, int games, int run) throws InterruptedException, ExecutionException {
+        SplittableRandom random = new SplittableRandom(38L + run);
+        double[][] population = new double[POPULATION][GENES];
+        for (double[] genome : population) {
+            for (int g = 0; g < GENES; g++) {
+                genome[g] = random.nextDouble();
+            }
+        }
+
+        System.out.printf("%4s %9s %9s %9s %9s  %s%n", "gen", "best", "win rate", "mean", "games/s", "best profile");
+        double[] winRates = null;
+        Integer[] ranking = null;
+        for (int generation = 0; generation < generations; generation++) {
+            long seeds = ((long) run * generations + generation) * games;
+            long start = System.nanoTime();
+            winRates = evaluate(population, seeds, games);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            double[] fitness = new double[POPULATION];
+            double mean = 0;
+            for (int i = 0; i < POPULATION; i++) {
+                fitness[i] = Math.abs(winRates[i] - target);
+                mean += fitness[i] / POPULATION;
+            }
+            ranking = new Integer[POPULATION];
+            for (int i = 0; i < POPULATION; i++) {
+                ranking[i] = i;
+            }
+            Arrays.sort(ranking, Comparator.comparingDouble(i -> fitness[i]));
+            System.out.printf(Locale.ROOT, "%4d %9.4f %9.3f %9.4f %9.0f  %s%n", generation, fitness[ranking[0]],
+                    winRates[ranking[0]], mean, POPULATION * games / seconds, decode(population[ranking[0]]));
+
+            if (generation < generations - 1) {
+                population = breed(population, fitness, ranking, random);
+            }
+        }
+        return decode(population[ranking[0]]);
+    }
+
+    /**
+     * Builds the next generation: the elite unchanged, then children of tournament winners.
+     */
+    private static double[][] breed(double[][] population, double[] fitness, Integer[] ranking, SplittableRandom random) {
+        double[][] next = new double[POPULATION][];
+        for (int i = 0; i < ELITE; i++) {
+            next[i] = population[ranking[i]].clone();
+        }
+        for (int i = ELITE; i < POPULATION; i++) {
+            double[] mother = population[tournament(fitness, random)];
+            double[] father = population[tournament(fitness, random)];
+            double[] child = new double[GENES];
+            for (int g = 0; g < GENES; g++) {
+                double low = Math.min(mother[g], father[g]);
+                double span = Math.abs(mother[g] - father[g]);
+                double gene = low - BLEND * span + random.nextDouble() * (1 + 2 * BLEND) * span;
+                if (random.nextDouble() < MUTATION_RATE) {
+                    gene += MUTATION_SIGMA * gaussian(random);
+                }
+                child[g] = Math.max(0, Math.min(1, gene));
+            }
+            next[i] = child;
+        }
+        return next;
+    }
+
+    private static int tournament(double[] fitness, SplittableRandom random) {
+        int winner = random.nextInt(POPULATION);
+        for (int round = 1; round < TOURNAMENT; round++) {
+            int challenger = random.nextInt(POPULATION);
+            if (fitness[challenger] < fitness[winner]) {
+                winner = challenger;
+            }
+        }
+        return winner;
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        double u = 1 - random.nextDouble();  // Box-Muller, u in (0, 1]
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    /**
+     * Plays every candidate of a generation on the same seeds, one task per candidate.
+     * @return The win rate of each candidate.
+     */
+    private double[] evaluate(double[][] population, long seeds, int games) throws InterruptedException, ExecutionException {
+        List<Callable<Double>> tasks = new ArrayList<>();
+        for (int i = 0; i < POPULATION; i++) {
+            BotProfile profile = decode(population[i]);
+            int level = CANDIDATE_LEVEL + i;
+            tasks.add(() -> winRate(profile, level, seeds, games));
+        }
+        double[] winRates = new double[POPULATION];
+        List<Future<Double>> results = executor.invokeAll(tasks);
+        for (int i = 0; i < POPULATION; i++) {
+            winRates[i] = results.get(i).get();
+        }
+        return winRates;
+    }
+
+    /**
+     * Plays a profile against the reference level in headless games, alternating who starts.
+     * The profile is registered as a temporary tuned level, so the games build their players
+     * through ComputerPlayerBuilder exactly as the saved level will.
+     * @param profile The profile.
+     * @param level The temporary level to play it as.
+     * @param seeds The first seed.
+     * @param games The number of games.
+     * @return The share of games won; draws count as half.
+     */
+    public double winRate(BotProfile profile, int level, long seeds, int games) {
+        TunedLevels.getInstance().register(level, profile);
+        double wins = 0;
+        for (int game = 0; game < games; game++) {
+            boolean tunedStarts = game % 2 == 0;
+            Game played = new GameBuilder().setBoardSize(BOARD_SIZE)
+                    .setDifficulty(tunedStarts ? level : referenceLevel)
+                    .setOpponentDifficulty(tunedStarts ? referenceLevel : level)
+                    .setScoreStrategy(scoreStrategy).setSeed(seeds + game).setHeadless(true).build();
+            played.startGame();
+            int tuned = played.getPlayers().get(tunedStarts ? 0 : 1).getScore();
+            int opponent = played.getPlayers().get(tunedStarts ? 1 : 0).getScore();
+            wins += tuned > opponent ? 1 : tuned == opponent ? 0.5 : 0;
+        }
+        return wins / games;
+    }
+
+    private static BotProfile decode(double[] genome) {
+        return new BotProfile((int) Math.round(genome[0] * BOARD_CARDS), genome[1], genome[2], genome[3]);
+    }
+}
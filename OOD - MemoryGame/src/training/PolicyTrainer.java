@@ -0,0 +1,366 @@
+package training;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.LogManager;
+
+import core.Game;
+import patterns.builders.GameBuilder;
+import patterns.strategy.difficulty.LearnedPolicy;
+
+/**
+ * PolicyTrainer learns the LearnedPolicy by tabular Q-learning from self-play, on all cores and
+ * without any network or GPU.
+ *
+ * Both players have perfect memory, so a game is fully described by counts: unseen cards, seen
+ * cards whose partner is unseen (singles) and seen pairs. Self-play runs on this count model,
+ * which draws each flip with the probabilities of a shuffled deck and plays millions of games a
+ * minute. A decision is taken when the first card of a turn is new and its partner unseen:
+ * flip another unseen card (explore) or a single (safe). Its value is the expected difference
+ * between the pairs the deciding player and its opponent take from then on; the reward of a
+ * decision is that difference up to the player's next decision, or to the end of the game.
+ *
+ * Training runs in epochs. Each worker plays its share of an epoch epsilon-greedily against the
+ * frozen table and sums the Q-learning targets per state and action; the sums are then folded
+ * into the table. After every epoch the greedy policy is evaluated against the always-explore
+ * player (HardStrategy), which gives the convergence curve. The final policy is written to a
+ * file and checked in real headless games against HardStrategy.
+ *
+ * Run with: java training.PolicyTrainer [games] [policyFile]
+ */
+public class PolicyTrainer {
+    private static final int MAX_PAIRS = 52;
+    private static final int MAX_UNSEEN = 2 * MAX_PAIRS - 1;
+    private static final int MAX_SINGLES = MAX_PAIRS;
+    private static final int[] PAIR_COUNTS = {13, 26, 52};  // Small, Medium and Large boards
+    private static final int EXPLORE = 0;
+    private static final int SAFE = 1;
+    private static final int EPOCHS = 20;
+    private static final int EVALUATION_GAMES = 200_000;
+    private static final int ENGINE_GAMES = 2_000;
+    private static final long RECENT_SAMPLES = 200_000;  // Older targets fade once a state has this many
+
+    private final double[] values = new double[(MAX_UNSEEN + 1) * (MAX_SINGLES + 1) * 2];
+    private final long[] samples = new long[values.length];
+    private final int workers;
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a PolicyTrainer with one worker per core.
+     */
+    public PolicyTrainer() {
+        this.workers = Runtime.getRuntime().availableProcessors();
+        this.executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "policy-trainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 5_000_000;
+        Path file = Path.of(args.length > 1 ? args[1] : "memorygame.policy");
+        LogManager.getLogManager().reset();
+
+        PolicyTrainer trainer = new PolicyTrainer();
+        System.out.printf("Training on %d games in %d epochs with %d workers%n%n", games, EPOCHS, trainer.workers);
+        System.out.printf("%5s %11s %10s %9s %12s %8s %9s %9s%n", "epoch", "games", "games/s", "epsilon",
+                "mean |dQ|", "changed", "safe", "win rate");
+        LearnedPolicy previous = trainer.policy();
+        long total = 0;
+        long trainingNanos = 0;
+        for (int epoch = 0; epoch < EPOCHS; epoch++) {
+            long epochGames = games / EPOCHS;
+            double epsilon = Math.max(0.05, 0.5 * Math.pow(0.8, epoch));
+            long start = System.nanoTime();
+            double change = trainer.trainEpoch(epochGames, epsilon, epoch);
+            long nanos = System.nanoTime() - start;
+            trainingNanos += nanos;
+            total += epochGames;
+            LearnedPolicy policy = trainer.policy();
+            System.out.printf("%5d %11d %10.0f %9.3f %12.5f %8d %9d %8.2f%%%n", epoch + 1, total,
+                    epochGames * 1e9 / nanos, epsilon, change, changedStates(previous, policy),
+                    policy.countSafeFlips(), 100 * trainer.winRate(policy, epoch));
+            previous = policy;
+        }
+        System.out.printf("%nTrained %d games in %.1f s (%.0f games/s)%n", total, trainingNanos / 1e9,
+                total * 1e9 / trainingNanos);
+
+        LearnedPolicy policy = trainer.policy();
+        policy.save(file);
+        LearnedPolicy loaded = LearnedPolicy.load(file);
+        System.out.printf("Policy written to %s (%d bytes, %d safe-flip states)%n", file.toAbsolutePath(),
+                file.toFile().length(), loaded.countSafeFlips());
+        System.setProperty("memorygame.policyFile", file.toString());
+        trainer.checkInEngine();
+        trainer.executor.shutdown();
+    }
+
+    /**
+     * Plays one epoch of self-play on all workers and folds the targets into the table.
+     * @param games Games to play.
+     * @param epsilon Probability of a random decision.
+     * @param epoch The epoch, part of every worker's seed.
+     * @return The mean absolute change of the visited values.
+     */
+    private double trainEpoch(long games, double epsilon, int epoch) throws InterruptedException, ExecutionException {
+        double[] frozen = values.clone();
+        List<Callable<double[]>> tasks = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            long share = games / workers + (w < games % workers ? 1 : 0);
+            long seed = epoch * 1_000_003L + w;
+            tasks.add(() -> selfPlay(frozen, share, epsilon, new SplittableRandom(seed)));
+        }
+        double[] targetSums = new double[values.length];
+        long[] targetCounts = new long[values.length];
+        for (Future<double[]> future : executor.invokeAll(tasks)) {
+            double[] result = future.get();  // Sums, then counts
+            for (int i = 0; i < values.length; i++) {
+                targetSums[i] += result[i];
+                targetCounts[i] += (long) result[values.length + i];
+            }
+        }
+        double change = 0;
+        int visited = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (targetCounts[i] == 0) {
+                continue;
+            }
+            double mean = targetSums[i] / targetCounts[i];
+            double weight = (double) targetCounts[i] / (targetCounts[i] + Math.min(samples[i], RECENT_SAMPLES));
+            double delta = weight * (mean - values[i]);
+            values[i] += delta;
+            samples[i] += targetCounts[i];
+            change += Math.abs(delta);
+            visited++;
+        }
+        return visited == 0 ? 0 : change / visited;
+    }
+
+    /**
+     * Plays self-play games on the count model and sums the Q-learning targets.
+     * @return Target sums per state and action, followed by target counts.
+     */
+    private static double[] selfPlay(double[] frozen, long games, double epsilon, SplittableRandom random) {
+        double[] result = new double[frozen.length * 2];
+        int[] pendingState = new int[2];
+        double[] pendingReward = new double[2];
+        for (long game = 0; game < games; game++) {
+            int unseen = 2 * PAIR_COUNTS[random.nextInt(PAIR_COUNTS.length)];
+            int singles = 0;
+            int knownPairs = 0;
+            int player = 0;
+            pendingState[0] = pendingState[1] = -1;
+            pendingReward[0] = pendingReward[1] = 0;
+            while (unseen > 0 || knownPairs > 0) {
+                boolean keepsTurn = true;
+                while (keepsTurn && (unseen > 0 || knownPairs > 0)) {
+                    if (knownPairs > 0) {
+                        knownPairs--;
+                    } else if (random.nextInt(unseen) < singles) {
+                        singles--;  // The partner of a single
+                        unseen--;
+                    } else {
+                        unseen--;  // A new card; its partner is among the unseen ones
+                        int action = EXPLORE;
+                        if (singles > 0) {
+                            int state = unseen * (MAX_SINGLES + 1) + singles;
+                            close(result, frozen, pendingState, pendingReward, player, state);
+                            action = random.nextDouble() < epsilon ? random.nextInt(2) : greedy(frozen, state);
+                            pendingState[player] = state * 2 + action;
+                        }
+                        if (action == SAFE) {
+                            singles++;
+                            keepsTurn = false;
+                            continue;
+                        }
+                        int second = random.nextInt(unseen);
+                        unseen--;
+                        if (second == 0) {
+                            // The partner: a pair, and the turn goes on
+                        } else if (second <= singles) {
+                            knownPairs++;  // Partner of an old single; the new card stays single
+                            keepsTurn = false;
+                            continue;
+                        } else {
+                            singles += 2;
+                            keepsTurn = false;
+                            continue;
+                        }
+                    }
+                    pendingReward[player] += 1;  // A pair for the player
+                    pendingReward[player ^ 1] -= 1;
+                }
+                player ^= 1;
+            }
+            close(result, frozen, pendingState, pendingReward, 0, -1);
+            close(result, frozen, pendingState, pendingReward, 1, -1);
+        }
+        return result;
+    }
+
+    /**
+     * Records the target of a player's open decision.
+     * @param nextState The state of the player's next decision, or -1 at the end of the game.
+     */
+    private static void close(double[] result, double[] frozen, int[] pendingState, double[] pendingReward,
+            int player, int nextState) {
+        if (pendingState[player] >= 0) {
+            double target = pendingReward[player];
+            if (nextState >= 0) {
+                target += Math.max(frozen[nextState * 2 + EXPLORE], frozen[nextState * 2 + SAFE]);
+            }
+            result[pendingState[player]] += target;
+            result[frozen.length + pendingState[player]] += 1;
+        }
+        pendingState[player] = -1;
+        pendingReward[player] = 0;
+    }
+
+    private static int greedy(double[] table, int state) {
+        return table[state * 2 + SAFE] > table[state * 2 + EXPLORE] ? SAFE : EXPLORE;
+    }
+
+    /**
+     * Extracts the greedy policy of the table.
+     * @return The policy.
+     */
+    private LearnedPolicy policy() {
+        BitSet safe = new BitSet();
+        for (int state = 0; state < values.length / 2; state++) {
+            if (samples[state * 2 + SAFE] > 0 && greedy(values, state) == SAFE) {
+                safe.set(state);
+            }
+        }
+        return new LearnedPolicy(MAX_UNSEEN, MAX_SINGLES, safe);
+    }
+
+    private static int changedStates(LearnedPolicy before, LearnedPolicy after) {
+        int changed = 0;
+        for (int unseen = 0; unseen <= MAX_UNSEEN; unseen++) {
+            for (int singles = 0; singles <= MAX_SINGLES; singles++) {
+                if (before.prefersSafeFlip(unseen, singles) != after.prefersSafeFlip(unseen, singles)) {
+                    changed++;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Plays the greedy policy against the always-explore player on the count model, alternating
+     * who starts and cycling the board sizes.
+     * @return The share of games won; draws count as half.
+     */
+    private double winRate(LearnedPolicy policy, int epoch) throws InterruptedException, ExecutionException {
+        List<Callable<Double>> tasks = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            int share = EVALUATION_GAMES / workers;
+            long seed = -1 - epoch * 1_000_003L - w;
+            tasks.add(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                double wins = 0;
+                for (int game = 0; game < share; game++) {
+                    int difference = playAgainstExplorer(policy, PAIR_COUNTS[game % PAIR_COUNTS.length],
+                            game % 2, random);
+                    wins += difference > 0 ? 1 : difference == 0 ? 0.5 : 0;
+                }
+                return wins;
+            });
+        }
+        double wins = 0;
+        for (Future<Double> future : executor.invokeAll(tasks)) {
+            wins += future.get();
+        }
+        return wins / (EVALUATION_GAMES / workers * workers);
+    }
+
+    /**
+     * Plays one count-model game of the policy against the always-explore player.
+     * @param learnedSeat 0 if the policy starts, 1 otherwise.
+     * @return The policy's pairs minus the explorer's pairs.
+     */
+    private static int playAgainstExplorer(LearnedPolicy policy, int pairs, int learnedSeat, SplittableRandom random) {
+        int unseen = 2 * pairs;
+        int singles = 0;
+        int knownPairs = 0;
+        int player = 0;
+        int difference = 0;
+        while (unseen > 0 || knownPairs > 0) {
+            boolean keepsTurn = true;
+            while (keepsTurn && (unseen > 0 || knownPairs > 0)) {
+                if (knownPairs > 0) {
+                    knownPairs--;
+                } else if (random.nextInt(unseen) < singles) {
+                    singles--;
+                    unseen--;
+                } else {
+                    unseen--;
+                    if (player == learnedSeat && singles > 0 && policy.prefersSafeFlip(unseen, singles)) {
+                        singles++;
+                        keepsTurn = false;
+                        continue;
+                    }
+                    int second = random.nextInt(unseen);
+                    unseen--;
+                    if (second != 0) {
+                        if (second <= singles) {
+                            knownPairs++;
+                        } else {
+                            singles += 2;
+                        }
+                        keepsTurn = false;
+                        continue;
+                    }
+                }
+                difference += player == learnedSeat ? 1 : -1;
+            }
+            player ^= 1;
+        }
+        return difference;
+    }
+
+    /**
+     * Plays the learned level (4) against HardStrategy (3) in real headless games, loading the
+     * written policy file the way the game does.
+     */
+    private void checkInEngine() throws InterruptedException, ExecutionException {
+        List<Callable<double[]>> tasks = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            int first = w;
+            tasks.add(() -> {
+                double wins = 0;
+                double games = 0;
+                for (int game = first; game < ENGINE_GAMES; game += workers) {
+                    boolean learnedStarts = game % 2 == 0;
+                    Game played = new GameBuilder().setBoardSize(game % 3 == 0 ? "Small" : game % 3 == 1 ? "Medium" : "Large")
+                            .setDifficulty(learnedStarts ? 4 : 3).setOpponentDifficulty(learnedStarts ? 3 : 4)
+                            .setSeed(game).setHeadless(true).build();
+                    played.startGame();
+                    int learned = played.getPlayers().get(learnedStarts ? 0 : 1).getScore();
+                    int hard = played.getPlayers().get(learnedStarts ? 1 : 0).getScore();
+                    wins += learned > hard ? 1 : learned == hard ? 0.5 : 0;
+                    games++;
+                }
+                return new double[]{wins, games};
+            });
+        }
+        double wins = 0;
+        double games = 0;
+        for (Future<double[]> future : executor.invokeAll(tasks)) {
+            wins += future.get()[0];
+            games += future.get()[1];
+        }
+        System.out.printf("Engine check: learned level won %.2f%% of %d headless games against Hard%n",
+                100 * wins / games, (long) games);
+    }
+}
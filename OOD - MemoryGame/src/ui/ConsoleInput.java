@@ -0,0 +1,53 @@
+package ui;
+
+import java.io.InputStream;
+import java.util.Scanner;
+
+/**
+ * ConsoleInput owns the single Scanner over the game's input.
+ * Every component reads through it, because several Scanners on the same System.in each
+ * buffer input ahead and steal lines from one another, and each one pins its own buffer.
+ */
+public final class ConsoleInput {
+    private static Scanner scanner;
+
+    private ConsoleInput() {
+    }
+
+    /**
+     * Gets the shared Scanner, creating it over System.in on first use.
+     * @return The shared Scanner.
+     */
+    public static synchronized Scanner getScanner() {
+        if (scanner == null) {
+            scanner = new Scanner(System.in);
+        }
+        return scanner;
+    }
+
+    /**
+     * Reads the next line of input.
+     * @return The line, without the line terminator.
+     */
+    public static String nextLine() {
+        return getScanner().nextLine();
+    }
+
+    /**
+     * Replaces the input source, for example with a scripted stream.
+     * @param in The new input stream.
+     */
+    public static synchronized void setInput(InputStream in) {
+        scanner = new Scanner(in);
+    }
+
+    /**
+     * Closes the shared Scanner and its underlying stream.
+     */
+    public static synchronized void close() {
+        if (scanner != null) {
+            scanner.close();
+            scanner = null;
+        }
+    }
+}
@@ -1,20 +1,23 @@
 package ui;
 
 import core.Game;
+import core.RankIndex;
 import model.Card;
 import model.Player;
 
+import java.io.PrintStream;
 import java.util.List;
-import java.util.Scanner;
 
 /**
  * GameUI is responsible for handling user input and displaying the game state.
  */
 public class GameUI {
+    private static final int SCOREBOARD_ROWS = 10;  // Players listed by displayScores
     private static GameUI instance; // Singleton instance
     private Game game;
-    private Scanner scanner;
+    private boolean interactive = true;  // Headless UIs never read input
     private boolean waitForEnter = true;
+    private PrintStream out = System.out;
 
     /**
      * Constructs a GameUI with a reference to the game instance.
@@ -22,10 +25,29 @@ public class GameUI {
      */
     private GameUI(Game game, boolean waitForEnter) {
         this.game = game;
-        this.scanner = new Scanner(System.in);
         this.waitForEnter = waitForEnter;
     }
 
+    /**
+     * Constructs a GameUI that writes to the given stream and never reads input.
+     * @param game The game instance.
+     * @param out The stream to write to.
+     */
+    private GameUI(Game game, PrintStream out) {
+        this.game = game;
+        this.interactive = false;
+        this.waitForEnter = false;
+        this.out = out;
+    }
+
+    /**
+     * Checks if the UI waits for Enter after showing the result of a turn.
+     * @return true if it waits.
+     */
+    public boolean isWaitingForEnter() {
+        return interactive && waitForEnter;
+    }
+
     /**
      * Provides access to the singleton instance of GameUI.
      * @param game The game instance to be used for UI interaction.
@@ -42,26 +64,40 @@ public class GameUI {
         return instance;
     }
 
+    /**
+     * Creates a GameUI for a headless game. Unlike the singleton it is bound to one game,
+     * so many headless games can run side by side, and it never waits for Enter.
+     * @param game The game instance.
+     * @param out The stream to write to, for example a null stream.
+     * @return A new headless GameUI.
+     */
+    public static GameUI createHeadless(Game game, PrintStream out) {
+        return new GameUI(game, out);
+    }
+
+    /**
+     * Displays a single line of text.
+     * @param message The message to display.
+     */
+    public void displayMessage(String message) {
+        out.println(message);
+    }
+
     /**
      * Displays the welcome message and instructions for the game.
      */
     public void displayWelcomeMessage() {
-        System.out.println("Welcome to Memory Card Game!");
-        System.out.println();
+        out.println("Welcome to Memory Card Game!");
+        out.println();
         promptEnterToContinue();
         displayInstructions();
     }
 
+    /**
+     * Displays the game instructions.
+     */
     public void displayInstructions() {
-        System.out.println("Instructions:");
-        System.out.println();
-        System.out.println("1. The game board contains a grid of face-down cards.");
-        System.out.println("2. Players take turns to flip two cards.");
-        System.out.println("3. If the two cards match, the player earns points.");
-        System.out.println("4. If the two cards do not match, the player loses his/her turn.");
-        System.out.println("5. The game ends when all cards have been matched.");
-        System.out.println("6. The player with the highest score wins the game.");
-        System.out.println();
+        out.print(Texts.INSTRUCTIONS);
         promptEnterToContinue();
     }
 
@@ -70,14 +106,14 @@ public class GameUI {
      * Displays the game board with face-down cards.
      */
     public void displayBoard() {
-        game.getBoard().displayBoard();
+        game.getBoard().displayBoard(out);
     }
 
     /**
      * Displays the current scores of all players.
      */
     public void displayTurn() {
-        System.out.println("It is now " + game.getCurrentPlayer().getName() + "'s turn.");
+        out.println("It is now " + game.getCurrentPlayer().getName() + "'s turn.");
     }
 
 
@@ -88,12 +124,12 @@ public class GameUI {
      * @param isMatch Whether the two cards are a match.
      */
     public void displayFlipResult(Card card1, Card card2, boolean isMatch) {
-        System.out.println("Flipped cards:");
-        System.out.println("Card 1: " + card1.display() + " Card 2: " + card2.display());
+        out.println("Flipped cards:");
+        out.println("Card 1: " + card1.display() + " Card 2: " + card2.display());
         if (isMatch) {
-            System.out.println("Congratulations! You found a match!");
+            out.println("Congratulations! You found a match!");
         } else {
-            System.out.println("Sorry, the cards do not match.");
+            out.println("Sorry, the cards do not match.");
         }
         if (waitForEnter) {
             promptEnterToContinue();
@@ -101,15 +137,26 @@ public class GameUI {
     }
 
     /**
-     * Displays the updated scores of all players sorted by score.
-     * get all the players and sort them by score
-     * then print the player name and score
+     * Displays the scores sorted by score, read from the game's rank index so a redraw does not
+     * sort the players. Games of more than SCOREBOARD_ROWS players show the leaders, how many
+     * players are not shown and the rank of the player whose turn it is.
      */
     public void displayScores() {
         List<Player> players = game.getPlayers();
-        players.stream()
-                .sorted((p1, p2) -> Integer.compare(p2.getScore(), p1.getScore()))
-                .forEach(p -> System.out.println(p.getName() + ": " + p.getScore() + " points"));
+        RankIndex ranks = game.getRanks();
+        int shown = Math.min(SCOREBOARD_ROWS, ranks.size());
+        for (int position = 0; position < shown; position++) {
+            Player player = players.get(ranks.seatAt(position));
+            out.println(player.getName() + ": " + player.getScore() + " points");
+        }
+        if (shown < ranks.size()) {
+            out.println("... and " + (ranks.size() - shown) + " more");
+            int seat = game.getCurrentPlayerIndex();
+            if (ranks.positionOf(seat) >= shown) {  // Not listed above, though it may share a listed rank
+                Player player = players.get(seat);
+                out.println(player.getName() + ": " + player.getScore() + " points, rank " + ranks.rankOf(seat));
+            }
+        }
     }
     
     /**
@@ -125,24 +172,8 @@ public class GameUI {
      * Displays the memory game ASCII art.
      */
     public void memoryGame() {
-        String header = "_____  ______   _______   _____  ______  ________  ________      ___    ___      ________  ________  _____  ______  _______      ";
-        String line1 = "|\\   _ \\  _   \\|\\  ___ \\ |\\   _ \\  _   \\|\\   __  \\|\\   __  \\    |\\  \\  /  /|    |\\   ____\\|\\   __  \\|\\   _ \\  _   \\|\\  ___ \\     ";
-        String line2 = "\\ \\  \\\\\\__\\ \\  \\ \\   __/|\\ \\  \\\\\\__\\ \\  \\ \\  \\|\\  \\ \\  \\|\\  \\   \\ \\  \\/  / /    \\ \\  \\___|\\ \\  \\|\\  \\ \\  \\\\\\__\\ \\  \\ \\   __/|    ";
-        String line3 = " \\ \\  \\\\|__| \\  \\ \\  \\_|/_\\ \\  \\\\|__| \\  \\ \\  \\\\\\  \\ \\   _  _\\   \\ \\    / /      \\ \\  \\  __\\ \\   __  \\ \\  \\\\|__| \\  \\ \\  \\_|/__  ";
-        String line4 = "  \\ \\  \\    \\ \\  \\ \\  \\_|\\ \\ \\  \\    \\ \\  \\ \\  \\\\\\  \\ \\  \\\\  \\|   \\/  /  /        \\ \\  \\|\\  \\ \\  \\ \\  \\ \\  \\    \\ \\  \\ \\  \\_|\\ \\ ";
-        String line5 = "   \\ \\__\\    \\ \\__\\ \\_______\\ \\__\\    \\ \\__\\ \\_______\\ \\__\\\\ _\\ __/  / /           \\ \\_______\\ \\__\\ \\__\\ \\__\\    \\ \\__\\ \\_______\\";
-        String line6 = "    \\|__|     \\|__|\\|_______|\\|__|     \\|__|\\|_______|\\|__|\\|__|\\___/ /             \\|_______|\\|__|\\|__|\\|__|     \\|__|\\|_______|";
-        String line7 = "                                                               \\|___|/                                                            ";
-        
         clearConsole();
-        System.out.println(header);
-        System.out.println(line1);
-        System.out.println(line2);
-        System.out.println(line3);
-        System.out.println(line4);
-        System.out.println(line5);
-        System.out.println(line6);
-        System.out.println(line7);
+        out.print(Texts.MEMORY_GAME);
     }
     
 
@@ -150,18 +181,7 @@ public class GameUI {
      * Displays the game header.
      */
     public void displayHeader() {
-        String line0 = "    __  __  ____  __  __  _____  ____  _  _     ___    __    __  __  ____ ";
-        String line1 = "   (  \\/  )( ___)(  \\/  )(  _  )(  _ \\( \\/ )   / __)  /__\\  (  \\/  )( ___)";
-        String line2 = "    )    (  )__)  )    (  )(_)(  )   / \\  /   ( (_-. /(__)\\  )    (  )__) ";
-        String line3 = "   (_/\\/\\_)(____)(_/\\/\\_)(_____)(_)\\_) (__)    \\___/(__)(__)(_/\\/\\_)(____)";
-        System.out.println(line0);
-        System.out.println(line1);
-        System.out.println(line2);
-        System.out.println(line3);
-        System.out.println("   ------------------------------------------------------------------------");
-        System.out.println();
-        System.out.println();
-        
+        out.print(Texts.HEADER);
     }
     
     /**
@@ -170,21 +190,11 @@ public class GameUI {
     public void displayWinner() {
         Player winner = game.determineWinner();
         if (winner == null) {
-            System.out.println("It's a tie! No winner this time.");
+            out.println("It's a tie! No winner this time.");
         } else {
-            System.out.println("Congratulations, " + winner.getName() + "! You are the winner!");
-            System.out.println();
-            // ASCII art for the frame of the winner
-            System.out.println("  ___________");
-            System.out.println(" '._==_==_=_.");
-            System.out.println(".-\\:      /-.");
-            System.out.println("| (|:.     |) |");
-            System.out.println(" '-|:.     |-'");
-            System.out.println("   \\::.    /");
-            System.out.println("    '::. .'");
-            System.out.println("      ) (");
-            System.out.println("    _.' '._");
-            System.out.println("   `\"\"\"\"\"\"`");
+            out.println("Congratulations, " + winner.getName() + "! You are the winner!");
+            out.println();
+            out.print(Texts.TROPHY);  // ASCII art for the frame of the winner
         }
     }
 
@@ -204,50 +214,35 @@ public class GameUI {
      * Prints the game over message.
      */
     public void printGameOver() {
-        //     ________                        ________                     
-        //     /  _____/_____    _____   ____   \_____  \___  __ ___________ 
-        //    /   \  ___\__  \  /     \_/ __ \   /   |   \  \/ // __ \_  __ \
-        //    \    \_\  \/ __ \|  Y Y  \  ___/  /    |    \   /\  ___/|  | \/
-        //     \______  (____  /__|_|  /\___  > \_______  /\_/  \___  >__|   
-        //            \/     \/      \/     \/          \/          \/       
-
-        System.out.println(" ________                        ________                     ");
-        System.out.println("/  _____/_____    _____   ____   \\_____  \\___  __ ___________ ");
-        System.out.println("/   \\  ___\\__  \\  /     \\_/ __ \\   /   |   \\  \\/ // __ \\_  __ \\");
-        System.out.println("\\    \\_\\  \\/ __ \\|  Y Y  \\  ___/  /   /_\\   \\   /\\  ___/|  | \\/");
-        System.out.println(" \\______  (____  /__|_|  /\\___  > \\_______  /\\_/  \\___  >__|   ");
-        System.out.println("        \\/     \\/      \\/     \\/          \\/          \\/       ");
-        System.out.println();
-
-        // .------..------..------..------.     .------..------..------..------.
-        // |G.--. ||A.--. ||M.--. ||E.--. |.-.  |O.--. ||V.--. ||E.--. ||R.--. |
-        // | :/\: || (\/) || (\/) || (\/) ((5)) | :/\: || :(): || (\/) || :(): |
-        // | :\/: || :\/: || :\/: || :\/: |'-.-.| :\/: || ()() || :\/: || ()() |
-        // | '--'G|| '--'A|| '--'M|| '--'E| ((1)) '--'O|| '--'V|| '--'E|| '--'R|
-        // `------'`------'`------'`------'  '-'`------'`------'`------'`------'
-
-        // System.out.println(".------..------..------..------.     .------..------..------..------.");
-        // System.out.println("|G.--. ||A.--. ||M.--. ||E.--. |.-.  |O.--. ||V.--. ||E.--. ||R.--. |");
-        // System.out.println("| :/\\: || (\\/) || (\\/) || (\\/) ((5)) | :/\\: || :(): || (\\/) || :(): |");
-        // System.out.println("| :\\/: || :\\/: || :\\/: || :\\/: |'-.-.| :\\/: || ()() || :\\/: || ()() |");
-        // System.out.println("| '--'G|| '--'A|| '--'M|| '--'E| ((1)) '--'O|| '--'V|| '--'E|| '--'R|");
-        // System.out.println("`------'`------'`------'`------'  '-'`------'`------'`------'`------'");
+        out.print(Texts.GAME_OVER);
     }
 
     /**
      * Prompts the user to press Enter to continue.
      */
     public void promptEnterToContinue() {
-        System.out.println("Press Enter to continue...");
-        scanner.nextLine();
+        if (!interactive) {
+            return;  // Headless UIs never block on input
+        }
+        out.println("Press Enter to continue...");
+        ConsoleInput.nextLine();
     }
 
     /**
      * Closes the scanner used for user input.
      */
     public void closeScanner() {
-        if (scanner != null) {
-            scanner.close();
+        ConsoleInput.close();
+    }
+
+    /**
+     * Releases the reference to a game once it has been reset, so the singleton
+     * does not keep the last game's board and players reachable between rounds.
+     * @param finishedGame The game that has finished.
+     */
+    public void detachGame(Game finishedGame) {
+        if (this.game == finishedGame) {
+            this.game = null;
         }
     }
 
@@ -258,15 +253,91 @@ public class GameUI {
         try {
             String os = System.getProperty("os.name");
 
-            if (os.contains("Windows")) {
+            if (os.contains("Windows") && out == System.out) {
                 new ProcessBuilder("cmd", "/c", "cls").inheritIO().start().waitFor();
             } else {
                 // Clear console for Unix-based operating systems
-                System.out.print("\033[H\033[2J");
-                System.out.flush();
+                out.print("\033[H\033[2J");
+                out.flush();
             }
         } catch (Exception e) {
-            System.out.println("Error clearing console: " + e.getMessage());
+            out.println("Error clearing console: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Holds the ASCII art and instruction text. The strings are only built when the
+     * first of them is displayed, so starting the game or a headless run does not pay for them.
+     */
+    private static final class Texts {
+        static final String INSTRUCTIONS = lines(
+                "Instructions:",
+                "",
+                "1. The game board contains a grid of face-down cards.",
+                "2. Players take turns to flip two cards.",
+                "3. If the two cards match, the player earns points.",
+                "4. If the two cards do not match, the player loses his/her turn.",
+                "5. The game ends when all cards have been matched.",
+                "6. The player with the highest score wins the game.",
+                "");
+
+        static final String MEMORY_GAME = lines(
+                "_____  ______   _______   _____  ______  ________  ________      ___    ___      ________  ________  _____  ______  _______      ",
+                "|\\   _ \\  _   \\|\\  ___ \\ |\\   _ \\  _   \\|\\   __  \\|\\   __  \\    |\\  \\  /  /|    |\\   ____\\|\\   __  \\|\\   _ \\  _   \\|\\  ___ \\     ",
+                "\\ \\  \\\\\\__\\ \\  \\ \\   __/|\\ \\  \\\\\\__\\ \\  \\ \\  \\|\\  \\ \\  \\|\\  \\   \\ \\  \\/  / /    \\ \\  \\___|\\ \\  \\|\\  \\ \\  \\\\\\__\\ \\  \\ \\   __/|    ",
+                " \\ \\  \\\\|__| \\  \\ \\  \\_|/_\\ \\  \\\\|__| \\  \\ \\  \\\\\\  \\ \\   _  _\\   \\ \\    / /      \\ \\  \\  __\\ \\   __  \\ \\  \\\\|__| \\  \\ \\  \\_|/__  ",
+                "  \\ \\  \\    \\ \\  \\ \\  \\_|\\ \\ \\  \\    \\ \\  \\ \\  \\\\\\  \\ \\  \\\\  \\|   \\/  /  /        \\ \\  \\|\\  \\ \\  \\ \\  \\ \\  \\    \\ \\  \\ \\  \\_|\\ \\ ",
+                "   \\ \\__\\    \\ \\__\\ \\_______\\ \\__\\    \\ \\__\\ \\_______\\ \\__\\\\ _\\ __/  / /           \\ \\_______\\ \\__\\ \\__\\ \\__\\    \\ \\__\\ \\_______\\",
+                "    \\|__|     \\|__|\\|_______|\\|__|     \\|__|\\|_______|\\|__|\\|__|\\___/ /             \\|_______|\\|__|\\|__|\\|__|     \\|__|\\|_______|",
+                "                                                               \\|___|/                                                            ");
+
+        static final String HEADER = lines(
+                "    __  __  ____  __  __  _____  ____  _  _     ___    __    __  __  ____ ",
+                "   (  \\/  )( ___)(  \\/  )(  _  )(  _ \\( \\/ )   / __)  /__\\  (  \\/  )( ___)",
+                "    )    (  )__)  )    (  )(_)(  )   / \\  /   ( (_-. /(__)\\  )    (  )__) ",
+                "   (_/\\/\\_)(____)(_/\\/\\_)(_____)(_)\\_) (__)    \\___/(__)(__)(_/\\/\\_)(____)",
+                "   ------------------------------------------------------------------------",
+                "",
+                "");
+
+        static final String TROPHY = lines(
+                "  ___________",
+                " '._==_==_=_.",
+                ".-\\:      /-.",
+                "| (|:.     |) |",
+                " '-|:.     |-'",
+                "   \\::.    /",
+                "    '::. .'",
+                "      ) (",
+                "    _.' '._",
+                "   `\"\"\"\"\"\"`");
+
+        //     ________                        ________
+        //     /  _____/_____    _____   ____   \_____  \___  __ ___________
+        //    /   \  ___\__  \  /     \_/ __ \   /   |   \  \/ // __ \_  __ \
+        //    \    \_\  \/ __ \|  Y Y  \  ___/  /    |    \   /\  ___/|  | \/
+        //     \______  (____  /__|_|  /\___  > \_______  /\_/  \___  >__|
+        //            \/     \/      \/     \/          \/          \/
+        static final String GAME_OVER = lines(
+                " ________                        ________                     ",
+                "/  _____/_____    _____   ____   \\_____  \\___  __ ___________ ",
+                "/   \\  ___\\__  \\  /     \\_/ __ \\   /   |   \\  \\/ // __ \\_  __ \\",
+                "\\    \\_\\  \\/ __ \\|  Y Y  \\  ___/  /   /_\\   \\   /\\  ___/|  | \\/",
+                " \\______  (____  /__|_|  /\\___  > \\_______  /\\_/  \\___  >__|   ",
+                "        \\/     \\/      \\/     \\/          \\/          \\/       ",
+                "");
+
+        /**
+         * Joins lines into one block, each line ending with the platform line separator.
+         * @param lines The lines.
+         * @return The block of text.
+         */
+        private static String lines(String... lines) {
+            StringBuilder text = new StringBuilder();
+            for (String line : lines) {
+                text.append(line).append(System.lineSeparator());
+            }
+            return text.toString();
         }
     }
 }
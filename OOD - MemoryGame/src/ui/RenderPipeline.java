@@ -0,0 +1,249 @@
+package ui;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+import core.Game;
+import patterns.observer.GameObserver;
+import patterns.observer.UIObserver;
+
+/**
+ * RenderPipeline is the render stage of a pipelined game. On each notification it draws the
+ * screen the way UIObserver does, on the game thread, into a buffer, and queues the bytes for
+ * a writer thread of its own; the game goes on to the next turn while the frame is written.
+ *
+ * At most FRAME_QUEUE frames wait, counting the one being written. A notification that finds
+ * the queue full is dropped without drawing, as every frame redraws the whole screen; the next
+ * frame drawn makes up for it and its latency counts from the first notification it covers.
+ * The game thread never waits for the writer, except to flush before it waits for a player and
+ * while it is synchronous, when frames are written on the game thread in order with the
+ * console prompts of a human player's turn.
+ */
+public final class RenderPipeline implements GameObserver {
+    public static final int FRAME_QUEUE = 4;
+
+    private final PrintStream out;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final GameUI frameUI;  // Draws into the buffer, never waits for input
+    private final UIObserver screen;
+    private final ArrayDeque<Frame> frames = new ArrayDeque<>(FRAME_QUEUE);  // Guarded by itself
+    private final Thread writer;
+    private boolean closed;  // Guarded by frames
+    private boolean synchronous;  // Game thread only
+    private long owedSince = -1;  // First dropped notification not yet redrawn, game thread only
+    private long dropped;
+    private volatile long written;
+    private volatile long latencyNanos;
+    private volatile long maxLatencyNanos;
+
+    /**
+     * A drawn frame and the time of the first notification it shows.
+     */
+    private static final class Frame {
+        final byte[] bytes;
+        final long requested;
+
+        Frame(byte[] bytes, long requested) {
+            this.bytes = bytes;
+            this.requested = requested;
+        }
+    }
+
+    /**
+     * Constructs a pipeline and starts its writer thread.
+     * @param game The game drawn.
+     * @param out The stream the frames are written to.
+     */
+    public RenderPipeline(Game game, PrintStream out) {
+        this.out = out;
+        this.frameUI = GameUI.createHeadless(game, new PrintStream(buffer, false));
+        this.screen = new UIObserver(frameUI, game);
+        this.writer = new Thread(this::writeFrames, "render-" + game.getGameId());
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Draws the screen, unless the queue is full.
+     */
+    @Override
+    public void update() {
+        publish(ui -> screen.update());
+    }
+
+    @Override
+    public void update(int score) {
+        update();
+    }
+
+    /**
+     * Draws output other than the screen, such as the result of a turn, unless the queue is full.
+     * @param drawing Draws on the pipeline's UI.
+     */
+    public void publish(Consumer<GameUI> drawing) {
+        long requested = owedSince >= 0 ? owedSince : System.nanoTime();
+        if (synchronous) {
+            write(new Frame(draw(drawing), requested));
+            return;
+        }
+        synchronized (frames) {
+            if (frames.size() >= FRAME_QUEUE) {
+                dropped++;
+                owedSince = requested;
+                return;
+            }
+        }
+        enqueue(new Frame(draw(drawing), requested));
+    }
+
+    /**
+     * Writes the frames queued, after a redraw for any dropped since the last frame, and waits
+     * until they are written.
+     */
+    public void flush() {
+        if (owedSince >= 0 && !synchronous) {
+            long requested = owedSince;
+            Frame frame = new Frame(draw(ui -> screen.update()), requested);
+            synchronized (frames) {
+                while (frames.size() >= FRAME_QUEUE && !closed) {
+                    if (!await()) {
+                        return;
+                    }
+                }
+            }
+            enqueue(frame);
+        }
+        synchronized (frames) {
+            while (!frames.isEmpty() && !closed) {
+                if (!await()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes frames be written on the game thread as they are drawn, as while a human player
+     * reads the screen between console prompts, or queued again.
+     * @param synchronous Whether to write on the game thread.
+     */
+    public void setSynchronous(boolean synchronous) {
+        if (synchronous) {
+            flush();
+        }
+        this.synchronous = synchronous;
+    }
+
+    public boolean isSynchronous() {
+        return synchronous;
+    }
+
+    /**
+     * Flushes the frames and stops the writer thread. Later frames are written on the game thread.
+     */
+    public void close() {
+        flush();
+        synchronized (frames) {
+            closed = true;
+            frames.notifyAll();
+        }
+        synchronous = true;
+    }
+
+    private byte[] draw(Consumer<GameUI> drawing) {
+        buffer.reset();
+        drawing.accept(frameUI);
+        owedSince = -1;
+        return buffer.toByteArray();
+    }
+
+    private void enqueue(Frame frame) {
+        synchronized (frames) {
+            if (closed) {
+                write(frame);
+                return;
+            }
+            frames.addLast(frame);
+            frames.notifyAll();
+        }
+    }
+
+    /**
+     * The writer thread: writes the frames in order; a frame leaves the queue once written.
+     */
+    private void writeFrames() {
+        while (true) {
+            Frame frame;
+            synchronized (frames) {
+                while (frames.isEmpty() && !closed) {
+                    if (!await()) {
+                        return;
+                    }
+                }
+                if (frames.isEmpty()) {
+                    return;
+                }
+                frame = frames.peekFirst();
+            }
+            write(frame);
+            synchronized (frames) {
+                frames.removeFirst();
+                frames.notifyAll();
+            }
+        }
+    }
+
+    private void write(Frame frame) {
+        out.write(frame.bytes, 0, frame.bytes.length);
+        out.flush();
+        long latency = System.nanoTime() - frame.requested;
+        latencyNanos += latency;  // Written by one thread at a time: the writer, or the game thread once closed
+        maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+        written++;
+    }
+
+    /**
+     * Waits on the frame queue.
+     * @return false if interrupted.
+     */
+    private boolean await() {
+        try {
+            frames.wait();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Gets the number of frames written.
+     * @return The frame count.
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * Gets the number of notifications dropped because the queue was full.
+     * @return The drop count.
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Gets the mean time from a notification to the end of writing the frame that shows it.
+     * @return The mean latency in nanoseconds, 0 before the first frame.
+     */
+    public long getMeanLatencyNanos() {
+        long count = written;
+        return count == 0 ? 0 : latencyNanos / count;
+    }
+
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+}